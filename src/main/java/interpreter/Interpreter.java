@@ -1,14 +1,48 @@
 package interpreter;
 
+import interpreter.lexer.Source;
+import interpreter.repl.ExecutionModeEnum;
 import interpreter.repl.Repl;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * main class
  */
 public class Interpreter {
+    /**
+     * @param args the first argument is the execution mode: eval, vm, node, stackless or jit, eval by default,
+     *             the second is the script to run instead of the repl, - for stdin.
+     *             the script may be the only argument if it's not the name of a mode
+     * @throws IOException
+     */
     public static void main(String[] args) throws IOException {
-        new Repl().run();
+        ExecutionModeEnum mode = args.length > 0 ? ExecutionModeEnum.of(args[0]) : ExecutionModeEnum.EVAL;
+        String script = args.length > 1 ? args[1] : null;
+        if (mode == null && args.length == 1) {
+            mode = ExecutionModeEnum.EVAL;
+            script = args[0];
+        }
+        if (mode == null) {
+            System.out.println(String.format("unknown execution mode: %s", args[0]));
+            return;
+        }
+
+        if (script == null) {
+            new Repl(mode).run();
+            return;
+        }
+        Source source;
+        try {
+            source = "-".equals(script) ? Source.read(System.in) : Source.map(Paths.get(script));
+        } catch (IOException e) {
+            System.out.println(String.format("can not read script: %s", e.getMessage()));
+            System.exit(1);
+            return;
+        }
+        if (!new Repl(mode).runScript(source)) {
+            System.exit(1);
+        }
     }
 }
@@ -15,12 +15,12 @@ import lombok.NoArgsConstructor;
 public class BinaryExpressionNode implements ExpressionNode {
     private Token token;
     private ExpressionNode left;
-    private String operator;
+    private OperatorEnum operator;
 
     private ExpressionNode right;
 
     @Override
     public String toString() {
-        return "(" + left.toString() + " " + operator + " " + right.toString() + ")";
+        return "(" + left.toString() + " " + operator.getLiteral() + " " + right.toString() + ")";
     }
 }
@@ -1,12 +1,18 @@
 package interpreter.ast;
 
+import interpreter.jit.CompiledFunction;
+import interpreter.jit.JitProfile;
 import interpreter.lexer.Token;
+import interpreter.parser.LazyBody;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * example:{1+2; 3+4;}
@@ -19,10 +25,64 @@ public class BlockStatement implements StatementNode {
 
     private List<StatementNode> statements = new ArrayList<>();
 
+    /**
+     * set by the pre-parse mode of parser on the body of function, the statements are empty until the
+     * function is called first. null once the statements are parsed
+     */
+    @EqualsAndHashCode.Exclude
+    private LazyBody lazyBody;
+
+    /**
+     * set by jit on the body of function: calls of the function and its compiled code, null until the jit runs it
+     */
+    @EqualsAndHashCode.Exclude
+    private transient JitProfile<CompiledFunction> jitProfile;
+
+    /**
+     * @return true if the statements are not parsed yet
+     */
+    public boolean isLazy() {
+        return lazyBody != null;
+    }
+
+    /**
+     * run the pass on the block now, or when its statements are parsed if it is lazy
+     * @param pass
+     */
+    public void defer(Consumer<BlockStatement> pass) {
+        if (lazyBody != null) {
+            lazyBody.defer(pass);
+        } else {
+            pass.accept(this);
+        }
+    }
+
+    /**
+     * parse the statements of lazy block and run the passes deferred on it, nothing if they are parsed
+     * @return the syntax errors of the statements, the same errors every time if they don't parse
+     */
+    public List<String> materialize() {
+        if (lazyBody == null) {
+            return Collections.emptyList();
+        }
+
+        LazyBody body = lazyBody;
+        List<String> errors = body.parse(this);
+        if (errors.isEmpty()) {
+            // the passes see a parsed block
+            lazyBody = null;
+            body.runPasses(this);
+        }
+        return errors;
+    }
+
     @Override
     public String toString() {
         StringBuffer res = new StringBuffer();
         res.append("{\n");
+        if (lazyBody != null) {
+            res.append(lazyBody.toString()).append("\n");
+        }
         for (StatementNode statement : statements) {
             res.append(statement.toString()).append("\n");
         }
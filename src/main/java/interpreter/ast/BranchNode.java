@@ -0,0 +1,23 @@
+package interpreter.ast;
+
+import interpreter.eval.BranchProfile;
+
+/**
+ * expression choosing the code to run by a condition: if, while, and the short-circuit logical operators.
+ * the tree-walking engines count the values of the condition in the profile of the node,
+ * so the optimizers and the profilers know how the branch is biased.
+ */
+public interface BranchNode extends ExpressionNode {
+
+    ExpressionNode getCondition();
+
+    /**
+     * @return null if the node is not run yet
+     */
+    BranchProfile getProfile();
+
+    /**
+     * @return the profile of the node, created on first use
+     */
+    BranchProfile profile();
+}
@@ -1,8 +1,9 @@
 package interpreter.ast;
 
+import interpreter.eval.InlineCache;
 import interpreter.lexer.Token;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
@@ -13,7 +14,6 @@ import java.util.stream.Collectors;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class CallExpressionNode implements ExpressionNode {
     private Token token;
 
@@ -21,6 +21,39 @@ public class CallExpressionNode implements ExpressionNode {
 
     private List<ExpressionNode> arguments;
 
+    /**
+     * set by resolver: the value of the call is the value of the enclosing function,
+     * so that the call can replace the frame of the function instead of nesting in it
+     */
+    @EqualsAndHashCode.Exclude
+    private boolean tail;
+
+    /**
+     * set by parser: the call is quote(...), the argument is quoted instead of evaluated
+     */
+    private boolean quote;
+
+    /**
+     * callees resolved at this call site, null until the call is evaluated
+     */
+    @EqualsAndHashCode.Exclude
+    private transient InlineCache cache;
+
+    public CallExpressionNode(Token token, ExpressionNode funcName, List<ExpressionNode> arguments) {
+        this.token = token;
+        this.funcName = funcName;
+        this.arguments = arguments;
+        this.quote = isQuote(funcName);
+    }
+
+    /**
+     * @param funcName
+     * @return true if the function called is quote
+     */
+    public static boolean isQuote(ExpressionNode funcName) {
+        return funcName instanceof IdentifierNode && "quote".equals(((IdentifierNode) funcName).getValue());
+    }
+
     @Override
     public String toString() {
         StringBuffer res = new StringBuffer();
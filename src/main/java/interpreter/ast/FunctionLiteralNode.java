@@ -1,8 +1,10 @@
 package interpreter.ast;
 
 import interpreter.lexer.Token;
+import interpreter.resolver.FrameDescriptor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
@@ -22,6 +24,12 @@ public class FunctionLiteralNode implements ExpressionNode {
 
     private BlockStatement body;
 
+    /**
+     * set by resolver: layout of the frame, null if the function is not resolved
+     */
+    @EqualsAndHashCode.Exclude
+    private FrameDescriptor frameDescriptor;
+
     @Override
     public String toString() {
         StringBuffer res = new StringBuffer();
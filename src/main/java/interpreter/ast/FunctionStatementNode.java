@@ -1,8 +1,10 @@
 package interpreter.ast;
 
 import interpreter.lexer.Token;
+import interpreter.resolver.FrameDescriptor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
@@ -21,6 +23,12 @@ public class FunctionStatementNode implements StatementNode {
     private List<IdentifierNode> parameters = new ArrayList<>();
     private BlockStatement body;
 
+    /**
+     * set by resolver: layout of the frame, null if the function is not resolved
+     */
+    @EqualsAndHashCode.Exclude
+    private FrameDescriptor frameDescriptor;
+
     public String toString() {
         StringBuffer res = new StringBuffer();
         res.append("fn ").append(funcName.toString());
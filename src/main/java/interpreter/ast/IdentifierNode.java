@@ -1,8 +1,9 @@
 package interpreter.ast;
 
+import interpreter.eval.GlobalCell;
 import interpreter.lexer.Token;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 /**
@@ -10,12 +11,36 @@ import lombok.NoArgsConstructor;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class IdentifierNode implements ExpressionNode {
     private Token token;
 
     private String value;
 
+    /**
+     * set by resolver: number of function scopes between the reference and the scope declaring the variable,
+     * -1 if the identifier is not resolved
+     */
+    @EqualsAndHashCode.Exclude
+    private int depth = -1;
+
+    /**
+     * set by resolver: slot of the variable in the frame, -1 if the variable is global and looked up by name
+     */
+    @EqualsAndHashCode.Exclude
+    private int slot = -1;
+
+    /**
+     * cell of the global variable, kept after the first lookup, null if the identifier is not global
+     * or not evaluated yet
+     */
+    @EqualsAndHashCode.Exclude
+    private transient GlobalCell cell;
+
+    public IdentifierNode(Token token, String value) {
+        this.token = token;
+        this.value = value;
+    }
+
     @Override
     public String toString() {
         return value;
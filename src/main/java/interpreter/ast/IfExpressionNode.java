@@ -1,8 +1,9 @@
 package interpreter.ast;
 
+import interpreter.eval.BranchProfile;
 import interpreter.lexer.Token;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 /**
@@ -11,14 +12,34 @@ import lombok.NoArgsConstructor;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class IfExpressionNode implements ExpressionNode {
+public class IfExpressionNode implements BranchNode {
     private Token token;
     private ExpressionNode condition;
 
     private BlockStatement consequence;
     private BlockStatement alternative;
 
+    /**
+     * values of the condition, null until the expression is evaluated
+     */
+    @EqualsAndHashCode.Exclude
+    private transient BranchProfile profile;
+
+    public IfExpressionNode(Token token, ExpressionNode condition, BlockStatement consequence, BlockStatement alternative) {
+        this.token = token;
+        this.condition = condition;
+        this.consequence = consequence;
+        this.alternative = alternative;
+    }
+
+    @Override
+    public BranchProfile profile() {
+        if (profile == null) {
+            profile = new BranchProfile();
+        }
+        return profile;
+    }
+
     @Override
     public String toString() {
         StringBuffer res = new StringBuffer("if");
@@ -1,6 +1,7 @@
 package interpreter.ast;
 
 import interpreter.lexer.Token;
+import interpreter.object.IntegerObject;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,7 +15,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class IntegerLiteralNode implements ExpressionNode {
     private Token token;
-    private Integer value;
+    /**
+     * value object materialized when parsing, shared by every evaluation of the literal
+     */
+    private IntegerObject value;
 
     @Override
     public String toString() {
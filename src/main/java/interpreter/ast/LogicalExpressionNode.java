@@ -0,0 +1,56 @@
+package interpreter.ast;
+
+import interpreter.eval.BranchProfile;
+import interpreter.lexer.Token;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * short-circuit logical expression, the right operand is evaluated only if the left one doesn't decide the value
+ * example: x != 0 and 10 / x > 1
+ */
+@Data
+@NoArgsConstructor
+public class LogicalExpressionNode implements BranchNode {
+    private Token token;
+    private ExpressionNode left;
+
+    /**
+     * AND or OR
+     */
+    private OperatorEnum operator;
+
+    private ExpressionNode right;
+
+    /**
+     * values of the left operand, null until the expression is evaluated
+     */
+    @EqualsAndHashCode.Exclude
+    private transient BranchProfile profile;
+
+    public LogicalExpressionNode(Token token, ExpressionNode left, OperatorEnum operator, ExpressionNode right) {
+        this.token = token;
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
+    }
+
+    @Override
+    public ExpressionNode getCondition() {
+        return left;
+    }
+
+    @Override
+    public BranchProfile profile() {
+        if (profile == null) {
+            profile = new BranchProfile();
+        }
+        return profile;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left.toString() + " " + operator.getLiteral() + " " + right.toString() + ")";
+    }
+}
@@ -0,0 +1,50 @@
+package interpreter.ast;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * operator of unary and binary expression, resolved from the literal of token when parsing,
+ * so that the engines switch on the enum instead of comparing strings.
+ */
+@Getter
+public enum OperatorEnum {
+    PLUS("+"),
+    MINUS("-"),
+    ASTERISK("*"),
+    SLASH("/"),
+    BANG("!"),
+
+    LT("<"),
+    LE("<="),
+    GT(">"),
+    GE(">="),
+    EQ("=="),
+    NOT_EQ("!="),
+
+    AND("and"),
+    OR("or");
+
+    /**
+     * the operators by literal, the parser looks up the operator of every unary and binary expression
+     */
+    private static final Map<String, OperatorEnum> LITERALS = new HashMap<>();
+
+    static {
+        for (OperatorEnum item : OperatorEnum.values()) {
+            LITERALS.put(item.getLiteral(), item);
+        }
+    }
+
+    private String literal;
+
+    OperatorEnum(String literal) {
+        this.literal = literal;
+    }
+
+    public static OperatorEnum of(String literal) {
+        return LITERALS.get(literal);
+    }
+}
@@ -0,0 +1,159 @@
+package interpreter.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * helpers to traverse the ast
+ */
+public final class TreeNodes {
+
+    private TreeNodes() {
+    }
+
+    /**
+     * children of the node, excluding the identifiers which are not expressions, e.g. name of let statement
+     * @param node
+     * @return
+     */
+    public static List<TreeNode> children(TreeNode node) {
+        List<TreeNode> res = new ArrayList<>();
+        if (node instanceof ProgramNode) {
+            res.addAll(((ProgramNode) node).getStatements());
+        } else if (node instanceof BlockStatement) {
+            res.addAll(((BlockStatement) node).getStatements());
+        } else if (node instanceof ExpressionStatementNode) {
+            res.add(((ExpressionStatementNode) node).getExpression());
+        } else if (node instanceof LetStatementNode) {
+            res.add(((LetStatementNode) node).getValue());
+        } else if (node instanceof ReturnStatementNode) {
+            res.add(((ReturnStatementNode) node).getValue());
+        } else if (node instanceof FunctionStatementNode) {
+            res.add(((FunctionStatementNode) node).getBody());
+        } else if (node instanceof FunctionLiteralNode) {
+            res.add(((FunctionLiteralNode) node).getBody());
+        } else if (node instanceof AssignExpressionNode) {
+            res.add(((AssignExpressionNode) node).getValue());
+        } else if (node instanceof UnaryExpressionNode) {
+            res.add(((UnaryExpressionNode) node).getRight());
+        } else if (node instanceof BinaryExpressionNode) {
+            res.add(((BinaryExpressionNode) node).getLeft());
+            res.add(((BinaryExpressionNode) node).getRight());
+        } else if (node instanceof LogicalExpressionNode) {
+            res.add(((LogicalExpressionNode) node).getLeft());
+            res.add(((LogicalExpressionNode) node).getRight());
+        } else if (node instanceof IfExpressionNode) {
+            res.add(((IfExpressionNode) node).getCondition());
+            res.add(((IfExpressionNode) node).getConsequence());
+            res.add(((IfExpressionNode) node).getAlternative());
+        } else if (node instanceof WhileExpressionNode) {
+            res.add(((WhileExpressionNode) node).getCondition());
+            res.add(((WhileExpressionNode) node).getBody());
+        } else if (node instanceof CallExpressionNode) {
+            res.add(((CallExpressionNode) node).getFuncName());
+            res.addAll(((CallExpressionNode) node).getArguments());
+        } else if (node instanceof ArrayLiteralExpressionNode) {
+            res.addAll(((ArrayLiteralExpressionNode) node).getElements());
+        } else if (node instanceof MapLiteralExpressionNode) {
+            res.addAll(((MapLiteralExpressionNode) node).getPairs().keySet());
+            res.addAll(((MapLiteralExpressionNode) node).getPairs().values());
+        } else if (node instanceof IndexExpressionNode) {
+            res.add(((IndexExpressionNode) node).getObject());
+            res.add(((IndexExpressionNode) node).getIndex());
+        }
+        return res;
+    }
+
+    /**
+     * branch nodes in the tree, in the order of the source, including the ones in nested functions
+     * @param node
+     * @param branches
+     */
+    public static void collectBranches(TreeNode node, List<BranchNode> branches) {
+        if (node == null) {
+            return;
+        }
+
+        if (node instanceof BranchNode) {
+            branches.add((BranchNode) node);
+        }
+        for (TreeNode child : children(node)) {
+            collectBranches(child, branches);
+        }
+    }
+
+    /**
+     * names bound in the function: let, fn statement and assignment, the nested functions are not included.
+     * @param node
+     * @param declared
+     */
+    public static void collectDeclarations(TreeNode node, Set<String> declared) {
+        if (node == null) {
+            return;
+        }
+
+        if (node instanceof LetStatementNode) {
+            declared.add(((LetStatementNode) node).getName().getValue());
+            collectDeclarations(((LetStatementNode) node).getValue(), declared);
+        } else if (node instanceof FunctionStatementNode) {
+            declared.add(((FunctionStatementNode) node).getFuncName().getValue());
+        } else if (node instanceof AssignExpressionNode) {
+            declared.add(((AssignExpressionNode) node).getName().getValue());
+            collectDeclarations(((AssignExpressionNode) node).getValue(), declared);
+        } else if (!(node instanceof FunctionLiteralNode)) {
+            for (TreeNode child : children(node)) {
+                collectDeclarations(child, declared);
+            }
+        }
+    }
+
+    /**
+     * parse the lazy bodies of the functions nested in parsed functions, the top level lazy bodies stay lazy.
+     * a lazy body is nested in a parsed function when a macro puts its argument into a function,
+     * the analyses of the enclosing function have to see the names read by it
+     * @param node
+     */
+    public static void materializeNestedFunctions(TreeNode node) {
+        materializeFunctions(node, false);
+    }
+
+    /**
+     * parse the lazy body and the lazy bodies of the functions nested in it
+     * @param body
+     * @return the syntax errors of the body itself, the nested bodies which don't parse stay lazy
+     */
+    public static List<String> materializeFunctions(BlockStatement body) {
+        List<String> errors = body.materialize();
+        if (errors.isEmpty()) {
+            materializeFunctions(body, true);
+        }
+        return errors;
+    }
+
+    private static void materializeFunctions(TreeNode node, boolean inFunction) {
+        if (node == null) {
+            return;
+        }
+
+        BlockStatement body = null;
+        if (node instanceof FunctionLiteralNode) {
+            body = ((FunctionLiteralNode) node).getBody();
+        } else if (node instanceof FunctionStatementNode) {
+            body = ((FunctionStatementNode) node).getBody();
+        }
+        if (body != null) {
+            // the body which doesn't parse stays lazy, the call of it reports the errors
+            if (body.isLazy() && inFunction) {
+                body.materialize();
+            }
+            if (!body.isLazy()) {
+                materializeFunctions(body, true);
+            }
+            return;
+        }
+        for (TreeNode child : children(node)) {
+            materializeFunctions(child, inFunction);
+        }
+    }
+}
@@ -14,11 +14,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UnaryExpressionNode implements ExpressionNode {
     private Token token;
-    private String operator;
+    private OperatorEnum operator;
     private ExpressionNode right;
 
     @Override
     public String toString() {
-        return "(" + this.operator + right.toString() + ")";
+        return "(" + this.operator.getLiteral() + right.toString() + ")";
     }
 }
@@ -1,8 +1,11 @@
 package interpreter.ast;
 
+import interpreter.eval.BranchProfile;
+import interpreter.jit.CompiledLoop;
+import interpreter.jit.JitProfile;
 import interpreter.lexer.Token;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 /**
@@ -14,8 +17,7 @@ import lombok.NoArgsConstructor;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class WhileExpressionNode implements ExpressionNode {
+public class WhileExpressionNode implements BranchNode {
 
         private Token token;
 
@@ -23,6 +25,31 @@ public class WhileExpressionNode implements ExpressionNode {
 
         private BlockStatement body;
 
+        /**
+         * values of the condition, null until the loop is evaluated
+         */
+        @EqualsAndHashCode.Exclude
+        private transient BranchProfile profile;
+
+        /**
+         * set by jit: iterations of the loop and its compiled code, null until the jit runs the loop
+         */
+        @EqualsAndHashCode.Exclude
+        private transient JitProfile<CompiledLoop> jitProfile;
+
+        public WhileExpressionNode(Token token, ExpressionNode condition, BlockStatement body) {
+            this.token = token;
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        public BranchProfile profile() {
+            if (profile == null) {
+                profile = new BranchProfile();
+            }
+            return profile;
+        }
 
         @Override
         public String toString() {
@@ -5,50 +5,39 @@ import lombok.Getter;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.function.Function;
+import java.util.EnumSet;
 
 @Getter
 public enum BuiltinFunctionEnum {
 
-    LEN("len", lenFunction()),
-    FIRST("first", firstFunction()),
-    PUSH("push", pushFunction()),
-    PUT("put", putFunction()),
-    PRINT("print", printFunction()),
-    TIME("time", timeFunction());
-
-    private static Function<List<ValueObject>, ValueObject> putFunction() {
-        return args -> {
-            if (args == null || args.size() != 3) {
-                return new ErrorObject(String.format("wrong number of arguments, got=%d, want=3", args.size()));
-            }
-
-            ValueObject arg = args.get(0);
-            if (arg.type() != ValueTypeEnum.MAP) {
-                return new ErrorObject(String.format("argument to push must be MAP, got %s", arg.type()));
-            }
+    LEN(lenFunction()),
+    FIRST(firstFunction()),
+    PUSH(pushFunction()),
+    PUT(putFunction()),
+    PRINT(printFunction()),
+    TIME(timeFunction());
 
-            Map<ValueObject, ValueObject> copyMap = new HashMap<>(((MapObject) arg).getPairs());
-            copyMap.put(args.get(1), args.get(2));
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-            MapObject res = new MapObject();
-            res.setPairs(copyMap);
-            return res;
-        };
+    private static NativeFunction putFunction() {
+        return new NativeFunction("put", 3) {
+            @Override
+            protected ValueObject call3(ValueObject map, ValueObject key, ValueObject value) {
+                return ((MapObject) map).put(key, value);
+            }
+        }.accept(0, ValueTypeEnum.MAP);
     }
 
     /**
      * print time with format yyyy-MM-dd HH:mm:ss
      * @return
      */
-    private static Function<List<ValueObject>, ValueObject> timeFunction() {
-        return args -> {
-            if (args == null || args.size() != 0) {
-                return new ErrorObject(String.format("wrong number of arguments, got=%d, want=0", args.size()));
+    private static NativeFunction timeFunction() {
+        return new NativeFunction("time", 0) {
+            @Override
+            protected ValueObject call0() {
+                return new StringObject(LocalDateTime.now().format(FORMATTER));
             }
-
-            return new StringObject(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
         };
     }
 
@@ -57,13 +46,27 @@ public enum BuiltinFunctionEnum {
      * print all value
      * @return
      */
-    private static Function<List<ValueObject>, ValueObject> printFunction() {
-        return args -> {
-            for (ValueObject arg : args) {
-                System.out.println(arg.inspect());
+    private static NativeFunction printFunction() {
+        return new NativeFunction("print", NativeFunction.VARARGS) {
+            @Override
+            protected ValueObject call0() {
+                return null;
             }
 
-            return null;
+            @Override
+            protected ValueObject call1(ValueObject a) {
+                System.out.println(a.inspect());
+                return null;
+            }
+
+            @Override
+            protected ValueObject callVarargs(ValueObject[] args) {
+                for (ValueObject arg : args) {
+                    System.out.println(arg.inspect());
+                }
+
+                return null;
+            }
         };
     }
 
@@ -72,88 +75,67 @@ public enum BuiltinFunctionEnum {
      * push an element to array, return a new array
      * @return
      */
-    private static Function<List<ValueObject>, ValueObject> pushFunction() {
-        return args -> {
-            if (args == null || args.size() != 2) {
-                return new ErrorObject(String.format("wrong number of arguments, got=%d, want=1", args.size()));
-            }
-
-            ValueObject arg = args.get(0);
-            if (arg.type() != ValueTypeEnum.ARRAY) {
-                return new ErrorObject(String.format("argument to push must be ARRAY, got %s", arg.type()));
+    private static NativeFunction pushFunction() {
+        return new NativeFunction("push", 2) {
+            @Override
+            protected ValueObject call2(ValueObject array, ValueObject element) {
+                return ((ArrayObject) array).push(element);
             }
-
-            List<ValueObject> copyArray = new ArrayList<>(((ArrayObject) arg).getElements());
-            copyArray.add(args.get(1));
-
-            return new ArrayObject(copyArray);
-        };
+        }.accept(0, ValueTypeEnum.ARRAY);
     }
 
     /**
      * get first element of array
      * @return
      */
-    private static Function<List<ValueObject>, ValueObject> firstFunction() {
-        return args -> {
-            if (args == null || args.size() != 1) {
-                return new ErrorObject(String.format("wrong number of arguments, got=%d, want=1", args.size()));
+    private static NativeFunction firstFunction() {
+        return new NativeFunction("first", 1) {
+            @Override
+            protected ValueObject call1(ValueObject array) {
+                return ((ArrayObject) array).getElements().get(0);
             }
 
-            ValueObject arg = args.get(0);
-            switch (arg.type()) {
-                case ARRAY:
-                    return ((ArrayObject) arg).getElements().get(0);
-                default:
-                    return new ErrorObject(String.format("argument to first not supported, got %s", arg.type()));
+            @Override
+            protected ErrorObject typeError(EnumSet<?> types, ValueObject arg) {
+                return new ErrorObject(String.format("argument to first not supported, got %s", arg.type()));
             }
-        };
+        }.accept(0, ValueTypeEnum.ARRAY);
     }
 
     /**
      * get length of array or string
      * @return
      */
-    private static Function<List<ValueObject>, ValueObject> lenFunction() {
-        return args -> {
-            if (args == null || args.size() != 1) {
-                return new ErrorObject(String.format("wrong number of arguments, got=%d, want=1", args.size()));
+    private static NativeFunction lenFunction() {
+        return new NativeFunction("len", 1) {
+            @Override
+            protected ValueObject call1(ValueObject arg) {
+                switch (arg.type()) {
+                    case MAP:
+                        return IntegerObject.valueOf(((MapObject) arg).getPairs().size());
+                    case ARRAY:
+                        return IntegerObject.valueOf(((ArrayObject) arg).getElements().size());
+                    default:
+                        return IntegerObject.valueOf(((StringObject) arg).length());
+                }
             }
-
-            ValueObject arg = args.get(0);
-            switch (arg.type()) {
-                case MAP:
-                    return new IntegerObject(((MapObject) arg).getPairs().size());
-                case ARRAY:
-                    return new IntegerObject(((ArrayObject) arg).getElements().size());
-                case STRING:
-                    return new IntegerObject(((StringObject) arg).getValue().length());
-                default:
-                    return new ErrorObject(String.format("argument to len not supported, got %s", arg.type()));
-            }
-        };
+        }.accept(0, ValueTypeEnum.MAP, ValueTypeEnum.ARRAY, ValueTypeEnum.STRING);
     }
 
     private String funcName;
-    private Function<List<ValueObject>, ValueObject> function;
+    private NativeFunction function;
 
-    BuiltinFunctionEnum(String funcName, Function function) {
-        this.funcName = funcName;
+    BuiltinFunctionEnum(NativeFunction function) {
+        this.funcName = function.getName();
         this.function = function;
     }
 
     /**
-     * get builtin funtion of name
+     * get builtin funtion of name, including the natives registered by third parties
      * @param name
-     * @return
+     * @return null if there is no builtin function of the name
      */
     public static BuiltinFunctionObject getBuiltinFunctionOf(String name) {
-        return Arrays.stream(BuiltinFunctionEnum.values())
-                .filter(item -> item.getFuncName().equals(name))
-                .map(item -> item.getFunction())
-                .map(item -> new BuiltinFunctionObject(item))
-                .findFirst().orElse(null);
-
-
+        return NativeRegistry.lookup(name);
     }
 }
@@ -0,0 +1,192 @@
+package interpreter.builtin;
+
+import interpreter.object.ErrorObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * function implemented in java, the arguments are passed one by one instead of in a list.
+ * the arity and the types of the parameters are declared, invoke checks them once before the call,
+ * so the implementation doesn't check them again.
+ * a native of fixed arity implements the call of its arity, a varargs native implements callVarargs,
+ * and may implement the calls of the common arities to avoid creating the array.
+ */
+public abstract class NativeFunction {
+
+    public static final int VARARGS = -1;
+
+    @Getter
+    private final String name;
+
+    /**
+     * number of parameters, VARARGS if any number of arguments is accepted
+     */
+    @Getter
+    private final int arity;
+
+    /**
+     * types accepted by each parameter, null if any type is accepted
+     */
+    private final EnumSet<?>[] parameterTypes;
+
+    protected NativeFunction(String name, int arity) {
+        this.name = name;
+        this.arity = arity;
+        this.parameterTypes = new EnumSet<?>[Math.max(arity, 0)];
+    }
+
+    /**
+     * declare the types accepted by the parameter, called in the constructor of the native
+     * @param index
+     * @param type
+     * @param others
+     * @return
+     */
+    protected NativeFunction accept(int index, ValueTypeEnum type, ValueTypeEnum... others) {
+        parameterTypes[index] = EnumSet.of(type, others);
+        return this;
+    }
+
+    public ValueObject invoke0() {
+        ErrorObject error = checkArity(0);
+        return error != null ? error : call0();
+    }
+
+    public ValueObject invoke1(ValueObject a) {
+        ErrorObject error = checkArity(1);
+        if (error == null) {
+            error = checkType(0, a);
+        }
+        return error != null ? error : call1(a);
+    }
+
+    public ValueObject invoke2(ValueObject a, ValueObject b) {
+        ErrorObject error = checkArity(2);
+        if (error == null) {
+            error = checkType(0, a);
+        }
+        if (error == null) {
+            error = checkType(1, b);
+        }
+        return error != null ? error : call2(a, b);
+    }
+
+    public ValueObject invoke3(ValueObject a, ValueObject b, ValueObject c) {
+        ErrorObject error = checkArity(3);
+        if (error == null) {
+            error = checkType(0, a);
+        }
+        if (error == null) {
+            error = checkType(1, b);
+        }
+        if (error == null) {
+            error = checkType(2, c);
+        }
+        return error != null ? error : call3(a, b, c);
+    }
+
+    /**
+     * call with the arguments in a slice of array, e.g. the stack of vm
+     * @param args
+     * @param offset
+     * @param count
+     * @return
+     */
+    public ValueObject invoke(ValueObject[] args, int offset, int count) {
+        switch (count) {
+            case 0:
+                return invoke0();
+            case 1:
+                return invoke1(args[offset]);
+            case 2:
+                return invoke2(args[offset], args[offset + 1]);
+            case 3:
+                return invoke3(args[offset], args[offset + 1], args[offset + 2]);
+            default:
+                ErrorObject error = checkArity(count);
+                for (int i = 0; error == null && i < count; i++) {
+                    error = checkType(i, args[offset + i]);
+                }
+                if (error != null) {
+                    return error;
+                }
+                ValueObject[] varargs = new ValueObject[count];
+                System.arraycopy(args, offset, varargs, 0, count);
+                return callVarargs(varargs);
+        }
+    }
+
+    public ValueObject invoke(List<ValueObject> args) {
+        switch (args.size()) {
+            case 0:
+                return invoke0();
+            case 1:
+                return invoke1(args.get(0));
+            case 2:
+                return invoke2(args.get(0), args.get(1));
+            case 3:
+                return invoke3(args.get(0), args.get(1), args.get(2));
+            default:
+                ValueObject[] varargs = args.toArray(new ValueObject[0]);
+                return invoke(varargs, 0, varargs.length);
+        }
+    }
+
+    protected ValueObject call0() {
+        return callVarargs(new ValueObject[0]);
+    }
+
+    protected ValueObject call1(ValueObject a) {
+        return callVarargs(new ValueObject[]{a});
+    }
+
+    protected ValueObject call2(ValueObject a, ValueObject b) {
+        return callVarargs(new ValueObject[]{a, b});
+    }
+
+    protected ValueObject call3(ValueObject a, ValueObject b, ValueObject c) {
+        return callVarargs(new ValueObject[]{a, b, c});
+    }
+
+    /**
+     * the entry of varargs native, and of fixed arity natives with more than 3 parameters
+     * @param args
+     * @return error if the native implements no call of this number of arguments
+     */
+    protected ValueObject callVarargs(ValueObject[] args) {
+        return new ErrorObject(String.format("native function %s doesn't accept %d arguments", name, args.length));
+    }
+
+    private ErrorObject checkArity(int count) {
+        if (arity != VARARGS && count != arity) {
+            return new ErrorObject(String.format("wrong number of arguments, got=%d, want=%d", count, arity));
+        }
+        return null;
+    }
+
+    private ErrorObject checkType(int index, ValueObject arg) {
+        EnumSet<?> types = index < parameterTypes.length ? parameterTypes[index] : null;
+        if (types == null || types.contains(arg.type())) {
+            return null;
+        }
+
+        return typeError(types, arg);
+    }
+
+    /**
+     * error of the argument whose type is not accepted
+     * @param types types accepted by the parameter
+     * @param arg
+     * @return
+     */
+    protected ErrorObject typeError(EnumSet<?> types, ValueObject arg) {
+        if (types.size() == 1) {
+            return new ErrorObject(String.format("argument to %s must be %s, got %s", name, types.iterator().next(), arg.type()));
+        }
+        return new ErrorObject(String.format("argument to %s not supported, got %s", name, arg.type()));
+    }
+}
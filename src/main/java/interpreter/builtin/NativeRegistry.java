@@ -0,0 +1,42 @@
+package interpreter.builtin;
+
+import interpreter.object.BuiltinFunctionObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * natives visible to monkey programs by name: the builtins, and the natives registered by third parties.
+ * a name is registered once, the call sites caching a native never see it replaced.
+ */
+public final class NativeRegistry {
+
+    private static final Map<String, BuiltinFunctionObject> NATIVES = new ConcurrentHashMap<>();
+
+    static {
+        for (BuiltinFunctionEnum item : BuiltinFunctionEnum.values()) {
+            register(item.getFunction());
+        }
+    }
+
+    private NativeRegistry() {
+    }
+
+    /**
+     * @param function
+     * @throws IllegalArgumentException if the name is registered
+     */
+    public static void register(NativeFunction function) {
+        if (NATIVES.putIfAbsent(function.getName(), new BuiltinFunctionObject(function)) != null) {
+            throw new IllegalArgumentException(String.format("native function %s is already registered", function.getName()));
+        }
+    }
+
+    /**
+     * @param name
+     * @return null if there is no native of the name
+     */
+    public static BuiltinFunctionObject lookup(String name) {
+        return NATIVES.get(name);
+    }
+}
@@ -0,0 +1,283 @@
+package interpreter.collection;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * persistent hash array mapped trie, plus returns a new map sharing the unchanged nodes with the old one,
+ * the old map stays valid. every level of the trie consumes 5 bits of the hash, so plus and get are O(log32 N).
+ * it implements the read-only part of java.util.Map, the mutators of Map throw UnsupportedOperationException.
+ * keys must not be null.
+ * @param <K>
+ * @param <V>
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        // the empty map holds no key or value of any type
+        @SuppressWarnings("unchecked")
+        PersistentHashMap<K, V> res = (PersistentHashMap<K, V>) (PersistentHashMap<?, ?>) EMPTY;
+        return res;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return a new map with the key mapped to the value
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key);
+        boolean[] added = new boolean[1];
+        Node newRoot = root.plus(0, hash(key), key, value, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Object res = root.find(0, hash(key), key);
+        return res == NOT_FOUND ? null : (V) res;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                List<Entry<Object, Object>> entries = new ArrayList<>(size);
+                root.collect(entries);
+                // the keys and values were put as K and V
+                @SuppressWarnings("unchecked")
+                List<Entry<K, V>> res = (List<Entry<K, V>>) (List<?>) entries;
+                return Collections.unmodifiableList(res).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitOf(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private abstract static class Node implements Serializable {
+
+        /**
+         * @param shift bits of hash consumed by the levels above
+         * @param hash
+         * @param key
+         * @param value
+         * @param added set to true if the key is new
+         * @return this node if nothing changed, or the copy with the key
+         */
+        abstract Node plus(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * @return value of the key, NOT_FOUND if the key is not in the node
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract void collect(List<Entry<Object, Object>> entries);
+    }
+
+    /**
+     * the bitmap marks which of the 32 branches exist, the array stores the existing branches compactly:
+     * array[2i], array[2i+1] is key, value of an entry, or null, child node
+     */
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bitOf(hash, shift);
+            int idx = indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * idx);
+                newArray[2 * idx] = key;
+                newArray[2 * idx + 1] = value;
+                System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, array.length - 2 * idx);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null) {
+                Node child = ((Node) valueOrNode).plus(shift + BITS, hash, key, value, added);
+                return child == valueOrNode ? this : copyWith(2 * idx + 1, child);
+            } else if (keyOrNull.equals(key)) {
+                return valueOrNode == value ? this : copyWith(2 * idx + 1, value);
+            }
+
+            added[0] = true;
+            Node child = createNode(shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+            Object[] newArray = array.clone();
+            newArray[2 * idx] = null;
+            newArray[2 * idx + 1] = child;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private BitmapNode copyWith(int index, Object item) {
+            Object[] newArray = array.clone();
+            newArray[index] = item;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bitOf(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+
+            int idx = indexOf(bit);
+            Object keyOrNull = array[2 * idx];
+            Object valueOrNode = array[2 * idx + 1];
+            if (keyOrNull == null) {
+                return ((Node) valueOrNode).find(shift + BITS, hash, key);
+            }
+            return keyOrNull.equals(key) ? valueOrNode : NOT_FOUND;
+        }
+
+        @Override
+        void collect(List<Entry<Object, Object>> entries) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).collect(entries);
+                } else {
+                    entries.add(new SimpleImmutableEntry<>(array[i], array[i + 1]));
+                }
+            }
+        }
+
+        /**
+         * node holding two entries whose hashes are equal in the bits before shift
+         */
+        private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+
+            boolean[] added = new boolean[1];
+            return EMPTY.plus(shift, hash1, key1, value1, added).plus(shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * entries whose keys have the same hash, searched linearly
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Node plus(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // push this node one level down, then insert the key beside it
+                BitmapNode parent = new BitmapNode(bitOf(this.hash, shift), new Object[]{null, this});
+                return parent.plus(shift, hash, key, value, added);
+            }
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    if (array[i + 1] == value) {
+                        return this;
+                    }
+                    Object[] newArray = array.clone();
+                    newArray[i + 1] = value;
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+
+            added[0] = true;
+            Object[] newArray = Arrays.copyOf(array, array.length + 2);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i].equals(key)) {
+                    return array[i + 1];
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        void collect(List<Entry<Object, Object>> entries) {
+            for (int i = 0; i < array.length; i += 2) {
+                entries.add(new SimpleImmutableEntry<>(array[i], array[i + 1]));
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package interpreter.collection;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * persistent vector, a bit-partitioned trie of 32-way nodes with a tail buffer.
+ * the last elements live in the tail, plus copies only the tail until it is full, then pushes it into the trie
+ * copying the path from the root, the other nodes are shared with the old vector, which stays valid.
+ * get walks log32 N levels, which is effectively constant.
+ * it implements the read-only part of java.util.List, the mutators of List throw UnsupportedOperationException.
+ * @param <E>
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<Object> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+
+    /**
+     * bits of index consumed by the levels below the root
+     */
+    private final int shift;
+
+    private final Object[] root;
+
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    public static <E> PersistentVector<E> empty() {
+        // the empty vector holds no element of any type
+        @SuppressWarnings("unchecked")
+        PersistentVector<E> res = (PersistentVector<E>) (PersistentVector<?>) EMPTY;
+        return res;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<E>) elements;
+        }
+
+        PersistentVector<E> res = empty();
+        for (E element : elements) {
+            res = res.plus(element);
+        }
+        return res;
+    }
+
+    /**
+     * @param element
+     * @return a new vector with the element appended
+     */
+    public PersistentVector<E> plus(E element) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        // the tail is full, push it into the trie
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // the trie is full, grow a level above the root
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * index of the first element in the tail
+     */
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] res = parent.clone();
+        Object[] nodeToInsert;
+        if (level == BITS) {
+            nodeToInsert = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            nodeToInsert = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        res[subIndex] = nodeToInsert;
+        return res;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] res = new Object[WIDTH];
+        res[0] = newPath(level - BITS, node);
+        return res;
+    }
+}
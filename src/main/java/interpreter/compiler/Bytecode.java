@@ -0,0 +1,22 @@
+package interpreter.compiler;
+
+import interpreter.object.ValueObject;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * output of compiler, input of vm
+ */
+@Data
+@AllArgsConstructor
+public class Bytecode {
+    /**
+     * instructions of the program
+     */
+    private byte[] instructions;
+
+    /**
+     * constant pool, shared by the program and all the functions in it
+     */
+    private ValueObject[] constants;
+}
@@ -0,0 +1,56 @@
+package interpreter.compiler;
+
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * function compiled to bytecode, stored in the constant pool of the program compiled with it,
+ * its instructions read the constants of that pool.
+ * it becomes a closure at runtime when the free variables are captured.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompiledFunctionObject implements ValueObject {
+
+    private byte[] instructions;
+
+    private int numLocals;
+
+    private int numCells;
+
+    private int numParameters;
+
+    /**
+     * cell index of each parameter, -1 if the parameter is not captured
+     */
+    private int[] parameterCells;
+
+    /**
+     * source of the function, used by inspect
+     */
+    private String source;
+
+    /**
+     * constant pool of the program compiled with the function, set when the program is compiled.
+     * the pool contains the function, so it's left out of equals, hashCode and toString
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ValueObject[] constants;
+
+    @Override
+    public ValueTypeEnum type() {
+        return ValueTypeEnum.COMPILED_FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return source;
+    }
+}
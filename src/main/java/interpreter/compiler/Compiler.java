@@ -0,0 +1,536 @@
+package interpreter.compiler;
+
+import interpreter.ast.*;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * compile the ast to bytecode of the stack vm
+ */
+@Getter
+public class Compiler {
+
+    private static final int MAX_OPERAND = 0xFFFF;
+
+    private static final Map<OperatorEnum, OpcodeEnum> BINARY_OPERATORS = new EnumMap<>(OperatorEnum.class);
+
+    static {
+        for (OpcodeEnum opcode : new OpcodeEnum[]{OpcodeEnum.ADD, OpcodeEnum.SUB, OpcodeEnum.MUL, OpcodeEnum.DIV,
+                OpcodeEnum.LT, OpcodeEnum.LE, OpcodeEnum.GT, OpcodeEnum.GE, OpcodeEnum.EQ, OpcodeEnum.NOT_EQ,
+                OpcodeEnum.AND, OpcodeEnum.OR}) {
+            BINARY_OPERATORS.put(opcode.getOperator(), opcode);
+        }
+    }
+
+    /**
+     * constant pool of the program, each line of repl and each statement of script gets its own,
+     * it lives as long as the functions compiled with it
+     */
+    private final List<ValueObject> constants = new ArrayList<>();
+
+    /**
+     * symbols of the current scope
+     */
+    private SymbolTable symbolTable;
+
+    /**
+     * errors occurred while compiling
+     */
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * instructions of the function being compiled
+     */
+    private byte[] instructions = new byte[64];
+
+    private int size;
+
+    /**
+     * jumps of the return statements to the end of the innermost if or while used as value,
+     * null if the return statements leave the function or the program, as the evaluator does
+     */
+    private List<Integer> valueReturns;
+
+    public Compiler() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * keep the global symbols of previous compilations, so that the repl can refer the variables
+     * defined in previous lines.
+     * @param globals
+     */
+    public Compiler(SymbolTable globals) {
+        this.symbolTable = globals;
+    }
+
+    /**
+     * compile the program, the value of the last statement is the result of the program
+     * @param program
+     * @return
+     */
+    public Bytecode compile(ProgramNode program) {
+        compileStatementsValue(program.getStatements());
+        emit(OpcodeEnum.RETURN_VALUE);
+
+        ValueObject[] pool = constants.toArray(new ValueObject[0]);
+        for (ValueObject constant : pool) {
+            if (constant.type() == ValueTypeEnum.COMPILED_FUNCTION) {
+                ((CompiledFunctionObject) constant).setConstants(pool);
+            }
+        }
+        return new Bytecode(Arrays.copyOf(instructions, size), pool);
+    }
+
+    /**
+     * compile the statements, leave the value of the last statement on the stack
+     * @param statements
+     */
+    private void compileStatementsValue(List<StatementNode> statements) {
+        if (statements.isEmpty()) {
+            emit(OpcodeEnum.NULL);
+            return;
+        }
+
+        for (int i = 0; i < statements.size() - 1; i++) {
+            compileStatement(statements.get(i));
+        }
+
+        StatementNode last = statements.get(statements.size() - 1);
+        if (last instanceof ExpressionStatementNode) {
+            compileStatementExpression(((ExpressionStatementNode) last).getExpression());
+        } else {
+            compileStatement(last);
+            emit(OpcodeEnum.NULL);
+        }
+    }
+
+    /**
+     * compile the statement, the stack is unchanged after the statement runs
+     * @param statement
+     */
+    private void compileStatement(StatementNode statement) {
+        if (statement instanceof ExpressionStatementNode) {
+            compileStatementExpression(((ExpressionStatementNode) statement).getExpression());
+            emit(OpcodeEnum.POP);
+        } else if (statement instanceof LetStatementNode) {
+            LetStatementNode let = (LetStatementNode) statement;
+            compileExpression(let.getValue());
+            emitSet(symbolTable.define(let.getName().getValue()));
+        } else if (statement instanceof FunctionStatementNode) {
+            FunctionStatementNode function = (FunctionStatementNode) statement;
+            compileFunction(function.getParameters(), function.getBody());
+            emitSet(symbolTable.define(function.getFuncName().getValue()));
+        } else if (statement instanceof ReturnStatementNode) {
+            compileExpression(((ReturnStatementNode) statement).getValue());
+            if (valueReturns == null) {
+                emit(OpcodeEnum.RETURN_VALUE);
+            } else {
+                emit(OpcodeEnum.RETURN_OBJECT);
+                valueReturns.add(emit(OpcodeEnum.JUMP, 0));
+            }
+        } else {
+            errors.add(String.format("statement not supported by compiler: %s", statement));
+        }
+    }
+
+    /**
+     * the if and while of an expression statement pass the return in them to the enclosing block,
+     * so the return leaves the function, or the program at top level
+     * @param node
+     */
+    private void compileStatementExpression(ExpressionNode node) {
+        if (node instanceof IfExpressionNode) {
+            compileIfExpression((IfExpressionNode) node);
+        } else if (node instanceof WhileExpressionNode) {
+            compileWhileExpression((WhileExpressionNode) node);
+        } else {
+            compileExpression(node);
+        }
+    }
+
+    /**
+     * the if and while used as value, e.g. the value of let or an operand, stop at the return in them,
+     * their value is the return object, like the evaluator does
+     * @param node
+     */
+    private void compileValueExpression(ExpressionNode node) {
+        List<Integer> enclosingReturns = valueReturns;
+        valueReturns = new ArrayList<>();
+        compileStatementExpression(node);
+        for (int jump : valueReturns) {
+            patchOperand(jump, 1, size);
+        }
+        valueReturns = enclosingReturns;
+    }
+
+    private void compileExpression(ExpressionNode node) {
+        if (node == null) {
+            errors.add("invalid expression: null");
+            return;
+        }
+
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class)) {
+            emit(OpcodeEnum.CONSTANT, addConstant(((IntegerLiteralNode) node).getValue()));
+        } else if (nodeClass.equals(StringLiteralNode.class)) {
+            emit(OpcodeEnum.CONSTANT, addConstant(new StringObject(((StringLiteralNode) node).getValue())));
+        } else if (nodeClass.equals(BooleanLiteralNode.class)) {
+            emit(((BooleanLiteralNode) node).getValue() ? OpcodeEnum.TRUE : OpcodeEnum.FALSE);
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            compileUnaryExpression((UnaryExpressionNode) node);
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            compileBinaryExpression((BinaryExpressionNode) node);
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            compileLogicalExpression((LogicalExpressionNode) node);
+        } else if (nodeClass.equals(IfExpressionNode.class) || nodeClass.equals(WhileExpressionNode.class)) {
+            compileValueExpression(node);
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            emitGet(((IdentifierNode) node).getValue(), OpcodeEnum.GET_GLOBAL);
+        } else if (nodeClass.equals(AssignExpressionNode.class)) {
+            compileAssignExpression((AssignExpressionNode) node);
+        } else if (nodeClass.equals(FunctionLiteralNode.class)) {
+            FunctionLiteralNode function = (FunctionLiteralNode) node;
+            compileFunction(function.getParameters(), function.getBody());
+        } else if (nodeClass.equals(CallExpressionNode.class)) {
+            compileCallExpression((CallExpressionNode) node);
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            List<ExpressionNode> elements = ((ArrayLiteralExpressionNode) node).getElements();
+            for (ExpressionNode element : elements) {
+                compileExpression(element);
+            }
+            emit(OpcodeEnum.ARRAY, elements.size());
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            Map<ExpressionNode, ExpressionNode> pairs = ((MapLiteralExpressionNode) node).getPairs();
+            for (Map.Entry<ExpressionNode, ExpressionNode> pair : pairs.entrySet()) {
+                compileExpression(pair.getKey());
+                compileExpression(pair.getValue());
+            }
+            emit(OpcodeEnum.MAP, pairs.size() * 2);
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            compileExpression(((IndexExpressionNode) node).getObject());
+            compileExpression(((IndexExpressionNode) node).getIndex());
+            emit(OpcodeEnum.INDEX);
+        } else {
+            errors.add(String.format("expression not supported by compiler: %s", node));
+        }
+    }
+
+    private void compileUnaryExpression(UnaryExpressionNode node) {
+        compileExpression(node.getRight());
+        switch (node.getOperator()) {
+            case BANG:
+                emit(OpcodeEnum.BANG);
+                break;
+            case MINUS:
+                emit(OpcodeEnum.MINUS);
+                break;
+            default:
+                errors.add(String.format("unknown operator: %s", node.getOperator().getLiteral()));
+        }
+    }
+
+    private void compileBinaryExpression(BinaryExpressionNode node) {
+        compileExpression(node.getLeft());
+        compileExpression(node.getRight());
+        OpcodeEnum opcode = BINARY_OPERATORS.get(node.getOperator());
+        if (opcode == null) {
+            errors.add(String.format("unknown operator: %s", node.getOperator().getLiteral()));
+            return;
+        }
+        emit(opcode);
+    }
+
+    /**
+     *     left
+     *     AND_JUMP end (OR_JUMP)
+     *     right
+     *     AND (OR)
+     * end:
+     * @param node
+     */
+    private void compileLogicalExpression(LogicalExpressionNode node) {
+        compileExpression(node.getLeft());
+        int jump = emit(node.getOperator() == OperatorEnum.AND ? OpcodeEnum.AND_JUMP : OpcodeEnum.OR_JUMP, 0);
+        compileExpression(node.getRight());
+        emit(BINARY_OPERATORS.get(node.getOperator()));
+        patchOperand(jump, 1, size);
+    }
+
+    /**
+     *     condition
+     *     JUMP_IF_FALSE else
+     *     consequence
+     *     JUMP end
+     * else:
+     *     alternative or NULL
+     * end:
+     * @param node
+     */
+    private void compileIfExpression(IfExpressionNode node) {
+        compileExpression(node.getCondition());
+        int jumpIfFalse = emit(OpcodeEnum.JUMP_IF_FALSE, 0);
+        compileStatementsValue(node.getConsequence().getStatements());
+        int jump = emit(OpcodeEnum.JUMP, 0);
+
+        patchOperand(jumpIfFalse, 1, size);
+        if (node.getAlternative() != null) {
+            compileStatementsValue(node.getAlternative().getStatements());
+        } else {
+            emit(OpcodeEnum.NULL);
+        }
+        patchOperand(jump, 1, size);
+    }
+
+    /**
+     * the value of while expression is the value of the last run of body, NULL if the body never runs
+     *     NULL
+     * loop:
+     *     condition
+     *     JUMP_IF_FALSE end
+     *     POP
+     *     body
+     *     JUMP loop
+     * end:
+     * @param node
+     */
+    private void compileWhileExpression(WhileExpressionNode node) {
+        emit(OpcodeEnum.NULL);
+        int loop = size;
+        compileExpression(node.getCondition());
+        int jumpIfFalse = emit(OpcodeEnum.JUMP_IF_FALSE, 0);
+        emit(OpcodeEnum.POP);
+        compileStatementsValue(node.getBody().getStatements());
+        emit(OpcodeEnum.JUMP, loop);
+        patchOperand(jumpIfFalse, 1, size);
+    }
+
+    /**
+     * assigning to a variable which is not defined is an error, the value is bound in current scope
+     * @param node
+     */
+    private void compileAssignExpression(AssignExpressionNode node) {
+        compileExpression(node.getValue());
+        String name = node.getName().getValue();
+        emitGet(name, OpcodeEnum.ASSERT_GLOBAL);
+        emit(OpcodeEnum.POP);
+        emitSet(symbolTable.define(name));
+        emit(OpcodeEnum.NULL);
+    }
+
+    private void compileCallExpression(CallExpressionNode node) {
+        if (node.isQuote()) {
+            errors.add("quote is not supported by compiler");
+            return;
+        }
+
+        compileExpression(node.getFuncName());
+        for (ExpressionNode argument : node.getArguments()) {
+            compileExpression(argument);
+        }
+
+        if (node.getArguments().size() > 0xFF) {
+            errors.add(String.format("too many arguments: %d", node.getArguments().size()));
+            return;
+        }
+        emit(OpcodeEnum.CALL, node.getArguments().size());
+    }
+
+    /**
+     * compile the function in a new scope, then emit the closure instruction in the enclosing scope
+     * @param parameters
+     * @param body
+     */
+    private void compileFunction(List<IdentifierNode> parameters, BlockStatement body) {
+        // the lazy body is parsed now, the program is compiled before it runs,
+        // so are the lazy bodies nested in it, the variables they read may be captured
+        for (String error : TreeNodes.materializeFunctions(body)) {
+            errors.add(String.format("syntax error in function body: %s", error));
+        }
+
+        Set<String> declared = new LinkedHashSet<>();
+        TreeNodes.collectDeclarations(body, declared);
+        Set<String> captured = new HashSet<>();
+        collectCaptured(body, captured, false);
+
+        // enter the scope of function
+        byte[] enclosingInstructions = instructions;
+        int enclosingSize = size;
+        SymbolTable enclosingTable = symbolTable;
+        List<Integer> enclosingReturns = valueReturns;
+        instructions = new byte[64];
+        size = 0;
+        symbolTable = new SymbolTable(enclosingTable);
+        valueReturns = null;
+
+        int[] parameterCells = new int[parameters.size()];
+        for (int i = 0; i < parameters.size(); i++) {
+            Symbol symbol = symbolTable.defineParameter(parameters.get(i).getValue(),
+                    captured.contains(parameters.get(i).getValue()));
+            parameterCells[i] = symbol.getScope() == SymbolScopeEnum.CELL ? symbol.getIndex() : -1;
+        }
+        for (String name : declared) {
+            symbolTable.define(name, captured.contains(name), false);
+        }
+
+        compileStatementsValue(body.getStatements());
+        emit(OpcodeEnum.RETURN_VALUE);
+
+        SymbolTable functionTable = symbolTable;
+        CompiledFunctionObject function = new CompiledFunctionObject(Arrays.copyOf(instructions, size),
+                functionTable.getNumLocals(), functionTable.getNumCells(), parameters.size(), parameterCells,
+                "fn(" + parameters.stream().map(item -> item.toString()).collect(Collectors.joining(","))
+                        + ") {\n" + body.toString() + "\n}", null);
+
+        // leave the scope of function
+        instructions = enclosingInstructions;
+        size = enclosingSize;
+        symbolTable = enclosingTable;
+        valueReturns = enclosingReturns;
+
+        List<Symbol> freeSymbols = functionTable.getFreeSymbols();
+        if (freeSymbols.size() > 0xFF) {
+            errors.add(String.format("too many free variables: %d", freeSymbols.size()));
+            return;
+        }
+        emit(OpcodeEnum.CLOSURE, addConstant(function), freeSymbols.size());
+        for (Symbol free : freeSymbols) {
+            if (free.getScope() == SymbolScopeEnum.LOCAL) {
+                errors.add(String.format("variable is not captured: %s", free.getName()));
+            }
+            emitByte(free.getScope() == SymbolScopeEnum.CELL ? 1 : 0);
+            emitByte(free.getIndex() >> 8);
+            emitByte(free.getIndex());
+        }
+    }
+
+    /**
+     * names referenced in the nested functions, the variables of current function with these names live in cells.
+     * @param node
+     * @param captured
+     * @param nested
+     */
+    private void collectCaptured(TreeNode node, Set<String> captured, boolean nested) {
+        if (node == null) {
+            return;
+        }
+
+        if (nested && node instanceof IdentifierNode) {
+            captured.add(((IdentifierNode) node).getValue());
+        } else if (nested && node instanceof AssignExpressionNode) {
+            captured.add(((AssignExpressionNode) node).getName().getValue());
+        }
+
+        boolean function = node instanceof FunctionLiteralNode || node instanceof FunctionStatementNode;
+        for (TreeNode child : TreeNodes.children(node)) {
+            collectCaptured(child, captured, nested || function);
+        }
+    }
+
+    /**
+     * load the variable, search the chain of symbols from the innermost scope
+     * @param name
+     * @param globalOpcode GET_GLOBAL for reading, ASSERT_GLOBAL for checking before assignment
+     */
+    private void emitGet(String name, OpcodeEnum globalOpcode) {
+        List<Integer> jumps = new ArrayList<>();
+        for (Symbol symbol : symbolTable.resolve(name)) {
+            switch (symbol.getScope()) {
+                case GLOBAL:
+                    emit(globalOpcode, symbol.getIndex());
+                    break;
+                case LOCAL:
+                    jumps.add(emit(OpcodeEnum.GET_LOCAL, symbol.getIndex(), 0));
+                    break;
+                case CELL:
+                    jumps.add(emit(OpcodeEnum.GET_CELL, symbol.getIndex(), 0));
+                    break;
+                case FREE:
+                    jumps.add(emit(OpcodeEnum.GET_FREE, symbol.getIndex(), 0));
+                    break;
+            }
+        }
+
+        for (int jump : jumps) {
+            patchOperand(jump, 3, size);
+        }
+    }
+
+    private void emitSet(Symbol symbol) {
+        switch (symbol.getScope()) {
+            case GLOBAL:
+                emit(OpcodeEnum.SET_GLOBAL, symbol.getIndex());
+                break;
+            case LOCAL:
+                emit(OpcodeEnum.SET_LOCAL, symbol.getIndex());
+                break;
+            case CELL:
+                emit(OpcodeEnum.SET_CELL, symbol.getIndex());
+                break;
+            default:
+                errors.add(String.format("can not assign to %s", symbol.getName()));
+        }
+    }
+
+    private int addConstant(ValueObject constant) {
+        constants.add(constant);
+        return constants.size() - 1;
+    }
+
+    /**
+     * append the instruction, return its position
+     * @param opcode
+     * @param operands
+     * @return
+     */
+    private int emit(OpcodeEnum opcode, int... operands) {
+        int position = size;
+        emitByte(opcode.code());
+        int[] widths = opcode.getOperandWidths();
+        for (int i = 0; i < widths.length; i++) {
+            writeOperand(size, widths[i], operands[i]);
+            size += widths[i];
+        }
+        return position;
+    }
+
+    private void emitByte(int b) {
+        ensureCapacity(size + 1);
+        instructions[size++] = (byte) b;
+    }
+
+    /**
+     * rewrite the operand of the instruction at the position
+     * @param position
+     * @param offset offset of the operand from the opcode
+     * @param operand
+     */
+    private void patchOperand(int position, int offset, int operand) {
+        writeOperand(position + offset, 2, operand);
+    }
+
+    private void writeOperand(int position, int width, int operand) {
+        if (operand > (width == 1 ? 0xFF : MAX_OPERAND)) {
+            errors.add(String.format("operand out of range: %d", operand));
+        }
+
+        ensureCapacity(position + width);
+        if (width == 2) {
+            instructions[position] = (byte) (operand >> 8);
+            instructions[position + 1] = (byte) operand;
+        } else {
+            instructions[position] = (byte) operand;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > instructions.length) {
+            instructions = Arrays.copyOf(instructions, Math.max(capacity, instructions.length * 2));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package interpreter.compiler;
+
+import interpreter.ast.OperatorEnum;
+import lombok.Getter;
+
+/**
+ * instruction set of the vm, the opcode of an instruction is the ordinal of the enum.
+ * every operand is an unsigned big-endian integer with the width in bytes given by operandWidths.
+ */
+@Getter
+public enum OpcodeEnum {
+    // push constants[index]
+    CONSTANT(null, 2),
+    POP(null),
+    NULL(null),
+    TRUE(null),
+    FALSE(null),
+
+    // binary operator, pop right and left, push the result
+    ADD(OperatorEnum.PLUS),
+    SUB(OperatorEnum.MINUS),
+    MUL(OperatorEnum.ASTERISK),
+    DIV(OperatorEnum.SLASH),
+    LT(OperatorEnum.LT),
+    LE(OperatorEnum.LE),
+    GT(OperatorEnum.GT),
+    GE(OperatorEnum.GE),
+    EQ(OperatorEnum.EQ),
+    NOT_EQ(OperatorEnum.NOT_EQ),
+    AND(OperatorEnum.AND),
+    OR(OperatorEnum.OR),
+
+    // unary operator
+    BANG(OperatorEnum.BANG),
+    MINUS(OperatorEnum.MINUS),
+
+    // jump to the absolute offset
+    JUMP(null, 2),
+    // pop the condition, jump to the absolute offset if it is not true
+    JUMP_IF_FALSE(null, 2),
+    // keep the left operand of and/or, jump to the absolute offset if it decides the value
+    AND_JUMP(OperatorEnum.AND, 2),
+    OR_JUMP(OperatorEnum.OR, 2),
+
+    // push globals[index], fall back to builtin function of the same name
+    GET_GLOBAL(null, 2),
+    // push globals[index], error if the variable is not defined, used before assigning
+    ASSERT_GLOBAL(null, 2),
+    SET_GLOBAL(null, 2),
+
+    // push locals[index] and jump to the offset, fall through to the enclosing scope if it's not bound yet
+    GET_LOCAL(null, 2, 2),
+    SET_LOCAL(null, 2),
+    // same as local, but the variable lives in a cell because it is captured by a closure
+    GET_CELL(null, 2, 2),
+    SET_CELL(null, 2),
+    // push the variable captured from the enclosing function
+    GET_FREE(null, 2, 2),
+
+    // build array/map with the elements on the stack
+    ARRAY(null, 2),
+    MAP(null, 2),
+    INDEX(null),
+
+    // call the function with the arguments on the stack
+    CALL(null, 1),
+    RETURN_VALUE(null),
+    // wrap the top in a return object, the value of an if or while whose body returned
+    RETURN_OBJECT(null),
+
+    // CLOSURE constant numFree, followed by numFree (isCell:1, index:2) captures
+    CLOSURE(null, 2, 1);
+
+    private static final OpcodeEnum[] VALUES = values();
+
+    /**
+     * operator of the instruction, used to apply the operation and report errors
+     */
+    private OperatorEnum operator;
+
+    private int[] operandWidths;
+
+    OpcodeEnum(OperatorEnum operator, int... operandWidths) {
+        this.operator = operator;
+        this.operandWidths = operandWidths;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static OpcodeEnum of(byte code) {
+        return VALUES[code & 0xFF];
+    }
+}
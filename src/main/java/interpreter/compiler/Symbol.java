@@ -0,0 +1,23 @@
+package interpreter.compiler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * resolved identifier
+ */
+@Data
+@AllArgsConstructor
+public class Symbol {
+    private String name;
+
+    private SymbolScopeEnum scope;
+
+    private int index;
+
+    /**
+     * the symbol is always bound when it is read, e.g. parameter of function,
+     * so the enclosing scope never needs to be searched.
+     */
+    private boolean bound;
+}
@@ -0,0 +1,15 @@
+package interpreter.compiler;
+
+/**
+ * where the value of a symbol is stored at runtime
+ */
+public enum SymbolScopeEnum {
+    // slot of the globals array
+    GLOBAL,
+    // slot of the frame of current function
+    LOCAL,
+    // local variable captured by inner function, stored in a cell of current frame
+    CELL,
+    // variable of enclosing function captured by current closure
+    FREE;
+}
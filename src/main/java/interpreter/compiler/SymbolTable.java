@@ -0,0 +1,141 @@
+package interpreter.compiler;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * symbols of a scope, the global scope has no outer table, every function has its own table.
+ */
+@Getter
+public class SymbolTable {
+
+    private SymbolTable outer;
+
+    private final Map<String, Symbol> store = new HashMap<>();
+
+    /**
+     * symbols of the enclosing scope captured by current function, in the order of free index
+     */
+    private final List<Symbol> freeSymbols = new ArrayList<>();
+
+    private final Map<Symbol, Symbol> outer2Free = new HashMap<>();
+
+    private int numLocals;
+
+    private int numCells;
+
+    /**
+     * names of globals in the order of index, used by vm to report errors and find builtin functions
+     */
+    private final List<String> globalNames = new ArrayList<>();
+
+    public SymbolTable() {
+    }
+
+    public SymbolTable(SymbolTable outer) {
+        this.outer = outer;
+    }
+
+    public boolean isGlobal() {
+        return outer == null;
+    }
+
+    /**
+     * define the variable in current scope, return the symbol if it is already defined
+     * @param name
+     * @param captured the variable is referenced by inner function
+     * @param bound the variable is always bound, e.g. parameter
+     * @return
+     */
+    public Symbol define(String name, boolean captured, boolean bound) {
+        Symbol symbol = store.get(name);
+        if (symbol != null) {
+            return symbol;
+        }
+
+        if (isGlobal()) {
+            symbol = new Symbol(name, SymbolScopeEnum.GLOBAL, globalNames.size(), false);
+            globalNames.add(name);
+        } else if (captured) {
+            symbol = new Symbol(name, SymbolScopeEnum.CELL, numCells++, bound);
+        } else {
+            symbol = new Symbol(name, SymbolScopeEnum.LOCAL, numLocals++, bound);
+        }
+        store.put(name, symbol);
+        return symbol;
+    }
+
+    /**
+     * parameters take the first slots of the frame, because the arguments are already there when the function is called.
+     * a captured parameter is copied into its cell when the function is called.
+     * @param name
+     * @param captured
+     * @return
+     */
+    public Symbol defineParameter(String name, boolean captured) {
+        int slot = numLocals++;
+        Symbol symbol = store.get(name);
+        if (symbol != null) {
+            return symbol;
+        }
+
+        symbol = captured
+                ? new Symbol(name, SymbolScopeEnum.CELL, numCells++, true)
+                : new Symbol(name, SymbolScopeEnum.LOCAL, slot, true);
+        store.put(name, symbol);
+        return symbol;
+    }
+
+    public Symbol define(String name) {
+        return define(name, false, false);
+    }
+
+    /**
+     * a variable of current scope is not bound until its let statement runs, before that the variable of the
+     * enclosing scopes with the same name is visible, so an identifier resolves to a chain of symbols,
+     * which is searched from the innermost scope until a bound one is found.
+     * the global scope ends the chain, globals are defined on first reference because later input may define them.
+     * @param name
+     * @return
+     */
+    public List<Symbol> resolve(String name) {
+        List<Symbol> chain = new ArrayList<>();
+        if (isGlobal()) {
+            chain.add(define(name));
+            return chain;
+        }
+
+        Symbol symbol = store.get(name);
+        if (symbol != null) {
+            chain.add(symbol);
+            if (symbol.isBound()) {
+                return chain;
+            }
+        }
+
+        for (Symbol outerSymbol : outer.resolve(name)) {
+            if (outerSymbol.getScope() == SymbolScopeEnum.GLOBAL) {
+                chain.add(outerSymbol);
+            } else {
+                chain.add(defineFree(outerSymbol));
+            }
+        }
+        return chain;
+    }
+
+    private Symbol defineFree(Symbol outerSymbol) {
+        Symbol free = outer2Free.get(outerSymbol);
+        if (free != null) {
+            return free;
+        }
+
+        free = new Symbol(outerSymbol.getName(), SymbolScopeEnum.FREE, freeSymbols.size(), outerSymbol.isBound());
+        freeSymbols.add(outerSymbol);
+        outer2Free.put(outerSymbol, free);
+        return free;
+    }
+}
@@ -0,0 +1,56 @@
+package interpreter.eval;
+
+/**
+ * counts of the values of the condition of a branch node: the condition of if and while,
+ * the left operand of and/or. the counts saturate instead of overflowing.
+ */
+public class BranchProfile {
+
+    private long trueCount;
+
+    private long falseCount;
+
+    public void record(boolean value) {
+        if (value) {
+            if (trueCount < Long.MAX_VALUE) {
+                trueCount++;
+            }
+        } else if (falseCount < Long.MAX_VALUE) {
+            falseCount++;
+        }
+    }
+
+    /**
+     * @param value
+     * @return the value, to record the condition inline
+     */
+    public boolean profile(boolean value) {
+        record(value);
+        return value;
+    }
+
+    public long getTrueCount() {
+        return trueCount;
+    }
+
+    public long getFalseCount() {
+        return falseCount;
+    }
+
+    public long getCount() {
+        return trueCount + falseCount;
+    }
+
+    /**
+     * @return ratio of the true values, 0.5 if the condition is never evaluated
+     */
+    public double trueRatio() {
+        long count = getCount();
+        return count == 0 ? 0.5 : (double) trueCount / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("true=%d, false=%d", trueCount, falseCount);
+    }
+}
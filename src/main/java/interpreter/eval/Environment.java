@@ -1,34 +1,59 @@
 package interpreter.eval;
 
 import interpreter.object.ValueObject;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Getter;
 
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * context while interpreting the statement, store the value of identifier
+ * context while interpreting the statement, store the value of identifier.
+ * the environment without outer is global, its variables are kept in a global table.
  */
-@NoArgsConstructor
 public class Environment implements Serializable {
     /**
      * the map should not be static, if it is static, the outer context will share the same map, it is wrong.
+     * created on first set, the frame of resolved function keeps its variables in slots and rarely needs it.
      */
-    private final Map<String, ValueObject> env = new HashMap<>();
+    private Map<String, ValueObject> env;
+
+    @Getter
     private Environment outer;
 
+    /**
+     * variables of the global environment, null if the environment has outer
+     */
+    @Getter
+    private final GlobalTable globals;
+
+    public Environment() {
+        this(null);
+    }
+
     public Environment(Environment outer) {
         this.outer = outer;
+        this.globals = outer == null ? new GlobalTable() : null;
     }
 
     public void set(String name, ValueObject value) {
+        if (globals != null) {
+            globals.set(name, value);
+            return;
+        }
+
+        if (env == null) {
+            env = new HashMap<>();
+        }
         env.put(name, value);
     }
 
     public ValueObject get(String name) {
-        if (env.containsKey(name)) {
+        if (globals != null) {
+            return globals.get(name);
+        }
+
+        if (env != null && env.containsKey(name)) {
             return env.get(name);
         }
 
@@ -2,11 +2,18 @@ package interpreter.eval;
 
 import interpreter.ast.*;
 import interpreter.builtin.BuiltinFunctionEnum;
+import interpreter.builtin.NativeFunction;
+import interpreter.jit.Jit;
 import interpreter.lexer.Token;
 import interpreter.lexer.TokenTypeEnum;
 import interpreter.macro.Macro;
 import interpreter.object.*;
+import interpreter.resolver.CaptureDescriptor;
+import interpreter.resolver.FrameDescriptor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.commons.lang3.SerializationUtils;
 
 import java.util.ArrayList;
@@ -20,6 +27,68 @@ import java.util.Map;
 @Data
 public class Evaluator {
 
+    public static final int DEFAULT_MAX_DEPTH = 10000;
+
+    /**
+     * max number of nested calls of monkey functions, deeper calls get "stack depth exceeded" error
+     */
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    /**
+     * number of nested calls of monkey functions
+     */
+    private int depth;
+
+    /**
+     * true if the last program evaluated was stopped by a return statement out of functions,
+     * the value of the program is the value returned
+     */
+    @Setter(AccessLevel.NONE)
+    private boolean returned;
+
+    /**
+     * compile the hot functions and loops, null if the evaluator only interprets
+     */
+    private Jit jit;
+
+    /**
+     * returned by the return statement in place of a ReturnObject, the value returned is kept in returnValue.
+     * the blocks pass it up to the call, where the value is taken, so a return allocates nothing.
+     * the if and while expressions used as values convert it to a ReturnObject, e.g. an if with return in an array.
+     */
+    private static final ReturnObject RETURNED = new ReturnObject();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ValueObject returnValue;
+
+    /**
+     * arguments of the calls being evaluated, the arguments of a call are pushed on the top of the array
+     * and popped when the call returns, so the call doesn't create a list
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ValueObject[] arguments = new ValueObject[64];
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int argumentsTop;
+
+    /**
+     * returned by the call in tail position in place of a new TailCallObject, the callee is kept in tailFunction
+     * and its arguments stay pushed from tailBase, the trampoline moves them down over the arguments of the function,
+     * so a tail call allocates nothing.
+     */
+    private static final TailCallObject TAIL_CALLED = new TailCallObject(null, null);
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ValueObject tailFunction;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int tailBase;
+
     /**
      * return inner representation of monkey lang
      * @param node
@@ -39,15 +108,17 @@ public class Evaluator {
         } else if (nodeClass.equals(BlockStatement.class)) {
             return evalBlockStatement((BlockStatement) node, env);
         } else if (nodeClass.equals(IntegerLiteralNode.class)) {
-            return new IntegerObject(((IntegerLiteralNode) node).getValue());
+            return ((IntegerLiteralNode) node).getValue();
         } else if (nodeClass.equals(BooleanLiteralNode.class)) {
             return BooleanObject.getBooleanObject(((BooleanLiteralNode) node).getValue());
         } else if (nodeClass.equals(UnaryExpressionNode.class)) {
             return evalUnaryExpression((UnaryExpressionNode) node, env);
         } else if (nodeClass.equals(BinaryExpressionNode.class)) {
             return evalBinaryExpression((BinaryExpressionNode) node, env);
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            return evalLogicalExpression((LogicalExpressionNode) node, env);
         } else if (nodeClass.equals(IfExpressionNode.class)) {
-            return evalIfExpression((IfExpressionNode) node, env);
+            return valueOf(evalIfExpression((IfExpressionNode) node, env));
         } else if (nodeClass.equals(FunctionLiteralNode.class)) {
             return evalFunctionLiteral((FunctionLiteralNode) node, env);
         } else if (nodeClass.equals(CallExpressionNode.class)) {
@@ -64,7 +135,7 @@ public class Evaluator {
         } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
             return evalMapLiteral((MapLiteralExpressionNode) node, env);
         } else if (nodeClass.equals(WhileExpressionNode.class)) {
-            return evalWhileExpression((WhileExpressionNode) node, env);
+            return valueOf(evalWhileExpression((WhileExpressionNode) node, env));
         } else if (nodeClass.equals(FunctionStatementNode.class)) {
             return evalFunctionStatement((FunctionStatementNode) node, env);
         } else if (nodeClass.equals(AssignExpressionNode.class)) {
@@ -80,17 +151,18 @@ public class Evaluator {
             return value;
         }
 
-        if (env.get(node.getName().getValue()) == null) {
+        if (lookup(node.getName(), env) == null) {
             return new ErrorObject(String.format("variable %s not found!", node.getName().getValue()));
         }
 
-        env.set(node.getName().getValue(), value);
+        bind(node.getName(), value, env);
         return NullObject.getNullObject();
     }
 
     private ValueObject evalFunctionStatement(FunctionStatementNode node, Environment env) {
-        FunctionObject function = new FunctionObject(node.getParameters(), node.getBody(), env);
-        env.set(node.getFuncName().getValue(), function);
+        FunctionObject function = new FunctionObject(node.getParameters(), node.getBody(),
+                closureEnv(node.getFrameDescriptor(), env), node.getFrameDescriptor());
+        bind(node.getFuncName(), function, env);
         return NullObject.getNullObject();
     }
 
@@ -111,8 +183,15 @@ public class Evaluator {
                 return cond;
             }
 
-            if (isTrue(cond)) {
+            if (node.profile().profile(Operations.isTrue(cond))) {
                 res = eval(node.getBody(), env);
+                // return and error stop the loop, the enclosing block will handle them
+                if (res != null && (res.type() == ValueTypeEnum.ERROR || res.type() == ValueTypeEnum.RETURN)) {
+                    return res;
+                }
+                if (jit != null && jit.backEdge(node, env)) {
+                    return res;
+                }
             } else {
                 break;
             }
@@ -136,6 +215,11 @@ public class Evaluator {
      */
     public TreeNode expandMacro(TreeNode quoted, Environment env) {
         return Macro.modify(quoted, node -> {
+            if (node.getClass().equals(BlockStatement.class) && ((BlockStatement) node).isLazy()) {
+                // the macros are expanded in the lazy body when it's parsed
+                ((BlockStatement) node).defer(block -> expandMacro(block, env));
+                return node;
+            }
             if (!node.getClass().equals(CallExpressionNode.class)) {
                 return node;
             }
@@ -277,7 +361,7 @@ public class Evaluator {
                 return value;
             }
 
-            res.getPairs().put(key, value);
+            res = res.put(key, value);
         }
 
         return res;
@@ -294,20 +378,7 @@ public class Evaluator {
             return index;
         }
 
-        if (object.type() == ValueTypeEnum.MAP) {
-            MapObject mapObject = (MapObject) object;
-            return mapObject.getPairs().get(index);
-        } else if (object.type() == ValueTypeEnum.ARRAY && index.type() == ValueTypeEnum.INTEGER) {
-            ArrayObject arrayObject = (ArrayObject) object;
-            Integer idx =((IntegerObject) index).getValue();
-            if (idx < 0 || idx > arrayObject.getElements().size() - 1) {
-                return NullObject.getNullObject();
-            }
-
-            return arrayObject.getElements().get(idx);
-        } else {
-            return new ErrorObject(String.format("index not supported: %s", object.type()));
-        }
+        return Operations.index(object, index);
     }
 
     private ValueObject evalArrayLiteral(ArrayLiteralExpressionNode node, Environment env) {
@@ -327,8 +398,8 @@ public class Evaluator {
      * @param env
      * @return
      */
-    private ValueObject evalIdentifier(IdentifierNode node, Environment env) {
-        ValueObject value = env.get(node.getValue());
+    static ValueObject evalIdentifier(IdentifierNode node, Environment env) {
+        ValueObject value = lookup(node, env);
         if (value != null) {
             return value;
         }
@@ -342,6 +413,119 @@ public class Evaluator {
         return value;
     }
 
+    /**
+     * get the value of variable, read the slot of the frame if the identifier is resolved
+     * @param node
+     * @param env
+     * @return null if the variable is not found
+     */
+    public static ValueObject lookup(IdentifierNode node, Environment env) {
+        return lookup(node, env, node.getDepth());
+    }
+
+    /**
+     * get the value of resolved variable from an environment enclosing the one the identifier is resolved in,
+     * e.g. a variable not declared in the function read from the environment of the closure, with depth - 1
+     * @param node
+     * @param env
+     * @param depth number of environments from env to the scope of the variable
+     * @return null if the variable is not found
+     */
+    public static ValueObject lookup(IdentifierNode node, Environment env, int depth) {
+        if (node.getDepth() < 0) {
+            return env.get(node.getValue());
+        }
+
+        Environment scope = env;
+        for (int i = depth; i > 0; i--) {
+            scope = scope.getOuter();
+        }
+
+        if (node.getSlot() < 0) {
+            return scope.getGlobals() != null ? cellOf(node, scope.getGlobals()).getValue() : scope.get(node.getValue());
+        }
+
+        ValueObject value = ((FrameEnvironment) scope).getSlot(node.getSlot());
+        if (value != null || scope.getOuter() == null) {
+            return value;
+        }
+
+        // the variable is not bound yet, the variable of enclosing scope with the same name is visible
+        return scope.getOuter().get(node.getValue());
+    }
+
+    /**
+     * bind the value to the variable in current env
+     * @param node
+     * @param value
+     * @param env
+     */
+    public static void bind(IdentifierNode node, ValueObject value, Environment env) {
+        if (node.getSlot() >= 0) {
+            ((FrameEnvironment) env).setSlot(node.getSlot(), value);
+        } else if (node.getDepth() >= 0 && env.getGlobals() != null) {
+            env.getGlobals().set(cellOf(node, env.getGlobals()), value);
+        } else {
+            env.set(node.getValue(), value);
+        }
+    }
+
+    /**
+     * the cell of the global variable, kept by the identifier after the first lookup.
+     * the cells are never replaced, the kept cell is valid while the identifier is evaluated in the same globals
+     * @param node
+     * @param globals
+     * @return
+     */
+    private static GlobalCell cellOf(IdentifierNode node, GlobalTable globals) {
+        GlobalCell cell = node.getCell();
+        if (cell == null || cell.getTable() != globals) {
+            cell = globals.cell(node.getValue());
+            node.setCell(cell);
+        }
+        return cell;
+    }
+
+    /**
+     * create the environment kept by the closure: the variables captured from the env and the globals,
+     * the frames of the enclosing functions are not kept.
+     * a boxed variable shares the cell, the closure sees the later bindings of it, the others are copied.
+     * @param descriptor frame descriptor of the function, null if it is not resolved, then the whole env is kept
+     * @param env where the function is created
+     * @return
+     */
+    public static Environment closureEnv(FrameDescriptor descriptor, Environment env) {
+        if (descriptor == null) {
+            return env;
+        }
+
+        // the frame is followed by the captured variables if there are any, then by the globals
+        Environment globals = env;
+        if (env instanceof FrameEnvironment) {
+            globals = env.getOuter();
+            if (((FrameEnvironment) env).getDescriptor().getCaptures() != null) {
+                globals = globals.getOuter();
+            }
+        }
+
+        CaptureDescriptor captures = descriptor.getCaptures();
+        if (captures == null) {
+            return globals;
+        }
+
+        FrameEnvironment closure = new FrameEnvironment(captures.getLayout(), globals, false);
+        for (int i = 0; i < captures.size(); i++) {
+            IdentifierNode source = captures.getSources().get(i);
+            FrameEnvironment scope = (FrameEnvironment) (source.getDepth() == 0 ? env : env.getOuter());
+            if (captures.getLayout().isBoxed(i)) {
+                closure.shareCell(i, scope.getCell(source.getSlot()));
+            } else {
+                closure.setSlot(i, scope.getSlot(source.getSlot()));
+            }
+        }
+        return closure;
+    }
+
     /**
      * return the function with current env, implement closure
      * @param node
@@ -349,7 +533,8 @@ public class Evaluator {
      * @return
      */
     private ValueObject evalFunctionLiteral(FunctionLiteralNode node, Environment env) {
-        return new FunctionObject(node.getParameters(), node.getBody(), env);
+        return new FunctionObject(node.getParameters(), node.getBody(),
+                closureEnv(node.getFrameDescriptor(), env), node.getFrameDescriptor());
     }
 
     /**
@@ -363,21 +548,169 @@ public class Evaluator {
      */
     private ValueObject evalCallExpression(CallExpressionNode node, Environment env) {
 
-        if (node.getFuncName().toString().equals("quote")) {
+        if (node.isQuote()) {
             return evalQuote(node.getArguments().get(0), env);
         }
 
-        ValueObject function = eval(node.getFuncName(), env);
+        ValueObject function = evalCallee(node, env);
         if (function.type() == ValueTypeEnum.ERROR) {
             return function;
         }
+        if (function.type() == ValueTypeEnum.BUILTIN) {
+            return callNative(((BuiltinFunctionObject) function).getFunction(), node.getArguments(), env);
+        }
+
+        int base = argumentsTop;
+        boolean tail = false;
+        try {
+            ValueObject error = pushArguments(node.getArguments(), env);
+            if (error != null) {
+                return error;
+            }
+
+            if (node.isTail()) {
+                // the caller of enclosing function runs it, so the java stack doesn't grow
+                tail = true;
+                tailFunction = function;
+                tailBase = base;
+                return TAIL_CALLED;
+            }
+            return applyFunction(function, base, argumentsTop - base);
+        } finally {
+            if (!tail) {
+                popArguments(base);
+            }
+        }
+    }
+
+    /**
+     * eval the arguments and push them
+     * @param argumentNodes
+     * @param env
+     * @return the error of argument, null if all the arguments are pushed
+     */
+    private ValueObject pushArguments(List<ExpressionNode> argumentNodes, Environment env) {
+        for (int i = 0; i < argumentNodes.size(); i++) {
+            ValueObject arg = eval(argumentNodes.get(i), env);
+            if (arg.type() == ValueTypeEnum.ERROR) {
+                return arg;
+            }
+            pushArgument(arg);
+        }
+        return null;
+    }
+
+    private void pushArgument(ValueObject arg) {
+        if (argumentsTop == arguments.length) {
+            arguments = Arrays.copyOf(arguments, arguments.length * 2);
+        }
+        arguments[argumentsTop++] = arg;
+    }
+
+    /**
+     * pop the arguments above base, the popped slots are cleared so the values can be collected
+     * @param base
+     */
+    private void popArguments(int base) {
+        while (argumentsTop > base) {
+            arguments[--argumentsTop] = null;
+        }
+    }
+
+    /**
+     * the if and while expression whose value is used, e.g. an operand, get the return in it as a ReturnObject
+     * @param value
+     * @return
+     */
+    private ValueObject valueOf(ValueObject value) {
+        return value == RETURNED ? new ReturnObject(takeReturnValue()) : value;
+    }
+
+    private ValueObject takeReturnValue() {
+        ValueObject value = returnValue;
+        returnValue = null;
+        return value;
+    }
+
+    /**
+     * pass the arguments of the common arities one by one, so no list is created
+     * @param function
+     * @param argumentNodes
+     * @param env
+     * @return
+     */
+    private ValueObject callNative(NativeFunction function, List<ExpressionNode> argumentNodes, Environment env) {
+        int count = argumentNodes.size();
+        if (count > 3) {
+            List<ValueObject> args = evalExpressions(argumentNodes, env);
+            if (args.size() == 1 && args.get(0).type() == ValueTypeEnum.ERROR) {
+                return args.get(0);
+            }
+            return function.invoke(args);
+        }
+
+        ValueObject a = null;
+        ValueObject b = null;
+        ValueObject c = null;
+        if (count > 0 && (a = eval(argumentNodes.get(0), env)).type() == ValueTypeEnum.ERROR) {
+            return a;
+        }
+        if (count > 1 && (b = eval(argumentNodes.get(1), env)).type() == ValueTypeEnum.ERROR) {
+            return b;
+        }
+        if (count > 2 && (c = eval(argumentNodes.get(2), env)).type() == ValueTypeEnum.ERROR) {
+            return c;
+        }
+
+        switch (count) {
+            case 0:
+                return function.invoke0();
+            case 1:
+                return function.invoke1(a);
+            case 2:
+                return function.invoke2(a, b);
+            default:
+                return function.invoke3(a, b, c);
+        }
+    }
 
-        List<ValueObject> args = evalExpressions(node.getArguments(), env);
-        if (args.size() == 1 && args.get(0).type() == ValueTypeEnum.ERROR) {
-            return args.get(0);
+    /**
+     * eval the function called, the global function and builtin are cached at the call site,
+     * the global env is found by walking the depth of the identifier instead of looking up the name.
+     * @param node
+     * @param env
+     * @return
+     */
+    private ValueObject evalCallee(CallExpressionNode node, Environment env) {
+        if (!node.getFuncName().getClass().equals(IdentifierNode.class)) {
+            return eval(node.getFuncName(), env);
         }
 
-        return applyFunction(function, args);
+        IdentifierNode name = (IdentifierNode) node.getFuncName();
+        if (name.getDepth() < 0 || name.getSlot() >= 0) {
+            return evalIdentifier(name, env);
+        }
+        Environment globals = env;
+        for (int i = name.getDepth(); i > 0; i--) {
+            globals = globals.getOuter();
+        }
+        if (globals.getOuter() != null) {
+            return evalIdentifier(name, env);
+        }
+
+        InlineCache cache = node.getCache();
+        if (cache == null) {
+            cache = new InlineCache();
+            node.setCache(cache);
+        }
+        ValueObject function = cache.get(globals.getGlobals());
+        if (function == null) {
+            function = evalIdentifier(name, env);
+            if (function.type() == ValueTypeEnum.FUNCTION || function.type() == ValueTypeEnum.BUILTIN) {
+                cache.put(globals.getGlobals(), function);
+            }
+        }
+        return function;
     }
 
     /**
@@ -425,7 +758,7 @@ public class Evaluator {
     private TreeNode convertObjectToAstNode(ValueObject value) {
         switch (value.type()) {
             case INTEGER:
-                return new IntegerLiteralNode(new Token(TokenTypeEnum.INT, value.inspect(), -1), ((IntegerObject) value).getValue());
+                return new IntegerLiteralNode(new Token(TokenTypeEnum.INT, value.inspect(), -1), (IntegerObject) value);
             case BOOLEAN:
                 BooleanObject v = (BooleanObject) value;
                 return new BooleanLiteralNode(new Token(v.getValue()?TokenTypeEnum.TRUE:TokenTypeEnum.FALSE, v.inspect(), -1), v.getValue());
@@ -454,30 +787,32 @@ public class Evaluator {
      * 3. eval the statements in function body
      * 4. return value;
      * @param function
-     * @param args
+     * @param base index of the first argument in arguments
+     * @param count number of arguments
      * @return
      */
-    private ValueObject applyFunction(ValueObject function, List<ValueObject> args) {
+    private ValueObject applyFunction(ValueObject function, int base, int count) {
         ValueObject res = null;
 
         switch (function.type()) {
             case FUNCTION:
-                FunctionObject fn = (FunctionObject) function;
-                Environment extendEnv = new Environment(fn.getEnv());
-                int i = 0;
-                for (IdentifierNode para : fn.getParameters()) {
-                    extendEnv.set(para.getValue().toString(), args.get(i));
-                    i++;
+                if (depth >= maxDepth) {
+                    return new ErrorObject("stack depth exceeded");
                 }
-                res = eval(((FunctionObject) function).getBody(), extendEnv);
 
-                if (res != null && res.type() == ValueTypeEnum.RETURN) {
-                    res = ((ReturnObject)res).getValue();
+                depth++;
+                try {
+                    res = trampoline((FunctionObject) function, base, count);
+                } catch (StackOverflowError e) {
+                    // the java stack is smaller than maxDepth calls need
+                    return new ErrorObject("stack depth exceeded");
+                } finally {
+                    depth--;
                 }
                 break;
             case BUILTIN:
                 BuiltinFunctionObject builtinFunc = (BuiltinFunctionObject) function;
-                res = builtinFunc.getFunction().apply(args);
+                res = builtinFunc.getFunction().invoke(arguments, base, count);
                 break;
             default:
                 return new ErrorObject(String.format("not a function: %s", function.type()));
@@ -489,6 +824,118 @@ public class Evaluator {
         return res;
     }
 
+    /**
+     * eval the body of function, the tail call returned by the body is run in the loop
+     * in place of the function, instead of nesting a call
+     * @param fn
+     * @param base index of the first argument in arguments
+     * @param count number of arguments
+     * @return
+     */
+    private ValueObject trampoline(FunctionObject fn, int base, int count) {
+        while (true) {
+            ErrorObject wrongArguments = checkArguments(fn.getParameters().size(), count);
+            if (wrongArguments != null) {
+                return wrongArguments;
+            }
+            if (fn.getBody().isLazy()) {
+                ErrorObject error = materialize(fn.getBody());
+                if (error != null) {
+                    return error;
+                }
+            }
+            if (jit != null) {
+                ValueObject compiled = jit.call(fn, arguments, base, count, maxDepth - depth);
+                if (compiled != null) {
+                    return compiled;
+                }
+            }
+            Environment extendEnv = extendFunctionEnv(fn, arguments, base, count);
+            ValueObject res = eval(fn.getBody(), extendEnv);
+
+            if (res == RETURNED) {
+                res = takeReturnValue();
+            } else if (res != null && res.type() == ValueTypeEnum.RETURN) {
+                res = ((ReturnObject)res).getValue();
+            }
+            if (res == null || res.type() != ValueTypeEnum.TAIL_CALL) {
+                return res;
+            }
+
+            // the arguments of the tail call, still on the top, replace the arguments of the function
+            ValueObject function = tailFunction;
+            tailFunction = null;
+            count = argumentsTop - tailBase;
+            System.arraycopy(arguments, tailBase, arguments, base, count);
+            popArguments(base + count);
+            if (function.type() != ValueTypeEnum.FUNCTION) {
+                return applyFunction(function, base, count);
+            }
+            fn = (FunctionObject) function;
+        }
+    }
+
+    /**
+     * parse the lazy body of the function on its first call
+     * @param body
+     * @return null if the body parses, else the syntax errors of the body
+     */
+    public static ErrorObject materialize(BlockStatement body) {
+        List<String> errors = body.materialize();
+        if (errors.isEmpty()) {
+            return null;
+        }
+        return new ErrorObject(String.format("syntax error in function body: %s", String.join(", ", errors)));
+    }
+
+    /**
+     * the extra arguments are ignored, like the vm does
+     * @param parameters number of parameters of the function
+     * @param count number of arguments
+     * @return the error of the call, null if there are enough arguments
+     */
+    public static ErrorObject checkArguments(int parameters, int count) {
+        if (count < parameters) {
+            return new ErrorObject(String.format("wrong number of arguments: want=%d, got=%d", parameters, count));
+        }
+        return null;
+    }
+
+    /**
+     * create the env of function call and bind the arguments to parameters,
+     * the resolved function gets a frame, the parameters take the first slots.
+     * @param fn
+     * @param args
+     * @return
+     */
+    public static Environment extendFunctionEnv(FunctionObject fn, List<ValueObject> args) {
+        return extendFunctionEnv(fn, args.toArray(new ValueObject[0]), 0, args.size());
+    }
+
+    /**
+     * @param fn
+     * @param args
+     * @param base index of the first argument in args
+     * @param count number of arguments, not fewer than the parameters, see checkArguments
+     * @return
+     */
+    public static Environment extendFunctionEnv(FunctionObject fn, ValueObject[] args, int base, int count) {
+        List<IdentifierNode> parameters = fn.getParameters();
+        if (fn.getFrameDescriptor() != null) {
+            FrameEnvironment frame = new FrameEnvironment(fn.getFrameDescriptor(), fn.getEnv());
+            for (int i = 0; i < parameters.size(); i++) {
+                frame.setSlot(parameters.get(i).getSlot(), args[base + i]);
+            }
+            return frame;
+        }
+
+        Environment extendEnv = new Environment(fn.getEnv());
+        for (int i = 0; i < parameters.size(); i++) {
+            extendEnv.set(parameters.get(i).getValue(), args[base + i]);
+        }
+        return extendEnv;
+    }
+
     private List<ValueObject> evalExpressions(List<ExpressionNode> arguments, Environment env) {
         List<ValueObject> res = new ArrayList<>();
         for (ExpressionNode arg : arguments) {
@@ -508,7 +955,8 @@ public class Evaluator {
         if (value.type() == ValueTypeEnum.ERROR) {
             return value;
         }
-        return new ReturnObject(value);
+        returnValue = value;
+        return RETURNED;
     }
 
     private ValueObject evalLetStatement(LetStatementNode node, Environment env) {
@@ -517,14 +965,14 @@ public class Evaluator {
             return value;
         }
 
-        env.set(node.getName().getValue(), value);
+        bind(node.getName(), value, env);
         return NullObject.getNullObject();
     }
 
     private ValueObject evalBlockStatement(BlockStatement node, Environment env) {
         ValueObject res = null;
         for (StatementNode statement : node.getStatements()) {
-            res = eval(statement, env);
+            res = evalStatement(statement, env);
             if (res != null && (res.type() == ValueTypeEnum.ERROR || res.type() == ValueTypeEnum.RETURN)) {
                 return res;
             }
@@ -533,6 +981,25 @@ public class Evaluator {
         return res;
     }
 
+    /**
+     * eval the statement of block, the return in if and while statement is passed to the block as RETURNED
+     * @param statement
+     * @param env
+     * @return
+     */
+    private ValueObject evalStatement(StatementNode statement, Environment env) {
+        if (statement.getClass().equals(ExpressionStatementNode.class)) {
+            ExpressionNode expression = ((ExpressionStatementNode) statement).getExpression();
+            if (expression.getClass().equals(IfExpressionNode.class)) {
+                return evalIfExpression((IfExpressionNode) expression, env);
+            } else if (expression.getClass().equals(WhileExpressionNode.class)) {
+                return evalWhileExpression((WhileExpressionNode) expression, env);
+            }
+            return eval(expression, env);
+        }
+        return eval(statement, env);
+    }
+
     private ValueObject evalIfExpression(IfExpressionNode node, Environment env) {
         ValueObject condition = eval(node.getCondition(), env);
 
@@ -540,7 +1007,7 @@ public class Evaluator {
             return condition;
         }
 
-        if (isTrue(condition)) {
+        if (node.profile().profile(Operations.isTrue(condition))) {
             return eval(node.getConsequence(), env);
         } else if (node.getAlternative() != null) {
             return eval(node.getAlternative(), env);
@@ -549,22 +1016,6 @@ public class Evaluator {
         }
     }
 
-    private boolean isTrue(ValueObject condition) {
-        switch (condition.type()) {
-            case NULL:
-                return false;
-            case BOOLEAN:
-                return ((BooleanObject) condition).getValue();
-            case INTEGER:
-                return ((IntegerObject) condition).getValue() != 0;
-            case STRING:
-                return ((StringObject) condition).getValue() != null
-                        && !((StringObject) condition).getValue().isEmpty();
-            default:
-                return true;
-        }
-    }
-
     private ValueObject evalBinaryExpression(BinaryExpressionNode node, Environment env) {
         ValueObject left = eval(node.getLeft(), env);
 
@@ -578,90 +1029,63 @@ public class Evaluator {
             return right;
         }
 
-        if (left.type() != right.type()) {
-            return new ErrorObject(String.format("type missmatch: %s %s %s", left.type(), node.getOperator(), right.type()));
-        } else if (left.type() == ValueTypeEnum.INTEGER && right.type() == ValueTypeEnum.INTEGER) {
-            IntegerObject leftInt = (IntegerObject) left;
-            IntegerObject rightInt = (IntegerObject) right;
-            switch (node.getOperator()) {
-                case "+":
-                    return new IntegerObject(leftInt.getValue() + rightInt.getValue());
-                case "-":
-                    return new IntegerObject(leftInt.getValue() - rightInt.getValue());
-                case "*":
-                    return new IntegerObject(leftInt.getValue() * rightInt.getValue());
-                case "/":
-                    return new IntegerObject(leftInt.getValue() / rightInt.getValue());
-                case "<":
-                    return BooleanObject.getBooleanObject(leftInt.getValue() < rightInt.getValue());
-                case "<=":
-                    return BooleanObject.getBooleanObject(leftInt.getValue() <= rightInt.getValue());
-                case ">":
-                    return BooleanObject.getBooleanObject(leftInt.getValue() > rightInt.getValue());
-                case ">=":
-                    return BooleanObject.getBooleanObject(leftInt.getValue() >= rightInt.getValue());
-                case "!=":
-                    return BooleanObject.getBooleanObject(leftInt.getValue().intValue() != rightInt.getValue().intValue());
-                case "==":
-                    return BooleanObject.getBooleanObject(leftInt.getValue().intValue() == rightInt.getValue().intValue());
-                default:
-                    return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), node.getOperator(), right.type()));
-            }
-        } else if (left.type() == ValueTypeEnum.STRING && "+".equals(node.getOperator())) {
-            return new StringObject(((StringObject)left).getValue() + ((StringObject)right).getValue());
-        } else if (left.type() == ValueTypeEnum.BOOLEAN) {
-            switch (node.getOperator()) {
-                case "and":
-                    return BooleanObject.getBooleanObject(((BooleanObject) left).getValue() && ((BooleanObject) right).getValue());
-                case "or":
-                    return BooleanObject.getBooleanObject(((BooleanObject) left).getValue() || ((BooleanObject) right).getValue());
-                case "==":
-                    return BooleanObject.getBooleanObject(left == right);
-                case "!=":
-                    return BooleanObject.getBooleanObject(left != right);
-                default:
-                    return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), node.getOperator(), right.type()));
-            }
-        }
-        return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), node.getOperator(), right.type()));
+        return Operations.binary(node.getOperator(), left, right);
     }
 
-    private ValueObject evalUnaryExpression(UnaryExpressionNode node, Environment env) {
-        ValueObject right = eval(node.getRight(), env);
+    /**
+     * the right operand is evaluated only if the left one doesn't decide the value
+     * @param node
+     * @param env
+     * @return
+     */
+    private ValueObject evalLogicalExpression(LogicalExpressionNode node, Environment env) {
+        ValueObject left = eval(node.getLeft(), env);
+        if (left.type() == ValueTypeEnum.ERROR) {
+            return left;
+        }
 
+        node.profile().record(Operations.isTrue(left));
+        if (Operations.isShortCircuit(node.getOperator(), left)) {
+            return left;
+        }
+
+        ValueObject right = eval(node.getRight(), env);
         if (right.type() == ValueTypeEnum.ERROR) {
             return right;
         }
 
-        switch (node.getOperator()) {
-            case "!":
-                switch (right.type()) {
-                    case BOOLEAN:
-                        return BooleanObject.getBooleanObject(!((BooleanObject)right).getValue());
-                    case INTEGER:
-                        return BooleanObject.getBooleanObject(((IntegerObject)right).getValue() == 0);
-                    default:
-                        return BooleanObject.getBooleanObject(true);
-                }
-            case "-":
-                if (right.type() != ValueTypeEnum.INTEGER) {
-                    return new ErrorObject(String.format("unknown operator: %s%s", node.getOperator(), right.type().name()));
-                }
+        return Operations.binary(node.getOperator(), left, right);
+    }
 
-                return new IntegerObject(-1* ((IntegerObject) right).getValue());
-            default:
-                return new ErrorObject(String.format("unknown operator: %s%s", node.getOperator(), right.type().name()));
+    private ValueObject evalUnaryExpression(UnaryExpressionNode node, Environment env) {
+        ValueObject right = eval(node.getRight(), env);
+
+        if (right.type() == ValueTypeEnum.ERROR) {
+            return right;
         }
+
+        return Operations.unary(node.getOperator(), right);
     }
 
+    /**
+     * a return stops the program, the value returned is the value of the program, returned tells it returned
+     * @param node
+     * @param env
+     * @return
+     */
     private ValueObject evalProgram(ProgramNode node, Environment env) {
+        returned = false;
         ValueObject res = null;
         for (StatementNode statement : node.getStatements()) {
-            res = eval(statement, env);
+            res = evalStatement(statement, env);
             if (res == null) {
                 continue;
             }
-            if (res.type() == ValueTypeEnum.RETURN) {
+            if (res == RETURNED) {
+                returned = true;
+                return takeReturnValue();
+            } else if (res.type() == ValueTypeEnum.RETURN) {
+                returned = true;
                 return ((ReturnObject) res).getValue();
             } else if (res.type() == ValueTypeEnum.ERROR) {
                 return res;
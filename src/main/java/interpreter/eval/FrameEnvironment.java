@@ -0,0 +1,98 @@
+package interpreter.eval;
+
+import interpreter.object.Cell;
+import interpreter.object.ValueObject;
+import interpreter.resolver.FrameDescriptor;
+import lombok.Getter;
+
+/**
+ * environment of a resolved function call, the variables declared in the function are stored in an array,
+ * read and written by the slots computed by resolver.
+ * the boxed variables are stored in cells shared with the closures capturing them,
+ * the environment kept by a closure is a frame of the captured variables too.
+ */
+@Getter
+public class FrameEnvironment extends Environment {
+
+    private final FrameDescriptor descriptor;
+
+    /**
+     * null if the variable is not bound yet
+     */
+    private final ValueObject[] slots;
+
+    /**
+     * cells of the boxed variables, null if there is no boxed variable
+     */
+    private final Cell[] cells;
+
+    public FrameEnvironment(FrameDescriptor descriptor, Environment outer) {
+        this(descriptor, outer, true);
+    }
+
+    /**
+     * @param descriptor
+     * @param outer
+     * @param createCells false if the cells are shared by the caller
+     */
+    FrameEnvironment(FrameDescriptor descriptor, Environment outer, boolean createCells) {
+        super(outer);
+        this.descriptor = descriptor;
+        this.slots = new ValueObject[descriptor.size()];
+        this.cells = descriptor.hasBoxed() ? new Cell[descriptor.size()] : null;
+        if (createCells && cells != null) {
+            for (int i = 0; i < cells.length; i++) {
+                if (descriptor.isBoxed(i)) {
+                    cells[i] = new Cell();
+                }
+            }
+        }
+    }
+
+    public ValueObject getSlot(int slot) {
+        if (cells != null && cells[slot] != null) {
+            return cells[slot].getValue();
+        }
+        return slots[slot];
+    }
+
+    public void setSlot(int slot, ValueObject value) {
+        if (cells != null && cells[slot] != null) {
+            cells[slot].setValue(value);
+        } else {
+            slots[slot] = value;
+        }
+    }
+
+    /**
+     * @param slot
+     * @return null if the variable is not boxed
+     */
+    public Cell getCell(int slot) {
+        return cells == null ? null : cells[slot];
+    }
+
+    void shareCell(int slot, Cell cell) {
+        cells[slot] = cell;
+    }
+
+    @Override
+    public void set(String name, ValueObject value) {
+        int slot = descriptor.slotOf(name);
+        if (slot >= 0) {
+            setSlot(slot, value);
+        } else {
+            super.set(name, value);
+        }
+    }
+
+    @Override
+    public ValueObject get(String name) {
+        int slot = descriptor.slotOf(name);
+        if (slot >= 0 && getSlot(slot) != null) {
+            return getSlot(slot);
+        }
+
+        return super.get(name);
+    }
+}
@@ -0,0 +1,35 @@
+package interpreter.eval;
+
+import interpreter.object.ValueObject;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * cell of a global variable, created once per name and never replaced, so the identifiers keep it
+ * after the first lookup and read the value with a field load.
+ */
+@Getter
+public final class GlobalCell implements Serializable {
+
+    /**
+     * the table owning the cell, an identifier evaluated in another global environment looks up again
+     */
+    private final GlobalTable table;
+
+    private final String name;
+
+    /**
+     * null if the name is not bound yet
+     */
+    private ValueObject value;
+
+    GlobalCell(GlobalTable table, String name) {
+        this.table = table;
+        this.name = name;
+    }
+
+    void setValue(ValueObject value) {
+        this.value = value;
+    }
+}
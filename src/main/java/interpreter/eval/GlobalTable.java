@@ -0,0 +1,69 @@
+package interpreter.eval;
+
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * variables of the global environment, each name maps to a stable cell.
+ * binding a name again sets the value of its cell, so a cell kept by an identifier is never out of date.
+ * the version changes when a name is bound for the first time, shadowing the builtin of the same name,
+ * or a function bound to a name is replaced, the call sites caching the callee check it.
+ */
+public class GlobalTable implements Serializable {
+
+    private final Map<String, GlobalCell> cells = new HashMap<>();
+
+    @Getter
+    private int version;
+
+    /**
+     * @param name
+     * @return the cell of the name, created unbound if the name is not bound yet
+     */
+    public GlobalCell cell(String name) {
+        GlobalCell cell = cells.get(name);
+        if (cell == null) {
+            cell = new GlobalCell(this, name);
+            cells.put(name, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * @param name
+     * @return null if the name is not bound
+     */
+    public ValueObject get(String name) {
+        GlobalCell cell = cells.get(name);
+        return cell == null ? null : cell.getValue();
+    }
+
+    public void set(String name, ValueObject value) {
+        set(cell(name), value);
+    }
+
+    /**
+     * @param cell a cell of this table
+     * @param value
+     */
+    public void set(GlobalCell cell, ValueObject value) {
+        ValueObject old = cell.getValue();
+        cell.setValue(value);
+        if (old == null || (old != value && isFunction(old))) {
+            version++;
+        }
+    }
+
+    private static boolean isFunction(ValueObject value) {
+        return value.type() == ValueTypeEnum.FUNCTION || value.type() == ValueTypeEnum.BUILTIN;
+    }
+
+    public int size() {
+        return cells.size();
+    }
+}
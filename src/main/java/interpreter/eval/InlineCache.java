@@ -0,0 +1,63 @@
+package interpreter.eval;
+
+import interpreter.object.ValueObject;
+
+/**
+ * callees of a call site whose function is a global variable or builtin, one entry per global table.
+ * an entry is valid while the version of its table is unchanged, the version changes when a name is added
+ * or a function bound to a name is replaced, so the lookup of the name and the builtin is skipped.
+ * the call site is monomorphic with one entry, polymorphic with up to MAX_ENTRIES,
+ * it stops caching if there are more tables.
+ */
+public class InlineCache {
+
+    public static final int MAX_ENTRIES = 4;
+
+    private final GlobalTable[] tables = new GlobalTable[MAX_ENTRIES];
+
+    private final int[] versions = new int[MAX_ENTRIES];
+
+    private final ValueObject[] callees = new ValueObject[MAX_ENTRIES];
+
+    private int size;
+
+    private boolean megamorphic;
+
+    /**
+     * @param globals
+     * @return null if the callee of the table is not cached or the cache is out of date
+     */
+    public ValueObject get(GlobalTable globals) {
+        for (int i = 0; i < size; i++) {
+            if (tables[i] == globals) {
+                return versions[i] == globals.getVersion() ? callees[i] : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * cache the callee resolved in the table, replace the entry of the table if it is out of date
+     * @param globals
+     * @param callee
+     */
+    public void put(GlobalTable globals, ValueObject callee) {
+        if (megamorphic) {
+            return;
+        }
+
+        int i = 0;
+        while (i < size && tables[i] != globals) {
+            i++;
+        }
+        if (i == MAX_ENTRIES) {
+            megamorphic = true;
+            return;
+        }
+
+        tables[i] = globals;
+        versions[i] = globals.getVersion();
+        callees[i] = callee;
+        size = Math.max(size, i + 1);
+    }
+}
@@ -0,0 +1,155 @@
+package interpreter.eval;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.object.*;
+
+/**
+ * semantics of the operators of monkey lang, shared by every execution engine
+ * so that the tree-walking evaluator and the vm produce the same values and error messages.
+ */
+public final class Operations {
+
+    private Operations() {
+    }
+
+    /**
+     * apply binary operator on two evaluated operands
+     * @param operator
+     * @param left
+     * @param right
+     * @return
+     */
+    public static ValueObject binary(OperatorEnum operator, ValueObject left, ValueObject right) {
+        if (left.type() != right.type()) {
+            return new ErrorObject(String.format("type missmatch: %s %s %s", left.type(), operator.getLiteral(), right.type()));
+        } else if (left.type() == ValueTypeEnum.INTEGER && right.type() == ValueTypeEnum.INTEGER) {
+            IntegerObject leftInt = (IntegerObject) left;
+            IntegerObject rightInt = (IntegerObject) right;
+            switch (operator) {
+                case PLUS:
+                    return IntegerObject.add(leftInt, rightInt);
+                case MINUS:
+                    return IntegerObject.subtract(leftInt, rightInt);
+                case ASTERISK:
+                    return IntegerObject.multiply(leftInt, rightInt);
+                case SLASH:
+                    return IntegerObject.divide(leftInt, rightInt);
+                case LT:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) < 0);
+                case LE:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) <= 0);
+                case GT:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) > 0);
+                case GE:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) >= 0);
+                case NOT_EQ:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) != 0);
+                case EQ:
+                    return BooleanObject.getBooleanObject(IntegerObject.compare(leftInt, rightInt) == 0);
+                default:
+                    return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), operator.getLiteral(), right.type()));
+            }
+        } else if (left.type() == ValueTypeEnum.STRING && operator == OperatorEnum.PLUS) {
+            return StringObject.concat((StringObject) left, (StringObject) right);
+        } else if (left.type() == ValueTypeEnum.BOOLEAN) {
+            switch (operator) {
+                case AND:
+                    return BooleanObject.getBooleanObject(((BooleanObject) left).getValue() && ((BooleanObject) right).getValue());
+                case OR:
+                    return BooleanObject.getBooleanObject(((BooleanObject) left).getValue() || ((BooleanObject) right).getValue());
+                case EQ:
+                    return BooleanObject.getBooleanObject(left == right);
+                case NOT_EQ:
+                    return BooleanObject.getBooleanObject(left != right);
+                default:
+                    return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), operator.getLiteral(), right.type()));
+            }
+        }
+        return new ErrorObject(String.format("unknown operator: %s %s %s", left.type(), operator.getLiteral(), right.type()));
+    }
+
+    /**
+     * the left operand decides the value of the logical expression: false and x, true or x.
+     * otherwise the right operand is evaluated and the operator is applied by binary
+     * @param operator AND or OR
+     * @param left null if the operand is unknown
+     * @return
+     */
+    public static boolean isShortCircuit(OperatorEnum operator, ValueObject left) {
+        if (left == null || left.type() != ValueTypeEnum.BOOLEAN) {
+            return false;
+        }
+        return ((BooleanObject) left).getValue() == (operator == OperatorEnum.OR);
+    }
+
+    /**
+     * apply unary operator on the evaluated operand
+     * @param operator
+     * @param right
+     * @return
+     */
+    public static ValueObject unary(OperatorEnum operator, ValueObject right) {
+        switch (operator) {
+            case BANG:
+                switch (right.type()) {
+                    case BOOLEAN:
+                        return BooleanObject.getBooleanObject(!((BooleanObject)right).getValue());
+                    case INTEGER:
+                        return BooleanObject.getBooleanObject(((IntegerObject)right).isZero());
+                    default:
+                        return BooleanObject.getBooleanObject(true);
+                }
+            case MINUS:
+                if (right.type() != ValueTypeEnum.INTEGER) {
+                    return new ErrorObject(String.format("unknown operator: %s%s", operator.getLiteral(), right.type().name()));
+                }
+
+                return IntegerObject.negate((IntegerObject) right);
+            default:
+                return new ErrorObject(String.format("unknown operator: %s%s", operator.getLiteral(), right.type().name()));
+        }
+    }
+
+    /**
+     * index array or map, return null if the key is not in the map
+     * @param object
+     * @param index
+     * @return
+     */
+    public static ValueObject index(ValueObject object, ValueObject index) {
+        if (object.type() == ValueTypeEnum.MAP) {
+            MapObject mapObject = (MapObject) object;
+            return mapObject.getPairs().get(index);
+        } else if (object.type() == ValueTypeEnum.ARRAY && index.type() == ValueTypeEnum.INTEGER) {
+            ArrayObject arrayObject = (ArrayObject) object;
+            IntegerObject idx = (IntegerObject) index;
+            if (idx.isBig() || idx.getValue() < 0 || idx.getValue() > arrayObject.getElements().size() - 1) {
+                return NullObject.getNullObject();
+            }
+
+            return arrayObject.getElements().get((int) idx.getValue());
+        } else {
+            return new ErrorObject(String.format("index not supported: %s", object.type()));
+        }
+    }
+
+    /**
+     * truthy value of condition
+     * @param condition
+     * @return
+     */
+    public static boolean isTrue(ValueObject condition) {
+        switch (condition.type()) {
+            case NULL:
+                return false;
+            case BOOLEAN:
+                return ((BooleanObject) condition).getValue();
+            case INTEGER:
+                return !((IntegerObject) condition).isZero();
+            case STRING:
+                return ((StringObject) condition).length() > 0;
+            default:
+                return true;
+        }
+    }
+}
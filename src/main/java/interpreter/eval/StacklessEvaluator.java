@@ -0,0 +1,511 @@
+package interpreter.eval;
+
+import interpreter.ast.*;
+import interpreter.object.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * evaluate the program with tree traversal algorithm, the pending evaluations are kept in a stack of frames on heap
+ * instead of the stack of java, so the depth of recursion is limited by maxFrames instead of the size of thread stack.
+ * a frame remembers the node, the env and how many children are evaluated, the loop resumes the top frame with
+ * the value of the child completed last. the values and errors are the same as the Evaluator's.
+ */
+public class StacklessEvaluator {
+
+    public static final int DEFAULT_MAX_FRAMES = 1 << 24;
+
+    /**
+     * max number of frames on the stack, a call beyond it gets "stack depth exceeded" error
+     */
+    @Getter
+    @Setter
+    private int maxFrames = DEFAULT_MAX_FRAMES;
+
+    /**
+     * evaluate quote, macro expansion doesn't recurse deeply
+     */
+    private final Evaluator evaluator = new Evaluator();
+
+    public StacklessEvaluator() {
+    }
+
+    public StacklessEvaluator(int maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * pending evaluation of a node
+     */
+    private static class Frame {
+
+        private final TreeNode node;
+
+        private final Environment env;
+
+        /**
+         * number of children pushed
+         */
+        private int state;
+
+        /**
+         * value kept between the children, e.g. left operand, result of last statement, the function called
+         */
+        private ValueObject saved;
+
+        private List<ValueObject> values;
+
+        private List<Map.Entry<ExpressionNode, ExpressionNode>> pairs;
+
+        Frame(TreeNode node, Environment env) {
+            this.node = node;
+            this.env = env;
+        }
+    }
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    /**
+     * value of the frame completed last
+     */
+    private ValueObject result;
+
+    /**
+     * true if the last program evaluated was stopped by a return statement out of functions,
+     * the value of the program is the value returned
+     */
+    @Getter
+    private boolean returned;
+
+    /**
+     * completed by the call in tail position in place of a new TailCallObject, the callee is kept in tailFunction
+     * and its arguments in tailArguments, the frame of the enclosing call takes them, like the Evaluator does
+     */
+    private static final TailCallObject TAIL_CALLED = new TailCallObject(null, null);
+
+    private ValueObject tailFunction;
+
+    private List<ValueObject> tailArguments;
+
+    /**
+     * return inner representation of monkey lang
+     * @param node
+     * @param env
+     * @return
+     */
+    public ValueObject eval(TreeNode node, Environment env) {
+        returned = false;
+        stack.clear();
+        stack.push(new Frame(node, env));
+        try {
+            while (true) {
+                if (step(stack.peek())) {
+                    stack.pop();
+                    if (stack.isEmpty()) {
+                        return result;
+                    }
+                }
+            }
+        } finally {
+            stack.clear();
+            result = null;
+            tailFunction = null;
+            tailArguments = null;
+        }
+    }
+
+    private boolean push(TreeNode node, Environment env) {
+        stack.push(new Frame(node, env));
+        return false;
+    }
+
+    private boolean complete(ValueObject value) {
+        result = value;
+        return true;
+    }
+
+    /**
+     * run the frame until it pushes a child or completes
+     * @param frame
+     * @return true if the frame is completed, its value is in result
+     */
+    private boolean step(Frame frame) {
+        TreeNode node = frame.node;
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(ProgramNode.class)) {
+            return stepProgram(frame, ((ProgramNode) node).getStatements());
+        } else if (nodeClass.equals(LetStatementNode.class)) {
+            return stepLetStatement(frame);
+        } else if (nodeClass.equals(ExpressionStatementNode.class)) {
+            if (frame.state++ == 0) {
+                return push(((ExpressionStatementNode) node).getExpression(), frame.env);
+            }
+            return complete(result);
+        } else if (nodeClass.equals(ReturnStatementNode.class)) {
+            if (frame.state++ == 0) {
+                return push(((ReturnStatementNode) node).getValue(), frame.env);
+            }
+            return result.type() == ValueTypeEnum.ERROR ? complete(result) : complete(new ReturnObject(result));
+        } else if (nodeClass.equals(BlockStatement.class)) {
+            return stepBlockStatement(frame, ((BlockStatement) node).getStatements());
+        } else if (nodeClass.equals(IntegerLiteralNode.class)) {
+            return complete(((IntegerLiteralNode) node).getValue());
+        } else if (nodeClass.equals(BooleanLiteralNode.class)) {
+            return complete(BooleanObject.getBooleanObject(((BooleanLiteralNode) node).getValue()));
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            if (frame.state++ == 0) {
+                return push(((UnaryExpressionNode) node).getRight(), frame.env);
+            }
+            return result.type() == ValueTypeEnum.ERROR ? complete(result)
+                    : complete(Operations.unary(((UnaryExpressionNode) node).getOperator(), result));
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            return stepBinaryExpression(frame);
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            return stepLogicalExpression(frame);
+        } else if (nodeClass.equals(IfExpressionNode.class)) {
+            return stepIfExpression(frame);
+        } else if (nodeClass.equals(FunctionLiteralNode.class)) {
+            FunctionLiteralNode function = (FunctionLiteralNode) node;
+            return complete(new FunctionObject(function.getParameters(), function.getBody(),
+                    Evaluator.closureEnv(function.getFrameDescriptor(), frame.env), function.getFrameDescriptor()));
+        } else if (nodeClass.equals(CallExpressionNode.class)) {
+            return stepCallExpression(frame);
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            return complete(Evaluator.evalIdentifier((IdentifierNode) node, frame.env));
+        } else if (nodeClass.equals(StringLiteralNode.class)) {
+            return complete(new StringObject(((StringLiteralNode) node).getValue()));
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            return stepArrayLiteral(frame);
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            return stepIndexExpression(frame);
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            return stepMapLiteral(frame);
+        } else if (nodeClass.equals(WhileExpressionNode.class)) {
+            return stepWhileExpression(frame);
+        } else if (nodeClass.equals(FunctionStatementNode.class)) {
+            FunctionStatementNode function = (FunctionStatementNode) node;
+            Evaluator.bind(function.getFuncName(),
+                    new FunctionObject(function.getParameters(), function.getBody(),
+                            Evaluator.closureEnv(function.getFrameDescriptor(), frame.env), function.getFrameDescriptor()),
+                    frame.env);
+            return complete(NullObject.getNullObject());
+        } else if (nodeClass.equals(AssignExpressionNode.class)) {
+            return stepAssignExpression(frame);
+        }
+
+        return complete(NullObject.getNullObject());
+    }
+
+    private boolean stepProgram(Frame frame, List<StatementNode> statements) {
+        if (frame.state > 0) {
+            frame.saved = result;
+            if (result != null && result.type() == ValueTypeEnum.RETURN) {
+                returned = true;
+                return complete(((ReturnObject) result).getValue());
+            } else if (result != null && result.type() == ValueTypeEnum.ERROR) {
+                return complete(result);
+            }
+        }
+
+        if (frame.state < statements.size()) {
+            return push(statements.get(frame.state++), frame.env);
+        }
+        return complete(frame.saved);
+    }
+
+    private boolean stepBlockStatement(Frame frame, List<StatementNode> statements) {
+        if (frame.state > 0) {
+            frame.saved = result;
+            if (result != null && (result.type() == ValueTypeEnum.ERROR || result.type() == ValueTypeEnum.RETURN)) {
+                return complete(result);
+            }
+        }
+
+        if (frame.state < statements.size()) {
+            return push(statements.get(frame.state++), frame.env);
+        }
+        return complete(frame.saved);
+    }
+
+    private boolean stepLetStatement(Frame frame) {
+        LetStatementNode node = (LetStatementNode) frame.node;
+        if (frame.state++ == 0) {
+            return push(node.getValue(), frame.env);
+        }
+
+        if (result.type() == ValueTypeEnum.ERROR) {
+            return complete(result);
+        }
+        Evaluator.bind(node.getName(), result, frame.env);
+        return complete(NullObject.getNullObject());
+    }
+
+    private boolean stepAssignExpression(Frame frame) {
+        AssignExpressionNode node = (AssignExpressionNode) frame.node;
+        if (frame.state++ == 0) {
+            return push(node.getValue(), frame.env);
+        }
+
+        if (result.type() == ValueTypeEnum.ERROR) {
+            return complete(result);
+        }
+        if (Evaluator.lookup(node.getName(), frame.env) == null) {
+            return complete(new ErrorObject(String.format("variable %s not found!", node.getName().getValue())));
+        }
+        Evaluator.bind(node.getName(), result, frame.env);
+        return complete(NullObject.getNullObject());
+    }
+
+    private boolean stepBinaryExpression(Frame frame) {
+        BinaryExpressionNode node = (BinaryExpressionNode) frame.node;
+        switch (frame.state++) {
+            case 0:
+                return push(node.getLeft(), frame.env);
+            case 1:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                frame.saved = result;
+                return push(node.getRight(), frame.env);
+            default:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                return complete(Operations.binary(node.getOperator(), frame.saved, result));
+        }
+    }
+
+    private boolean stepLogicalExpression(Frame frame) {
+        LogicalExpressionNode node = (LogicalExpressionNode) frame.node;
+        switch (frame.state++) {
+            case 0:
+                return push(node.getLeft(), frame.env);
+            case 1:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                node.profile().record(Operations.isTrue(result));
+                if (Operations.isShortCircuit(node.getOperator(), result)) {
+                    return complete(result);
+                }
+                frame.saved = result;
+                return push(node.getRight(), frame.env);
+            default:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                return complete(Operations.binary(node.getOperator(), frame.saved, result));
+        }
+    }
+
+    private boolean stepIndexExpression(Frame frame) {
+        IndexExpressionNode node = (IndexExpressionNode) frame.node;
+        switch (frame.state++) {
+            case 0:
+                return push(node.getObject(), frame.env);
+            case 1:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                frame.saved = result;
+                return push(node.getIndex(), frame.env);
+            default:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                return complete(Operations.index(frame.saved, result));
+        }
+    }
+
+    private boolean stepIfExpression(Frame frame) {
+        IfExpressionNode node = (IfExpressionNode) frame.node;
+        switch (frame.state++) {
+            case 0:
+                return push(node.getCondition(), frame.env);
+            case 1:
+                if (result.type() == ValueTypeEnum.ERROR) {
+                    return complete(result);
+                }
+                if (node.profile().profile(Operations.isTrue(result))) {
+                    return push(node.getConsequence(), frame.env);
+                } else if (node.getAlternative() != null) {
+                    return push(node.getAlternative(), frame.env);
+                }
+                return complete(NullObject.getNullObject());
+            default:
+                return complete(result);
+        }
+    }
+
+    /**
+     * the loop evaluates condition and body alternately, state 1 is after condition and state 2 after body
+     * @param frame
+     * @return
+     */
+    private boolean stepWhileExpression(Frame frame) {
+        WhileExpressionNode node = (WhileExpressionNode) frame.node;
+        if (frame.state == 0) {
+            frame.saved = NullObject.getNullObject();
+        } else if (frame.state == 1) {
+            if (result.type() == ValueTypeEnum.ERROR) {
+                return complete(result);
+            }
+            if (!node.profile().profile(Operations.isTrue(result))) {
+                return complete(frame.saved);
+            }
+            frame.state = 2;
+            return push(node.getBody(), frame.env);
+        } else {
+            frame.saved = result;
+            // return and error stop the loop, the enclosing block will handle them
+            if (result != null && (result.type() == ValueTypeEnum.ERROR || result.type() == ValueTypeEnum.RETURN)) {
+                return complete(result);
+            }
+        }
+
+        frame.state = 1;
+        return push(node.getCondition(), frame.env);
+    }
+
+    private boolean stepArrayLiteral(Frame frame) {
+        List<ExpressionNode> elements = ((ArrayLiteralExpressionNode) frame.node).getElements();
+        if (frame.state == 0) {
+            frame.values = new ArrayList<>(elements.size());
+        } else {
+            if (result.type() == ValueTypeEnum.ERROR) {
+                return complete(result);
+            }
+            frame.values.add(result);
+        }
+
+        if (frame.state < elements.size()) {
+            return push(elements.get(frame.state++), frame.env);
+        }
+        return complete(new ArrayObject(frame.values));
+    }
+
+    /**
+     * the key of pair i is child 2i and the value is child 2i+1, the map built so far is kept in saved
+     * @param frame
+     * @return
+     */
+    private boolean stepMapLiteral(Frame frame) {
+        if (frame.state == 0) {
+            frame.pairs = new ArrayList<>(((MapLiteralExpressionNode) frame.node).getPairs().entrySet());
+            frame.saved = new MapObject();
+            frame.values = new ArrayList<>(1);
+        } else {
+            if (result.type() == ValueTypeEnum.ERROR) {
+                return complete(result);
+            }
+            if (frame.state % 2 == 1) {
+                frame.values.add(result);
+            } else {
+                frame.saved = ((MapObject) frame.saved).put(frame.values.remove(0), result);
+            }
+        }
+
+        if (frame.state < 2 * frame.pairs.size()) {
+            Map.Entry<ExpressionNode, ExpressionNode> pair = frame.pairs.get(frame.state / 2);
+            return push(frame.state++ % 2 == 0 ? pair.getKey() : pair.getValue(), frame.env);
+        }
+        return complete(frame.saved);
+    }
+
+    /**
+     * state 0 evaluates the function, state 1..n the arguments, then the body of monkey function is pushed
+     * and the frame waits for it in state -1
+     * @param frame
+     * @return
+     */
+    private boolean stepCallExpression(Frame frame) {
+        CallExpressionNode node = (CallExpressionNode) frame.node;
+        if (frame.state == 0) {
+            if (node.isQuote()) {
+                return complete(evaluator.eval(node, frame.env));
+            }
+            frame.state++;
+            return push(node.getFuncName(), frame.env);
+        }
+
+        if (frame.state < 0) {
+            return returnFromFunction(frame);
+        }
+
+        if (result.type() == ValueTypeEnum.ERROR) {
+            return complete(result);
+        }
+        if (frame.state == 1) {
+            frame.saved = result;
+            frame.values = new ArrayList<>(node.getArguments().size());
+        } else {
+            frame.values.add(result);
+        }
+
+        if (frame.state <= node.getArguments().size()) {
+            return push(node.getArguments().get(frame.state++ - 1), frame.env);
+        }
+
+        if (node.isTail()) {
+            // the frame of enclosing call runs it, so the stack doesn't grow
+            tailFunction = frame.saved;
+            tailArguments = frame.values;
+            return complete(TAIL_CALLED);
+        }
+        return applyFunction(frame, frame.saved, frame.values);
+    }
+
+    private boolean applyFunction(Frame frame, ValueObject function, List<ValueObject> args) {
+        switch (function.type()) {
+            case FUNCTION:
+                if (stack.size() >= maxFrames) {
+                    return complete(new ErrorObject("stack depth exceeded"));
+                }
+
+                FunctionObject fn = (FunctionObject) function;
+                ErrorObject wrongArguments = Evaluator.checkArguments(fn.getParameters().size(), args.size());
+                if (wrongArguments != null) {
+                    return complete(wrongArguments);
+                }
+                if (fn.getBody().isLazy()) {
+                    ErrorObject error = Evaluator.materialize(fn.getBody());
+                    if (error != null) {
+                        return complete(error);
+                    }
+                }
+                frame.state = -1;
+                return push(fn.getBody(), Evaluator.extendFunctionEnv(fn, args));
+            case BUILTIN:
+                return complete(((BuiltinFunctionObject) function).getFunction().invoke(args));
+            default:
+                return complete(new ErrorObject(String.format("not a function: %s", function.type())));
+        }
+    }
+
+    /**
+     * unwrap the value returned by the body, the tail call returned is run in place of the function
+     * @param frame
+     * @return
+     */
+    private boolean returnFromFunction(Frame frame) {
+        ValueObject res = result;
+        if (res != null && res.type() == ValueTypeEnum.RETURN) {
+            res = ((ReturnObject) res).getValue();
+        }
+        if (res != TAIL_CALLED) {
+            return complete(res);
+        }
+
+        ValueObject function = tailFunction;
+        List<ValueObject> args = tailArguments;
+        tailFunction = null;
+        tailArguments = null;
+        return applyFunction(frame, function, args);
+    }
+}
@@ -0,0 +1,49 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ArrayObject;
+import interpreter.object.IntegerObject;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+import java.util.List;
+
+/**
+ * index of array by integer, null if it is out of range
+ */
+public class ArrayIndexExecNode extends IndexExecNode {
+
+    public ArrayIndexExecNode(ExecNode object, ExecNode index) {
+        super(object, index);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject objectValue = object.execute(frame);
+        if (objectValue.type() == ValueTypeEnum.ERROR) {
+            return objectValue;
+        }
+
+        ValueObject indexValue = index.execute(frame);
+        if (indexValue.type() == ValueTypeEnum.ERROR) {
+            return indexValue;
+        }
+
+        if (objectValue.type() != ValueTypeEnum.ARRAY || indexValue.type() != ValueTypeEnum.INTEGER) {
+            return generalize(objectValue, indexValue);
+        }
+        return apply(objectValue, indexValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject objectValue, ValueObject indexValue) {
+        List<ValueObject> elements = ((ArrayObject) objectValue).getElements();
+        IntegerObject idx = (IntegerObject) indexValue;
+        if (idx.isBig() || idx.getValue() < 0 || idx.getValue() >= elements.size()) {
+            return NullObject.getNullObject();
+        }
+
+        return elements.get((int) idx.getValue());
+    }
+}
@@ -0,0 +1,40 @@
+package interpreter.exec;
+
+import interpreter.collection.PersistentVector;
+import interpreter.eval.Environment;
+import interpreter.object.ArrayObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * array literal
+ */
+public class ArrayLiteralExecNode extends ExecNode {
+
+    private final ExecNode[] elements;
+
+    public ArrayLiteralExecNode(ExecNode[] elements) {
+        this.elements = adopt(elements);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        PersistentVector<ValueObject> res = PersistentVector.empty();
+        for (ExecNode element : elements) {
+            ValueObject value = element.execute(frame);
+            if (value.type() == ValueTypeEnum.ERROR) {
+                return value;
+            }
+            res = res.plus(value);
+        }
+
+        return new ArrayObject(res);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (!replaceChild(elements, child, replacement)) {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ErrorObject;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * assign expression, the variable must be defined before
+ */
+public class AssignExecNode extends ExecNode {
+
+    private VariableExecNode name;
+
+    private ExecNode value;
+
+    public AssignExecNode(VariableExecNode name, ExecNode value) {
+        this.name = name;
+        this.value = adopt(value);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject res = value.execute(frame);
+        if (res.type() == ValueTypeEnum.ERROR) {
+            return res;
+        }
+
+        if (name.lookup(frame) == null) {
+            return new ErrorObject(String.format("variable %s not found!", name.getName()));
+        }
+
+        name.bind(frame, res);
+        return NullObject.getNullObject();
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (value == child) {
+            value = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
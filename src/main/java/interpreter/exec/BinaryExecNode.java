@@ -0,0 +1,87 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * binary expression, both operands are evaluated before the operator is applied.
+ * the node starts uninitialized and rewrites itself into the specialization for the types of operands
+ * it observes first, a specialization rewrites itself into the generic node when its guard fails.
+ */
+public abstract class BinaryExecNode extends ExecNode {
+
+    protected final OperatorEnum operator;
+
+    protected ExecNode left;
+
+    protected ExecNode right;
+
+    protected BinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+    }
+
+    /**
+     * apply the operator on the evaluated operands
+     * @param leftValue
+     * @param rightValue
+     * @return
+     */
+    protected abstract ValueObject apply(ValueObject leftValue, ValueObject rightValue);
+
+    /**
+     * rewrite to the specialization of the operand types, and apply it on the operands
+     * @param leftValue
+     * @param rightValue
+     * @return
+     */
+    protected ValueObject specialize(ValueObject leftValue, ValueObject rightValue) {
+        if (isDetached()) {
+            // already rewritten by a nested execution, the children belong to the replacement now
+            return Operations.binary(operator, leftValue, rightValue);
+        }
+
+        BinaryExecNode node;
+        if (IntegerBinaryExecNode.accept(operator, leftValue, rightValue)) {
+            node = new IntegerBinaryExecNode(operator, left, right);
+        } else if (StringBinaryExecNode.accept(operator, leftValue, rightValue)) {
+            node = new StringBinaryExecNode(operator, left, right);
+        } else if (BooleanBinaryExecNode.accept(operator, leftValue, rightValue)) {
+            node = new BooleanBinaryExecNode(operator, left, right);
+        } else {
+            node = new GenericBinaryExecNode(operator, left, right);
+        }
+        return replace(node).apply(leftValue, rightValue);
+    }
+
+    /**
+     * the guard of specialization fails, rewrite to the generic node
+     * @param leftValue
+     * @param rightValue
+     * @return
+     */
+    protected ValueObject generalize(ValueObject leftValue, ValueObject rightValue) {
+        if (isDetached()) {
+            return Operations.binary(operator, leftValue, rightValue);
+        }
+        return replace(new GenericBinaryExecNode(operator, left, right)).apply(leftValue, rightValue);
+    }
+
+    protected static boolean bothOf(ValueTypeEnum type, ValueObject leftValue, ValueObject rightValue) {
+        return leftValue.type() == type && rightValue.type() == type;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (left == child) {
+            left = replacement;
+        } else if (right == child) {
+            right = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * block statement, the value is the value of the last statement,
+ * stop at return or error and pass it to the enclosing node.
+ */
+public class BlockExecNode extends ExecNode {
+
+    private final ExecNode[] statements;
+
+    public BlockExecNode(ExecNode[] statements) {
+        this.statements = adopt(statements);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject res = null;
+        for (ExecNode statement : statements) {
+            res = statement.execute(frame);
+            if (res != null && (res.type() == ValueTypeEnum.ERROR || res.type() == ValueTypeEnum.RETURN)) {
+                return res;
+            }
+        }
+
+        return res;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (!replaceChild(statements, child, replacement)) {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.BooleanObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * logical operator and equality of two booleans
+ */
+public class BooleanBinaryExecNode extends BinaryExecNode {
+
+    public BooleanBinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        super(operator, left, right);
+    }
+
+    public static boolean accept(OperatorEnum operator, ValueObject leftValue, ValueObject rightValue) {
+        return (operator == OperatorEnum.AND || operator == OperatorEnum.OR
+                || operator == OperatorEnum.EQ || operator == OperatorEnum.NOT_EQ)
+                && bothOf(ValueTypeEnum.BOOLEAN, leftValue, rightValue);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+
+        if (leftValue.type() != ValueTypeEnum.BOOLEAN || rightValue.type() != ValueTypeEnum.BOOLEAN) {
+            return generalize(leftValue, rightValue);
+        }
+        return apply(leftValue, rightValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject leftValue, ValueObject rightValue) {
+        boolean l = ((BooleanObject) leftValue).getValue();
+        boolean r = ((BooleanObject) rightValue).getValue();
+        switch (operator) {
+            case AND:
+                return BooleanObject.getBooleanObject(l && r);
+            case OR:
+                return BooleanObject.getBooleanObject(l || r);
+            case EQ:
+                return BooleanObject.getBooleanObject(l == r);
+            case NOT_EQ:
+                return BooleanObject.getBooleanObject(l != r);
+            default:
+                return Operations.binary(operator, leftValue, rightValue);
+        }
+    }
+}
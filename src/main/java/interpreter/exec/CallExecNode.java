@@ -0,0 +1,115 @@
+package interpreter.exec;
+
+import interpreter.builtin.NativeFunction;
+import interpreter.eval.Environment;
+import interpreter.object.BuiltinFunctionObject;
+import interpreter.object.ErrorObject;
+import interpreter.object.TailCallObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * call expression
+ */
+public class CallExecNode extends ExecNode {
+
+    private ExecNode function;
+
+    private final ExecNode[] arguments;
+
+    /**
+     * the call is in tail position, the monkey function is called by the enclosing call instead,
+     * so the stack of java doesn't grow
+     */
+    private final boolean tail;
+
+    public CallExecNode(ExecNode function, ExecNode[] arguments, boolean tail) {
+        this.function = adopt(function);
+        this.arguments = adopt(arguments);
+        this.tail = tail;
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject callee = function.execute(frame);
+        if (callee.type() == ValueTypeEnum.ERROR) {
+            return callee;
+        }
+        if (callee.type() == ValueTypeEnum.BUILTIN) {
+            return callNative(((BuiltinFunctionObject) callee).getFunction(), frame);
+        }
+
+        List<ValueObject> args = new ArrayList<>(arguments.length);
+        for (ExecNode argument : arguments) {
+            ValueObject arg = argument.execute(frame);
+            if (arg.type() == ValueTypeEnum.ERROR) {
+                return arg;
+            }
+            args.add(arg);
+        }
+
+        if (tail && callee instanceof ExecFunctionObject) {
+            return new TailCallObject(callee, args);
+        }
+        if (callee instanceof ExecFunctionObject) {
+            ExecFunctionObject closure = (ExecFunctionObject) callee;
+            return closure.getFunction().call(closure.getEnv(), args);
+        }
+        return new ErrorObject(String.format("not a function: %s", callee.type()));
+    }
+
+    /**
+     * pass the arguments of the common arities one by one, so no list is created
+     * @param function
+     * @param frame
+     * @return
+     */
+    private ValueObject callNative(NativeFunction function, Environment frame) {
+        if (arguments.length > 3) {
+            ValueObject[] args = new ValueObject[arguments.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = arguments[i].execute(frame);
+                if (args[i].type() == ValueTypeEnum.ERROR) {
+                    return args[i];
+                }
+            }
+            return function.invoke(args, 0, args.length);
+        }
+
+        ValueObject a = null;
+        ValueObject b = null;
+        ValueObject c = null;
+        if (arguments.length > 0 && (a = arguments[0].execute(frame)).type() == ValueTypeEnum.ERROR) {
+            return a;
+        }
+        if (arguments.length > 1 && (b = arguments[1].execute(frame)).type() == ValueTypeEnum.ERROR) {
+            return b;
+        }
+        if (arguments.length > 2 && (c = arguments[2].execute(frame)).type() == ValueTypeEnum.ERROR) {
+            return c;
+        }
+
+        switch (arguments.length) {
+            case 0:
+                return function.invoke0();
+            case 1:
+                return function.invoke1(a);
+            case 2:
+                return function.invoke2(a, b);
+            default:
+                return function.invoke3(a, b, c);
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (function == child) {
+            function = replacement;
+        } else if (!replaceChild(arguments, child, replacement)) {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * function of executable nodes with the frame where it is created
+ */
+@Data
+@AllArgsConstructor
+public class ExecFunctionObject implements ValueObject {
+
+    private FunctionExecNode function;
+
+    private Environment env;
+
+    @Override
+    public ValueTypeEnum type() {
+        return ValueTypeEnum.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return function.getSource();
+    }
+}
@@ -0,0 +1,90 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ValueObject;
+
+/**
+ * executable node, the resolved ast is compiled to a tree of executable nodes whose children are bound in advance,
+ * running a node is a virtual call of execute instead of dispatching on the class of the ast node.
+ * a node may rewrite itself into a specialized node according to the values it observes,
+ * the parent links the replacement in place of the old node.
+ */
+public abstract class ExecNode {
+
+    protected ExecNode parent;
+
+    /**
+     * @param frame environment of current function call, or the global environment
+     * @return
+     */
+    public abstract ValueObject execute(Environment frame);
+
+    /**
+     * replace this node in the tree, the next execution of the parent runs the replacement.
+     * the replaced node is detached from the tree, but it may still be running in the outer activation
+     * of a recursive function.
+     * @param replacement
+     * @return the replacement
+     */
+    public <T extends ExecNode> T replace(T replacement) {
+        replacement.parent = parent;
+        if (parent != null) {
+            parent.replaceChild(this, replacement);
+        }
+        parent = null;
+        return replacement;
+    }
+
+    /**
+     * @return true if the node is replaced by another node
+     */
+    protected boolean isDetached() {
+        return parent == null;
+    }
+
+    /**
+     * link the child to this node, so that it can be replaced later
+     * @param child
+     * @return the child
+     */
+    protected <T extends ExecNode> T adopt(T child) {
+        if (child != null) {
+            child.parent = this;
+        }
+        return child;
+    }
+
+    protected ExecNode[] adopt(ExecNode[] children) {
+        for (ExecNode child : children) {
+            adopt(child);
+        }
+        return children;
+    }
+
+    /**
+     * the nodes with children override it to replace the child field
+     * @param child
+     * @param replacement
+     */
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        throw new IllegalStateException(String.format("%s has no child %s", getClass().getSimpleName(),
+                child.getClass().getSimpleName()));
+    }
+
+    /**
+     * replace the child in the array of children
+     * @param children
+     * @param child
+     * @param replacement
+     * @return true if the child is found
+     */
+    protected static boolean replaceChild(ExecNode[] children, ExecNode child, ExecNode replacement) {
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] == child) {
+                children[i] = replacement;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.eval.FrameEnvironment;
+import interpreter.object.ErrorObject;
+import interpreter.object.ReturnObject;
+import interpreter.object.TailCallObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import interpreter.resolver.FrameDescriptor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * function literal, create a closure with the variables captured from current frame
+ */
+@Getter
+@AllArgsConstructor
+public class FunctionExecNode extends ExecNode {
+
+    private final int[] parameterSlots;
+
+    private final FrameDescriptor frameDescriptor;
+
+    private final ExecNode body;
+
+    /**
+     * source of the function, used by inspect
+     */
+    private final String source;
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        return new ExecFunctionObject(this, Evaluator.closureEnv(frameDescriptor, frame));
+    }
+
+    /**
+     * call the function in a new frame, the tail call returned by the body is run in a new frame in place of it
+     * @param env the environment kept by the closure
+     * @param args
+     * @return
+     */
+    public ValueObject call(Environment env, List<ValueObject> args) {
+        FunctionExecNode function = this;
+        while (true) {
+            ErrorObject wrongArguments = Evaluator.checkArguments(function.parameterSlots.length, args.size());
+            if (wrongArguments != null) {
+                return wrongArguments;
+            }
+            FrameEnvironment frame = new FrameEnvironment(function.frameDescriptor, env);
+            for (int i = 0; i < function.parameterSlots.length; i++) {
+                frame.setSlot(function.parameterSlots[i], args.get(i));
+            }
+
+            ValueObject res;
+            try {
+                res = function.body.execute(frame);
+            } catch (StackOverflowError e) {
+                return new ErrorObject("stack depth exceeded");
+            }
+            if (res != null && res.type() == ValueTypeEnum.RETURN) {
+                res = ((ReturnObject) res).getValue();
+            }
+            if (res == null || res.type() != ValueTypeEnum.TAIL_CALL) {
+                return res;
+            }
+
+            TailCallObject tailCall = (TailCallObject) res;
+            ExecFunctionObject closure = (ExecFunctionObject) tailCall.getFunction();
+            function = closure.getFunction();
+            env = closure.getEnv();
+            args = tailCall.getArgs();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import lombok.AllArgsConstructor;
+
+/**
+ * fn statement, bind the function to its name
+ */
+@AllArgsConstructor
+public class FunctionStatementExecNode extends ExecNode {
+
+    private final VariableExecNode name;
+
+    private final FunctionExecNode function;
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        name.bind(frame, function.execute(frame));
+        return NullObject.getNullObject();
+    }
+}
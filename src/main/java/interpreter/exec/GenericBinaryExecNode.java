@@ -0,0 +1,37 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * binary expression observed with operands of different types, dispatch on the types every time
+ */
+public class GenericBinaryExecNode extends BinaryExecNode {
+
+    public GenericBinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+
+        return Operations.binary(operator, leftValue, rightValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject leftValue, ValueObject rightValue) {
+        return Operations.binary(operator, leftValue, rightValue);
+    }
+}
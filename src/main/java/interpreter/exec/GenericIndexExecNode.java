@@ -0,0 +1,36 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * index expression observed with different types of object, dispatch on the type every time
+ */
+public class GenericIndexExecNode extends IndexExecNode {
+
+    public GenericIndexExecNode(ExecNode object, ExecNode index) {
+        super(object, index);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject objectValue = object.execute(frame);
+        if (objectValue.type() == ValueTypeEnum.ERROR) {
+            return objectValue;
+        }
+
+        ValueObject indexValue = index.execute(frame);
+        if (indexValue.type() == ValueTypeEnum.ERROR) {
+            return indexValue;
+        }
+
+        return Operations.index(objectValue, indexValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject objectValue, ValueObject indexValue) {
+        return Operations.index(objectValue, indexValue);
+    }
+}
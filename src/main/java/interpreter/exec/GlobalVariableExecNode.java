@@ -0,0 +1,59 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.GlobalCell;
+import interpreter.eval.GlobalTable;
+import interpreter.object.ValueObject;
+
+/**
+ * variable declared outside of functions, looked up by name in the global environment,
+ * the cell of the variable is kept after the first lookup
+ */
+public class GlobalVariableExecNode extends VariableExecNode {
+
+    /**
+     * number of function scopes between the reference and the global environment
+     */
+    private final int depth;
+
+    /**
+     * null until the first lookup in a global table
+     */
+    private GlobalCell cell;
+
+    public GlobalVariableExecNode(String name, int depth) {
+        super(name);
+        this.depth = depth;
+    }
+
+    @Override
+    public ValueObject lookup(Environment frame) {
+        Environment scope = frame;
+        for (int i = depth; i > 0; i--) {
+            scope = scope.getOuter();
+        }
+
+        GlobalTable globals = scope.getGlobals();
+        if (globals == null) {
+            return scope.get(name);
+        }
+        return cellOf(globals).getValue();
+    }
+
+    @Override
+    public void bind(Environment frame, ValueObject value) {
+        GlobalTable globals = frame.getGlobals();
+        if (globals == null) {
+            super.bind(frame, value);
+        } else {
+            globals.set(cellOf(globals), value);
+        }
+    }
+
+    private GlobalCell cellOf(GlobalTable globals) {
+        if (cell == null || cell.getTable() != globals) {
+            cell = globals.cell(name);
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,61 @@
+package interpreter.exec;
+
+import interpreter.eval.BranchProfile;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * if expression, the alternative is null if there is no else branch
+ */
+public class IfExecNode extends ExecNode {
+
+    private ExecNode condition;
+
+    private ExecNode consequence;
+
+    private ExecNode alternative;
+
+    /**
+     * profile of the ast node, shared by the compilations of it
+     */
+    private final BranchProfile profile;
+
+    public IfExecNode(ExecNode condition, ExecNode consequence, ExecNode alternative, BranchProfile profile) {
+        this.condition = adopt(condition);
+        this.consequence = adopt(consequence);
+        this.alternative = adopt(alternative);
+        this.profile = profile;
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject cond = condition.execute(frame);
+        if (cond.type() == ValueTypeEnum.ERROR) {
+            return cond;
+        }
+
+        if (profile.profile(Operations.isTrue(cond))) {
+            return consequence.execute(frame);
+        } else if (alternative != null) {
+            return alternative.execute(frame);
+        } else {
+            return NullObject.getNullObject();
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (condition == child) {
+            condition = replacement;
+        } else if (consequence == child) {
+            consequence = replacement;
+        } else if (alternative == child) {
+            alternative = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
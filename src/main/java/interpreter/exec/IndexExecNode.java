@@ -0,0 +1,65 @@
+package interpreter.exec;
+
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * index expression of array or map.
+ * the node starts uninitialized and rewrites itself into array or map indexing by the first object it observes,
+ * and into the generic node when the guard fails.
+ */
+public abstract class IndexExecNode extends ExecNode {
+
+    protected ExecNode object;
+
+    protected ExecNode index;
+
+    protected IndexExecNode(ExecNode object, ExecNode index) {
+        this.object = adopt(object);
+        this.index = adopt(index);
+    }
+
+    /**
+     * index the evaluated object
+     * @param objectValue
+     * @param indexValue
+     * @return
+     */
+    protected abstract ValueObject apply(ValueObject objectValue, ValueObject indexValue);
+
+    protected ValueObject specialize(ValueObject objectValue, ValueObject indexValue) {
+        if (isDetached()) {
+            // already rewritten by a nested execution, the children belong to the replacement now
+            return Operations.index(objectValue, indexValue);
+        }
+
+        IndexExecNode node;
+        if (objectValue.type() == ValueTypeEnum.ARRAY && indexValue.type() == ValueTypeEnum.INTEGER) {
+            node = new ArrayIndexExecNode(object, index);
+        } else if (objectValue.type() == ValueTypeEnum.MAP) {
+            node = new MapIndexExecNode(object, index);
+        } else {
+            node = new GenericIndexExecNode(object, index);
+        }
+        return replace(node).apply(objectValue, indexValue);
+    }
+
+    protected ValueObject generalize(ValueObject objectValue, ValueObject indexValue) {
+        if (isDetached()) {
+            return Operations.index(objectValue, indexValue);
+        }
+        return replace(new GenericIndexExecNode(object, index)).apply(objectValue, indexValue);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (object == child) {
+            object = replacement;
+        } else if (index == child) {
+            index = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
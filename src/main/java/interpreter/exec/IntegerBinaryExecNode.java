@@ -0,0 +1,72 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.BooleanObject;
+import interpreter.object.IntegerObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * arithmetic and comparison of two integers
+ */
+public class IntegerBinaryExecNode extends BinaryExecNode {
+
+    public IntegerBinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        super(operator, left, right);
+    }
+
+    public static boolean accept(OperatorEnum operator, ValueObject leftValue, ValueObject rightValue) {
+        return operator != OperatorEnum.AND && operator != OperatorEnum.OR
+                && bothOf(ValueTypeEnum.INTEGER, leftValue, rightValue);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+
+        if (leftValue.type() != ValueTypeEnum.INTEGER || rightValue.type() != ValueTypeEnum.INTEGER) {
+            return generalize(leftValue, rightValue);
+        }
+        return apply(leftValue, rightValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject leftValue, ValueObject rightValue) {
+        IntegerObject l = (IntegerObject) leftValue;
+        IntegerObject r = (IntegerObject) rightValue;
+        switch (operator) {
+            case PLUS:
+                return IntegerObject.add(l, r);
+            case MINUS:
+                return IntegerObject.subtract(l, r);
+            case ASTERISK:
+                return IntegerObject.multiply(l, r);
+            case SLASH:
+                return IntegerObject.divide(l, r);
+            case LT:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) < 0);
+            case LE:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) <= 0);
+            case GT:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) > 0);
+            case GE:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) >= 0);
+            case EQ:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) == 0);
+            case NOT_EQ:
+                return BooleanObject.getBooleanObject(IntegerObject.compare(l, r) != 0);
+            default:
+                return Operations.binary(operator, leftValue, rightValue);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * let statement
+ */
+public class LetExecNode extends ExecNode {
+
+    private VariableExecNode name;
+
+    private ExecNode value;
+
+    public LetExecNode(VariableExecNode name, ExecNode value) {
+        this.name = name;
+        this.value = adopt(value);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject res = value.execute(frame);
+        if (res.type() == ValueTypeEnum.ERROR) {
+            return res;
+        }
+
+        name.bind(frame, res);
+        return NullObject.getNullObject();
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (value == child) {
+            value = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ValueObject;
+import lombok.AllArgsConstructor;
+
+/**
+ * integer, string or boolean literal, the value is created when the node is compiled
+ */
+@AllArgsConstructor
+public class LiteralExecNode extends ExecNode {
+
+    private final ValueObject value;
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        return value;
+    }
+}
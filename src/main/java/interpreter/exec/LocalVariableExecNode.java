@@ -0,0 +1,34 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.FrameEnvironment;
+import interpreter.object.ValueObject;
+
+/**
+ * variable declared in current function
+ */
+public class LocalVariableExecNode extends VariableExecNode {
+
+    private final int slot;
+
+    public LocalVariableExecNode(String name, int slot) {
+        super(name);
+        this.slot = slot;
+    }
+
+    @Override
+    public ValueObject lookup(Environment frame) {
+        ValueObject value = ((FrameEnvironment) frame).getSlot(slot);
+        if (value != null || frame.getOuter() == null) {
+            return value;
+        }
+
+        // the variable is not bound yet, the variable of enclosing scope with the same name is visible
+        return frame.getOuter().get(name);
+    }
+
+    @Override
+    public void bind(Environment frame, ValueObject value) {
+        ((FrameEnvironment) frame).setSlot(slot, value);
+    }
+}
@@ -0,0 +1,62 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.BranchProfile;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * short-circuit and/or, the right operand is executed only if the left one doesn't decide the value
+ */
+public class LogicalExecNode extends ExecNode {
+
+    private final OperatorEnum operator;
+
+    private ExecNode left;
+
+    private ExecNode right;
+
+    /**
+     * profile of the ast node, shared by the compilations of it
+     */
+    private final BranchProfile profile;
+
+    public LogicalExecNode(OperatorEnum operator, ExecNode left, ExecNode right, BranchProfile profile) {
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+        this.profile = profile;
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        profile.record(Operations.isTrue(leftValue));
+        if (Operations.isShortCircuit(operator, leftValue)) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+        return Operations.binary(operator, leftValue, rightValue);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (left == child) {
+            left = replacement;
+        } else if (right == child) {
+            right = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.MapObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * index of map, java null if the key is not in the map
+ */
+public class MapIndexExecNode extends IndexExecNode {
+
+    public MapIndexExecNode(ExecNode object, ExecNode index) {
+        super(object, index);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject objectValue = object.execute(frame);
+        if (objectValue.type() == ValueTypeEnum.ERROR) {
+            return objectValue;
+        }
+
+        ValueObject indexValue = index.execute(frame);
+        if (indexValue.type() == ValueTypeEnum.ERROR) {
+            return indexValue;
+        }
+
+        if (objectValue.type() != ValueTypeEnum.MAP) {
+            return generalize(objectValue, indexValue);
+        }
+        return apply(objectValue, indexValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject objectValue, ValueObject indexValue) {
+        return ((MapObject) objectValue).getPairs().get(indexValue);
+    }
+}
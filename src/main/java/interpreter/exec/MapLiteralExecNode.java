@@ -0,0 +1,48 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.MapObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * map literal, keys[i] maps to values[i]
+ */
+public class MapLiteralExecNode extends ExecNode {
+
+    private final ExecNode[] keys;
+
+    private final ExecNode[] values;
+
+    public MapLiteralExecNode(ExecNode[] keys, ExecNode[] values) {
+        this.keys = adopt(keys);
+        this.values = adopt(values);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        MapObject res = new MapObject();
+        for (int i = 0; i < keys.length; i++) {
+            ValueObject key = keys[i].execute(frame);
+            if (key.type() == ValueTypeEnum.ERROR) {
+                return key;
+            }
+
+            ValueObject value = values[i].execute(frame);
+            if (value.type() == ValueTypeEnum.ERROR) {
+                return value;
+            }
+
+            res = res.put(key, value);
+        }
+
+        return res;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (!replaceChild(keys, child, replacement) && !replaceChild(values, child, replacement)) {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package interpreter.exec;
+
+import interpreter.ast.*;
+import interpreter.eval.Evaluator;
+import interpreter.object.BooleanObject;
+import interpreter.object.ErrorObject;
+import interpreter.object.NullObject;
+import interpreter.object.StringObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * compile the resolved ast to executable nodes, the ast must be resolved by resolver first.
+ * the class of each ast node is dispatched once here, not every time the node runs.
+ */
+public class NodeCompiler {
+
+    /**
+     * evaluator for the nodes working on ast, e.g. quote
+     */
+    private final Evaluator evaluator = new Evaluator();
+
+    public ProgramExecNode compile(ProgramNode program) {
+        return new ProgramExecNode(compileStatements(program.getStatements()));
+    }
+
+    private ExecNode[] compileStatements(List<StatementNode> statements) {
+        ExecNode[] res = new ExecNode[statements.size()];
+        for (int i = 0; i < statements.size(); i++) {
+            res[i] = compileStatement(statements.get(i));
+        }
+        return res;
+    }
+
+    private ExecNode compileStatement(StatementNode node) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(ExpressionStatementNode.class)) {
+            return compileExpression(((ExpressionStatementNode) node).getExpression());
+        } else if (nodeClass.equals(LetStatementNode.class)) {
+            LetStatementNode let = (LetStatementNode) node;
+            return new LetExecNode(compileVariable(let.getName()), compileExpression(let.getValue()));
+        } else if (nodeClass.equals(ReturnStatementNode.class)) {
+            return new ReturnExecNode(compileExpression(((ReturnStatementNode) node).getValue()));
+        } else if (nodeClass.equals(FunctionStatementNode.class)) {
+            FunctionStatementNode function = (FunctionStatementNode) node;
+            return new FunctionStatementExecNode(compileVariable(function.getFuncName()),
+                    compileFunction(function.getParameters(), function.getBody(), function.getFrameDescriptor()));
+        } else if (nodeClass.equals(BlockStatement.class)) {
+            return compileBlock((BlockStatement) node);
+        }
+
+        return new LiteralExecNode(NullObject.getNullObject());
+    }
+
+    private BlockExecNode compileBlock(BlockStatement node) {
+        return new BlockExecNode(compileStatements(node.getStatements()));
+    }
+
+    private ExecNode compileExpression(ExpressionNode node) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class)) {
+            return new LiteralExecNode(((IntegerLiteralNode) node).getValue());
+        } else if (nodeClass.equals(StringLiteralNode.class)) {
+            return new LiteralExecNode(new StringObject(((StringLiteralNode) node).getValue()));
+        } else if (nodeClass.equals(BooleanLiteralNode.class)) {
+            return new LiteralExecNode(BooleanObject.getBooleanObject(((BooleanLiteralNode) node).getValue()));
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            return compileVariable((IdentifierNode) node);
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            UnaryExpressionNode unary = (UnaryExpressionNode) node;
+            return new UnaryExecNode(unary.getOperator(), compileExpression(unary.getRight()));
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            BinaryExpressionNode binary = (BinaryExpressionNode) node;
+            return new UninitializedBinaryExecNode(binary.getOperator(), compileExpression(binary.getLeft()),
+                    compileExpression(binary.getRight()));
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            LogicalExpressionNode logical = (LogicalExpressionNode) node;
+            return new LogicalExecNode(logical.getOperator(), compileExpression(logical.getLeft()),
+                    compileExpression(logical.getRight()), logical.profile());
+        } else if (nodeClass.equals(IfExpressionNode.class)) {
+            IfExpressionNode ifNode = (IfExpressionNode) node;
+            return new IfExecNode(compileExpression(ifNode.getCondition()), compileBlock(ifNode.getConsequence()),
+                    ifNode.getAlternative() == null ? null : compileBlock(ifNode.getAlternative()), ifNode.profile());
+        } else if (nodeClass.equals(WhileExpressionNode.class)) {
+            WhileExpressionNode whileNode = (WhileExpressionNode) node;
+            return new WhileExecNode(compileExpression(whileNode.getCondition()), compileBlock(whileNode.getBody()),
+                    whileNode.profile());
+        } else if (nodeClass.equals(AssignExpressionNode.class)) {
+            AssignExpressionNode assign = (AssignExpressionNode) node;
+            return new AssignExecNode(compileVariable(assign.getName()), compileExpression(assign.getValue()));
+        } else if (nodeClass.equals(FunctionLiteralNode.class)) {
+            FunctionLiteralNode function = (FunctionLiteralNode) node;
+            return compileFunction(function.getParameters(), function.getBody(), function.getFrameDescriptor());
+        } else if (nodeClass.equals(CallExpressionNode.class)) {
+            return compileCall((CallExpressionNode) node);
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            return new ArrayLiteralExecNode(compileExpressions(((ArrayLiteralExpressionNode) node).getElements()));
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            Map<ExpressionNode, ExpressionNode> pairs = ((MapLiteralExpressionNode) node).getPairs();
+            ExecNode[] keys = new ExecNode[pairs.size()];
+            ExecNode[] values = new ExecNode[pairs.size()];
+            int i = 0;
+            for (Map.Entry<ExpressionNode, ExpressionNode> pair : pairs.entrySet()) {
+                keys[i] = compileExpression(pair.getKey());
+                values[i] = compileExpression(pair.getValue());
+                i++;
+            }
+            return new MapLiteralExecNode(keys, values);
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            IndexExpressionNode index = (IndexExpressionNode) node;
+            return new UninitializedIndexExecNode(compileExpression(index.getObject()), compileExpression(index.getIndex()));
+        }
+
+        return new LiteralExecNode(NullObject.getNullObject());
+    }
+
+    private ExecNode[] compileExpressions(List<ExpressionNode> nodes) {
+        ExecNode[] res = new ExecNode[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            res[i] = compileExpression(nodes.get(i));
+        }
+        return res;
+    }
+
+    private ExecNode compileCall(CallExpressionNode node) {
+        if (node.isQuote()) {
+            return new QuoteExecNode(node, evaluator);
+        }
+
+        return new CallExecNode(compileExpression(node.getFuncName()), compileExpressions(node.getArguments()),
+                node.isTail());
+    }
+
+    private FunctionExecNode compileFunction(List<IdentifierNode> parameters, BlockStatement body,
+                                             interpreter.resolver.FrameDescriptor frameDescriptor) {
+        // the whole program is compiled before it runs, the lazy body is parsed now
+        ErrorObject error = Evaluator.materialize(body);
+        int[] parameterSlots = new int[parameters.size()];
+        for (int i = 0; i < parameters.size(); i++) {
+            parameterSlots[i] = parameters.get(i).getSlot();
+        }
+
+        String source = "fn(" + parameters.stream().map(item -> item.toString()).collect(Collectors.joining(","))
+                + ") {\n" + body.toString() + "\n}";
+        if (error != null) {
+            // the parameters of the body not parsed have no slots, the call returns the error whatever the arguments are
+            return new FunctionExecNode(new int[0], frameDescriptor,
+                    new BlockExecNode(new ExecNode[]{new LiteralExecNode(error)}), source);
+        }
+        return new FunctionExecNode(parameterSlots, frameDescriptor, compileBlock(body), source);
+    }
+
+    /**
+     * choose the variable node by the resolved (depth, slot)
+     * @param node
+     * @return
+     */
+    private VariableExecNode compileVariable(IdentifierNode node) {
+        if (node.getDepth() < 0) {
+            return new GlobalVariableExecNode(node.getValue(), 0);
+        } else if (node.getSlot() < 0) {
+            return new GlobalVariableExecNode(node.getValue(), node.getDepth());
+        } else if (node.getDepth() == 0) {
+            return new LocalVariableExecNode(node.getValue(), node.getSlot());
+        }
+        return new OuterVariableExecNode(node.getValue(), node.getDepth(), node.getSlot());
+    }
+}
@@ -0,0 +1,36 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.FrameEnvironment;
+import interpreter.object.ValueObject;
+
+/**
+ * variable declared in an enclosing function
+ */
+public class OuterVariableExecNode extends VariableExecNode {
+
+    private final int depth;
+
+    private final int slot;
+
+    public OuterVariableExecNode(String name, int depth, int slot) {
+        super(name);
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    @Override
+    public ValueObject lookup(Environment frame) {
+        Environment scope = frame;
+        for (int i = depth; i > 0; i--) {
+            scope = scope.getOuter();
+        }
+
+        ValueObject value = ((FrameEnvironment) scope).getSlot(slot);
+        if (value != null || scope.getOuter() == null) {
+            return value;
+        }
+
+        return scope.getOuter().get(name);
+    }
+}
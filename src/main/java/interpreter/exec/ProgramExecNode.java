@@ -0,0 +1,52 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ReturnObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.Getter;
+
+/**
+ * root of the executable tree, return stops the program, the value returned is the value of the program
+ */
+public class ProgramExecNode extends ExecNode {
+
+    private final ExecNode[] statements;
+
+    /**
+     * true if the last execution was stopped by a return statement out of functions
+     */
+    @Getter
+    private boolean returned;
+
+    public ProgramExecNode(ExecNode[] statements) {
+        this.statements = adopt(statements);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        returned = false;
+        ValueObject res = null;
+        for (ExecNode statement : statements) {
+            res = statement.execute(frame);
+            if (res == null) {
+                continue;
+            }
+            if (res.type() == ValueTypeEnum.RETURN) {
+                returned = true;
+                return ((ReturnObject) res).getValue();
+            } else if (res.type() == ValueTypeEnum.ERROR) {
+                return res;
+            }
+        }
+
+        return res;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (!replaceChild(statements, child, replacement)) {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package interpreter.exec;
+
+import interpreter.ast.CallExpressionNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.object.ValueObject;
+import lombok.AllArgsConstructor;
+
+/**
+ * quote call works on the ast, it's delegated to the evaluator
+ */
+@AllArgsConstructor
+public class QuoteExecNode extends ExecNode {
+
+    private final CallExpressionNode call;
+
+    private final Evaluator evaluator;
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        return evaluator.eval(call, frame);
+    }
+}
@@ -0,0 +1,36 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.object.ReturnObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * return statement
+ */
+public class ReturnExecNode extends ExecNode {
+
+    private ExecNode value;
+
+    public ReturnExecNode(ExecNode value) {
+        this.value = adopt(value);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject res = value.execute(frame);
+        if (res.type() == ValueTypeEnum.ERROR) {
+            return res;
+        }
+        return new ReturnObject(res);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (value == child) {
+            value = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
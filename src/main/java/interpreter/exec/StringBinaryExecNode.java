@@ -0,0 +1,44 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * concatenation of two strings
+ */
+public class StringBinaryExecNode extends BinaryExecNode {
+
+    public StringBinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        super(operator, left, right);
+    }
+
+    public static boolean accept(OperatorEnum operator, ValueObject leftValue, ValueObject rightValue) {
+        return operator == OperatorEnum.PLUS && bothOf(ValueTypeEnum.STRING, leftValue, rightValue);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+
+        if (leftValue.type() != ValueTypeEnum.STRING || rightValue.type() != ValueTypeEnum.STRING) {
+            return generalize(leftValue, rightValue);
+        }
+        return apply(leftValue, rightValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject leftValue, ValueObject rightValue) {
+        return StringObject.concat((StringObject) leftValue, (StringObject) rightValue);
+    }
+}
@@ -0,0 +1,41 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * unary expression: !x or -x
+ */
+public class UnaryExecNode extends ExecNode {
+
+    private final OperatorEnum operator;
+
+    private ExecNode right;
+
+    public UnaryExecNode(OperatorEnum operator, ExecNode right) {
+        this.operator = operator;
+        this.right = adopt(right);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject value = right.execute(frame);
+        if (value.type() == ValueTypeEnum.ERROR) {
+            return value;
+        }
+
+        return Operations.unary(operator, value);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (right == child) {
+            right = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
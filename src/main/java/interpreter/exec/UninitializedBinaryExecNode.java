@@ -0,0 +1,37 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * binary expression never executed, it is specialized on the first execution
+ */
+public class UninitializedBinaryExecNode extends BinaryExecNode {
+
+    public UninitializedBinaryExecNode(OperatorEnum operator, ExecNode left, ExecNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject leftValue = left.execute(frame);
+        if (leftValue.type() == ValueTypeEnum.ERROR) {
+            return leftValue;
+        }
+
+        ValueObject rightValue = right.execute(frame);
+        if (rightValue.type() == ValueTypeEnum.ERROR) {
+            return rightValue;
+        }
+
+        return specialize(leftValue, rightValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject leftValue, ValueObject rightValue) {
+        return Operations.binary(operator, leftValue, rightValue);
+    }
+}
@@ -0,0 +1,36 @@
+package interpreter.exec;
+
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * index expression never executed, it is specialized on the first execution
+ */
+public class UninitializedIndexExecNode extends IndexExecNode {
+
+    public UninitializedIndexExecNode(ExecNode object, ExecNode index) {
+        super(object, index);
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject objectValue = object.execute(frame);
+        if (objectValue.type() == ValueTypeEnum.ERROR) {
+            return objectValue;
+        }
+
+        ValueObject indexValue = index.execute(frame);
+        if (indexValue.type() == ValueTypeEnum.ERROR) {
+            return indexValue;
+        }
+
+        return specialize(objectValue, indexValue);
+    }
+
+    @Override
+    protected ValueObject apply(ValueObject objectValue, ValueObject indexValue) {
+        return Operations.index(objectValue, indexValue);
+    }
+}
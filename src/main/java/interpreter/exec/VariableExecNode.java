@@ -0,0 +1,55 @@
+package interpreter.exec;
+
+import interpreter.builtin.BuiltinFunctionEnum;
+import interpreter.eval.Environment;
+import interpreter.object.ErrorObject;
+import interpreter.object.ValueObject;
+import lombok.Getter;
+
+/**
+ * reference of variable, the subclasses decide where the variable is stored
+ */
+@Getter
+public abstract class VariableExecNode extends ExecNode {
+
+    protected final String name;
+
+    protected VariableExecNode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param frame
+     * @return value of the variable, null if the variable is not found
+     */
+    public abstract ValueObject lookup(Environment frame);
+
+    /**
+     * bind the value to the variable in current frame
+     * @param frame
+     * @param value
+     */
+    public void bind(Environment frame, ValueObject value) {
+        frame.set(name, value);
+    }
+
+    /**
+     * value of variable, fall back to builtin function of the same name
+     * @param frame
+     * @return
+     */
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject value = lookup(frame);
+        if (value != null) {
+            return value;
+        }
+
+        value = BuiltinFunctionEnum.getBuiltinFunctionOf(name);
+        if (value == null) {
+            return new ErrorObject(String.format("identifier not found: %s", name));
+        }
+
+        return value;
+    }
+}
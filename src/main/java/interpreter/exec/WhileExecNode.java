@@ -0,0 +1,60 @@
+package interpreter.exec;
+
+import interpreter.eval.BranchProfile;
+import interpreter.eval.Environment;
+import interpreter.eval.Operations;
+import interpreter.object.NullObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+
+/**
+ * while expression, the value is the value of the last run of body
+ */
+public class WhileExecNode extends ExecNode {
+
+    private ExecNode condition;
+
+    private ExecNode body;
+
+    /**
+     * profile of the ast node, shared by the compilations of it
+     */
+    private final BranchProfile profile;
+
+    public WhileExecNode(ExecNode condition, ExecNode body, BranchProfile profile) {
+        this.condition = adopt(condition);
+        this.body = adopt(body);
+        this.profile = profile;
+    }
+
+    @Override
+    public ValueObject execute(Environment frame) {
+        ValueObject res = NullObject.getNullObject();
+        while (true) {
+            ValueObject cond = condition.execute(frame);
+            if (cond.type() == ValueTypeEnum.ERROR) {
+                return cond;
+            }
+
+            if (!profile.profile(Operations.isTrue(cond))) {
+                return res;
+            }
+
+            res = body.execute(frame);
+            if (res != null && (res.type() == ValueTypeEnum.ERROR || res.type() == ValueTypeEnum.RETURN)) {
+                return res;
+            }
+        }
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement) {
+        if (condition == child) {
+            condition = replacement;
+        } else if (body == child) {
+            body = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
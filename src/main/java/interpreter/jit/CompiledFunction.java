@@ -0,0 +1,28 @@
+package interpreter.jit;
+
+import interpreter.ast.IdentifierNode;
+import interpreter.object.ValueTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * compiled code of a monkey function and the assumptions checked when it is called
+ */
+@Data
+@AllArgsConstructor
+public class CompiledFunction {
+
+    private JitFunction code;
+
+    /**
+     * INTEGER or BOOLEAN
+     */
+    private ValueTypeEnum returnType;
+
+    /**
+     * callees which are compiled as calls of the function itself, they must be bound to the function
+     */
+    private List<IdentifierNode> selfCalls;
+}
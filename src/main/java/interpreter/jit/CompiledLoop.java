@@ -0,0 +1,27 @@
+package interpreter.jit;
+
+import interpreter.ast.IdentifierNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * compiled code of a while loop and its variables, the i-th variable is vars[i] of the code
+ */
+@Data
+@AllArgsConstructor
+public class CompiledLoop {
+
+    private JitLoop code;
+
+    /**
+     * identifier to read the variable when the loop is entered
+     */
+    private List<IdentifierNode> variables;
+
+    /**
+     * identifier to bind the variable when the loop exits, null if the loop doesn't write the variable
+     */
+    private List<IdentifierNode> writes;
+}
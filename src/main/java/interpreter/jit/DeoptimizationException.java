@@ -0,0 +1,14 @@
+package interpreter.jit;
+
+/**
+ * thrown by the compiled code when an assumption fails, e.g. the integer overflows the long,
+ * the interpreter runs the code again with the boxed values.
+ */
+public class DeoptimizationException extends RuntimeException {
+
+    public static final DeoptimizationException INSTANCE = new DeoptimizationException();
+
+    private DeoptimizationException() {
+        super("deoptimize", null, false, false);
+    }
+}
@@ -0,0 +1,186 @@
+package interpreter.jit;
+
+import interpreter.ast.IdentifierNode;
+import interpreter.ast.WhileExpressionNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.eval.FrameEnvironment;
+import interpreter.object.BooleanObject;
+import interpreter.object.FunctionObject;
+import interpreter.object.IntegerObject;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * second tier of the evaluator: count the calls of the functions and the back edges of the while loops,
+ * compile the hot ones to jvm bytecode and run the compiled code while its assumptions hold.
+ * the compiled code has no side effect, when an assumption fails it throws, the compiled code is dropped and
+ * the interpreter runs the function again, or the loop from the start of the failed iteration.
+ */
+public class Jit {
+
+    public static final int DEFAULT_CALL_THRESHOLD = 1000;
+
+    public static final int DEFAULT_BACK_EDGE_THRESHOLD = 10000;
+
+    /**
+     * calls of a function before it is compiled
+     */
+    @Getter
+    private final int callThreshold;
+
+    /**
+     * iterations of a loop before it is compiled
+     */
+    @Getter
+    private final int backEdgeThreshold;
+
+    private final JitCompiler compiler = new JitCompiler();
+
+    public Jit() {
+        this(DEFAULT_CALL_THRESHOLD, DEFAULT_BACK_EDGE_THRESHOLD);
+    }
+
+    public Jit(int callThreshold, int backEdgeThreshold) {
+        this.callThreshold = callThreshold;
+        this.backEdgeThreshold = backEdgeThreshold;
+    }
+
+    /**
+     * count the call and run the compiled function if it is hot
+     * @param fn
+     * @param args
+     * @param base index of the first argument in args
+     * @param count number of arguments
+     * @param remainingDepth number of nested calls allowed in the function
+     * @return null if the interpreter should run the function
+     */
+    public ValueObject call(FunctionObject fn, ValueObject[] args, int base, int count, int remainingDepth) {
+        // kept on the body, the closures created by one function literal share the profile
+        JitProfile<CompiledFunction> profile = fn.getBody().getJitProfile();
+        if (profile == null) {
+            profile = new JitProfile<>();
+            fn.getBody().setJitProfile(profile);
+        }
+        if (profile.failed) {
+            return null;
+        }
+        if (profile.compiled == null) {
+            if (++profile.count < callThreshold) {
+                return null;
+            }
+            profile.compiled = compiler.compileFunction(fn);
+            if (profile.compiled == null) {
+                profile.failed = true;
+                return null;
+            }
+        }
+
+        CompiledFunction compiled = profile.compiled;
+        if (count != fn.getParameters().size()) {
+            return null;
+        }
+        long[] values = new long[count];
+        for (int i = 0; i < values.length; i++) {
+            if (!isSmallInteger(args[base + i])) {
+                return null;
+            }
+            values[i] = ((IntegerObject) args[base + i]).getValue();
+        }
+        // the callees are not declared in the function, they are read from the environment of the closure
+        // without creating the frame of the call
+        for (IdentifierNode callee : compiled.getSelfCalls()) {
+            if (Evaluator.lookup(callee, fn.getEnv(), callee.getDepth() - 1) != fn) {
+                return null;
+            }
+        }
+
+        long res;
+        try {
+            res = compiled.getCode().invoke(values, remainingDepth);
+        } catch (RuntimeException | StackOverflowError e) {
+            deoptimize(profile);
+            return null;
+        }
+        return compiled.getReturnType() == ValueTypeEnum.BOOLEAN
+                ? BooleanObject.getBooleanObject(res != 0) : IntegerObject.valueOf(res);
+    }
+
+    /**
+     * count the iteration and run the rest of the loop in compiled code if it is hot
+     * @param node
+     * @param env
+     * @return true if the loop is finished, false if the interpreter should go on with the loop,
+     * the variables hold the values at the start of the next iteration
+     */
+    public boolean backEdge(WhileExpressionNode node, Environment env) {
+        JitProfile<CompiledLoop> profile = node.getJitProfile();
+        if (profile == null) {
+            profile = new JitProfile<>();
+            node.setJitProfile(profile);
+        }
+        if (profile.failed) {
+            return false;
+        }
+        if (profile.compiled == null) {
+            if (++profile.count < backEdgeThreshold) {
+                return false;
+            }
+            profile.compiled = compiler.compileLoop(node);
+            if (profile.compiled == null) {
+                profile.failed = true;
+                return false;
+            }
+        }
+
+        CompiledLoop compiled = profile.compiled;
+        List<IdentifierNode> variables = compiled.getVariables();
+        long[] values = new long[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            ValueObject value = Evaluator.lookup(variables.get(i), env);
+            IdentifierNode write = compiled.getWrites().get(i);
+            if (!isSmallInteger(value) || (write != null && !isBoundLocally(write, env))) {
+                return false;
+            }
+            values[i] = ((IntegerObject) value).getValue();
+        }
+
+        boolean finished = compiled.getCode().run(values);
+        for (int i = 0; i < values.length; i++) {
+            IdentifierNode write = compiled.getWrites().get(i);
+            if (write != null) {
+                Evaluator.bind(write, IntegerObject.valueOf(values[i]), env);
+            }
+        }
+        if (!finished) {
+            deoptimize(profile);
+        }
+        return finished;
+    }
+
+    private void deoptimize(JitProfile<?> profile) {
+        profile.compiled = null;
+        profile.failed = true;
+    }
+
+    private boolean isSmallInteger(ValueObject value) {
+        return value != null && value.type() == ValueTypeEnum.INTEGER && !((IntegerObject) value).isBig();
+    }
+
+    /**
+     * the compiled loop writes the variable back to the scope it is read from,
+     * the interpreter binds it in current scope, they are the same if the variable is bound in current scope
+     * @param write
+     * @param env
+     * @return
+     */
+    private boolean isBoundLocally(IdentifierNode write, Environment env) {
+        if (write.getSlot() >= 0) {
+            return env instanceof FrameEnvironment && ((FrameEnvironment) env).getSlot(write.getSlot()) != null;
+        }
+        return env.getOuter() == null;
+    }
+}
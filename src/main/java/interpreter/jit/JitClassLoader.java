@@ -0,0 +1,15 @@
+package interpreter.jit;
+
+/**
+ * load the generated classes, one loader per class, so the class is unloaded with its code
+ */
+class JitClassLoader extends ClassLoader {
+
+    JitClassLoader() {
+        super(JitClassLoader.class.getClassLoader());
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,676 @@
+package interpreter.jit;
+
+import interpreter.ast.*;
+import interpreter.object.FunctionObject;
+import interpreter.object.IntegerObject;
+import interpreter.object.ValueTypeEnum;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * compile monkey functions and while loops to jvm bytecode.
+ * the code compiled assumes every variable is an integer fitting in long, the values are unboxed to long,
+ * and the conditions are int 0 or 1. the supported code has no side effect: literals, variables, operators on
+ * integers and booleans, let, assignment, if, while, return and the calls of the function itself,
+ * so when an assumption fails, e.g. the integer overflows, the interpreter can run the code again from the start.
+ * the code which may produce other values or errors is not compiled, the interpreter runs it.
+ */
+public class JitCompiler implements Opcodes {
+
+    private static final String PACKAGE = "interpreter/jit/generated/";
+
+    private static final String MATH = "java/lang/Math";
+
+    private static final String RUNTIME = Type.getInternalName(JitRuntime.class);
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * thrown when the code can't be compiled
+     */
+    private static class UnsupportedException extends RuntimeException {
+
+        UnsupportedException() {
+            super("unsupported", null, false, false);
+        }
+    }
+
+    private MethodVisitor mv;
+
+    /**
+     * name of the class generated
+     */
+    private String owner;
+
+    private String runDescriptor;
+
+    /**
+     * local of jvm holding the variable
+     */
+    private Map<String, Integer> locals;
+
+    /**
+     * variables bound at the instruction compiled
+     */
+    private Set<String> defined;
+
+    /**
+     * variables declared in the function, they can't be the function itself
+     */
+    private Set<String> declared;
+
+    private int nextLocal;
+
+    /**
+     * number of blocks nested in the body, let in nested block may bind a new variable or not
+     */
+    private int blockDepth;
+
+    private boolean loop;
+
+    private int parameterCount;
+
+    private int remainingDepthLocal;
+
+    private ValueTypeEnum returnType;
+
+    private List<IdentifierNode> selfCalls;
+
+    /**
+     * @param fn
+     * @return null if the function can't be compiled
+     */
+    public CompiledFunction compileFunction(FunctionObject fn) {
+        for (ValueTypeEnum type : new ValueTypeEnum[]{ValueTypeEnum.INTEGER, ValueTypeEnum.BOOLEAN}) {
+            try {
+                return generateFunction(fn, type);
+            } catch (UnsupportedException e) {
+                // try the next return type
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the loop is compiled only if the last statement of the body is let or assignment,
+     * then the value of the loop is NULL no matter how many times it runs
+     * @param node
+     * @return null if the loop can't be compiled
+     */
+    public CompiledLoop compileLoop(WhileExpressionNode node) {
+        List<StatementNode> body = node.getBody().getStatements();
+        if (body.isEmpty() || !isBinding(body.get(body.size() - 1))) {
+            return null;
+        }
+
+        try {
+            return generateLoop(node);
+        } catch (UnsupportedException | ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * public final class FunctionN implements JitFunction {
+     *     public long invoke(long[] args, int remainingDepth) { return run(args[0], ..., remainingDepth); }
+     *     public static long run(long p0, ..., int remainingDepth) { body }
+     * }
+     */
+    private CompiledFunction generateFunction(FunctionObject fn, ValueTypeEnum type) throws ReflectiveOperationException {
+        List<IdentifierNode> parameters = fn.getParameters();
+        owner = PACKAGE + "Function" + COUNTER.incrementAndGet();
+        StringBuilder descriptor = new StringBuilder("(");
+        for (int i = 0; i < parameters.size(); i++) {
+            descriptor.append("J");
+        }
+        runDescriptor = descriptor.append("I)J").toString();
+
+        locals = new HashMap<>();
+        defined = new HashSet<>();
+        declared = new HashSet<>();
+        for (IdentifierNode parameter : parameters) {
+            if (!declared.add(parameter.getValue())) {
+                throw new UnsupportedException();
+            }
+            locals.put(parameter.getValue(), 2 * locals.size());
+            defined.add(parameter.getValue());
+        }
+        TreeNodes.collectDeclarations(fn.getBody(), declared);
+        parameterCount = parameters.size();
+        remainingDepthLocal = 2 * parameterCount;
+        nextLocal = remainingDepthLocal + 1;
+        blockDepth = 0;
+        loop = false;
+        returnType = type;
+        selfCalls = new ArrayList<>();
+
+        ClassWriter cw = newClass(JitFunction.class);
+        mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "run", runDescriptor, null, null);
+        mv.visitCode();
+        compileStatements(fn.getBody().getStatements(), true);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "invoke", "([JI)J", null, null);
+        mv.visitCode();
+        for (int i = 0; i < parameterCount; i++) {
+            mv.visitVarInsn(ALOAD, 1);
+            pushInt(i);
+            mv.visitInsn(LALOAD);
+        }
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitMethodInsn(INVOKESTATIC, owner, "run", runDescriptor, false);
+        mv.visitInsn(LRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        JitFunction code = (JitFunction) load(cw);
+        return new CompiledFunction(code, returnType, selfCalls);
+    }
+
+    /**
+     * public final class LoopN implements JitLoop {
+     *     public boolean run(long[] vars) {
+     *         load vars, copy them to shadows
+     *         try {
+     *             while (condition) { copy the written variables to shadows; body }
+     *         } catch (RuntimeException e) {
+     *             store shadows to vars; return false;
+     *         }
+     *         store vars; return true;
+     *     }
+     * }
+     */
+    private CompiledLoop generateLoop(WhileExpressionNode node) throws ReflectiveOperationException {
+        Map<String, IdentifierNode> reads = new LinkedHashMap<>();
+        Map<String, IdentifierNode> writes = new HashMap<>();
+        collectVariables(node, reads, writes);
+
+        owner = PACKAGE + "Loop" + COUNTER.incrementAndGet();
+        locals = new HashMap<>();
+        defined = new HashSet<>(reads.keySet());
+        declared = new HashSet<>();
+        List<String> names = new ArrayList<>(reads.keySet());
+        for (String name : names) {
+            locals.put(name, 2 + 2 * locals.size());
+        }
+        nextLocal = 2 + 2 * names.size();
+        blockDepth = 0;
+        loop = true;
+
+        ClassWriter cw = newClass(JitLoop.class);
+        mv = cw.visitMethod(ACC_PUBLIC, "run", "([J)Z", null, null);
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        Label exit = new Label();
+        mv.visitTryCatchBlock(start, end, handler, "java/lang/RuntimeException");
+
+        Map<String, Integer> shadows = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            mv.visitVarInsn(ALOAD, 1);
+            pushInt(i);
+            mv.visitInsn(LALOAD);
+            mv.visitVarInsn(LSTORE, locals.get(name));
+            if (writes.containsKey(name)) {
+                shadows.put(name, nextLocal);
+                nextLocal += 2;
+                copy(locals.get(name), shadows.get(name));
+            }
+        }
+
+        mv.visitLabel(start);
+        for (Map.Entry<String, Integer> shadow : shadows.entrySet()) {
+            copy(locals.get(shadow.getKey()), shadow.getValue());
+        }
+        compileCondition(node.getCondition(), exit);
+        blockDepth++;
+        compileStatements(node.getBody().getStatements(), false);
+        blockDepth--;
+        mv.visitJumpInsn(GOTO, start);
+        mv.visitLabel(end);
+
+        mv.visitLabel(exit);
+        storeVariables(names, locals, shadows.keySet());
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+
+        mv.visitLabel(handler);
+        mv.visitInsn(POP);
+        storeVariables(names, shadows, shadows.keySet());
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        JitLoop code = (JitLoop) load(cw);
+        List<IdentifierNode> variables = new ArrayList<>();
+        List<IdentifierNode> written = new ArrayList<>();
+        for (String name : names) {
+            variables.add(reads.get(name));
+            written.add(writes.get(name));
+        }
+        return new CompiledLoop(code, variables, written);
+    }
+
+    private ClassWriter newClass(Class<?> face) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, owner, null, "java/lang/Object",
+                new String[]{Type.getInternalName(face)});
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+        return cw;
+    }
+
+    private Object load(ClassWriter cw) throws ReflectiveOperationException {
+        cw.visitEnd();
+        Class<?> clazz = new JitClassLoader().define(owner.replace('/', '.'), cw.toByteArray());
+        return clazz.getConstructor().newInstance();
+    }
+
+    /**
+     * the names of identifiers read, let and assignment in the loop, every variable has an identifier to read it,
+     * the written variables have an identifier to bind them
+     */
+    private void collectVariables(TreeNode node, Map<String, IdentifierNode> reads, Map<String, IdentifierNode> writes) {
+        if (node == null) {
+            return;
+        }
+
+        IdentifierNode write = null;
+        if (node instanceof LetStatementNode) {
+            write = ((LetStatementNode) node).getName();
+        } else if (node instanceof AssignExpressionNode) {
+            write = ((AssignExpressionNode) node).getName();
+        } else if (node instanceof IdentifierNode) {
+            reads.putIfAbsent(((IdentifierNode) node).getValue(), (IdentifierNode) node);
+        } else if (node instanceof FunctionLiteralNode || node instanceof FunctionStatementNode) {
+            throw new UnsupportedException();
+        }
+        if (write != null) {
+            reads.putIfAbsent(write.getValue(), write);
+            writes.putIfAbsent(write.getValue(), write);
+        }
+
+        for (TreeNode child : TreeNodes.children(node)) {
+            collectVariables(child, reads, writes);
+        }
+    }
+
+    private void storeVariables(List<String> names, Map<String, Integer> from, Set<String> written) {
+        for (int i = 0; i < names.size(); i++) {
+            if (!written.contains(names.get(i))) {
+                continue;
+            }
+            mv.visitVarInsn(ALOAD, 1);
+            pushInt(i);
+            mv.visitVarInsn(LLOAD, from.get(names.get(i)));
+            mv.visitInsn(LASTORE);
+        }
+    }
+
+    private void copy(int from, int to) {
+        mv.visitVarInsn(LLOAD, from);
+        mv.visitVarInsn(LSTORE, to);
+    }
+
+    private boolean isBinding(StatementNode statement) {
+        return statement.getClass().equals(LetStatementNode.class)
+                || (statement.getClass().equals(ExpressionStatementNode.class)
+                && ((ExpressionStatementNode) statement).getExpression() instanceof AssignExpressionNode);
+    }
+
+    /**
+     * @param statements
+     * @param value the statements are the value of the function, every path must end with a return
+     */
+    private void compileStatements(List<StatementNode> statements, boolean value) {
+        if (value && statements.isEmpty()) {
+            throw new UnsupportedException();
+        }
+
+        for (int i = 0; i < statements.size(); i++) {
+            compileStatement(statements.get(i), value && i == statements.size() - 1);
+        }
+    }
+
+    private void compileStatement(StatementNode statement, boolean value) {
+        Class nodeClass = statement.getClass();
+        if (nodeClass.equals(LetStatementNode.class) && !value) {
+            LetStatementNode let = (LetStatementNode) statement;
+            String name = let.getName().getValue();
+            requireInteger(compileExpression(let.getValue()));
+            if (!defined.contains(name)) {
+                // the variable bound in a branch may be unbound after it
+                if (blockDepth > 0) {
+                    throw new UnsupportedException();
+                }
+                locals.put(name, nextLocal);
+                nextLocal += 2;
+                defined.add(name);
+            }
+            mv.visitVarInsn(LSTORE, locals.get(name));
+        } else if (nodeClass.equals(ReturnStatementNode.class) && !loop) {
+            exit(compileExpression(((ReturnStatementNode) statement).getValue()));
+        } else if (nodeClass.equals(ExpressionStatementNode.class)) {
+            ExpressionNode expression = ((ExpressionStatementNode) statement).getExpression();
+            if (expression instanceof IfExpressionNode) {
+                compileIf((IfExpressionNode) expression, value);
+            } else if (expression instanceof WhileExpressionNode && !value) {
+                compileWhile((WhileExpressionNode) expression);
+            } else if (expression instanceof AssignExpressionNode && !value) {
+                AssignExpressionNode assign = (AssignExpressionNode) expression;
+                if (!defined.contains(assign.getName().getValue())) {
+                    throw new UnsupportedException();
+                }
+                requireInteger(compileExpression(assign.getValue()));
+                mv.visitVarInsn(LSTORE, locals.get(assign.getName().getValue()));
+            } else if (expression instanceof WhileExpressionNode || expression instanceof AssignExpressionNode) {
+                throw new UnsupportedException();
+            } else if (value) {
+                exit(compileExpression(expression));
+            } else {
+                mv.visitInsn(compileExpression(expression) == ValueTypeEnum.INTEGER ? POP2 : POP);
+            }
+        } else {
+            throw new UnsupportedException();
+        }
+    }
+
+    /**
+     * return the value from the function
+     * @param type
+     */
+    private void exit(ValueTypeEnum type) {
+        if (loop || type != returnType) {
+            throw new UnsupportedException();
+        }
+        if (type == ValueTypeEnum.BOOLEAN) {
+            mv.visitInsn(I2L);
+        }
+        mv.visitInsn(LRETURN);
+    }
+
+    /**
+     * @param node
+     * @param value the if is the value of the function, the branches return and the code after it is unreachable
+     */
+    private void compileIf(IfExpressionNode node, boolean value) {
+        if (value && node.getAlternative() == null) {
+            throw new UnsupportedException();
+        }
+
+        Label otherwise = new Label();
+        Label end = new Label();
+        compileCondition(node.getCondition(), otherwise);
+        blockDepth++;
+        compileStatements(node.getConsequence().getStatements(), value);
+        if (!value) {
+            mv.visitJumpInsn(GOTO, end);
+        }
+        mv.visitLabel(otherwise);
+        if (node.getAlternative() != null) {
+            compileStatements(node.getAlternative().getStatements(), value);
+        }
+        blockDepth--;
+        if (!value) {
+            mv.visitLabel(end);
+        }
+    }
+
+    private void compileWhile(WhileExpressionNode node) {
+        Label head = new Label();
+        Label end = new Label();
+        mv.visitLabel(head);
+        compileCondition(node.getCondition(), end);
+        blockDepth++;
+        compileStatements(node.getBody().getStatements(), false);
+        blockDepth--;
+        mv.visitJumpInsn(GOTO, head);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * jump to the label if the condition is false, integer is true if it is not 0
+     * @param condition
+     * @param otherwise
+     */
+    private void compileCondition(ExpressionNode condition, Label otherwise) {
+        if (compileExpression(condition) == ValueTypeEnum.INTEGER) {
+            mv.visitInsn(LCONST_0);
+            mv.visitInsn(LCMP);
+        }
+        mv.visitJumpInsn(IFEQ, otherwise);
+    }
+
+    /**
+     * @param node
+     * @return INTEGER if the value is a long on the stack, BOOLEAN if it is an int 0 or 1
+     */
+    private ValueTypeEnum compileExpression(ExpressionNode node) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class)) {
+            IntegerObject value = ((IntegerLiteralNode) node).getValue();
+            if (value.isBig()) {
+                throw new UnsupportedException();
+            }
+            mv.visitLdcInsn(value.getValue());
+            return ValueTypeEnum.INTEGER;
+        } else if (nodeClass.equals(BooleanLiteralNode.class)) {
+            mv.visitInsn(((BooleanLiteralNode) node).getValue() ? ICONST_1 : ICONST_0);
+            return ValueTypeEnum.BOOLEAN;
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            String name = ((IdentifierNode) node).getValue();
+            if (!defined.contains(name)) {
+                throw new UnsupportedException();
+            }
+            mv.visitVarInsn(LLOAD, locals.get(name));
+            return ValueTypeEnum.INTEGER;
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            return compileUnary((UnaryExpressionNode) node);
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            return compileBinary((BinaryExpressionNode) node);
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            return compileLogical((LogicalExpressionNode) node);
+        } else if (nodeClass.equals(CallExpressionNode.class)) {
+            return compileCall((CallExpressionNode) node);
+        }
+        throw new UnsupportedException();
+    }
+
+    private ValueTypeEnum compileUnary(UnaryExpressionNode node) {
+        ValueTypeEnum type = compileExpression(node.getRight());
+        switch (node.getOperator()) {
+            case MINUS:
+                requireInteger(type);
+                mv.visitMethodInsn(INVOKESTATIC, MATH, "negateExact", "(J)J", false);
+                return ValueTypeEnum.INTEGER;
+            case BANG:
+                if (type == ValueTypeEnum.INTEGER) {
+                    mv.visitInsn(LCONST_0);
+                    mv.visitInsn(LCMP);
+                    pushBoolean(IFEQ);
+                } else {
+                    mv.visitInsn(ICONST_1);
+                    mv.visitInsn(IXOR);
+                }
+                return ValueTypeEnum.BOOLEAN;
+            default:
+                throw new UnsupportedException();
+        }
+    }
+
+    private ValueTypeEnum compileBinary(BinaryExpressionNode node) {
+        ValueTypeEnum left = compileExpression(node.getLeft());
+        ValueTypeEnum right = compileExpression(node.getRight());
+        if (left != right) {
+            throw new UnsupportedException();
+        }
+
+        if (left == ValueTypeEnum.INTEGER) {
+            switch (node.getOperator()) {
+                case PLUS:
+                    mv.visitMethodInsn(INVOKESTATIC, MATH, "addExact", "(JJ)J", false);
+                    return ValueTypeEnum.INTEGER;
+                case MINUS:
+                    mv.visitMethodInsn(INVOKESTATIC, MATH, "subtractExact", "(JJ)J", false);
+                    return ValueTypeEnum.INTEGER;
+                case ASTERISK:
+                    mv.visitMethodInsn(INVOKESTATIC, MATH, "multiplyExact", "(JJ)J", false);
+                    return ValueTypeEnum.INTEGER;
+                case SLASH:
+                    mv.visitMethodInsn(INVOKESTATIC, RUNTIME, "divide", "(JJ)J", false);
+                    return ValueTypeEnum.INTEGER;
+                case LT:
+                    return compareIntegers(IFLT);
+                case LE:
+                    return compareIntegers(IFLE);
+                case GT:
+                    return compareIntegers(IFGT);
+                case GE:
+                    return compareIntegers(IFGE);
+                case EQ:
+                    return compareIntegers(IFEQ);
+                case NOT_EQ:
+                    return compareIntegers(IFNE);
+                default:
+                    throw new UnsupportedException();
+            }
+        }
+
+        switch (node.getOperator()) {
+            case AND:
+                mv.visitInsn(IAND);
+                return ValueTypeEnum.BOOLEAN;
+            case OR:
+                mv.visitInsn(IOR);
+                return ValueTypeEnum.BOOLEAN;
+            case EQ:
+                pushBoolean(IF_ICMPEQ);
+                return ValueTypeEnum.BOOLEAN;
+            case NOT_EQ:
+                pushBoolean(IF_ICMPNE);
+                return ValueTypeEnum.BOOLEAN;
+            default:
+                throw new UnsupportedException();
+        }
+    }
+
+    /**
+     * the left operand stays on the stack if it decides the value, the operands of other types are errors
+     * unless short-circuited, they are left to the interpreter
+     * @param node
+     * @return
+     */
+    private ValueTypeEnum compileLogical(LogicalExpressionNode node) {
+        if (compileExpression(node.getLeft()) != ValueTypeEnum.BOOLEAN) {
+            throw new UnsupportedException();
+        }
+        Label end = new Label();
+        mv.visitInsn(DUP);
+        mv.visitJumpInsn(node.getOperator() == OperatorEnum.AND ? IFEQ : IFNE, end);
+        mv.visitInsn(POP);
+        if (compileExpression(node.getRight()) != ValueTypeEnum.BOOLEAN) {
+            throw new UnsupportedException();
+        }
+        mv.visitLabel(end);
+        return ValueTypeEnum.BOOLEAN;
+    }
+
+    private ValueTypeEnum compareIntegers(int opcode) {
+        mv.visitInsn(LCMP);
+        pushBoolean(opcode);
+        return ValueTypeEnum.BOOLEAN;
+    }
+
+    /**
+     * the callee not declared in the function is assumed to be the function itself, it is checked when the
+     * compiled function is called, the nested calls deoptimize if the depth exceeds
+     * @param node
+     * @return
+     */
+    private ValueTypeEnum compileCall(CallExpressionNode node) {
+        if (loop || !node.getFuncName().getClass().equals(IdentifierNode.class)
+                || declared.contains(((IdentifierNode) node.getFuncName()).getValue())
+                || node.getArguments().size() != parameterCount) {
+            throw new UnsupportedException();
+        }
+
+        for (ExpressionNode arg : node.getArguments()) {
+            requireInteger(compileExpression(arg));
+        }
+
+        Label allowed = new Label();
+        mv.visitVarInsn(ILOAD, remainingDepthLocal);
+        mv.visitJumpInsn(IFGT, allowed);
+        mv.visitMethodInsn(INVOKESTATIC, RUNTIME, "deoptimize", "()" + Type.getDescriptor(DeoptimizationException.class), false);
+        mv.visitInsn(ATHROW);
+        mv.visitLabel(allowed);
+        mv.visitVarInsn(ILOAD, remainingDepthLocal);
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(ISUB);
+        mv.visitMethodInsn(INVOKESTATIC, owner, "run", runDescriptor, false);
+        selfCalls.add((IdentifierNode) node.getFuncName());
+
+        if (returnType == ValueTypeEnum.BOOLEAN) {
+            mv.visitInsn(L2I);
+        }
+        return returnType;
+    }
+
+    /**
+     * push 1 if the jump is taken, otherwise 0
+     * @param opcode
+     */
+    private void pushBoolean(int opcode) {
+        Label yes = new Label();
+        Label end = new Label();
+        mv.visitJumpInsn(opcode, yes);
+        mv.visitInsn(ICONST_0);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(yes);
+        mv.visitInsn(ICONST_1);
+        mv.visitLabel(end);
+    }
+
+    private void pushInt(int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+    private void requireInteger(ValueTypeEnum type) {
+        if (type != ValueTypeEnum.INTEGER) {
+            throw new UnsupportedException();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package interpreter.jit;
+
+/**
+ * monkey function compiled to jvm bytecode, the integers are unboxed to long
+ */
+public interface JitFunction {
+
+    /**
+     * @param args integer arguments
+     * @param remainingDepth number of nested calls allowed
+     * @return the integer returned, or 1 for true and 0 for false if the function returns boolean
+     * @throws RuntimeException if an assumption fails, the call should be run by the interpreter
+     */
+    long invoke(long[] args, int remainingDepth);
+}
@@ -0,0 +1,15 @@
+package interpreter.jit;
+
+/**
+ * while loop compiled to jvm bytecode, the variables of it are integers unboxed to long
+ */
+public interface JitLoop {
+
+    /**
+     * run the loop until the condition is false
+     * @param vars values of the variables when the loop is entered, replaced with the values when it exits
+     * @return true if the loop is finished, false if an assumption fails in an iteration, then vars are
+     * the values when the iteration starts, and the interpreter should run the loop from the iteration
+     */
+    boolean run(long[] vars);
+}
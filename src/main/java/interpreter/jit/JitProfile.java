@@ -0,0 +1,21 @@
+package interpreter.jit;
+
+/**
+ * counts of a function body or a while loop and its compiled code, kept on the node by the jit,
+ * so the profile is collected with the ast instead of staying reachable from the jit
+ * @param <T> CompiledFunction or CompiledLoop
+ */
+public class JitProfile<T> {
+
+    int count;
+
+    /**
+     * null until compiled
+     */
+    T compiled;
+
+    /**
+     * the code can't be compiled or its assumption failed, the interpreter always runs it
+     */
+    boolean failed;
+}
@@ -0,0 +1,27 @@
+package interpreter.jit;
+
+/**
+ * helpers called by the compiled code
+ */
+public final class JitRuntime {
+
+    private JitRuntime() {
+    }
+
+    /**
+     * truncated division, the interpreter handles division by zero and the overflow of Long.MIN_VALUE / -1
+     * @param left
+     * @param right
+     * @return
+     */
+    public static long divide(long left, long right) {
+        if (right == 0 || (left == Long.MIN_VALUE && right == -1)) {
+            throw DeoptimizationException.INSTANCE;
+        }
+        return left / right;
+    }
+
+    public static DeoptimizationException deoptimize() {
+        return DeoptimizationException.INSTANCE;
+    }
+}
@@ -1,235 +1,267 @@
 package interpreter.lexer;
 
-import lombok.Data;
+import lombok.Getter;
 
 /**
  * Top-Down Parsing
  * source string -> token
+ * the source is scanned character by character, every token records its offset and length in the source,
+ * only the literals of identifiers, integers and strings are copied out of it.
  */
-@Data
-public class Lexer {
+@Getter
+public class Lexer implements TokenSource {
     /**
      * source
       */
-    private String input;
+    private final Source input;
 
     /**
-     * position being read
+     * index after the last character to scan, the source may end before it
      */
-    private int position;
+    private final int end;
 
     /**
-     * position will be read in the future
+     * position being read
      */
-    private int readPosition;
+    private int position;
 
     /**
-     * current character being read
+     * current line of source
      */
-    private char character;
+    private int line;
 
     /**
-     * current line of source
+     * range and line of the token scanned last
      */
-    private int line;
+    private int tokenStart;
+
+    private int tokenLength;
 
-    private static final Token EOF = new Token(TokenTypeEnum.EOF, -1);
+    private int tokenLine;
+
+    static final Token EOF = new Token(TokenTypeEnum.EOF, -1);
 
     public Lexer(String input) {
+        this(Source.of(input));
+    }
+
+    public Lexer(Source input) {
+        this(input, 0, Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * scan a range of the source, e.g. the body of function parsed later than the program
+     * @param input
+     * @param offset index of the first character to scan
+     * @param length number of characters to scan
+     * @param line line of the first character
+     */
+    public Lexer(Source input, int offset, int length, int line) {
         this.input = input;
-        this.position = 0;
-        this.readPosition = 1;
-        this.line = 1;
+        this.position = offset;
+        // the range of the whole source has no end
+        this.end = length == Integer.MAX_VALUE ? Integer.MAX_VALUE : offset + length;
+        this.line = line;
     }
 
+    /**
+     * scan the next token and create it
+     * @return the EOF token after the last token
+     */
     public Token nextToken() {
-        char ch = consume();
-        Token token;
+        TokenTypeEnum type = scan();
+        if (type == TokenTypeEnum.EOF) {
+            return EOF;
+        }
+        return new Token(type, literal(input, type, tokenStart, tokenLength), tokenLine, tokenStart, tokenLength);
+    }
+
+    /**
+     * scan the next token without creating it, its range and line are left in tokenStart, tokenLength and tokenLine
+     * @return type of the token
+     */
+    @Override
+    public TokenTypeEnum scan() {
+        skipWhitespace();
+        tokenStart = position;
+        tokenLine = line;
+        if (!has(position)) {
+            tokenLength = 0;
+            return TokenTypeEnum.EOF;
+        }
+
+        TokenTypeEnum type;
+        char ch = input.charAt(position++);
         switch (ch) {
             case 0:
-                token = EOF;
+                type = TokenTypeEnum.EOF;
                 break;
             case '=':
-                if (peek() == '=') {
-                    consume();
-                    token = new Token(TokenTypeEnum.EQ, line);
-                } else {
-                    token = new Token(TokenTypeEnum.ASSIGN, line);
-                }
+                type = match('=') ? TokenTypeEnum.EQ : TokenTypeEnum.ASSIGN;
                 break;
             case '!':
-                if (peek() == '=') {
-                    consume();
-                    token = new Token(TokenTypeEnum.NOT_EQ, line);
-                } else {
-                    token = new Token(TokenTypeEnum.BANG, line);
-                }
+                type = match('=') ? TokenTypeEnum.NOT_EQ : TokenTypeEnum.BANG;
                 break;
             case '+':
-                token = new Token(TokenTypeEnum.PLUS, line);
+                type = TokenTypeEnum.PLUS;
                 break;
             case '-':
-                token = new Token(TokenTypeEnum.MINUS, line);
+                type = TokenTypeEnum.MINUS;
                 break;
             case '*':
-                token = new Token(TokenTypeEnum.ASTERISK, line);
+                type = TokenTypeEnum.ASTERISK;
                 break;
             case '/':
-                token = new Token(TokenTypeEnum.SLASH, line);
+                type = TokenTypeEnum.SLASH;
                 break;
             case '<':
-                if (peek() == '=') {
-                    consume();
-                    token = new Token(TokenTypeEnum.LE, line);
-                } else {
-                    token = new Token(TokenTypeEnum.LT, line);
-                }
+                type = match('=') ? TokenTypeEnum.LE : TokenTypeEnum.LT;
                 break;
             case '>':
-                if (peek() == '=') {
-                    consume();
-                    token = new Token(TokenTypeEnum.GE, line);
-                } else {
-                    token = new Token(TokenTypeEnum.GT, line);
-                }
+                type = match('=') ? TokenTypeEnum.GE : TokenTypeEnum.GT;
                 break;
             case ',':
-                token = new Token(TokenTypeEnum.COMMA, line);
+                type = TokenTypeEnum.COMMA;
                 break;
             case ';':
-                token = new Token(TokenTypeEnum.SEMICOLON, line);
+                type = TokenTypeEnum.SEMICOLON;
                 break;
             case '(':
-                token = new Token(TokenTypeEnum.LPAREN, line);
+                type = TokenTypeEnum.LPAREN;
                 break;
             case ')':
-                token = new Token(TokenTypeEnum.RPAREN, line);
+                type = TokenTypeEnum.RPAREN;
                 break;
             case '{':
-                token = new Token(TokenTypeEnum.LBRACE, line);
+                type = TokenTypeEnum.LBRACE;
                 break;
             case '}':
-                token = new Token(TokenTypeEnum.RBRACE, line);
+                type = TokenTypeEnum.RBRACE;
                 break;
             case '[':
-                token = new Token(TokenTypeEnum.LBRACKET, line);
+                type = TokenTypeEnum.LBRACKET;
                 break;
             case ']':
-                token = new Token(TokenTypeEnum.RBRACKET, line);
+                type = TokenTypeEnum.RBRACKET;
                 break;
             case '"':
-                token = getString();
+                type = scanString();
                 break;
-            case ':' :
-                token = new Token(TokenTypeEnum.COLON, line);
+            case ':':
+                type = TokenTypeEnum.COLON;
                 break;
             default:
-                if (Character.isDigit(ch)) {
-                    token = getNum();
+                if (isDigit(ch)) {
+                    type = scanNum();
                 } else if (isAlpha(ch)) {
-                    token = getIdent();
+                    type = scanIdent();
                 } else {
-                    token = new Token(TokenTypeEnum.ILLEGAL, line);
+                    type = TokenTypeEnum.ILLEGAL;
                 }
         }
 
-        return token;
+        tokenLength = position - tokenStart;
+        return type;
     }
 
     /**
-     * get string token
+     * literal of the token in the source: identifiers, integers and strings are copied out of the source,
+     * the other tokens share the literal of their type
+     * @param source
+     * @param type
+     * @param offset
+     * @param length
      * @return
      */
-    private Token getString() {
-        int pos = position;
-        consume();
-        while ('"' != character && 0 != character) {
-            consume();
+    public static String literal(Source source, TokenTypeEnum type, int offset, int length) {
+        switch (type) {
+            case IDENT:
+            case INT:
+                return source.substring(offset, length);
+            case STRING:
+                // without the quotes, the string not closed has no closing quote
+                boolean closed = length > 1 && source.charAt(offset + length - 1) == '"';
+                return source.substring(offset + 1, closed ? length - 2 : length - 1);
+            default:
+                return type.getLiterial();
         }
-
-        String str = input.substring(pos, position - 1);
-        return new Token(TokenTypeEnum.STRING, str, line);
     }
 
     /**
-     * get number token
+     * scan string, the string not closed ends at the end of source
      * @return
      */
-    private Token getNum() {
-        int pos = position;
-        String num = character + "";
-        while (Character.isDigit(peek()) && !isEOF(peek())) {
-            consume();
+    private TokenTypeEnum scanString() {
+        while (has(position) && input.charAt(position) != '"' && input.charAt(position) != 0) {
+            if (input.charAt(position) == '\n') {
+                line++;
+            }
+            position++;
         }
 
-        num += input.substring(pos, position);
-        return new Token(TokenTypeEnum.INT, num, line);
+        if (has(position) && input.charAt(position) == '"') {
+            position++;
+        }
+        return TokenTypeEnum.STRING;
     }
 
-    /**
-     * get identifier token
-     * @return
-     */
-    private Token getIdent() {
-        int pos = position;
-        String identifier = character + "";
-        while ((isAlpha(peek()) || Character.isDigit(peek()))&& !isEOF(peek())) {
-            consume();
+    private TokenTypeEnum scanNum() {
+        while (has(position) && isDigit(input.charAt(position))) {
+            position++;
         }
-
-        identifier += input.substring(pos, position);
-        return new Token(TokenTypeEnum.of(identifier), identifier, line);
+        return TokenTypeEnum.INT;
     }
 
     /**
-     * if the current char is the end of file return 0
-     * @param ch
+     * scan identifier or keyword
      * @return
      */
-    public boolean isEOF(char ch) {
-        return ch == 0;
+    private TokenTypeEnum scanIdent() {
+        while (has(position) && (isAlpha(input.charAt(position)) || isDigit(input.charAt(position)))) {
+            position++;
+        }
+        return TokenTypeEnum.of(input, tokenStart, position - tokenStart);
     }
 
     /**
-     * if the current char is legal return true;
-     * @param ch
-     * @return
+     * skip the whitespace before the next token, count the lines
      */
-    private boolean isAlpha(char ch) {
-        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_';
+    private void skipWhitespace() {
+        while (has(position) && Character.isWhitespace(input.charAt(position))) {
+            if (input.charAt(position) == '\n') {
+                line++;
+            }
+            position++;
+        }
+    }
+
+    private boolean has(int index) {
+        return index < end && input.has(index);
     }
 
     /**
-     * consume current character
+     * consume the next character if it is the expected one
+     * @param expected
      * @return
      */
-    private char consume() {
-        if (position >= input.length()) {
-            return 0;
-        } else {
-            character = input.charAt(position);
+    private boolean match(char expected) {
+        if (has(position) && input.charAt(position) == expected) {
             position++;
-            readPosition++;
-            if (Character.isWhitespace(character)) {
-                if (character == '\n') {
-                    line++;
-                }
-                consume();
-            }
-            return character;
+            return true;
         }
+        return false;
+    }
+
+    private boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
     }
 
     /**
-     * peek the next character
+     * if the current char is legal return true;
+     * @param ch
      * @return
      */
-    private char peek() {
-        if (position >= input.length()) {
-            return 0;
-        } else {
-            return input.charAt(position);
-        }
+    private boolean isAlpha(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_';
     }
-
 }
@@ -0,0 +1,273 @@
+package interpreter.lexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * characters scanned by lexer, indexed from 0: an array of characters, or the utf-8 bytes of a script
+ * mapped from file or read from stream. the bytes are not decoded to characters as a whole,
+ * the tokens outside of strings are ascii, a byte is a character there; the literals of strings are decoded
+ * when they are created, a multi-byte character is scanned as illegal characters outside of strings.
+ * the offsets of tokens in the bytes are offsets of bytes.
+ * only the source of characters is serializable.
+ */
+public abstract class Source implements Serializable {
+
+    /**
+     * bytes read from stream at a time
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @param index
+     * @return true if there is a character at the index, the source of stream reads more to know
+     */
+    public abstract boolean has(int index);
+
+    /**
+     * @param index
+     * @return the character at the index, which has to be checked by has
+     */
+    public abstract char charAt(int index);
+
+    /**
+     * @return number of characters, or the number read so far if the source is a stream
+     */
+    public abstract int lengthHint();
+
+    /**
+     * the text of the range, decoded from the bytes if the source is bytes
+     * @param offset
+     * @param length
+     * @return
+     */
+    public abstract String substring(int offset, int length);
+
+    /**
+     * the characters before the offset are not read again, the source of stream drops them,
+     * so the memory is bounded by the statements being parsed instead of the script
+     * @param offset
+     */
+    public void release(int offset) {
+    }
+
+    /**
+     * @return true if the characters are dropped once released, the ranges kept for later have to be copied
+     */
+    public boolean isReleasable() {
+        return false;
+    }
+
+    public static Source of(String input) {
+        return of(input.toCharArray());
+    }
+
+    public static Source of(char[] input) {
+        return new CharArraySource(input);
+    }
+
+    /**
+     * map the script file to memory, the file is not read until the lexer scans it.
+     * the byte order mark of utf-8 is skipped
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public static Source map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("script is larger than 2GB: %s", path));
+            }
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ByteBufferSource(skipByteOrderMark(buffer));
+        }
+    }
+
+    /**
+     * read the script from stream as the lexer scans it, at most BUFFER_SIZE bytes at a time.
+     * the bytes read are kept until released, the tokens and the lazy function bodies refer to them by offset
+     * @param in
+     * @return
+     */
+    public static Source read(InputStream in) {
+        return new StreamSource(in);
+    }
+
+    private static ByteBuffer skipByteOrderMark(ByteBuffer buffer) {
+        if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            buffer.position(3);
+            return buffer.slice();
+        }
+        return buffer;
+    }
+
+    private static final class CharArraySource extends Source {
+
+        private final char[] chars;
+
+        private CharArraySource(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public boolean has(int index) {
+            return index < chars.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public int lengthHint() {
+            return chars.length;
+        }
+
+        @Override
+        public String substring(int offset, int length) {
+            return new String(chars, offset, length);
+        }
+    }
+
+    private static final class ByteBufferSource extends Source {
+
+        private final ByteBuffer bytes;
+
+        private ByteBufferSource(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean has(int index) {
+            return index < bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @Override
+        public int lengthHint() {
+            return bytes.limit();
+        }
+
+        @Override
+        public String substring(int offset, int length) {
+            ByteBuffer range = bytes.duplicate();
+            range.position(offset);
+            range.limit(offset + length);
+            return StandardCharsets.UTF_8.decode(range).toString();
+        }
+    }
+
+    private static final class StreamSource extends Source {
+
+        private final InputStream in;
+
+        private byte[] bytes = new byte[BUFFER_SIZE];
+
+        /**
+         * offset of the first byte in the buffer, the bytes before it are released and dropped
+         */
+        private int base;
+
+        /**
+         * number of bytes in the buffer
+         */
+        private int size;
+
+        /**
+         * the bytes before it are released, they are dropped when the buffer is full
+         */
+        private int released;
+
+        private boolean finished;
+
+        /**
+         * the byte order mark is checked when the first 3 bytes are read
+         */
+        private boolean started;
+
+        private StreamSource(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean has(int index) {
+            while ((index - base >= size || !started) && !finished) {
+                fill();
+            }
+            return index - base < size;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index - base] & 0xFF);
+        }
+
+        @Override
+        public int lengthHint() {
+            return base + size;
+        }
+
+        @Override
+        public String substring(int offset, int length) {
+            return new String(bytes, offset - base, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void release(int offset) {
+            released = Math.max(released, Math.min(offset, base + size));
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return true;
+        }
+
+        /**
+         * read the next chunk of stream, drop the released bytes or grow the buffer if it is full
+         */
+        private void fill() {
+            if (size + BUFFER_SIZE > bytes.length && released > base) {
+                int drop = released - base;
+                System.arraycopy(bytes, drop, bytes, 0, size - drop);
+                base = released;
+                size -= drop;
+            }
+            if (size + BUFFER_SIZE > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + BUFFER_SIZE));
+            }
+            try {
+                int read = in.read(bytes, size, BUFFER_SIZE);
+                if (read < 0) {
+                    finished = true;
+                } else {
+                    size += read;
+                }
+                if (!started && (size >= 3 || finished)) {
+                    started = true;
+                    if (size >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+                        System.arraycopy(bytes, 3, bytes, 0, size - 3);
+                        size -= 3;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
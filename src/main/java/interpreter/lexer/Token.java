@@ -24,11 +24,23 @@ public class Token implements Serializable {
     /**
      * the line in the source
      */
-    private Integer line;
+    private int line;
 
-    public Token(TokenTypeEnum type, Integer line) {
-        this.type = type;
-        this.line = line;
-        this.literal = type.getLiterial();
+    /**
+     * index of the first character in the source, -1 if the token is not read from source
+     */
+    private int offset;
+
+    /**
+     * number of characters in the source
+     */
+    private int length;
+
+    public Token(TokenTypeEnum type, int line) {
+        this(type, type.getLiterial(), line);
+    }
+
+    public Token(TokenTypeEnum type, String literal, int line) {
+        this(type, literal, line, -1, 0);
     }
 }
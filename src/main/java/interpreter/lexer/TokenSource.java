@@ -0,0 +1,35 @@
+package interpreter.lexer;
+
+/**
+ * tokens read by parser: scanned from the source one by one by lexer, or read from a scanned token stream.
+ * the parser reads the type, range and line of each token, and creates the token objects it keeps
+ */
+public interface TokenSource {
+
+    /**
+     * move to the next token, its range and line are read by getTokenStart, getTokenLength and getTokenLine
+     * @return type of the token, EOF after the last token
+     */
+    TokenTypeEnum scan();
+
+    /**
+     * @return offset of the token scanned last in the source
+     */
+    int getTokenStart();
+
+    /**
+     * @return length of the token scanned last in the source
+     */
+    int getTokenLength();
+
+    /**
+     * @return line of the token scanned last
+     */
+    int getTokenLine();
+
+    /**
+     * the source the tokens are read from, the offsets of tokens are indexes of it
+     * @return
+     */
+    Source getInput();
+}
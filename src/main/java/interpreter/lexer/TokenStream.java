@@ -0,0 +1,152 @@
+package interpreter.lexer;
+
+import java.util.Arrays;
+
+/**
+ * tokens of a source scanned in advance, stored as arrays of primitives instead of token objects:
+ * the ordinal of type, the offset and length in the source and the line of every token.
+ * the parser reads them one by one as from lexer without creating token objects, the token object and its literal
+ * are created only for the nodes keeping the token, the literal is copied out of the source only for identifiers,
+ * integers and strings.
+ */
+public class TokenStream implements TokenSource {
+
+    private static final TokenTypeEnum[] TYPES = TokenTypeEnum.values();
+
+    private final Source input;
+
+    private byte[] types;
+
+    private int[] offsets;
+
+    private int[] lengths;
+
+    private int[] lines;
+
+    /**
+     * number of tokens, without EOF
+     */
+    private int size;
+
+    /**
+     * index of the token read next
+     */
+    private int next;
+
+    /**
+     * index of the token scanned last, -1 at EOF
+     */
+    private int current = -1;
+
+    private TokenStream(Source input, int capacity) {
+        this.input = input;
+        this.types = new byte[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.lines = new int[capacity];
+    }
+
+    /**
+     * scan all the tokens of the lexer
+     * @param lexer
+     * @return
+     */
+    public static TokenStream of(Lexer lexer) {
+        // about one token per 4 characters in usual source
+        TokenStream res = new TokenStream(lexer.getInput(), Math.max(16, (lexer.getInput().lengthHint() - lexer.getPosition()) / 4));
+        for (TokenTypeEnum type = lexer.scan(); type != TokenTypeEnum.EOF; type = lexer.scan()) {
+            res.add(type, lexer.getTokenStart(), lexer.getTokenLength(), lexer.getTokenLine());
+        }
+        return res;
+    }
+
+    public static TokenStream of(String input) {
+        return of(new Lexer(input));
+    }
+
+    private void add(TokenTypeEnum type, int offset, int length, int line) {
+        if (size == types.length) {
+            int capacity = size + (size >> 1);
+            types = Arrays.copyOf(types, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        lines[size] = line;
+        size++;
+    }
+
+    @Override
+    public TokenTypeEnum scan() {
+        current = next < size ? next++ : -1;
+        return current < 0 ? TokenTypeEnum.EOF : type(current);
+    }
+
+    @Override
+    public int getTokenStart() {
+        return current < 0 ? -1 : offsets[current];
+    }
+
+    @Override
+    public int getTokenLength() {
+        return current < 0 ? 0 : lengths[current];
+    }
+
+    @Override
+    public int getTokenLine() {
+        return current < 0 ? -1 : lines[current];
+    }
+
+    @Override
+    public Source getInput() {
+        return input;
+    }
+
+    /**
+     * read the tokens from the first again
+     */
+    public void rewind() {
+        next = 0;
+        current = -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenTypeEnum type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int offset(int index) {
+        return offsets[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * @param index
+     * @return the literal of the token, see Lexer.literal
+     */
+    public String literal(int index) {
+        return Lexer.literal(input, type(index), offsets[index], lengths[index]);
+    }
+
+    /**
+     * create the token object of the index
+     * @param index
+     * @return
+     */
+    public Token token(int index) {
+        return new Token(type(index), literal(index), lines[index], offsets[index], lengths[index]);
+    }
+}
@@ -2,8 +2,6 @@ package interpreter.lexer;
 
 import lombok.Getter;
 
-import java.util.Arrays;
-
 /**
  * Token Type: remember the kind of token while scanning is convenient for parsing.
  */
@@ -75,11 +73,45 @@ public enum TokenTypeEnum {
     }
 
     public static TokenTypeEnum of(String identifier) {
-        TokenTypeEnum keyWord = Arrays.stream(TokenTypeEnum.values())
-                .filter(item -> item.isKeyWord())
-                .filter(item -> item.getLiterial().equals(identifier))
-                .findFirst().orElse(null);
+        return of(Source.of(identifier), 0, identifier.length());
+    }
 
-        return keyWord != null ? keyWord : TokenTypeEnum.IDENT;
+    /**
+     * the keyword is found by its length and first character, then compared with the literal,
+     * so the identifier is not copied out of the source
+     * @param source
+     * @param offset index of the first character of identifier
+     * @param length
+     * @return IDENT if the identifier is not a keyword
+     */
+    public static TokenTypeEnum of(Source source, int offset, int length) {
+        TokenTypeEnum keyword;
+        switch (length) {
+            case 2:
+                keyword = source.charAt(offset) == 'f' ? FUNCTION : source.charAt(offset) == 'i' ? IF : OR;
+                break;
+            case 3:
+                keyword = source.charAt(offset) == 'l' ? LET : AND;
+                break;
+            case 4:
+                keyword = source.charAt(offset) == 't' ? TRUE : ELSE;
+                break;
+            case 5:
+                keyword = source.charAt(offset) == 'f' ? FALSE : source.charAt(offset) == 'm' ? MACRO : WHILE;
+                break;
+            case 6:
+                keyword = RETURN;
+                break;
+            default:
+                return IDENT;
+        }
+
+        String literal = keyword.getLiterial();
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(offset + i) != literal.charAt(i)) {
+                return IDENT;
+            }
+        }
+        return keyword;
     }
 }
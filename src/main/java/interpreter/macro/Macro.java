@@ -4,7 +4,9 @@ import interpreter.ast.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,143 +20,179 @@ import java.util.function.Function;
 public class Macro {
 
     /**
-     * suffix traverse the AST and modify it with the given function
+     * suffix traverse the AST and modify it with the given function.
+     * the traversal keeps the path from the root in a stack on heap, so the depth of the ast is not limited by
+     * the stack of java.
      * @param node
      * @param modifyFunc
      * @return
      */
     public static TreeNode modify(TreeNode node, Function<TreeNode, TreeNode> modifyFunc) {
+        Deque<Visit> path = new ArrayDeque<>();
+        path.push(new Visit(node));
+        TreeNode res = null;
+        while (!path.isEmpty()) {
+            Visit visit = path.peek();
+            if (visit.children != null && visit.modified.size() < visit.children.size()) {
+                path.push(new Visit(visit.children.get(visit.modified.size())));
+                continue;
+            }
+
+            path.pop();
+            res = visit.children == null ? modifyFunc.apply(visit.node) : rebuild(visit.node, visit.modified, modifyFunc);
+            if (!path.isEmpty()) {
+                path.peek().modified.add(res);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * a node on the path, with its children modified so far
+     */
+    private static class Visit {
+
+        private final TreeNode node;
+
+        /**
+         * the children to modify, null if the node is modified as a whole
+         */
+        private final List<TreeNode> children;
+
+        private final List<TreeNode> modified = new ArrayList<>();
+
+        Visit(TreeNode node) {
+            this.node = node;
+            this.children = children(node);
+        }
+    }
+
+    /**
+     * children of the node traversed by modify
+     * @param node
+     * @return null if the node has no children to traverse
+     */
+    private static List<TreeNode> children(TreeNode node) {
+        List<TreeNode> res = new ArrayList<>();
         Class nodeClass = node.getClass();
         if (nodeClass.equals(ProgramNode.class)) {
-            return modifyProgram((ProgramNode) node, modifyFunc);
+            res.addAll(((ProgramNode) node).getStatements());
         } else if (nodeClass.equals(ExpressionStatementNode.class)) {
-            return modifyExpressionStatements((ExpressionStatementNode) node, modifyFunc);
+            res.add(((ExpressionStatementNode) node).getExpression());
         } else if (nodeClass.equals(BinaryExpressionNode.class)) {
-            return modifyBinaryExpression((BinaryExpressionNode) node, modifyFunc);
+            res.add(((BinaryExpressionNode) node).getLeft());
+            res.add(((BinaryExpressionNode) node).getRight());
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            res.add(((LogicalExpressionNode) node).getLeft());
+            res.add(((LogicalExpressionNode) node).getRight());
         } else if (nodeClass.equals(UnaryExpressionNode.class)) {
-            return modifyUnaryExpression((UnaryExpressionNode) node, modifyFunc);
+            res.add(((UnaryExpressionNode) node).getRight());
         } else if (nodeClass.equals(IndexExpressionNode.class)) {
-            return modifyIndexExpression((IndexExpressionNode) node, modifyFunc);
+            res.add(((IndexExpressionNode) node).getObject());
+            res.add(((IndexExpressionNode) node).getIndex());
         } else if (nodeClass.equals(IfExpressionNode.class)) {
-            return modifyIfExpression((IfExpressionNode) node, modifyFunc);
+            IfExpressionNode ifNode = (IfExpressionNode) node;
+            res.add(ifNode.getCondition());
+            res.add(ifNode.getConsequence());
+            if (ifNode.getAlternative() != null) {
+                res.add(ifNode.getAlternative());
+            }
         } else if (nodeClass.equals(BlockStatement.class)) {
-            return modifyBlockStatement((BlockStatement) node, modifyFunc);
+            if (((BlockStatement) node).isLazy()) {
+                // the statements are not parsed yet, the block is modified as a whole
+                return null;
+            }
+            res.addAll(((BlockStatement) node).getStatements());
         } else if (nodeClass.equals(ReturnStatementNode.class)) {
-            return modifyReturnStatement((ReturnStatementNode) node, modifyFunc);
+            res.add(((ReturnStatementNode) node).getValue());
         } else if (nodeClass.equals(LetStatementNode.class)) {
-            return modifyLetStatement((LetStatementNode) node, modifyFunc);
+            res.add(((LetStatementNode) node).getValue());
         } else if (nodeClass.equals(FunctionLiteralNode.class)) {
-            return modifyFunctionLiteral((FunctionLiteralNode) node, modifyFunc);
+            res.addAll(((FunctionLiteralNode) node).getParameters());
+            res.add(((FunctionLiteralNode) node).getBody());
         } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
-            return modifyArrayLiteralExpression((ArrayLiteralExpressionNode) node, modifyFunc);
+            res.addAll(((ArrayLiteralExpressionNode) node).getElements());
         } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
-            return modifyMapLiteralExpression((MapLiteralExpressionNode) node, modifyFunc);
+            for (Map.Entry<ExpressionNode, ExpressionNode> entry : ((MapLiteralExpressionNode) node).getPairs().entrySet()) {
+                res.add(entry.getKey());
+                res.add(entry.getValue());
+            }
+        } else {
+            return null;
         }
 
-        return modifyFunc.apply(node);
-    }
-
-    private static TreeNode modifyMapLiteralExpression(MapLiteralExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        Map<ExpressionNode, ExpressionNode> pairs = new HashMap<>();
-        for (Map.Entry<ExpressionNode, ExpressionNode> entry : node.getPairs().entrySet()) {
-            ExpressionNode key = (ExpressionNode) modify(entry.getKey(), modifyFunc);
-            ExpressionNode value = (ExpressionNode) modify(entry.getValue(), modifyFunc);
-            pairs.put(key, value);
-        }
-        node.setPairs(pairs);
-        return node;
+        return res;
     }
 
-    private static TreeNode modifyArrayLiteralExpression(ArrayLiteralExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        List<ExpressionNode> elements = new ArrayList<>();
-        for (ExpressionNode ele :
-                node.getElements()) {
-            elements.add((ExpressionNode) modify(ele, modifyFunc));
-        }
-
-        node.setElements(elements);
-        return node;
-    }
-
-    private static TreeNode modifyFunctionLiteral(FunctionLiteralNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        List<IdentifierNode> parameters = new ArrayList<>();
-        for (IdentifierNode para : node.getParameters()) {
-            parameters.add((IdentifierNode) modify(para, modifyFunc));
-        }
-        node.setParameters(parameters);
-
-        node.setBody((BlockStatement) modify(node.getBody(), modifyFunc));
-
-        return node;
-    }
-
-    private static TreeNode modifyLetStatement(LetStatementNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setValue((ExpressionNode) modify(node.getValue(), modifyFunc));
-        return node;
-    }
-
-    private static TreeNode modifyReturnStatement(ReturnStatementNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setValue((ExpressionNode) modify(node.getValue(), modifyFunc));
-        return node;
-    }
-
-    private static TreeNode modifyBlockStatement(BlockStatement node, Function<TreeNode, TreeNode> modifyFunc) {
-        List<StatementNode> statements = new ArrayList<>();
-        for (StatementNode statement : node.getStatements()) {
-            statements.add((StatementNode) modify(statement, modifyFunc));
-        }
-
-        node.setStatements(statements);
-        return node;
-    }
-
-    private static TreeNode modifyIfExpression(IfExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setCondition((ExpressionNode) modify(node.getCondition(), modifyFunc));
-        node.setConsequence((BlockStatement) modify(node.getConsequence(), modifyFunc));
-        if (node.getAlternative() != null) {
-            node.setAlternative((BlockStatement) modify(node.getAlternative(), modifyFunc));
-        }
-
-        return node;
-    }
-
-    private static TreeNode modifyIndexExpression(IndexExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setObject((ExpressionNode) modify(node.getObject(), modifyFunc));
-        node.setIndex((ExpressionNode) modify(node.getIndex(), modifyFunc));
-        return node;
-    }
-
-    private static TreeNode modifyUnaryExpression(UnaryExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setRight((ExpressionNode) modify(node.getRight(), modifyFunc));
-        return node;
-    }
-
-    private static TreeNode modifyBinaryExpression(BinaryExpressionNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        node.setLeft((ExpressionNode) modify(node.getLeft(), modifyFunc));
-        node.setRight((ExpressionNode) modify(node.getRight(), modifyFunc));
-        return node;
-    }
-
-
-
     /**
-     * modify the program node
+     * set the modified children back to the node
      * @param node
+     * @param modified
      * @param modifyFunc
      * @return
      */
-    private static TreeNode modifyProgram(ProgramNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        List<StatementNode> statements = new ArrayList<>();
-        for (StatementNode statement : node.getStatements()) {
-            statements.add((StatementNode) modify(statement, modifyFunc));
+    private static TreeNode rebuild(TreeNode node, List<TreeNode> modified, Function<TreeNode, TreeNode> modifyFunc) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(ProgramNode.class)) {
+            ((ProgramNode) node).setStatements(statements(modified));
+            return modifyFunc.apply(node);
+        } else if (nodeClass.equals(ExpressionStatementNode.class)) {
+            ((ExpressionStatementNode) node).setExpression((ExpressionNode) modified.get(0));
+            return modifyFunc.apply(node);
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            ((BinaryExpressionNode) node).setLeft((ExpressionNode) modified.get(0));
+            ((BinaryExpressionNode) node).setRight((ExpressionNode) modified.get(1));
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            ((LogicalExpressionNode) node).setLeft((ExpressionNode) modified.get(0));
+            ((LogicalExpressionNode) node).setRight((ExpressionNode) modified.get(1));
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            ((UnaryExpressionNode) node).setRight((ExpressionNode) modified.get(0));
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            ((IndexExpressionNode) node).setObject((ExpressionNode) modified.get(0));
+            ((IndexExpressionNode) node).setIndex((ExpressionNode) modified.get(1));
+        } else if (nodeClass.equals(IfExpressionNode.class)) {
+            IfExpressionNode ifNode = (IfExpressionNode) node;
+            ifNode.setCondition((ExpressionNode) modified.get(0));
+            ifNode.setConsequence((BlockStatement) modified.get(1));
+            if (ifNode.getAlternative() != null) {
+                ifNode.setAlternative((BlockStatement) modified.get(2));
+            }
+        } else if (nodeClass.equals(BlockStatement.class)) {
+            ((BlockStatement) node).setStatements(statements(modified));
+        } else if (nodeClass.equals(ReturnStatementNode.class)) {
+            ((ReturnStatementNode) node).setValue((ExpressionNode) modified.get(0));
+        } else if (nodeClass.equals(LetStatementNode.class)) {
+            ((LetStatementNode) node).setValue((ExpressionNode) modified.get(0));
+        } else if (nodeClass.equals(FunctionLiteralNode.class)) {
+            List<IdentifierNode> parameters = new ArrayList<>();
+            for (int i = 0; i < modified.size() - 1; i++) {
+                parameters.add((IdentifierNode) modified.get(i));
+            }
+            ((FunctionLiteralNode) node).setParameters(parameters);
+            ((FunctionLiteralNode) node).setBody((BlockStatement) modified.get(modified.size() - 1));
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            List<ExpressionNode> elements = new ArrayList<>();
+            for (TreeNode element : modified) {
+                elements.add((ExpressionNode) element);
+            }
+            ((ArrayLiteralExpressionNode) node).setElements(elements);
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            Map<ExpressionNode, ExpressionNode> pairs = new HashMap<>();
+            for (int i = 0; i < modified.size(); i += 2) {
+                pairs.put((ExpressionNode) modified.get(i), (ExpressionNode) modified.get(i + 1));
+            }
+            ((MapLiteralExpressionNode) node).setPairs(pairs);
         }
-        node.setStatements(statements);
-        return modifyFunc.apply(node);
+
+        return node;
     }
 
-    private static TreeNode modifyExpressionStatements(ExpressionStatementNode node, Function<TreeNode, TreeNode> modifyFunc) {
-        ExpressionNode expression = (ExpressionNode) modify(node.getExpression(), modifyFunc);
-        node.setExpression(expression);
-        return modifyFunc.apply(node);
+    private static List<StatementNode> statements(List<TreeNode> modified) {
+        List<StatementNode> statements = new ArrayList<>();
+        for (TreeNode statement : modified) {
+            statements.add((StatementNode) statement);
+        }
+        return statements;
     }
 }
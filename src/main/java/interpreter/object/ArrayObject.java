@@ -1,28 +1,42 @@
 package interpreter.object;
 
+import interpreter.collection.PersistentVector;
 import lombok.Data;
-import lombok.NoArgsConstructor;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * array is immutable, push returns a new array sharing the structure with the old one
+ */
 @Data
-@NoArgsConstructor
 public class ArrayObject implements ValueObject {
 
-    private ValueTypeEnum type;
+    private final PersistentVector<ValueObject> elements;
 
-    private List<ValueObject> elements = new ArrayList<>();
+    public ArrayObject() {
+        this.elements = PersistentVector.empty();
+    }
 
-    public ArrayObject(List<ValueObject> elements) {
+    public ArrayObject(PersistentVector<ValueObject> elements) {
         this.elements = elements;
-        this.type = ValueTypeEnum.ARRAY;
+    }
+
+    public ArrayObject(List<ValueObject> elements) {
+        this.elements = PersistentVector.of(elements);
+    }
+
+    /**
+     * @param element
+     * @return a new array with the element appended
+     */
+    public ArrayObject push(ValueObject element) {
+        return new ArrayObject(elements.plus(element));
     }
 
     @Override
     public ValueTypeEnum type() {
-        return this.type;
+        return ValueTypeEnum.ARRAY;
     }
 
     @Override
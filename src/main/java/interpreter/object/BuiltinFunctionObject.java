@@ -1,17 +1,15 @@
 package interpreter.object;
 
+import interpreter.builtin.NativeFunction;
 import lombok.Data;
 
-import java.util.List;
-import java.util.function.Function;
-
 @Data
 public class BuiltinFunctionObject implements ValueObject {
 
     private ValueTypeEnum type;
-    private Function<List<ValueObject>, ValueObject> function;
+    private NativeFunction function;
 
-    public BuiltinFunctionObject(Function function) {
+    public BuiltinFunctionObject(NativeFunction function) {
         this.function = function;
         this.type = ValueTypeEnum.BUILTIN;
     }
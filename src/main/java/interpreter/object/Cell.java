@@ -0,0 +1,19 @@
+package interpreter.object;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * box of a variable captured by closures, the enclosing function and the closures share the same cell,
+ * so that the changes of the variable are visible to each other.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cell {
+    /**
+     * null if the variable is not bound yet
+     */
+    private ValueObject value;
+}
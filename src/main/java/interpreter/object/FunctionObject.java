@@ -3,6 +3,7 @@ package interpreter.object;
 import interpreter.ast.BlockStatement;
 import interpreter.ast.IdentifierNode;
 import interpreter.eval.Environment;
+import interpreter.resolver.FrameDescriptor;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,6 +26,11 @@ public class FunctionObject implements ValueObject {
 
     private Environment env;
 
+    /**
+     * layout of the frame, null if the function is not resolved, then its variables are looked up by name
+     */
+    private FrameDescriptor frameDescriptor;
+
     @Override
     public ValueTypeEnum type() {
         return ValueTypeEnum.FUNCTION;
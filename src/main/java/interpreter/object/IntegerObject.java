@@ -2,27 +2,155 @@ package interpreter.object;
 
 import lombok.Data;
 
+import java.math.BigInteger;
+
 /**
  * 整数值对象
+ * the value is a primitive long, it is promoted to BigInteger when the result of arithmetic overflows long,
+ * and demoted back when it fits in long again, so bigValue is null for every value in the range of long.
  */
 @Data
 public class IntegerObject implements ValueObject {
 
-    private ValueTypeEnum type;
-    private Integer value;
+    private static final int CACHE_LOW = -128;
+
+    private static final int CACHE_HIGH = 1023;
+
+    private static final IntegerObject[] CACHE = new IntegerObject[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new IntegerObject(i + CACHE_LOW);
+        }
+    }
 
-    public IntegerObject(Integer value) {
+    private final long value;
+
+    /**
+     * the value out of the range of long, null otherwise
+     */
+    private final BigInteger bigValue;
+
+    private IntegerObject(long value) {
         this.value = value;
-        this.type = ValueTypeEnum.INTEGER;
+        this.bigValue = null;
+    }
+
+    private IntegerObject(BigInteger bigValue) {
+        this.value = bigValue.longValue();
+        this.bigValue = bigValue;
+    }
+
+    /**
+     * the common small values are shared
+     * @param value
+     * @return
+     */
+    public static IntegerObject valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new IntegerObject(value);
+    }
+
+    public static IntegerObject valueOf(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            return valueOf(value.longValue());
+        }
+        return new IntegerObject(value);
+    }
+
+    public boolean isBig() {
+        return bigValue != null;
+    }
+
+    public BigInteger toBigInteger() {
+        return bigValue != null ? bigValue : BigInteger.valueOf(value);
     }
 
     @Override
     public ValueTypeEnum type() {
-        return this.type;
+        return ValueTypeEnum.INTEGER;
     }
 
     @Override
     public String inspect() {
-        return value.toString();
+        return bigValue != null ? bigValue.toString() : Long.toString(value);
+    }
+
+    /**
+     * the same text as before the value became a long, the map prints its pairs with it
+     * @return
+     */
+    @Override
+    public String toString() {
+        return "IntegerObject(type=INTEGER, value=" + inspect() + ")";
+    }
+
+    public static IntegerObject add(IntegerObject left, IntegerObject right) {
+        if (left.bigValue == null && right.bigValue == null) {
+            long res = left.value + right.value;
+            // overflow iff both operands have the sign different from the result
+            if (((left.value ^ res) & (right.value ^ res)) >= 0) {
+                return valueOf(res);
+            }
+        }
+        return valueOf(left.toBigInteger().add(right.toBigInteger()));
+    }
+
+    public static IntegerObject subtract(IntegerObject left, IntegerObject right) {
+        if (left.bigValue == null && right.bigValue == null) {
+            long res = left.value - right.value;
+            if (((left.value ^ right.value) & (left.value ^ res)) >= 0) {
+                return valueOf(res);
+            }
+        }
+        return valueOf(left.toBigInteger().subtract(right.toBigInteger()));
+    }
+
+    public static IntegerObject multiply(IntegerObject left, IntegerObject right) {
+        if (left.bigValue == null && right.bigValue == null) {
+            long l = left.value;
+            long r = right.value;
+            long res = l * r;
+            // same check as Math.multiplyExact, without throwing
+            long ax = Math.abs(l);
+            long ay = Math.abs(r);
+            if (((ax | ay) >>> 31 == 0) || ((r == 0 || res / r == l) && (l != Long.MIN_VALUE || r != -1))) {
+                return valueOf(res);
+            }
+        }
+        return valueOf(left.toBigInteger().multiply(right.toBigInteger()));
+    }
+
+    /**
+     * truncated division, throw ArithmeticException when divided by zero
+     * @param left
+     * @param right
+     * @return
+     */
+    public static IntegerObject divide(IntegerObject left, IntegerObject right) {
+        if (left.bigValue == null && right.bigValue == null && (left.value != Long.MIN_VALUE || right.value != -1)) {
+            return valueOf(left.value / right.value);
+        }
+        return valueOf(left.toBigInteger().divide(right.toBigInteger()));
+    }
+
+    public static IntegerObject negate(IntegerObject right) {
+        if (right.bigValue == null && right.value != Long.MIN_VALUE) {
+            return valueOf(-right.value);
+        }
+        return valueOf(right.toBigInteger().negate());
+    }
+
+    public static int compare(IntegerObject left, IntegerObject right) {
+        if (left.bigValue == null && right.bigValue == null) {
+            return Long.compare(left.value, right.value);
+        }
+        return left.toBigInteger().compareTo(right.toBigInteger());
+    }
+
+    public boolean isZero() {
+        return bigValue == null && value == 0;
     }
 }
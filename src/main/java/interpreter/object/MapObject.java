@@ -1,25 +1,34 @@
 package interpreter.object;
 
+import interpreter.collection.PersistentHashMap;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * map is immutable, put returns a new map sharing the structure with the old one
+ */
 @Data
 @AllArgsConstructor
 public class MapObject implements ValueObject {
 
-    private ValueTypeEnum type;
-    private Map<ValueObject, ValueObject> pairs = new HashMap<>();
+    private final PersistentHashMap<ValueObject, ValueObject> pairs;
 
     public MapObject() {
-        this.type = ValueTypeEnum.MAP;
+        this.pairs = PersistentHashMap.empty();
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return a new map with the key mapped to the value
+     */
+    public MapObject put(ValueObject key, ValueObject value) {
+        return new MapObject(pairs.plus(key, value));
     }
 
     @Override
     public ValueTypeEnum type() {
-        return this.type;
+        return ValueTypeEnum.MAP;
     }
 
     @Override
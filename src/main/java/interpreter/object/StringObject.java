@@ -1,25 +1,127 @@
 package interpreter.object;
 
-import lombok.Data;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
-@Data
+/**
+ * string value, a concatenation is a rope node referencing both operands instead of copying the characters.
+ * the rope is flattened when the text is needed, e.g. inspect, equals and hashCode,
+ * the flat text is cached and the operands are released.
+ */
 public class StringObject implements ValueObject {
 
-    private ValueTypeEnum type;
+    /**
+     * flat text, null until the rope is flattened
+     */
     private String value;
 
+    private transient StringObject left;
+
+    private transient StringObject right;
+
+    private final int length;
+
     public StringObject(String value) {
         this.value = value;
-        this.type = ValueTypeEnum.STRING;
+        this.length = value.length();
+    }
+
+    private StringObject(StringObject left, StringObject right) {
+        this.left = left;
+        this.right = right;
+        this.length = left.length + right.length;
+    }
+
+    /**
+     * @param left
+     * @param right
+     * @return the string of left followed by right, without copying the characters
+     */
+    public static StringObject concat(StringObject left, StringObject right) {
+        if (left.length == 0) {
+            return right;
+        } else if (right.length == 0) {
+            return left;
+        }
+        return new StringObject(left, right);
+    }
+
+    /**
+     * @return length of the text, the rope is not flattened
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return the flat text
+     */
+    public String getValue() {
+        if (value == null) {
+            flatten();
+        }
+        return value;
+    }
+
+    /**
+     * walk the leaves from left to right with an explicit stack,
+     * a string built by appending in a loop is a rope as deep as the number of appends.
+     */
+    private void flatten() {
+        StringBuilder builder = new StringBuilder(length);
+        Deque<StringObject> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            StringObject node = stack.pop();
+            if (node.value != null) {
+                builder.append(node.value);
+            } else {
+                stack.push(node.right);
+                stack.push(node.left);
+            }
+        }
+
+        value = builder.toString();
+        left = null;
+        right = null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getValue();
+        out.defaultWriteObject();
     }
 
     @Override
     public ValueTypeEnum type() {
-        return this.type;
+        return ValueTypeEnum.STRING;
     }
 
     @Override
     public String inspect() {
-        return value;
+        return getValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StringObject)) {
+            return false;
+        }
+        StringObject other = (StringObject) o;
+        return length == other.length && getValue().equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return getValue().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "StringObject(value=" + getValue() + ")";
     }
 }
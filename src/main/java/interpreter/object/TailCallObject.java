@@ -0,0 +1,28 @@
+package interpreter.object;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * call in tail position, returned to the caller of the enclosing function which runs it in place of the function
+ */
+@Data
+@AllArgsConstructor
+public class TailCallObject implements ValueObject {
+
+    private ValueObject function;
+
+    private List<ValueObject> args;
+
+    @Override
+    public ValueTypeEnum type() {
+        return ValueTypeEnum.TAIL_CALL;
+    }
+
+    @Override
+    public String inspect() {
+        return String.format("tail call of %s", function.inspect());
+    }
+}
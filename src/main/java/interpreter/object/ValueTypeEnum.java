@@ -8,6 +8,7 @@ public enum ValueTypeEnum {
     BOOLEAN,
     NULL,
     RETURN,
+    TAIL_CALL,
     ERROR,
     FUNCTION,
     STRING,
@@ -15,5 +16,6 @@ public enum ValueTypeEnum {
     ARRAY,
     MAP,
     QUOTE,
-    MACRO;
+    MACRO,
+    COMPILED_FUNCTION;
 }
@@ -0,0 +1,55 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+import interpreter.eval.Operations;
+import interpreter.lexer.Token;
+import interpreter.object.ValueObject;
+
+/**
+ * evaluate the unary and binary expressions on integer, boolean and string literals,
+ * replace them with the literal of the value. the expression whose value is an error is kept,
+ * so that the error is reported when it runs.
+ * the logical expression is folded if its left operand is a literal deciding the value, e.g. false and x.
+ */
+public class ConstantFoldingPass extends TreeRewriter {
+
+    @Override
+    protected TreeNode rewriteNode(TreeNode node) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(BinaryExpressionNode.class)) {
+            BinaryExpressionNode binary = (BinaryExpressionNode) node;
+            ValueObject left = LiteralNodes.valueOf(binary.getLeft());
+            ValueObject right = LiteralNodes.valueOf(binary.getRight());
+            if (left != null && right != null) {
+                try {
+                    return fold(node, Operations.binary(binary.getOperator(), left, right), binary.getToken());
+                } catch (ArithmeticException e) {
+                    // division by zero, the code may never run, e.g. a dead branch or a function not called
+                    return node;
+                }
+            }
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            LogicalExpressionNode logical = (LogicalExpressionNode) node;
+            ValueObject left = LiteralNodes.valueOf(logical.getLeft());
+            if (Operations.isShortCircuit(logical.getOperator(), left)) {
+                return fold(node, left, logical.getToken());
+            }
+            ValueObject right = LiteralNodes.valueOf(logical.getRight());
+            if (left != null && right != null) {
+                return fold(node, Operations.binary(logical.getOperator(), left, right), logical.getToken());
+            }
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            UnaryExpressionNode unary = (UnaryExpressionNode) node;
+            ValueObject right = LiteralNodes.valueOf(unary.getRight());
+            if (right != null) {
+                return fold(node, Operations.unary(unary.getOperator(), right), unary.getToken());
+            }
+        }
+        return node;
+    }
+
+    private TreeNode fold(TreeNode node, ValueObject value, Token token) {
+        ExpressionNode literal = LiteralNodes.nodeOf(value, token == null ? -1 : token.getLine());
+        return literal != null ? literal : node;
+    }
+}
@@ -0,0 +1,93 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+import interpreter.eval.Operations;
+import interpreter.object.ValueObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * remove the branches which never run because the condition is a literal.
+ * the statement if with literal condition is replaced with the statements of the branch taken,
+ * the block doesn't open a scope, so the variables and returns of the branch behave the same.
+ * the statement while with false literal condition is removed.
+ * the value of statement is the value of block if it is the last one, so the last statement is only replaced
+ * if the branch taken has statements.
+ */
+public class DeadBranchPass extends TreeRewriter {
+
+    @Override
+    protected TreeNode rewriteNode(TreeNode node) {
+        if (!node.getClass().equals(IfExpressionNode.class)) {
+            return node;
+        }
+
+        // the value of if is the value of the only expression in the branch taken
+        IfExpressionNode ifNode = (IfExpressionNode) node;
+        ValueObject condition = LiteralNodes.valueOf(ifNode.getCondition());
+        if (condition == null) {
+            return node;
+        }
+        BlockStatement taken = Operations.isTrue(condition) ? ifNode.getConsequence() : ifNode.getAlternative();
+        if (taken == null || taken.getStatements().size() != 1
+                || !taken.getStatements().get(0).getClass().equals(ExpressionStatementNode.class)) {
+            return node;
+        }
+        return ((ExpressionStatementNode) taken.getStatements().get(0)).getExpression();
+    }
+
+    @Override
+    protected List<StatementNode> rewriteStatements(List<StatementNode> statements) {
+        List<StatementNode> res = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            StatementNode statement = (StatementNode) rewrite(statements.get(i));
+            boolean last = i == statements.size() - 1;
+            if (!statement.getClass().equals(ExpressionStatementNode.class)) {
+                res.add(statement);
+                continue;
+            }
+
+            ExpressionNode expression = ((ExpressionStatementNode) statement).getExpression();
+            List<StatementNode> replacement = null;
+            if (expression != null && expression.getClass().equals(IfExpressionNode.class)) {
+                replacement = takenStatements((IfExpressionNode) expression);
+            } else if (expression != null && expression.getClass().equals(WhileExpressionNode.class)) {
+                replacement = skippedLoop((WhileExpressionNode) expression);
+            }
+
+            if (replacement == null || (last && replacement.isEmpty())) {
+                res.add(statement);
+            } else {
+                res.addAll(replacement);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param ifNode
+     * @return statements of the branch taken, empty if no branch is taken, null if the condition is not literal
+     */
+    private List<StatementNode> takenStatements(IfExpressionNode ifNode) {
+        ValueObject condition = LiteralNodes.valueOf(ifNode.getCondition());
+        if (condition == null) {
+            return null;
+        }
+
+        BlockStatement taken = Operations.isTrue(condition) ? ifNode.getConsequence() : ifNode.getAlternative();
+        return taken == null ? new ArrayList<>() : taken.getStatements();
+    }
+
+    /**
+     * @param whileNode
+     * @return empty if the body never runs, otherwise null
+     */
+    private List<StatementNode> skippedLoop(WhileExpressionNode whileNode) {
+        ValueObject condition = LiteralNodes.valueOf(whileNode.getCondition());
+        if (condition == null || Operations.isTrue(condition)) {
+            return null;
+        }
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,296 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+import org.apache.commons.lang3.SerializationUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * replace the calls of small functions with their bodies.
+ * the function is bound by let or fn statement, and the name is bound only once in the program and never assigned,
+ * so the call after the binding always calls this function.
+ * the body is one expression of literals, parameters and operators, it has no call, so the function isn't recursive.
+ * the arguments must be literals or variables, which may be read more than once without side effect, and the body
+ * must read every parameter in order before any operator is applied, so that the errors are the same as the call's.
+ * a function bound outside of functions is inlined only outside of functions,
+ * because the later lines of repl may bind the name to another function before the functions are called.
+ * a script is optimized statement by statement like the lines of repl, so a top level function is inlined only
+ * in the statement binding it, the calls in the later statements of the script are not inlined.
+ */
+public class InliningPass extends TreeRewriter {
+
+    /**
+     * max number of nodes in the inlined body
+     */
+    public static final int MAX_INLINE_SIZE = 16;
+
+    /**
+     * the function which can be inlined
+     */
+    private static class Candidate {
+
+        private final List<String> parameters;
+
+        private final ExpressionNode body;
+
+        /**
+         * number of functions enclosing the binding
+         */
+        private final int functionDepth;
+
+        Candidate(List<String> parameters, ExpressionNode body, int functionDepth) {
+            this.parameters = parameters;
+            this.body = body;
+            this.functionDepth = functionDepth;
+        }
+    }
+
+    /**
+     * times of the name bound by let and fn statement in the program
+     */
+    private final Map<String, Integer> bindings = new HashMap<>();
+
+    /**
+     * names of the parameters and the assigned variables in the program
+     */
+    private final Set<String> rebound = new HashSet<>();
+
+    /**
+     * false if there is a lazy body in the program, it may bind or assign any name
+     */
+    private boolean bindingsKnown;
+
+    /**
+     * candidates bound by the statements before
+     */
+    private final Map<String, Candidate> visible = new HashMap<>();
+
+    private int functionDepth;
+
+    @Override
+    public ProgramNode run(ProgramNode program) {
+        bindings.clear();
+        rebound.clear();
+        visible.clear();
+        functionDepth = 0;
+        bindingsKnown = true;
+        countBindings(program);
+        return super.run(program);
+    }
+
+    @Override
+    protected TreeNode rewrite(TreeNode node) {
+        if (node == null || !(node instanceof FunctionLiteralNode || node instanceof FunctionStatementNode)) {
+            return super.rewrite(node);
+        }
+
+        functionDepth++;
+        try {
+            return super.rewrite(node);
+        } finally {
+            functionDepth--;
+        }
+    }
+
+    @Override
+    protected List<StatementNode> rewriteStatements(List<StatementNode> statements) {
+        List<StatementNode> res = new ArrayList<>(statements.size());
+        List<String> defined = new ArrayList<>();
+        for (StatementNode statement : statements) {
+            statement = (StatementNode) rewrite(statement);
+            res.add(statement);
+            defineCandidate(statement, defined);
+        }
+
+        // the binding is visible to the statements after it in the block
+        for (String name : defined) {
+            visible.remove(name);
+        }
+        return res;
+    }
+
+    @Override
+    protected TreeNode rewriteNode(TreeNode node) {
+        if (!node.getClass().equals(CallExpressionNode.class)) {
+            return node;
+        }
+
+        CallExpressionNode call = (CallExpressionNode) node;
+        if (!call.getFuncName().getClass().equals(IdentifierNode.class)) {
+            return node;
+        }
+        Candidate candidate = visible.get(((IdentifierNode) call.getFuncName()).getValue());
+        if (candidate == null || (candidate.functionDepth == 0 && functionDepth > 0)
+                || candidate.parameters.size() != call.getArguments().size()) {
+            return node;
+        }
+
+        Map<String, ExpressionNode> args = new HashMap<>();
+        for (int i = 0; i < call.getArguments().size(); i++) {
+            ExpressionNode arg = call.getArguments().get(i);
+            if (!isSimple(arg)) {
+                return node;
+            }
+            args.put(candidate.parameters.get(i), arg);
+        }
+        return substitute(SerializationUtils.clone(candidate.body), args);
+    }
+
+    private void defineCandidate(StatementNode statement, List<String> defined) {
+        IdentifierNode name;
+        List<IdentifierNode> parameters;
+        BlockStatement body;
+        if (statement.getClass().equals(LetStatementNode.class)
+                && ((LetStatementNode) statement).getValue() instanceof FunctionLiteralNode) {
+            FunctionLiteralNode function = (FunctionLiteralNode) ((LetStatementNode) statement).getValue();
+            name = ((LetStatementNode) statement).getName();
+            parameters = function.getParameters();
+            body = function.getBody();
+        } else if (statement.getClass().equals(FunctionStatementNode.class)) {
+            FunctionStatementNode function = (FunctionStatementNode) statement;
+            name = function.getFuncName();
+            parameters = function.getParameters();
+            body = function.getBody();
+        } else {
+            return;
+        }
+
+        if (!bindingsKnown || bindings.get(name.getValue()) != 1 || rebound.contains(name.getValue())) {
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        for (IdentifierNode parameter : parameters) {
+            if (names.contains(parameter.getValue())) {
+                return;
+            }
+            names.add(parameter.getValue());
+        }
+
+        ExpressionNode expression = bodyExpression(body);
+        int[] state = new int[2];
+        if (expression == null || !walk(expression, names, state) || state[0] != names.size()) {
+            return;
+        }
+
+        visible.put(name.getValue(), new Candidate(names, expression, functionDepth));
+        defined.add(name.getValue());
+    }
+
+    /**
+     * @param body
+     * @return the expression of the body which has only one expression or return statement
+     */
+    private ExpressionNode bodyExpression(BlockStatement body) {
+        if (body == null || body.getStatements().size() != 1) {
+            return null;
+        }
+
+        StatementNode statement = body.getStatements().get(0);
+        if (statement.getClass().equals(ExpressionStatementNode.class)) {
+            return ((ExpressionStatementNode) statement).getExpression();
+        } else if (statement.getClass().equals(ReturnStatementNode.class)) {
+            return ((ReturnStatementNode) statement).getValue();
+        }
+        return null;
+    }
+
+    /**
+     * walk the expression in the order of evaluation
+     * @param node
+     * @param parameters
+     * @param state number of parameters read, number of nodes walked
+     * @return false if the expression can't be inlined
+     */
+    private boolean walk(ExpressionNode node, List<String> parameters, int[] state) {
+        if (++state[1] > MAX_INLINE_SIZE) {
+            return false;
+        }
+
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class) || nodeClass.equals(BooleanLiteralNode.class)
+                || nodeClass.equals(StringLiteralNode.class)) {
+            return true;
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            int index = parameters.indexOf(((IdentifierNode) node).getValue());
+            if (index == state[0]) {
+                state[0]++;
+            }
+            // the parameters not read yet must be read in order
+            return index >= 0 && index <= state[0];
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            return walk(((UnaryExpressionNode) node).getRight(), parameters, state) && state[0] == parameters.size();
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            BinaryExpressionNode binary = (BinaryExpressionNode) node;
+            return walk(binary.getLeft(), parameters, state) && walk(binary.getRight(), parameters, state)
+                    && state[0] == parameters.size();
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            IndexExpressionNode index = (IndexExpressionNode) node;
+            return walk(index.getObject(), parameters, state) && walk(index.getIndex(), parameters, state)
+                    && state[0] == parameters.size();
+        }
+        return false;
+    }
+
+    private boolean isSimple(ExpressionNode arg) {
+        return arg instanceof IdentifierNode || LiteralNodes.valueOf(arg) != null;
+    }
+
+    /**
+     * replace the parameters in the copied body with the copies of arguments
+     * @param node
+     * @param args
+     * @return
+     */
+    private ExpressionNode substitute(ExpressionNode node, Map<String, ExpressionNode> args) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IdentifierNode.class)) {
+            return SerializationUtils.clone(args.get(((IdentifierNode) node).getValue()));
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            UnaryExpressionNode unary = (UnaryExpressionNode) node;
+            unary.setRight(substitute(unary.getRight(), args));
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            BinaryExpressionNode binary = (BinaryExpressionNode) node;
+            binary.setLeft(substitute(binary.getLeft(), args));
+            binary.setRight(substitute(binary.getRight(), args));
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            IndexExpressionNode index = (IndexExpressionNode) node;
+            index.setObject(substitute(index.getObject(), args));
+            index.setIndex(substitute(index.getIndex(), args));
+        }
+        return node;
+    }
+
+    private void countBindings(TreeNode node) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof BlockStatement && ((BlockStatement) node).isLazy()) {
+            bindingsKnown = false;
+            return;
+        }
+
+        if (node instanceof LetStatementNode) {
+            bindings.merge(((LetStatementNode) node).getName().getValue(), 1, Integer::sum);
+        } else if (node instanceof FunctionStatementNode) {
+            bindings.merge(((FunctionStatementNode) node).getFuncName().getValue(), 1, Integer::sum);
+            for (IdentifierNode parameter : ((FunctionStatementNode) node).getParameters()) {
+                rebound.add(parameter.getValue());
+            }
+        } else if (node instanceof FunctionLiteralNode) {
+            for (IdentifierNode parameter : ((FunctionLiteralNode) node).getParameters()) {
+                rebound.add(parameter.getValue());
+            }
+        } else if (node instanceof AssignExpressionNode) {
+            rebound.add(((AssignExpressionNode) node).getName().getValue());
+        }
+        for (TreeNode child : TreeNodes.children(node)) {
+            countBindings(child);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+import interpreter.lexer.Token;
+import interpreter.lexer.TokenTypeEnum;
+import interpreter.object.*;
+
+/**
+ * conversion between literal nodes and their values
+ */
+final class LiteralNodes {
+
+    private LiteralNodes() {
+    }
+
+    /**
+     * @param node
+     * @return value of integer, boolean or string literal, null if the node is not one of them
+     */
+    static ValueObject valueOf(TreeNode node) {
+        if (node == null) {
+            return null;
+        }
+
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class)) {
+            return ((IntegerLiteralNode) node).getValue();
+        } else if (nodeClass.equals(BooleanLiteralNode.class)) {
+            return BooleanObject.getBooleanObject(((BooleanLiteralNode) node).getValue());
+        } else if (nodeClass.equals(StringLiteralNode.class)) {
+            return new StringObject(((StringLiteralNode) node).getValue());
+        }
+        return null;
+    }
+
+    /**
+     * @param value
+     * @param line line of the expression replaced by the literal, -1 if unknown
+     * @return literal node of integer, boolean or string, null for the other values
+     */
+    static ExpressionNode nodeOf(ValueObject value, int line) {
+        switch (value.type()) {
+            case INTEGER:
+                return new IntegerLiteralNode(new Token(TokenTypeEnum.INT, value.inspect(), line), (IntegerObject) value);
+            case BOOLEAN:
+                boolean bool = ((BooleanObject) value).getValue();
+                return new BooleanLiteralNode(new Token(bool ? TokenTypeEnum.TRUE : TokenTypeEnum.FALSE, line), bool);
+            case STRING:
+                return new StringLiteralNode(new Token(TokenTypeEnum.STRING, value.inspect(), line), value.inspect());
+            default:
+                return null;
+        }
+    }
+}
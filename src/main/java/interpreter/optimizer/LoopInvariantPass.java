@@ -0,0 +1,148 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+import interpreter.lexer.Token;
+import interpreter.lexer.TokenTypeEnum;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * move the expressions which are the same in every iteration out of the while loop.
+ * the expression is evaluated once by a let statement before the loop, and the loop reads the variable instead.
+ * only the pure expressions which allocate are moved: strings, arrays, maps and functions,
+ * the variables in them must be parameters of the enclosing function which the loop doesn't bind,
+ * parameters are always bound, so the moved expression can't fail even if the loop never runs.
+ * the variables referenced by the moved function mustn't be bound in the loop.
+ * the expressions in the nested functions are not moved, they don't run in every iteration.
+ * only the loops in functions are rewritten, the variables are locals of the function then.
+ * the loops out of functions are left as they are, a let there would bind a global, and every statement of script
+ * and line of repl is optimized alone, so the same name would be bound again by a later one.
+ */
+public class LoopInvariantPass extends TreeRewriter {
+
+    /**
+     * prefix of the variables holding moved expressions, the lexer never reads '$' in a name
+     */
+    public static final String PREFIX = "$invariant";
+
+    /**
+     * parameters of the enclosing functions, the innermost is on the top
+     */
+    private final Deque<Set<String>> parameters = new ArrayDeque<>();
+
+    private int counter;
+
+    @Override
+    protected TreeNode rewrite(TreeNode node) {
+        List<IdentifierNode> params = null;
+        if (node != null && node.getClass().equals(FunctionLiteralNode.class)) {
+            params = ((FunctionLiteralNode) node).getParameters();
+        } else if (node != null && node.getClass().equals(FunctionStatementNode.class)) {
+            params = ((FunctionStatementNode) node).getParameters();
+        }
+        if (params == null) {
+            return super.rewrite(node);
+        }
+
+        Set<String> names = new HashSet<>();
+        for (IdentifierNode param : params) {
+            names.add(param.getValue());
+        }
+        parameters.push(names);
+        try {
+            return super.rewrite(node);
+        } finally {
+            parameters.pop();
+        }
+    }
+
+    @Override
+    protected List<StatementNode> rewriteStatements(List<StatementNode> statements) {
+        List<StatementNode> res = new ArrayList<>(statements.size());
+        for (StatementNode statement : statements) {
+            statement = (StatementNode) rewrite(statement);
+            if (statement.getClass().equals(ExpressionStatementNode.class)
+                    && ((ExpressionStatementNode) statement).getExpression() instanceof WhileExpressionNode) {
+                res.addAll(hoist((WhileExpressionNode) ((ExpressionStatementNode) statement).getExpression()));
+            }
+            res.add(statement);
+        }
+        return res;
+    }
+
+    /**
+     * replace the invariant expressions of the loop with variables
+     * @param loop
+     * @return let statements of the variables, they run before the loop
+     */
+    private List<StatementNode> hoist(WhileExpressionNode loop) {
+        if (parameters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> mutated = new HashSet<>();
+        if (!Purity.collectBindings(loop, mutated)) {
+            // a lazy body in the loop may bind any variable
+            return Collections.emptyList();
+        }
+        Set<String> invariant = new HashSet<>(parameters.peek());
+        invariant.removeAll(mutated);
+
+        List<StatementNode> lets = new ArrayList<>();
+        TreeRewriter mover = new TreeRewriter() {
+            @Override
+            protected TreeNode rewrite(TreeNode node) {
+                if (node instanceof ExpressionNode && isInvariant((ExpressionNode) node, invariant, mutated)) {
+                    return moveOut((ExpressionNode) node, lets);
+                } else if (node instanceof FunctionLiteralNode || node instanceof FunctionStatementNode) {
+                    return node;
+                }
+                return super.rewrite(node);
+            }
+        };
+        loop.setCondition(mover.rewriteExpression(loop.getCondition()));
+        loop.setBody((BlockStatement) mover.rewrite(loop.getBody()));
+        return lets;
+    }
+
+    private boolean isInvariant(ExpressionNode node, Set<String> invariant, Set<String> mutated) {
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(FunctionLiteralNode.class)) {
+            Set<String> names = new HashSet<>();
+            return Purity.collectNames(node, names) && Collections.disjoint(names, mutated);
+        }
+        return (nodeClass.equals(StringLiteralNode.class) || nodeClass.equals(ArrayLiteralExpressionNode.class)
+                || nodeClass.equals(MapLiteralExpressionNode.class)) && Purity.isPure(node, invariant);
+    }
+
+    private ExpressionNode moveOut(ExpressionNode node, List<StatementNode> lets) {
+        String name = PREFIX + counter++;
+        int line = lineOf(node);
+
+        LetStatementNode let = new LetStatementNode();
+        let.setToken(new Token(TokenTypeEnum.LET, line));
+        let.setName(new IdentifierNode(new Token(TokenTypeEnum.IDENT, name, line), name));
+        let.setValue(node);
+        lets.add(let);
+        return new IdentifierNode(new Token(TokenTypeEnum.IDENT, name, line), name);
+    }
+
+    private int lineOf(ExpressionNode node) {
+        Token token = null;
+        if (node instanceof StringLiteralNode) {
+            token = ((StringLiteralNode) node).getToken();
+        } else if (node instanceof ArrayLiteralExpressionNode) {
+            token = ((ArrayLiteralExpressionNode) node).getToken();
+        } else if (node instanceof MapLiteralExpressionNode) {
+            token = ((MapLiteralExpressionNode) node).getToken();
+        } else if (node instanceof FunctionLiteralNode) {
+            token = ((FunctionLiteralNode) node).getToken();
+        }
+        return token == null ? -1 : token.getLine();
+    }
+}
@@ -0,0 +1,15 @@
+package interpreter.optimizer;
+
+import interpreter.ast.ProgramNode;
+
+/**
+ * a pass rewriting the program to an equivalent one, runs after the macros are expanded
+ */
+public interface OptimizationPass {
+
+    /**
+     * @param program
+     * @return the rewritten program, the values and errors of it are the same as the given one's
+     */
+    ProgramNode run(ProgramNode program);
+}
@@ -0,0 +1,92 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * pipeline of the optimization passes, runs after the macros are expanded and before the program is resolved.
+ * the inlining runs first, so that the inlined bodies are folded, then the conditions folded to literal are
+ * seen by the dead branch removal, the functions inlined everywhere are removed at last.
+ */
+public class Optimizer {
+
+    private final List<OptimizationPass> passes;
+
+    public Optimizer() {
+        this(Arrays.asList(new InliningPass(), new ConstantFoldingPass(), new DeadBranchPass(),
+                new LoopInvariantPass(), new UnusedLetPass()));
+    }
+
+    public Optimizer(List<OptimizationPass> passes) {
+        this.passes = passes;
+    }
+
+    /**
+     * run the passes in order. the lazy bodies nested in parsed functions are parsed first,
+     * the passes need the names they read, e.g. the function passed to a macro which puts it in a function
+     * @param program
+     * @return
+     */
+    public ProgramNode optimize(ProgramNode program) {
+        TreeNodes.materializeNestedFunctions(program);
+        for (OptimizationPass pass : passes) {
+            program = pass.run(program);
+        }
+        deferLazyFunctions(program);
+        return program;
+    }
+
+    /**
+     * the passes see no statement in lazy body, it is optimized when it is parsed,
+     * after the macros in it are expanded and before it is resolved
+     * @param node
+     */
+    private void deferLazyFunctions(TreeNode node) {
+        if (node == null) {
+            return;
+        }
+
+        List<IdentifierNode> parameters = null;
+        BlockStatement body = null;
+        if (node.getClass().equals(FunctionLiteralNode.class)) {
+            parameters = ((FunctionLiteralNode) node).getParameters();
+            body = ((FunctionLiteralNode) node).getBody();
+        } else if (node.getClass().equals(FunctionStatementNode.class)) {
+            parameters = ((FunctionStatementNode) node).getParameters();
+            body = ((FunctionStatementNode) node).getBody();
+        } else if (node.getClass().equals(CallExpressionNode.class) && ((CallExpressionNode) node).isQuote()) {
+            // quote returns its argument as it is
+            return;
+        }
+        if (body != null && body.isLazy()) {
+            List<IdentifierNode> params = parameters;
+            body.defer(block -> optimizeFunction(params, block));
+            return;
+        }
+
+        for (TreeNode child : TreeNodes.children(node)) {
+            deferLazyFunctions(child);
+        }
+    }
+
+    /**
+     * run the passes on the function alone, the functions bound outside of it are not inlined into it anyway
+     * @param parameters
+     * @param body
+     */
+    private void optimizeFunction(List<IdentifierNode> parameters, BlockStatement body) {
+        FunctionLiteralNode function = new FunctionLiteralNode();
+        function.setParameters(parameters);
+        function.setBody(body);
+        ExpressionStatementNode statement = new ExpressionStatementNode();
+        statement.setExpression(function);
+        ProgramNode program = new ProgramNode();
+        program.getStatements().add(statement);
+
+        optimize(program);
+        // the passes rewrite the statements of the block in place, the block itself is kept
+        body.setStatements(function.getBody().getStatements());
+    }
+}
@@ -0,0 +1,108 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * purity analysis for the passes which move or remove expressions.
+ * an expression is pure if evaluating it can't fail and has no side effect, so evaluating it earlier,
+ * fewer or more times doesn't change the program. a call is never pure: print writes the output,
+ * time reads the clock and the monkey functions may call them.
+ * the values created by pure expressions are immutable: string, persistent array and map, function,
+ * so one value may escape to every place the expression was evaluated, nobody can tell it is shared.
+ */
+final class Purity {
+
+    private Purity() {
+    }
+
+    /**
+     * @param node
+     * @param bound names of the variables which are bound and not changed where the expression is evaluated
+     * @return true if the expression is literal, function, bound variable or array and map of pure expressions
+     */
+    static boolean isPure(ExpressionNode node, Set<String> bound) {
+        if (node == null) {
+            return false;
+        }
+
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(IntegerLiteralNode.class) || nodeClass.equals(BooleanLiteralNode.class)
+                || nodeClass.equals(StringLiteralNode.class) || nodeClass.equals(FunctionLiteralNode.class)) {
+            return true;
+        } else if (nodeClass.equals(IdentifierNode.class)) {
+            return bound.contains(((IdentifierNode) node).getValue());
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            for (ExpressionNode element : ((ArrayLiteralExpressionNode) node).getElements()) {
+                if (!isPure(element, bound)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            for (Map.Entry<ExpressionNode, ExpressionNode> pair : ((MapLiteralExpressionNode) node).getPairs().entrySet()) {
+                if (!isPure(pair.getKey(), bound) || !isPure(pair.getValue(), bound)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * names read by identifiers and written by assignments, including the nested functions
+     * @param node
+     * @param names
+     * @return false if there is a lazy body in the node, it may read or write any name
+     */
+    static boolean collectNames(TreeNode node, Set<String> names) {
+        if (node == null) {
+            return true;
+        }
+        if (node instanceof BlockStatement && ((BlockStatement) node).isLazy()) {
+            return false;
+        }
+
+        if (node instanceof IdentifierNode) {
+            names.add(((IdentifierNode) node).getValue());
+        } else if (node instanceof AssignExpressionNode) {
+            names.add(((AssignExpressionNode) node).getName().getValue());
+        }
+        boolean complete = true;
+        for (TreeNode child : TreeNodes.children(node)) {
+            complete &= collectNames(child, names);
+        }
+        return complete;
+    }
+
+    /**
+     * names bound by let, fn statement and assignment, including the nested functions
+     * @param node
+     * @param names
+     * @return false if there is a lazy body in the node, it may bind any name
+     */
+    static boolean collectBindings(TreeNode node, Set<String> names) {
+        if (node == null) {
+            return true;
+        }
+        if (node instanceof BlockStatement && ((BlockStatement) node).isLazy()) {
+            return false;
+        }
+
+        if (node instanceof LetStatementNode) {
+            names.add(((LetStatementNode) node).getName().getValue());
+        } else if (node instanceof FunctionStatementNode) {
+            names.add(((FunctionStatementNode) node).getFuncName().getValue());
+        } else if (node instanceof AssignExpressionNode) {
+            names.add(((AssignExpressionNode) node).getName().getValue());
+        }
+        boolean complete = true;
+        for (TreeNode child : TreeNodes.children(node)) {
+            complete &= collectBindings(child, names);
+        }
+        return complete;
+    }
+}
@@ -0,0 +1,131 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * base of the passes, traverse the ast in post order and replace every node with the node returned by rewriteNode.
+ * the arguments of quote are not traversed, because quote returns them as they are.
+ * the keys of map literal are not traversed, the map is hashed by the key nodes.
+ */
+public abstract class TreeRewriter implements OptimizationPass {
+
+    @Override
+    public ProgramNode run(ProgramNode program) {
+        return (ProgramNode) rewrite(program);
+    }
+
+    /**
+     * rewrite the children, then the node itself
+     * @param node
+     * @return
+     */
+    protected TreeNode rewrite(TreeNode node) {
+        if (node == null) {
+            return null;
+        }
+
+        Class nodeClass = node.getClass();
+        if (nodeClass.equals(ProgramNode.class)) {
+            ProgramNode program = (ProgramNode) node;
+            program.setStatements(rewriteStatements(program.getStatements()));
+        } else if (nodeClass.equals(BlockStatement.class)) {
+            BlockStatement block = (BlockStatement) node;
+            block.setStatements(rewriteStatements(block.getStatements()));
+        } else if (nodeClass.equals(ExpressionStatementNode.class)) {
+            ExpressionStatementNode statement = (ExpressionStatementNode) node;
+            statement.setExpression(rewriteExpression(statement.getExpression()));
+        } else if (nodeClass.equals(LetStatementNode.class)) {
+            LetStatementNode let = (LetStatementNode) node;
+            let.setValue(rewriteExpression(let.getValue()));
+        } else if (nodeClass.equals(ReturnStatementNode.class)) {
+            ReturnStatementNode ret = (ReturnStatementNode) node;
+            ret.setValue(rewriteExpression(ret.getValue()));
+        } else if (nodeClass.equals(FunctionStatementNode.class)) {
+            FunctionStatementNode function = (FunctionStatementNode) node;
+            function.setBody((BlockStatement) rewrite(function.getBody()));
+        } else if (nodeClass.equals(FunctionLiteralNode.class)) {
+            FunctionLiteralNode function = (FunctionLiteralNode) node;
+            function.setBody((BlockStatement) rewrite(function.getBody()));
+        } else if (nodeClass.equals(AssignExpressionNode.class)) {
+            AssignExpressionNode assign = (AssignExpressionNode) node;
+            assign.setValue(rewriteExpression(assign.getValue()));
+        } else if (nodeClass.equals(UnaryExpressionNode.class)) {
+            UnaryExpressionNode unary = (UnaryExpressionNode) node;
+            unary.setRight(rewriteExpression(unary.getRight()));
+        } else if (nodeClass.equals(BinaryExpressionNode.class)) {
+            BinaryExpressionNode binary = (BinaryExpressionNode) node;
+            binary.setLeft(rewriteExpression(binary.getLeft()));
+            binary.setRight(rewriteExpression(binary.getRight()));
+        } else if (nodeClass.equals(LogicalExpressionNode.class)) {
+            LogicalExpressionNode logical = (LogicalExpressionNode) node;
+            logical.setLeft(rewriteExpression(logical.getLeft()));
+            logical.setRight(rewriteExpression(logical.getRight()));
+        } else if (nodeClass.equals(IfExpressionNode.class)) {
+            IfExpressionNode ifNode = (IfExpressionNode) node;
+            ifNode.setCondition(rewriteExpression(ifNode.getCondition()));
+            ifNode.setConsequence((BlockStatement) rewrite(ifNode.getConsequence()));
+            ifNode.setAlternative((BlockStatement) rewrite(ifNode.getAlternative()));
+        } else if (nodeClass.equals(WhileExpressionNode.class)) {
+            WhileExpressionNode whileNode = (WhileExpressionNode) node;
+            whileNode.setCondition(rewriteExpression(whileNode.getCondition()));
+            whileNode.setBody((BlockStatement) rewrite(whileNode.getBody()));
+        } else if (nodeClass.equals(CallExpressionNode.class)) {
+            CallExpressionNode call = (CallExpressionNode) node;
+            if (!call.isQuote()) {
+                call.setFuncName(rewriteExpression(call.getFuncName()));
+                call.setArguments(rewriteExpressions(call.getArguments()));
+            }
+        } else if (nodeClass.equals(ArrayLiteralExpressionNode.class)) {
+            ArrayLiteralExpressionNode array = (ArrayLiteralExpressionNode) node;
+            array.setElements(rewriteExpressions(array.getElements()));
+        } else if (nodeClass.equals(MapLiteralExpressionNode.class)) {
+            for (Map.Entry<ExpressionNode, ExpressionNode> pair : ((MapLiteralExpressionNode) node).getPairs().entrySet()) {
+                pair.setValue(rewriteExpression(pair.getValue()));
+            }
+        } else if (nodeClass.equals(IndexExpressionNode.class)) {
+            IndexExpressionNode index = (IndexExpressionNode) node;
+            index.setObject(rewriteExpression(index.getObject()));
+            index.setIndex(rewriteExpression(index.getIndex()));
+        }
+
+        return rewriteNode(node);
+    }
+
+    /**
+     * rewrite the node whose children are rewritten
+     * @param node
+     * @return the node replacing it
+     */
+    protected TreeNode rewriteNode(TreeNode node) {
+        return node;
+    }
+
+    /**
+     * rewrite the statements of program or block, the passes may remove or splice statements here
+     * @param statements
+     * @return
+     */
+    protected List<StatementNode> rewriteStatements(List<StatementNode> statements) {
+        List<StatementNode> res = new ArrayList<>(statements.size());
+        for (StatementNode statement : statements) {
+            res.add((StatementNode) rewrite(statement));
+        }
+        return res;
+    }
+
+    protected ExpressionNode rewriteExpression(ExpressionNode node) {
+        return (ExpressionNode) rewrite(node);
+    }
+
+    private List<ExpressionNode> rewriteExpressions(List<ExpressionNode> nodes) {
+        List<ExpressionNode> res = new ArrayList<>(nodes.size());
+        for (ExpressionNode node : nodes) {
+            res.add(rewriteExpression(node));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,74 @@
+package interpreter.optimizer;
+
+import interpreter.ast.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * remove the let statements in functions whose variable is never used and whose value has no side effect.
+ * a name is used if it appears anywhere in the body of the function, including the nested functions.
+ * the variables outside of functions are kept, the later lines of repl may use them.
+ * nothing is removed from the function with a lazy body nested in it, which may use any variable.
+ * the let statement is the value of block if it is the last one, so the last statement is kept.
+ */
+public class UnusedLetPass extends TreeRewriter {
+
+    /**
+     * names used in the enclosing functions, the innermost is on the top
+     */
+    private final Deque<Set<String>> used = new ArrayDeque<>();
+
+    /**
+     * used by the function with a lazy body in it, the names read by the lazy body are not known
+     */
+    private static final Set<String> EVERY_NAME = Collections.unmodifiableSet(new HashSet<>());
+
+    @Override
+    protected TreeNode rewrite(TreeNode node) {
+        BlockStatement body = null;
+        if (node != null && node.getClass().equals(FunctionLiteralNode.class)) {
+            body = ((FunctionLiteralNode) node).getBody();
+        } else if (node != null && node.getClass().equals(FunctionStatementNode.class)) {
+            body = ((FunctionStatementNode) node).getBody();
+        }
+        if (body == null) {
+            return super.rewrite(node);
+        }
+
+        Set<String> names = new HashSet<>();
+        used.push(Purity.collectNames(body, names) ? names : EVERY_NAME);
+        try {
+            return super.rewrite(node);
+        } finally {
+            used.pop();
+        }
+    }
+
+    @Override
+    protected List<StatementNode> rewriteStatements(List<StatementNode> statements) {
+        List<StatementNode> res = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            StatementNode statement = (StatementNode) rewrite(statements.get(i));
+            if (i < statements.size() - 1 && isUnusedLet(statement)) {
+                continue;
+            }
+            res.add(statement);
+        }
+        return res;
+    }
+
+    private boolean isUnusedLet(StatementNode statement) {
+        if (used.isEmpty() || used.peek() == EVERY_NAME || !statement.getClass().equals(LetStatementNode.class)) {
+            return false;
+        }
+
+        LetStatementNode let = (LetStatementNode) statement;
+        return !used.peek().contains(let.getName().getValue()) && Purity.isPure(let.getValue(), Collections.<String>emptySet());
+    }
+}
@@ -0,0 +1,138 @@
+package interpreter.parser;
+
+import interpreter.ast.BlockStatement;
+import interpreter.ast.StatementNode;
+import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * body of function skipped by the pre-parse mode of parser: the source between the braces,
+ * parsed when the function is called first, then the passes deferred by macro expansion, optimizer and resolver
+ * run on the statements in the order they were deferred.
+ */
+public class LazyBody implements Serializable {
+
+    /**
+     * source of the program, the body is the range between the braces
+     */
+    private final Source source;
+
+    private final int offset;
+
+    private final int length;
+
+    /**
+     * line of the left brace in the source of program
+     */
+    private final int line;
+
+    /**
+     * the passes are not copied with the ast, the copy is parsed without them
+     */
+    private transient List<Consumer<BlockStatement>> passes;
+
+    /**
+     * null until parsed, the syntax errors of the body are reported by every call
+     */
+    private List<String> errors;
+
+    /**
+     * statements parsed by check, until the block takes them
+     */
+    private transient List<StatementNode> statements;
+
+    public LazyBody(Source source, int offset, int length, int line) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.line = line;
+    }
+
+    /**
+     * run the pass on the statements once they are parsed
+     * @param pass
+     */
+    public void defer(Consumer<BlockStatement> pass) {
+        if (passes == null) {
+            passes = new ArrayList<>();
+        }
+        passes.add(pass);
+    }
+
+    /**
+     * parse the statements into the block, the functions nested in the body are parsed fully,
+     * because they may capture the variables of this function
+     * @param block
+     * @return the syntax errors of the body, the statements are not set if there are any
+     */
+    public List<String> parse(BlockStatement block) {
+        List<String> res = check();
+        if (res.isEmpty()) {
+            // the block owns the statements, the passes deferred on it change them
+            block.setStatements(statements);
+            statements = null;
+        }
+        return res;
+    }
+
+    /**
+     * parse the body once, the statements are kept until the block takes them on the first call,
+     * so a body checked before its statement runs is not parsed again
+     * @return the syntax errors of the body
+     */
+    public List<String> check() {
+        if (errors == null) {
+            Parser parser = new Parser(new Lexer(source, offset, length, line));
+            statements = parser.parseProgram().getStatements();
+            errors = parser.getErrors();
+        }
+        return errors;
+    }
+
+    /**
+     * run the deferred passes on the parsed block, in the order they were deferred
+     * @param block
+     */
+    public void runPasses(BlockStatement block) {
+        if (passes == null) {
+            return;
+        }
+
+        for (Consumer<BlockStatement> pass : passes) {
+            pass.accept(block);
+        }
+        passes = null;
+    }
+
+    /**
+     * copy the source of the body out of the source of the program
+     * @return the body without the deferred passes
+     */
+    public LazyBody detach() {
+        String body = source.substring(offset, length);
+        LazyBody copy = new LazyBody(Source.of(body), 0, body.length(), line);
+        // the copy parses its own statements, only the syntax errors are kept
+        if (errors != null && !errors.isEmpty()) {
+            copy.errors = errors;
+        }
+        return copy;
+    }
+
+    /**
+     * the copy of the ast keeps only the source of the body instead of the source of the program
+     * @return
+     */
+    private Object writeReplace() {
+        return detach();
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(offset, length).trim();
+    }
+}
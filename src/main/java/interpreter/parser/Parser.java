@@ -3,15 +3,21 @@ package interpreter.parser;
 import interpreter.ast.*;
 import interpreter.lexer.Lexer;
 import interpreter.lexer.Token;
+import interpreter.lexer.TokenSource;
 import interpreter.lexer.TokenTypeEnum;
+import interpreter.object.IntegerObject;
 import lombok.Data;
 
+import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 /**
  * parser：token -> ast, using Recursive Down, Pratt Parsing
@@ -19,66 +25,133 @@ import java.util.function.Supplier;
 @Data
 public class Parser {
     /**
-     * read token from lexer
+     * the function of parsing prefix expression of token type.
+     * the tables are immutable and shared by the parsers, creating a parser doesn't build them
      */
-    private Lexer lexer;
+    private static final Map<TokenTypeEnum, Function<Parser, ExpressionNode>> PREFIX_PARSE_FUNCS = initPrefixParseFuncs();
 
     /**
-     * current reading token
+     * the function of parsing infix expression of token type
      */
-    private Token currentToken;
+    private static final Map<TokenTypeEnum, BiFunction<Parser, ExpressionNode, ExpressionNode>> INFIX_PARSE_FUNCS = initInfixParseFuncs();
 
     /**
-     * token will be read in the future
+     * precedence of operator, indexed by the ordinal of token type, LOWEST if the token is not an operator
      */
-    private Token peekToken;
+    private static final PrecedenceEnum[] PRECEDENCES = initPrecedences();
+
+    /**
+     * read token from lexer, or from the tokens scanned in advance
+     */
+    private TokenSource lexer;
+
+    /**
+     * current reading token: its type, range in the source and line,
+     * the token object is created only for the nodes keeping it
+     */
+    private TokenTypeEnum currentType;
+
+    private int currentOffset;
+
+    private int currentLength;
+
+    private int currentLine;
+
+    /**
+     * token object of current token, null until a node keeps it
+     */
+    private Token createdToken;
+
+    /**
+     * token will be read in the future, null type until it is needed,
+     * so the statement ending with semicolon is parsed without waiting for the token after it
+     */
+    private TokenTypeEnum peekType;
+
+    private int peekOffset;
+
+    private int peekLength;
+
+    private int peekLine;
 
     /**
      * errors occurred while parsing
      */
-    private List<String> errors = new ArrayList<>();
+    private List<String> errors;
 
     /**
-     * the function of parsing prefix expression;
+     * pre-parse mode: the bodies of the functions not nested in functions or macros are only brace-matched,
+     * they are parsed when the function is called first
      */
-    private Map<TokenTypeEnum, Supplier<ExpressionNode>> prefixParseFuncMap = new HashMap<>();
+    private boolean lazyFunctions;
 
     /**
-     * the function of parsing infix expression;
+     * number of the function and macro bodies enclosing current token
      */
-    private Map<TokenTypeEnum, Function<ExpressionNode, ExpressionNode>> infixParseFuncMap = new HashMap<>();
+    private int functionDepth;
 
     /**
-     * precedence of operator
+     * current token is the last token of the statement returned by nextStatement
      */
-    private Map<TokenTypeEnum, PrecedenceEnum> type2PrecedenceMap = new HashMap<>();
+    private boolean statementParsed;
 
-    public Parser(Lexer lexer) {
-        this.lexer = lexer;
-        //read two token, init currentToken and peekToken
-        consume();
-        consume();
+    /**
+     * lazy bodies skipped since checkSkippedBodies was called
+     */
+    private List<LazyBody> skippedBodies;
 
-        initPrecedenceMap();
-        initParseFuncMap();
+    public Parser(TokenSource lexer) {
+        this(lexer, false);
     }
 
-    private void initPrecedenceMap() {
-        type2PrecedenceMap.put(TokenTypeEnum.ASSIGN, PrecedenceEnum.ASSIGN);
-        type2PrecedenceMap.put(TokenTypeEnum.OR, PrecedenceEnum.OR);
-        type2PrecedenceMap.put(TokenTypeEnum.AND, PrecedenceEnum.AND);
-        type2PrecedenceMap.put(TokenTypeEnum.EQ, PrecedenceEnum.EQUALS);
-        type2PrecedenceMap.put(TokenTypeEnum.NOT_EQ, PrecedenceEnum.EQUALS);
-        type2PrecedenceMap.put(TokenTypeEnum.LT, PrecedenceEnum.LESSGREATER);
-        type2PrecedenceMap.put(TokenTypeEnum.LE, PrecedenceEnum.LESSGREATER);
-        type2PrecedenceMap.put(TokenTypeEnum.GT, PrecedenceEnum.LESSGREATER);
-        type2PrecedenceMap.put(TokenTypeEnum.GE, PrecedenceEnum.LESSGREATER);
-        type2PrecedenceMap.put(TokenTypeEnum.PLUS, PrecedenceEnum.SUM);
-        type2PrecedenceMap.put(TokenTypeEnum.MINUS, PrecedenceEnum.SUM);
-        type2PrecedenceMap.put(TokenTypeEnum.ASTERISK, PrecedenceEnum.PRODUCT);
-        type2PrecedenceMap.put(TokenTypeEnum.SLASH, PrecedenceEnum.PRODUCT);
-        type2PrecedenceMap.put(TokenTypeEnum.LPAREN, PrecedenceEnum.CALL);
-        type2PrecedenceMap.put(TokenTypeEnum.LBRACKET, PrecedenceEnum.INDEX);
+    /**
+     * @param lexer lexer, or token stream scanned in advance
+     * @param lazyFunctions defer the parse of the bodies of top level functions to their first call,
+     *                      the brackets and tokens of the bodies are still checked while parsing
+     */
+    public Parser(TokenSource lexer, boolean lazyFunctions) {
+        reset(lexer, lazyFunctions);
+    }
+
+    /**
+     * parse another source with the parser, e.g. the next line of repl.
+     * the errors of previous source are kept by whoever got them, the parser starts a new list
+     * @param lexer
+     * @param lazyFunctions
+     * @return this parser
+     */
+    public Parser reset(TokenSource lexer, boolean lazyFunctions) {
+        this.lexer = lexer;
+        this.lazyFunctions = lazyFunctions;
+        this.errors = new ArrayList<>();
+        this.skippedBodies = new ArrayList<>();
+        this.functionDepth = 0;
+        this.statementParsed = false;
+        this.peekType = null;
+        //read first token, init current token
+        consume();
+        return this;
+    }
+
+    private static PrecedenceEnum[] initPrecedences() {
+        PrecedenceEnum[] res = new PrecedenceEnum[TokenTypeEnum.values().length];
+        Arrays.fill(res, PrecedenceEnum.LOWEST);
+        res[TokenTypeEnum.ASSIGN.ordinal()] = PrecedenceEnum.ASSIGN;
+        res[TokenTypeEnum.OR.ordinal()] = PrecedenceEnum.OR;
+        res[TokenTypeEnum.AND.ordinal()] = PrecedenceEnum.AND;
+        res[TokenTypeEnum.EQ.ordinal()] = PrecedenceEnum.EQUALS;
+        res[TokenTypeEnum.NOT_EQ.ordinal()] = PrecedenceEnum.EQUALS;
+        res[TokenTypeEnum.LT.ordinal()] = PrecedenceEnum.LESSGREATER;
+        res[TokenTypeEnum.LE.ordinal()] = PrecedenceEnum.LESSGREATER;
+        res[TokenTypeEnum.GT.ordinal()] = PrecedenceEnum.LESSGREATER;
+        res[TokenTypeEnum.GE.ordinal()] = PrecedenceEnum.LESSGREATER;
+        res[TokenTypeEnum.PLUS.ordinal()] = PrecedenceEnum.SUM;
+        res[TokenTypeEnum.MINUS.ordinal()] = PrecedenceEnum.SUM;
+        res[TokenTypeEnum.ASTERISK.ordinal()] = PrecedenceEnum.PRODUCT;
+        res[TokenTypeEnum.SLASH.ordinal()] = PrecedenceEnum.PRODUCT;
+        res[TokenTypeEnum.LPAREN.ordinal()] = PrecedenceEnum.CALL;
+        res[TokenTypeEnum.LBRACKET.ordinal()] = PrecedenceEnum.INDEX;
+        return res;
     }
 
     /**
@@ -86,11 +159,7 @@ public class Parser {
      * @return
      */
     private PrecedenceEnum peekPrecedence() {
-        if (type2PrecedenceMap.containsKey(peekToken.getType())) {
-            return type2PrecedenceMap.get(peekToken.getType());
-        } else {
-            return PrecedenceEnum.LOWEST;
-        }
+        return PRECEDENCES[peek().ordinal()];
     }
 
     /**
@@ -98,106 +167,92 @@ public class Parser {
      * @return
      */
     private PrecedenceEnum currentPrecedence() {
-        if (type2PrecedenceMap.containsKey(currentToken.getType())) {
-            return type2PrecedenceMap.get(currentToken.getType());
-        } else {
-            return PrecedenceEnum.LOWEST;
-        }
-    }
-
-    private void initParseFuncMap() {
-        initPrefixParseFuncMap();
-        initInfixParseFuncMap();
-
+        return PRECEDENCES[currentType.ordinal()];
     }
 
     /**
      * init the function of parsing infix expression
      */
-    private void initInfixParseFuncMap() {
-
-
-        infixParseFuncMap.put(TokenTypeEnum.PLUS, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.MINUS, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.SLASH, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.ASTERISK, infixparseFunc());
-
-        infixParseFuncMap.put(TokenTypeEnum.GT, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.GE, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.LT, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.LE, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.EQ, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.NOT_EQ, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.AND, infixparseFunc());
-        infixParseFuncMap.put(TokenTypeEnum.OR, infixparseFunc());
-
-        infixParseFuncMap.put(TokenTypeEnum.LPAREN, parseCallFunc());
-
-        infixParseFuncMap.put(TokenTypeEnum.LBRACKET, parseArrayIndexFunc());
-        infixParseFuncMap.put(TokenTypeEnum.ASSIGN, parseAssignFunc());
+    private static Map<TokenTypeEnum, BiFunction<Parser, ExpressionNode, ExpressionNode>> initInfixParseFuncs() {
+        Map<TokenTypeEnum, BiFunction<Parser, ExpressionNode, ExpressionNode>> res = new EnumMap<>(TokenTypeEnum.class);
+
+        res.put(TokenTypeEnum.PLUS, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.MINUS, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.SLASH, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.ASTERISK, Parser::parseInfixExpression);
+
+        res.put(TokenTypeEnum.GT, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.GE, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.LT, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.LE, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.EQ, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.NOT_EQ, Parser::parseInfixExpression);
+        res.put(TokenTypeEnum.AND, Parser::parseLogicalExpression);
+        res.put(TokenTypeEnum.OR, Parser::parseLogicalExpression);
+
+        res.put(TokenTypeEnum.LPAREN, Parser::parseCallExpression);
+
+        res.put(TokenTypeEnum.LBRACKET, Parser::parseIndexExpression);
+        res.put(TokenTypeEnum.ASSIGN, Parser::parseAssignExpression);
+        return res;
     }
 
-    private Function<ExpressionNode, ExpressionNode> parseAssignFunc() {
-        return left -> {
-            AssignExpressionNode res = new AssignExpressionNode();
+    private ExpressionNode parseAssignExpression(ExpressionNode left) {
+        AssignExpressionNode res = new AssignExpressionNode();
 
-            // left should be identifier
-            if (left instanceof IdentifierNode) {
-                res.setName((IdentifierNode) left);
-            } else {
-                errors.add(String.format("expect identifier, but got: %s", left.toString()));
-                return null;
-            }
+        // left should be identifier
+        if (left instanceof IdentifierNode) {
+            res.setName((IdentifierNode) left);
+        } else {
+            errors.add(String.format("expect identifier, but got: %s", left.toString()));
+            return null;
+        }
 
-            PrecedenceEnum precedence = currentPrecedence();
-            // consume =
-            consume();
-            // next is an expression
-            res.setValue(parseExpression(precedence));
+        PrecedenceEnum precedence = currentPrecedence();
+        // consume =
+        consume();
+        // next is an expression
+        res.setValue(parseExpression(precedence));
 
-            if (peekToken.getType() == TokenTypeEnum.SEMICOLON) {
-                consume();
-            }
+        if (peek() == TokenTypeEnum.SEMICOLON) {
+            consume();
+        }
 
-            return res;
-        };
+        return res;
     }
 
-    private Function<ExpressionNode, ExpressionNode> parseArrayIndexFunc() {
-        return left -> {
-            IndexExpressionNode res = new IndexExpressionNode();
-            res.setToken(currentToken);
-            res.setObject(left);
-            consume();
-            res.setIndex(parseExpression(PrecedenceEnum.LOWEST));
-            if (!expectPeek(TokenTypeEnum.RBRACKET)) {
-                return null;
-            }
+    private ExpressionNode parseIndexExpression(ExpressionNode left) {
+        IndexExpressionNode res = new IndexExpressionNode();
+        res.setToken(currentToken());
+        res.setObject(left);
+        consume();
+        res.setIndex(parseExpression(PrecedenceEnum.LOWEST));
+        if (!expectPeek(TokenTypeEnum.RBRACKET)) {
+            return null;
+        }
 
-            return res;
-        };
+        return res;
     }
 
-    private Function<ExpressionNode, ExpressionNode> parseCallFunc() {
-        return left -> {
-            CallExpressionNode res = new CallExpressionNode();
-            res.setToken(currentToken);
-            res.setFuncName(left);
-            res.setArguments(parseExpressionList(TokenTypeEnum.RPAREN));
-            return res;
-        };
+    private ExpressionNode parseCallExpression(ExpressionNode left) {
+        CallExpressionNode res = new CallExpressionNode();
+        res.setToken(currentToken());
+        res.setFuncName(left);
+        res.setQuote(CallExpressionNode.isQuote(left));
+        res.setArguments(parseExpressionList(TokenTypeEnum.RPAREN));
+        return res;
     }
 
     private List<ExpressionNode> parseExpressionList(TokenTypeEnum end) {
         List<ExpressionNode> arguments = new ArrayList<>();
-        if (peekToken.getType() == end) {
+        if (peek() == end) {
             consume();
             return arguments;
         }
 
         consume();
         arguments.add(parseExpression(PrecedenceEnum.LOWEST));
-        while (peekToken.getType() == TokenTypeEnum.COMMA) {
+        while (peek() == TokenTypeEnum.COMMA) {
             consume();
             consume();
             arguments.add(parseExpression(PrecedenceEnum.LOWEST));
@@ -210,155 +265,158 @@ public class Parser {
         return arguments;
     }
 
-    private Function<ExpressionNode, ExpressionNode> infixparseFunc() {
-        Function<ExpressionNode, ExpressionNode> infixparseFunc = left -> {
-            BinaryExpressionNode res = new BinaryExpressionNode();
-            res.setToken(currentToken);
-            res.setLeft(left);
-            res.setOperator(currentToken.getLiteral());
+    private ExpressionNode parseInfixExpression(ExpressionNode left) {
+        BinaryExpressionNode res = new BinaryExpressionNode();
+        res.setToken(currentToken());
+        res.setLeft(left);
+        res.setOperator(OperatorEnum.of(currentType.getLiterial()));
 
-            PrecedenceEnum precedence = currentPrecedence();
-            consume();
-            res.setRight(parseExpression(precedence));
-            return res;
-        };
-        return infixparseFunc;
-    }
-
-    private void initPrefixParseFuncMap() {
-        prefixParseFuncMap.put(TokenTypeEnum.IDENT, () -> new IdentifierNode(currentToken, currentToken.getLiteral()));
-        prefixParseFuncMap.put(TokenTypeEnum.INT, intExpressionParseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.LPAREN, groupedExpressionParseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.TRUE, () -> new BooleanLiteralNode(currentToken, true));
-        prefixParseFuncMap.put(TokenTypeEnum.FALSE, () -> new BooleanLiteralNode(currentToken, false));
-        prefixParseFuncMap.put(TokenTypeEnum.BANG, unaryExpressionParseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.MINUS, unaryExpressionParseFunc());
-        // add function of parsing string
-        prefixParseFuncMap.put(TokenTypeEnum.STRING, () -> new StringLiteralNode(currentToken, currentToken.getLiteral()));
-        prefixParseFuncMap.put(TokenTypeEnum.LBRACKET, arrayLiteralExpressionParseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.LBRACE, mapLiteralExpressionParseFunc());
+        PrecedenceEnum precedence = currentPrecedence();
+        consume();
+        res.setRight(parseExpression(precedence));
+        return res;
+    }
 
-        prefixParseFuncMap.put(TokenTypeEnum.IF, ifExpressionParseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.FUNCTION, functionparseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.MACRO, macroparseFunc());
-        prefixParseFuncMap.put(TokenTypeEnum.WHILE, whileExpressionParseFunc());
+    private ExpressionNode parseLogicalExpression(ExpressionNode left) {
+        LogicalExpressionNode res = new LogicalExpressionNode();
+        res.setToken(currentToken());
+        res.setLeft(left);
+        res.setOperator(OperatorEnum.of(currentType.getLiterial()));
 
+        PrecedenceEnum precedence = currentPrecedence();
+        consume();
+        res.setRight(parseExpression(precedence));
+        return res;
     }
 
-    private Supplier<ExpressionNode> whileExpressionParseFunc() {
-        return () -> {
-            WhileExpressionNode res = new WhileExpressionNode();
-            res.setToken(currentToken);
-            if (!expectPeek(TokenTypeEnum.LPAREN)) {
-                return null;
-            }
-            consume();
-            res.setCondition(parseExpression(PrecedenceEnum.LOWEST));
-            if (!expectPeek(TokenTypeEnum.RPAREN)) {
-                return null;
-            }
-            if (!expectPeek(TokenTypeEnum.LBRACE)) {
-                return null;
-            }
-            res.setBody(parseBlockStatement());
-            return res;
-        };
+    /**
+     * init the function of parsing prefix expression
+     */
+    private static Map<TokenTypeEnum, Function<Parser, ExpressionNode>> initPrefixParseFuncs() {
+        Map<TokenTypeEnum, Function<Parser, ExpressionNode>> res = new EnumMap<>(TokenTypeEnum.class);
+        res.put(TokenTypeEnum.IDENT, Parser::currentIdentifier);
+        res.put(TokenTypeEnum.INT, Parser::parseIntegerLiteral);
+        res.put(TokenTypeEnum.LPAREN, Parser::parseGroupedExpression);
+        res.put(TokenTypeEnum.TRUE, parser -> new BooleanLiteralNode(parser.currentToken(), true));
+        res.put(TokenTypeEnum.FALSE, parser -> new BooleanLiteralNode(parser.currentToken(), false));
+        res.put(TokenTypeEnum.BANG, Parser::parseUnaryExpression);
+        res.put(TokenTypeEnum.MINUS, Parser::parseUnaryExpression);
+        // add function of parsing string
+        res.put(TokenTypeEnum.STRING, parser -> new StringLiteralNode(parser.currentToken(), parser.currentToken().getLiteral()));
+        res.put(TokenTypeEnum.LBRACKET, Parser::parseArrayLiteral);
+        res.put(TokenTypeEnum.LBRACE, Parser::parseMapLiteral);
+
+        res.put(TokenTypeEnum.IF, Parser::parseIfExpression);
+        res.put(TokenTypeEnum.FUNCTION, Parser::parseFunctionLiteral);
+        res.put(TokenTypeEnum.MACRO, Parser::parseMacroLiteral);
+        res.put(TokenTypeEnum.WHILE, Parser::parseWhileExpression);
+        return res;
     }
 
-    private Supplier<ExpressionNode> macroparseFunc() {
-        return () -> {
-            MacroLiteralNode res = new MacroLiteralNode();
-            res.setToken(currentToken);
-            if (!expectPeek(TokenTypeEnum.LPAREN)) {
-                return null;
-            }
+    private ExpressionNode parseWhileExpression() {
+        WhileExpressionNode res = new WhileExpressionNode();
+        res.setToken(currentToken());
+        if (!expectPeek(TokenTypeEnum.LPAREN)) {
+            return null;
+        }
+        consume();
+        res.setCondition(parseExpression(PrecedenceEnum.LOWEST));
+        if (!expectPeek(TokenTypeEnum.RPAREN)) {
+            return null;
+        }
+        if (!expectPeek(TokenTypeEnum.LBRACE)) {
+            return null;
+        }
+        res.setBody(parseBlockStatement());
+        return res;
+    }
 
-            res.setParameters(parseParameters());
+    private ExpressionNode parseMacroLiteral() {
+        MacroLiteralNode res = new MacroLiteralNode();
+        res.setToken(currentToken());
+        if (!expectPeek(TokenTypeEnum.LPAREN)) {
+            return null;
+        }
 
-            if (!expectPeek(TokenTypeEnum.LBRACE)) {
-                return null;
-            }
+        res.setParameters(parseParameters());
 
-            res.setBody(parseBlockStatement());
+        if (!expectPeek(TokenTypeEnum.LBRACE)) {
+            return null;
+        }
 
-            return res;
-        };
+        res.setBody(parseFunctionBody(false));
+
+        return res;
     }
 
-    private Supplier<ExpressionNode> mapLiteralExpressionParseFunc() {
-        return () -> {
-            MapLiteralExpressionNode res = new MapLiteralExpressionNode(currentToken);
-            if (peekToken.getType() == TokenTypeEnum.RBRACE) {
-                consume();
-                return res;
-            }
+    private ExpressionNode parseMapLiteral() {
+        MapLiteralExpressionNode res = new MapLiteralExpressionNode(currentToken());
+        if (peek() == TokenTypeEnum.RBRACE) {
             consume();
+            return res;
+        }
+        consume();
 
-            while (peekToken.getType() != TokenTypeEnum.RBRACE && peekToken.getType() != TokenTypeEnum.EOF) {
-                ExpressionNode key = parseExpression(PrecedenceEnum.LOWEST);
-                if (!expectPeek(TokenTypeEnum.COLON)) {
-                    return null;
-                }
+        while (peek() != TokenTypeEnum.RBRACE && peek() != TokenTypeEnum.EOF) {
+            ExpressionNode key = parseExpression(PrecedenceEnum.LOWEST);
+            if (!expectPeek(TokenTypeEnum.COLON)) {
+                return null;
+            }
+            consume();
+            ExpressionNode value = parseExpression(PrecedenceEnum.LOWEST);
+            res.getPairs().put(key, value);
+            if (peek() == TokenTypeEnum.COMMA) {
+                consume();
                 consume();
-                ExpressionNode value = parseExpression(PrecedenceEnum.LOWEST);
-                res.getPairs().put(key, value);
-                if (peekToken.getType() == TokenTypeEnum.COMMA) {
-                    consume();
-                    consume();
-                }
             }
+        }
 
-            if (peekToken.getType() != TokenTypeEnum.RBRACE) {
-                return null;
-            }
+        if (peek() != TokenTypeEnum.RBRACE) {
+            return null;
+        }
 
-            consume();
-            return res;
-        };
+        consume();
+        return res;
     }
 
-    private Supplier<ExpressionNode> arrayLiteralExpressionParseFunc() {
-        return () -> {
-            ArrayLiteralExpressionNode res = new ArrayLiteralExpressionNode(currentToken);
-            List<ExpressionNode> elements = parseExpressionList(TokenTypeEnum.RBRACKET);
-            res.getElements().addAll(elements);
-            return res;
-        };
+    private ExpressionNode parseArrayLiteral() {
+        ArrayLiteralExpressionNode res = new ArrayLiteralExpressionNode(currentToken());
+        List<ExpressionNode> elements = parseExpressionList(TokenTypeEnum.RBRACKET);
+        res.getElements().addAll(elements);
+        return res;
     }
 
-    private Supplier<ExpressionNode> functionparseFunc() {
-        return () -> {
-            FunctionLiteralNode res = new FunctionLiteralNode();
-            res.setToken(currentToken);
-            if (!expectPeek(TokenTypeEnum.LPAREN)) {
-                return null;
-            }
+    private ExpressionNode parseFunctionLiteral() {
+        FunctionLiteralNode res = new FunctionLiteralNode();
+        res.setToken(currentToken());
+        if (!expectPeek(TokenTypeEnum.LPAREN)) {
+            return null;
+        }
 
-            res.setParameters(parseParameters());
+        res.setParameters(parseParameters());
 
-            if (!expectPeek(TokenTypeEnum.LBRACE)) {
-                return null;
-            }
+        if (!expectPeek(TokenTypeEnum.LBRACE)) {
+            return null;
+        }
 
-            res.setBody(parseBlockStatement());
+        res.setBody(parseFunctionBody(lazyFunctions));
 
-            return res;
-        };
+        return res;
     }
 
     private List<IdentifierNode> parseParameters() {
         List<IdentifierNode> res = new ArrayList<>();
-        if (peekToken.getType() == TokenTypeEnum.RPAREN) {
+        if (peek() == TokenTypeEnum.RPAREN) {
             consume();
             return res;
         }
 
         consume();
-        res.add(new IdentifierNode(currentToken, currentToken.getLiteral()));
-        while (peekToken.getType() == TokenTypeEnum.COMMA) {
+        res.add(currentIdentifier());
+        while (peek() == TokenTypeEnum.COMMA) {
             consume();
             consume();
-            res.add(new IdentifierNode(currentToken, currentToken.getLiteral()));
+            res.add(currentIdentifier());
         }
 
         if (!expectPeek(TokenTypeEnum.RPAREN)) {
@@ -367,83 +425,80 @@ public class Parser {
 
         return res;
     }
-    private Supplier<ExpressionNode> unaryExpressionParseFunc() {
-        Supplier<ExpressionNode> unaryExpressionParseFunc = () -> {
-            UnaryExpressionNode res = new UnaryExpressionNode();
-            res.setToken(currentToken);
-            res.setOperator(currentToken.getLiteral());
 
-            consume();
-            res.setRight(parseExpression(PrecedenceEnum.PREFIX));
-            return res;
-        };
-        return unaryExpressionParseFunc;
+    private ExpressionNode parseUnaryExpression() {
+        UnaryExpressionNode res = new UnaryExpressionNode();
+        res.setToken(currentToken());
+        res.setOperator(OperatorEnum.of(currentType.getLiterial()));
+
+        consume();
+        res.setRight(parseExpression(PrecedenceEnum.PREFIX));
+        return res;
     }
 
-    private Supplier<ExpressionNode> groupedExpressionParseFunc() {
-        return () -> {
-            consume();
-            ExpressionNode expression = parseExpression(PrecedenceEnum.LOWEST);
-            if (!expectPeek(TokenTypeEnum.RPAREN)) {
-                return null;
-            }
+    private ExpressionNode parseGroupedExpression() {
+        consume();
+        ExpressionNode expression = parseExpression(PrecedenceEnum.LOWEST);
+        if (!expectPeek(TokenTypeEnum.RPAREN)) {
+            return null;
+        }
 
-            return expression;
-        };
+        return expression;
     }
 
-    private Supplier<ExpressionNode> intExpressionParseFunc() {
-        return () -> {
-            IntegerLiteralNode res = new IntegerLiteralNode();
-            res.setToken(currentToken);
+    private ExpressionNode parseIntegerLiteral() {
+        IntegerLiteralNode res = new IntegerLiteralNode();
+        res.setToken(currentToken());
+        String literal = res.getToken().getLiteral();
+        try {
+            res.setValue(IntegerObject.valueOf(Long.parseLong(literal)));
+        } catch (NumberFormatException e) {
+            // larger than long
             try {
-                Integer value = Integer.valueOf(currentToken.getLiteral());
-                res.setValue(value);
-            } catch (Exception e) {
-                errors.add(String.format("could not parse %s as integer", currentToken.getLiteral()));
+                res.setValue(IntegerObject.valueOf(new BigInteger(literal)));
+            } catch (NumberFormatException ex) {
+                errors.add(String.format("could not parse %s as integer", literal));
                 return null;
             }
-            return res;
-        };
+        }
+        return res;
     }
 
-    private Supplier<ExpressionNode> ifExpressionParseFunc() {
-        return () -> {
-            IfExpressionNode res = new IfExpressionNode();
-            res.setToken(currentToken);
-            if (!expectPeek(TokenTypeEnum.LPAREN)) {
-                return null;
-            }
+    private ExpressionNode parseIfExpression() {
+        IfExpressionNode res = new IfExpressionNode();
+        res.setToken(currentToken());
+        if (!expectPeek(TokenTypeEnum.LPAREN)) {
+            return null;
+        }
 
-            consume();
-            res.setCondition(parseExpression(PrecedenceEnum.LOWEST));
-            if (!expectPeek(TokenTypeEnum.RPAREN)) {
-                return null;
-            }
+        consume();
+        res.setCondition(parseExpression(PrecedenceEnum.LOWEST));
+        if (!expectPeek(TokenTypeEnum.RPAREN)) {
+            return null;
+        }
 
+        if (!expectPeek(TokenTypeEnum.LBRACE)) {
+            return null;
+        }
+        res.setConsequence(parseBlockStatement());
+
+        if (peek() == TokenTypeEnum.ELSE) {
+            consume();
             if (!expectPeek(TokenTypeEnum.LBRACE)) {
                 return null;
             }
-            res.setConsequence(parseBlockStatement());
 
-            if (peekToken.getType() == TokenTypeEnum.ELSE) {
-                consume();
-                if (!expectPeek(TokenTypeEnum.LBRACE)) {
-                    return null;
-                }
-
-                res.setAlternative(parseBlockStatement());
-            }
+            res.setAlternative(parseBlockStatement());
+        }
 
-            return res;
-        };
+        return res;
     }
 
     private BlockStatement parseBlockStatement() {
         BlockStatement statements = new BlockStatement();
-        statements.setToken(currentToken);
+        statements.setToken(currentToken());
         consume();
-        while (currentToken.getType() != TokenTypeEnum.RBRACE && currentToken.getType() != TokenTypeEnum.EOF) {
+        while (currentType != TokenTypeEnum.RBRACE && currentType != TokenTypeEnum.EOF) {
             StatementNode statement = parseStatement();
             if (statement != null) {
                 statements.getStatements().add(statement);
@@ -454,6 +509,89 @@ public class Parser {
         return statements;
     }
 
+    /**
+     * parse the body of function or macro, the body of top level function is skipped if it may be lazy
+     * @param lazy
+     * @return
+     */
+    private BlockStatement parseFunctionBody(boolean lazy) {
+        if (lazy && functionDepth == 0) {
+            return skipBlockStatement();
+        }
+
+        functionDepth++;
+        try {
+            return parseBlockStatement();
+        } finally {
+            functionDepth--;
+        }
+    }
+
+    /**
+     * match the braces of the block and keep its source to parse it later,
+     * the unmatched brackets and illegal tokens are reported now
+     * @return
+     */
+    private BlockStatement skipBlockStatement() {
+        BlockStatement res = new BlockStatement();
+        res.setToken(currentToken());
+        int line = currentLine;
+        int start = currentOffset + currentLength;
+
+        // the closing brackets expected, the innermost is the last
+        Deque<TokenTypeEnum> closing = new ArrayDeque<>();
+        closing.push(TokenTypeEnum.RBRACE);
+        while (!closing.isEmpty()) {
+            consume();
+            TokenTypeEnum type = currentType;
+            switch (type) {
+                case LBRACE:
+                    closing.push(TokenTypeEnum.RBRACE);
+                    break;
+                case LPAREN:
+                    closing.push(TokenTypeEnum.RPAREN);
+                    break;
+                case LBRACKET:
+                    closing.push(TokenTypeEnum.RBRACKET);
+                    break;
+                case RBRACE:
+                case RPAREN:
+                case RBRACKET:
+                case EOF:
+                    if (closing.peek() != type) {
+                        errors.add(String.format("expected next token to be %s, but got %s instead!", closing.peek(), type));
+                        return res;
+                    }
+                    closing.pop();
+                    break;
+                case ILLEGAL:
+                    errors.add(String.format("no prefix parse function for %s found", type.getLiterial()));
+                    break;
+                default:
+            }
+        }
+
+        // current token is the closing brace
+        LazyBody body = new LazyBody(lexer.getInput(), start, currentOffset - start, line);
+        body = lexer.getInput().isReleasable() ? body.detach() : body;
+        res.setLazyBody(body);
+        skippedBodies.add(body);
+        return res;
+    }
+
+    /**
+     * parse the bodies skipped since the last check fully, their syntax errors are added to the errors of parser,
+     * as if the bodies were not skipped. the bodies stay lazy, the statements parsed are kept for their first call
+     * @return false if any body has syntax errors
+     */
+    public boolean checkSkippedBodies() {
+        for (LazyBody body : skippedBodies) {
+            errors.addAll(body.check());
+        }
+        skippedBodies.clear();
+        return errors.isEmpty();
+    }
+
     /**
      * parse the program
      * @return
@@ -471,15 +609,44 @@ public class Parser {
      */
     private List<StatementNode> parseStatements() {
         List<StatementNode> statements = new ArrayList<>();
-        while (currentToken.getType() != TokenTypeEnum.EOF) {
+        StatementNode statement;
+        while ((statement = parseNextStatement()) != null) {
+            statements.add(statement);
+        }
+        return statements;
+    }
+
+    /**
+     * parse the next top level statement, the program is parsed and run statement by statement,
+     * the parsed statements are not kept. the source before current token is released,
+     * the lazy bodies keep a copy of their source if the source drops the released bytes
+     * @return null at the end of program
+     */
+    public StatementNode nextStatement() {
+        StatementNode statement = parseNextStatement();
+        lexer.getInput().release(currentOffset < 0 ? 0 : currentOffset);
+        return statement;
+    }
+
+    /**
+     * the last token of the statement stays current token until the next statement is parsed,
+     * the statement is returned before the token after it is read
+     * @return
+     */
+    private StatementNode parseNextStatement() {
+        if (statementParsed) {
+            statementParsed = false;
+            consume();
+        }
+        while (currentType != TokenTypeEnum.EOF) {
             StatementNode statement = parseStatement();
             if (statement != null) {
-                statements.add(statement);
+                statementParsed = true;
+                return statement;
             }
-
             consume();
         }
-        return statements;
+        return null;
     }
 
     /**
@@ -488,7 +655,7 @@ public class Parser {
      */
     private StatementNode parseStatement() {
         StatementNode statement;
-        switch (currentToken.getType()) {
+        switch (currentType) {
             case LET:
                 statement = parseLetStatement();
                 break;
@@ -507,7 +674,7 @@ public class Parser {
 
     private StatementNode parseFuncDeclStatement() {
         FunctionStatementNode res = new FunctionStatementNode();
-        res.setToken(currentToken);
+        res.setToken(currentToken());
 
         res.setFuncName(parseIdentifiter());
 
@@ -521,9 +688,9 @@ public class Parser {
             return null;
         }
 
-        res.setBody(parseBlockStatement());
+        res.setBody(parseFunctionBody(lazyFunctions));
 
-        if (peekToken.getType() == TokenTypeEnum.SEMICOLON) {
+        if (peek() == TokenTypeEnum.SEMICOLON) {
             consume();
         }
         return res;
@@ -531,11 +698,11 @@ public class Parser {
 
     private StatementNode parseExpressionStatement() {
         ExpressionStatementNode statement = new ExpressionStatementNode();
-        statement.setToken(currentToken);
+        statement.setToken(currentToken());
         statement.setExpression(parseExpression(PrecedenceEnum.LOWEST));
 
         // next token should be semicolon, not must
-        if (peekToken.getType() == TokenTypeEnum.SEMICOLON) {
+        if (peek() == TokenTypeEnum.SEMICOLON) {
             consume();
         }
 
@@ -545,13 +712,13 @@ public class Parser {
     private StatementNode parseReturnStatement() {
         ReturnStatementNode returnStatement = new ReturnStatementNode();
         // current token is return
-        returnStatement.setToken(currentToken);
+        returnStatement.setToken(currentToken());
         // consume return token
         consume();
         // next is an expression
         returnStatement.setValue(parseExpression(PrecedenceEnum.LOWEST));
 
-        if (peekToken.getType() == TokenTypeEnum.SEMICOLON) {
+        if (peek() == TokenTypeEnum.SEMICOLON) {
             consume();
         }
         return returnStatement;
@@ -563,7 +730,7 @@ public class Parser {
     private StatementNode parseLetStatement() {
         LetStatementNode letStatement = new LetStatementNode();
         // current token is let
-        letStatement.setToken(currentToken);
+        letStatement.setToken(currentToken());
         // next token should be identifier
         letStatement.setName(parseIdentifiter());
 
@@ -574,7 +741,7 @@ public class Parser {
         // next is an expression
         letStatement.setValue(parseExpression(PrecedenceEnum.LOWEST));
 
-        if (peekToken.getType() == TokenTypeEnum.SEMICOLON) {
+        if (peek() == TokenTypeEnum.SEMICOLON) {
             consume();
         }
 
@@ -590,30 +757,38 @@ public class Parser {
      * @return
      */
     private ExpressionNode parseExpression(PrecedenceEnum precedence) {
-        Supplier<ExpressionNode> prefixFunc = prefixParseFuncMap.get(currentToken.getType());
+        Function<Parser, ExpressionNode> prefixFunc = PREFIX_PARSE_FUNCS.get(currentType);
         if (prefixFunc == null) {
-            errors.add(String.format("no prefix parse function for %s found", currentToken.getType().getLiterial()));
+            errors.add(String.format("no prefix parse function for %s found", currentType.getLiterial()));
             return null;
         }
-        ExpressionNode leftExpression = prefixFunc.get();
+        ExpressionNode leftExpression = prefixFunc.apply(this);
 
-        while (!(peekToken.getType() == TokenTypeEnum.SEMICOLON)
+        while (!(peek() == TokenTypeEnum.SEMICOLON)
                 && PrecedenceEnum.higherPrecedenceThan(peekPrecedence(), precedence)) {
-            Function<ExpressionNode, ExpressionNode> parseFunc = infixParseFuncMap.get(peekToken.getType());
+            BiFunction<Parser, ExpressionNode, ExpressionNode> parseFunc = INFIX_PARSE_FUNCS.get(peek());
             if (parseFunc == null) {
                 return leftExpression;
             }
 
             consume();
 
-            leftExpression = parseFunc.apply(leftExpression);
+            leftExpression = parseFunc.apply(this, leftExpression);
         }
         return leftExpression;
     }
 
+    /**
+     * @return identifier of current token
+     */
+    private IdentifierNode currentIdentifier() {
+        Token token = currentToken();
+        return new IdentifierNode(token, token.getLiteral());
+    }
+
     private IdentifierNode parseIdentifiter() {
         if (expectPeek(TokenTypeEnum.IDENT)) {
-            return new IdentifierNode(currentToken, currentToken.getLiteral());
+            return currentIdentifier();
         } else {
             return null;
         }
@@ -626,7 +801,7 @@ public class Parser {
      * @return
      */
     private boolean expectPeek(TokenTypeEnum type) {
-        if (peekToken.getType() == type) {
+        if (peek() == type) {
             consume();
             return true;
         } else {
@@ -636,7 +811,7 @@ public class Parser {
     }
 
     private void peekError(TokenTypeEnum type) {
-        String error = String.format("expected next token to be %s, but got %s instead!", type, peekToken.getType());
+        String error = String.format("expected next token to be %s, but got %s instead!", type, peek());
         errors.add(error);
     }
 
@@ -644,8 +819,37 @@ public class Parser {
      * read next token
      */
     private void consume() {
-        this.currentToken = peekToken;
-        this.peekToken = lexer.nextToken();
+        currentType = peek();
+        currentOffset = peekOffset;
+        currentLength = peekLength;
+        currentLine = peekLine;
+        createdToken = null;
+        peekType = null;
+    }
+
+    /**
+     * @return type of the token after current token, scanned when it is needed first
+     */
+    private TokenTypeEnum peek() {
+        if (peekType == null) {
+            peekType = lexer.scan();
+            peekOffset = lexer.getTokenStart();
+            peekLength = lexer.getTokenLength();
+            peekLine = lexer.getTokenLine();
+        }
+        return peekType;
+    }
+
+    /**
+     * create the token object of current token for the node keeping it, the nodes of a token share it
+     * @return
+     */
+    private Token currentToken() {
+        if (createdToken == null) {
+            createdToken = new Token(currentType, Lexer.literal(lexer.getInput(), currentType, currentOffset, currentLength),
+                    currentLine, currentOffset, currentLength);
+        }
+        return createdToken;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package interpreter.parser;
+
+import interpreter.ast.ExpressionStatementNode;
+import interpreter.ast.StatementNode;
+import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+import lombok.Getter;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * top level statements of a script parsed by a thread of their own: the thread running the statements takes
+ * each one as soon as it is parsed, while the rest of the script is read and parsed.
+ * at most CAPACITY statements are parsed ahead, then the parser waits for them to be taken,
+ * so the memory is bounded by the statements instead of the script.
+ * the parse stops at the first statement with syntax errors, the statements before it are taken and run.
+ * the skipped bodies of the functions are parsed fully before their statement is queued, off the thread running
+ * the statements, a syntax error in a body ends the parse before its statement even if the function is never called.
+ * the statements of the bodies are kept, the first call doesn't parse them again.
+ */
+public class StatementQueue implements AutoCloseable {
+
+    public static final int CAPACITY = 16;
+
+    /**
+     * put after the last statement
+     */
+    private static final StatementNode END = new ExpressionStatementNode();
+
+    private final BlockingQueue<StatementNode> statements = new ArrayBlockingQueue<>(CAPACITY);
+
+    private final Thread thread;
+
+    /**
+     * syntax errors of the statement where the parse stopped, or of its function bodies,
+     * or the error of reading the script
+     */
+    @Getter
+    private volatile List<String> errors = Collections.emptyList();
+
+    private boolean finished;
+
+    /**
+     * start parsing the script
+     * @param source
+     * @param lazyFunctions see Parser
+     */
+    public StatementQueue(Source source, boolean lazyFunctions) {
+        thread = new Thread(() -> parse(source, lazyFunctions), "monkey-parser");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * wait for the next statement
+     * @return null at the end of script, or if the parse stopped at syntax errors
+     */
+    public StatementNode take() {
+        if (finished) {
+            return null;
+        }
+
+        StatementNode statement;
+        try {
+            statement = statements.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            statement = END;
+        }
+        if (statement == END) {
+            finished = true;
+            return null;
+        }
+        return statement;
+    }
+
+    /**
+     * stop parsing, the rest of the script is not needed once a statement fails
+     */
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+
+    private void parse(Source source, boolean lazyFunctions) {
+        try {
+            read(source, lazyFunctions);
+        } catch (InterruptedException e) {
+            // closed, no one takes the statements
+            return;
+        } catch (UncheckedIOException e) {
+            errors = Collections.singletonList(String.format("can not read script: %s", e.getCause().getMessage()));
+        } catch (RuntimeException | Error e) {
+            // such as the stack overflow of a deeply nested expression, END is still put, or take waits forever
+            errors = Collections.singletonList(String.format("can not parse script: %s", e));
+        }
+        try {
+            statements.put(END);
+        } catch (InterruptedException e) {
+            // closed, no one takes the statements
+        }
+    }
+
+    private void read(Source source, boolean lazyFunctions) throws InterruptedException {
+        // the lexer reads the stream in this thread from the first token
+        Parser parser = new Parser(new Lexer(source), lazyFunctions);
+        StatementNode statement;
+        while ((statement = parser.nextStatement()) != null && parser.getErrors().isEmpty()
+                && parser.checkSkippedBodies()) {
+            statements.put(statement);
+        }
+        errors = new ArrayList<>(parser.getErrors());
+    }
+}
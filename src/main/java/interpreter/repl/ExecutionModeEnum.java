@@ -0,0 +1,34 @@
+package interpreter.repl;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * the engine used to run the program
+ */
+@Getter
+public enum ExecutionModeEnum {
+    // tree-walking evaluator
+    EVAL("eval"),
+    // compile to bytecode and run on the stack vm
+    VM("vm"),
+    // compile to executable node tree
+    NODE("node"),
+    // tree-walking evaluator keeping the frames on heap
+    STACKLESS("stackless"),
+    // tree-walking evaluator compiling the hot functions and loops to jvm bytecode
+    JIT("jit");
+
+    private String name;
+
+    ExecutionModeEnum(String name) {
+        this.name = name;
+    }
+
+    public static ExecutionModeEnum of(String name) {
+        return Arrays.stream(ExecutionModeEnum.values())
+                .filter(item -> item.getName().equals(name))
+                .findFirst().orElse(null);
+    }
+}
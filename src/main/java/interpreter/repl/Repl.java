@@ -1,13 +1,28 @@
 package interpreter.repl;
 
 import interpreter.ast.ProgramNode;
+import interpreter.ast.StatementNode;
 import interpreter.ast.TreeNode;
+import interpreter.compiler.Bytecode;
+import interpreter.compiler.Compiler;
+import interpreter.compiler.SymbolTable;
 import interpreter.eval.Environment;
 import interpreter.eval.Evaluator;
+import interpreter.eval.StacklessEvaluator;
+import interpreter.jit.Jit;
+import interpreter.exec.NodeCompiler;
+import interpreter.exec.ProgramExecNode;
 import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+import interpreter.optimizer.Optimizer;
+import interpreter.object.ErrorObject;
+import interpreter.object.ReturnObject;
 import interpreter.object.ValueObject;
 import interpreter.object.ValueTypeEnum;
 import interpreter.parser.Parser;
+import interpreter.parser.StatementQueue;
+import interpreter.resolver.Resolver;
+import interpreter.vm.Vm;
 import org.jline.reader.*;
 import org.jline.reader.impl.DefaultParser;
 import org.jline.reader.impl.completer.StringsCompleter;
@@ -22,6 +37,32 @@ import java.util.stream.Collectors;
  */
 public class Repl {
     private static String prompt = ">>> ";
+
+    private final ExecutionModeEnum mode;
+
+    /**
+     * state of the session, the later lines see the variables and macros defined by the previous lines
+     */
+    private final Environment env = new Environment();
+
+    private final Environment macroEnv = new Environment();
+
+    // state of vm, keep the globals defined in previous lines
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    private final ValueObject[] globals = new ValueObject[Vm.GLOBALS_SIZE];
+
+    // profiles of jit, the functions defined in previous lines keep getting hot
+    private final Jit jit = new Jit();
+
+    public Repl() {
+        this(ExecutionModeEnum.EVAL);
+    }
+
+    public Repl(ExecutionModeEnum mode) {
+        this.mode = mode;
+    }
+
     public void run() throws IOException {
 
         // 1. create terminal
@@ -53,9 +94,9 @@ public class Repl {
         final String WELCOME_MESSAGE = "Welcome, Monkey Language Interpreter!\n\n";
         terminal.writer().append(WELCOME_MESSAGE);
 
-        // 5. create the env
-        Environment env = new Environment();
-        Environment macroEnv = new Environment();
+        // the parser of previous line parses the next one
+        Parser parser = null;
+
         /**
          * loop util Ctrl+D
          */
@@ -66,21 +107,14 @@ public class Repl {
                 // 1. get lexer
                 Lexer lexer = new Lexer(line);
                 // 2. get parser
-                Parser parser = new Parser(lexer);
+                parser = parser == null ? new Parser(lexer) : parser.reset(lexer, false);
                 ProgramNode program = parser.parseProgram();
                 if (parser.getErrors().size()>0) {
                     System.out.println(parser.getErrors().stream().collect(Collectors.joining("\n")));
                     continue;
                 }
 
-                // 3. evaluate macro
-                Evaluator evaluator = new Evaluator();
-                // define macro in macroEnv
-                evaluator.defineMacros(program, macroEnv);
-                TreeNode expanded = evaluator.expandMacro(program, macroEnv);
-
-                // 3. evaluate the ast;
-                ValueObject value = evaluator.eval(expanded, env);
+                ValueObject value = execute(program);
                 if (value != null && value.type() != ValueTypeEnum.NULL) {
                     terminal.writer().println(value.inspect());
                 }
@@ -93,4 +127,99 @@ public class Repl {
         }
     }
 
+    /**
+     * run the script mapped from file or read from stdin, each top level statement runs as soon as it is parsed,
+     * while a thread of parser reads and parses the rest, like the lines of repl.
+     * the bodies of the functions are parsed by the thread of parser, the macro expansion, the optimizer and
+     * the resolver run on a body when it is called first, a script usually defines more functions than it calls.
+     * the statements before a syntax error run, a macro is defined before the statements using it,
+     * a return statement out of functions ends the script, even nested in if or while
+     * @param source
+     * @return false if the script doesn't parse or compile, or a statement is evaluated to error
+     */
+    public boolean runScript(Source source) {
+        return runScript(source, true);
+    }
+
+    /**
+     * @param source
+     * @param lazyFunctions false to parse and compile the bodies of the functions with their statements,
+     *                      to compare the startup with the lazy bodies
+     * @return
+     */
+    public boolean runScript(Source source, boolean lazyFunctions) {
+        try (StatementQueue queue = new StatementQueue(source, lazyFunctions)) {
+            StatementNode statement;
+            while ((statement = queue.take()) != null) {
+                ProgramNode program = new ProgramNode();
+                program.getStatements().add(statement);
+                ValueObject value = execute(program);
+                if (value != null && value.type() == ValueTypeEnum.ERROR) {
+                    System.out.println(value.inspect());
+                    return false;
+                }
+                if (value != null && value.type() == ValueTypeEnum.RETURN) {
+                    return true;
+                }
+            }
+
+            if (queue.getErrors().size() > 0) {
+                System.out.println(queue.getErrors().stream().collect(Collectors.joining("\n")));
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * expand the macros, optimize the program and run it in the mode
+     * @param program
+     * @return value of the program, the return object if a return statement out of functions ran,
+     * the error of the errors if it doesn't compile
+     */
+    private ValueObject execute(ProgramNode program) {
+        // 3. evaluate macro
+        Evaluator evaluator = new Evaluator();
+        // define macro in macroEnv
+        evaluator.defineMacros(program, macroEnv);
+        TreeNode expanded = evaluator.expandMacro(program, macroEnv);
+        // fold the constants and remove the dead code, macros generate a lot
+        expanded = new Optimizer().optimize((ProgramNode) expanded);
+
+        // 4. evaluate the ast;
+        if (mode == ExecutionModeEnum.VM) {
+            Compiler compiler = new Compiler(symbolTable);
+            Bytecode bytecode = compiler.compile((ProgramNode) expanded);
+            if (compiler.getErrors().size() > 0) {
+                return new ErrorObject(compiler.getErrors().stream().collect(Collectors.joining("\n")));
+            }
+            Vm vm = new Vm(bytecode, globals, symbolTable.getGlobalNames());
+            return returnOf(vm.run(), vm.isReturned());
+        } else if (mode == ExecutionModeEnum.NODE) {
+            new Resolver().resolve(expanded);
+            ProgramExecNode node = new NodeCompiler().compile((ProgramNode) expanded);
+            return returnOf(node.execute(env), node.isReturned());
+        } else if (mode == ExecutionModeEnum.STACKLESS) {
+            new Resolver().resolve(expanded);
+            StacklessEvaluator stackless = new StacklessEvaluator();
+            return returnOf(stackless.eval(expanded, env), stackless.isReturned());
+        } else if (mode == ExecutionModeEnum.JIT) {
+            evaluator.setJit(jit);
+        }
+        // resolve the variables to slots of frame
+        new Resolver().resolve(expanded);
+        return returnOf(evaluator.eval(expanded, env), evaluator.isReturned());
+    }
+
+    /**
+     * the engines return the value returned by a return statement out of functions,
+     * wrap it so that runScript knows the script ends
+     * @param value
+     * @param returned
+     * @return
+     */
+    private static ValueObject returnOf(ValueObject value, boolean returned) {
+        return returned ? new ReturnObject(value) : value;
+    }
+
 }
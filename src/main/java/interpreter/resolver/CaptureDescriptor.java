@@ -0,0 +1,61 @@
+package interpreter.resolver;
+
+import interpreter.ast.IdentifierNode;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * variables of the enclosing functions referenced by a function, the closure keeps only them instead of
+ * the frames of the enclosing functions. each captured variable takes a slot in the environment of the closure,
+ * a boxed slot shares the cell of the variable, the other slots hold a copy of the value.
+ */
+@Getter
+public class CaptureDescriptor implements Serializable {
+
+    /**
+     * layout of the environment of the closure
+     */
+    private final FrameDescriptor layout = new FrameDescriptor();
+
+    /**
+     * where the captured variables are read when the closure is created, (depth, slot) relative to the
+     * environment creating the closure: 0 for its frame, 1 for the captured variables of its function
+     */
+    private final List<IdentifierNode> sources = new ArrayList<>();
+
+    /**
+     * @param name
+     * @return slot of the captured variable, -1 if the variable is not captured
+     */
+    public int slotOf(String name) {
+        return layout.slotOf(name);
+    }
+
+    /**
+     * capture the variable, return the existing slot if it's already captured
+     * @param name
+     * @param source
+     * @param boxed
+     * @return
+     */
+    public int capture(String name, IdentifierNode source, boolean boxed) {
+        int slot = layout.slotOf(name);
+        if (slot >= 0) {
+            return slot;
+        }
+
+        slot = layout.addSlot(name);
+        sources.add(source);
+        if (boxed) {
+            layout.box(slot);
+        }
+        return slot;
+    }
+
+    public int size() {
+        return layout.size();
+    }
+}
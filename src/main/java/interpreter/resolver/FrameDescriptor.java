@@ -0,0 +1,81 @@
+package interpreter.resolver;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * layout of the frame of a function: the variables declared in the function and their slots,
+ * parameters take the first slots. a variable captured by closures and rebound after the frame is created
+ * is boxed, the slot holds a cell shared with the closures.
+ */
+@Getter
+public class FrameDescriptor implements Serializable {
+
+    private final List<String> names = new ArrayList<>();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private final BitSet boxed = new BitSet();
+
+    /**
+     * variables of the enclosing functions referenced by the function, null if it references none
+     */
+    private CaptureDescriptor captures;
+
+    /**
+     * add the variable to the frame, return the existing slot if it's already added
+     * @param name
+     * @return
+     */
+    public int addSlot(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+
+        names.add(name);
+        slots.put(name, names.size() - 1);
+        return names.size() - 1;
+    }
+
+    /**
+     * @param name
+     * @return slot of the variable, -1 if the variable is not declared in the function
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public void box(int slot) {
+        boxed.set(slot);
+    }
+
+    public boolean isBoxed(int slot) {
+        return boxed.get(slot);
+    }
+
+    public boolean hasBoxed() {
+        return !boxed.isEmpty();
+    }
+
+    /**
+     * @return the captures of the function, created on first capture
+     */
+    public CaptureDescriptor captures() {
+        if (captures == null) {
+            captures = new CaptureDescriptor();
+        }
+        return captures;
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,265 @@
+package interpreter.resolver;
+
+import interpreter.ast.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * static resolver, runs on the program after the macros are expanded.
+ * every function gets a frame descriptor with a slot for each variable declared in it,
+ * every identifier is annotated with (depth, slot), so that evaluator reads and writes the variable by index
+ * instead of looking up the name in the chain of environments.
+ * the variables declared outside of functions are global, they are looked up by name, because the later lines
+ * of repl may define them.
+ * a function referencing the variables of enclosing functions captures them: the closure keeps an environment
+ * with only these variables instead of the frames of the enclosing functions, so the frame of a function is
+ * followed by the captured variables (depth 1) if there are any, then by the globals.
+ */
+public class Resolver {
+
+    /**
+     * the enclosing functions, the innermost is the last
+     */
+    private final List<Scope> scopes = new ArrayList<>();
+
+    private static class Scope {
+
+        private final FrameDescriptor frame;
+
+        /**
+         * variables bound by let, fn statement and assignment in the body, the other parameters are
+         * never rebound after the frame is created, so the closures copy them instead of sharing a cell
+         */
+        private final Set<String> declared;
+
+        /**
+         * references of the globals, their depth is known after all the captures of the function are known
+         */
+        private final List<IdentifierNode> globals = new ArrayList<>();
+
+        private Scope(FrameDescriptor frame, Set<String> declared) {
+            this.frame = frame;
+            this.declared = declared;
+        }
+    }
+
+    public void resolve(TreeNode node) {
+        if (node == null) {
+            return;
+        }
+
+        if (node instanceof IdentifierNode) {
+            resolveIdentifier((IdentifierNode) node, true);
+        } else if (node instanceof FunctionLiteralNode) {
+            FunctionLiteralNode function = (FunctionLiteralNode) node;
+            function.setFrameDescriptor(resolveFunction(function.getParameters(), function.getBody()));
+        } else if (node instanceof FunctionStatementNode) {
+            FunctionStatementNode function = (FunctionStatementNode) node;
+            resolveIdentifier(function.getFuncName(), false);
+            function.setFrameDescriptor(resolveFunction(function.getParameters(), function.getBody()));
+        } else if (node instanceof LetStatementNode) {
+            resolveIdentifier(((LetStatementNode) node).getName(), false);
+            resolve(((LetStatementNode) node).getValue());
+        } else if (node instanceof AssignExpressionNode) {
+            // the variable is looked up before assigned
+            resolveIdentifier(((AssignExpressionNode) node).getName(), true);
+            resolve(((AssignExpressionNode) node).getValue());
+        } else {
+            for (TreeNode child : TreeNodes.children(node)) {
+                resolve(child);
+            }
+        }
+    }
+
+    /**
+     * the lazy body of top level function is resolved when it is parsed, it captures nothing,
+     * so the slots are added to the frame later. the lazy body of nested function is parsed now,
+     * because the enclosing functions need to know what it captures.
+     * @param parameters
+     * @param body
+     * @return
+     */
+    private FrameDescriptor resolveFunction(List<IdentifierNode> parameters, BlockStatement body) {
+        FrameDescriptor frame = new FrameDescriptor();
+        if (body.isLazy()) {
+            if (scopes.isEmpty()) {
+                body.defer(block -> new Resolver().resolveFunction(frame, parameters, block));
+                return frame;
+            }
+            body.materialize();
+        }
+
+        resolveFunction(frame, parameters, body);
+        return frame;
+    }
+
+    /**
+     * parameters take the first slots, then the variables bound by let, fn statement and assignment in the body
+     * @param frame
+     * @param parameters
+     * @param body
+     */
+    private void resolveFunction(FrameDescriptor frame, List<IdentifierNode> parameters, BlockStatement body) {
+        for (IdentifierNode parameter : parameters) {
+            frame.addSlot(parameter.getValue());
+        }
+        Set<String> declared = new LinkedHashSet<>();
+        TreeNodes.collectDeclarations(body, declared);
+        for (String name : declared) {
+            frame.addSlot(name);
+        }
+
+        Scope scope = new Scope(frame, declared);
+        scopes.add(scope);
+        for (IdentifierNode parameter : parameters) {
+            resolveIdentifier(parameter, false);
+        }
+        resolve(body);
+        scopes.remove(scopes.size() - 1);
+
+        // the frame is followed by the captured variables if there are any
+        int globalDepth = frame.getCaptures() == null ? 1 : 2;
+        for (IdentifierNode global : scope.globals) {
+            global.setDepth(globalDepth);
+        }
+
+        markReturnedCalls(body);
+        markLastCall(body);
+    }
+
+    /**
+     * the call returned by return statement is a tail call, if the return leaves the function:
+     * the statement is in the body, or in the if and while statements nested in it.
+     * the return in an if or while used as value, e.g. the value of let, only ends that expression
+     * @param block
+     */
+    private void markReturnedCalls(BlockStatement block) {
+        if (block == null) {
+            return;
+        }
+
+        for (StatementNode statement : block.getStatements()) {
+            if (statement instanceof ReturnStatementNode) {
+                markTailCall(((ReturnStatementNode) statement).getValue());
+            } else if (statement instanceof ExpressionStatementNode) {
+                ExpressionNode expression = ((ExpressionStatementNode) statement).getExpression();
+                if (expression instanceof IfExpressionNode) {
+                    markReturnedCalls(((IfExpressionNode) expression).getConsequence());
+                    markReturnedCalls(((IfExpressionNode) expression).getAlternative());
+                } else if (expression instanceof WhileExpressionNode) {
+                    markReturnedCalls(((WhileExpressionNode) expression).getBody());
+                }
+            }
+        }
+    }
+
+    /**
+     * the value of the last expression is the value of the block, through the branches of if
+     * @param block
+     */
+    private void markLastCall(BlockStatement block) {
+        if (block == null || block.getStatements().isEmpty()) {
+            return;
+        }
+
+        StatementNode last = block.getStatements().get(block.getStatements().size() - 1);
+        if (!(last instanceof ExpressionStatementNode)) {
+            return;
+        }
+
+        ExpressionNode expression = ((ExpressionStatementNode) last).getExpression();
+        if (expression instanceof IfExpressionNode) {
+            markLastCall(((IfExpressionNode) expression).getConsequence());
+            markLastCall(((IfExpressionNode) expression).getAlternative());
+        } else {
+            markTailCall(expression);
+        }
+    }
+
+    private void markTailCall(ExpressionNode node) {
+        if (node instanceof CallExpressionNode && !((CallExpressionNode) node).isQuote()) {
+            ((CallExpressionNode) node).setTail(true);
+        }
+    }
+
+    /**
+     * find the innermost function declaring the variable, capture it if it's declared in an enclosing function
+     * @param node
+     * @param read the variable is read, not only bound
+     */
+    private void resolveIdentifier(IdentifierNode node, boolean read) {
+        if (node == null) {
+            return;
+        }
+
+        String name = node.getValue();
+        if (scopes.isEmpty()) {
+            node.setDepth(0);
+            node.setSlot(-1);
+            return;
+        }
+
+        int innermost = scopes.size() - 1;
+        Scope scope = scopes.get(innermost);
+        int slot = scope.frame.slotOf(name);
+        if (slot >= 0) {
+            node.setDepth(0);
+            node.setSlot(slot);
+            // read before bound, the variable of enclosing function with the same name is visible
+            if (read && scope.declared.contains(name)) {
+                capture(innermost, name);
+            }
+            return;
+        }
+
+        slot = capture(innermost, name);
+        if (slot >= 0) {
+            node.setDepth(1);
+            node.setSlot(slot);
+        } else {
+            node.setSlot(-1);
+            scope.globals.add(node);
+        }
+    }
+
+    /**
+     * capture the variable declared in an enclosing function, the functions in between capture it too
+     * @param index index of the capturing function in scopes
+     * @param name
+     * @return slot of the captured variable, -1 if the variable is global
+     */
+    private int capture(int index, String name) {
+        Scope scope = scopes.get(index);
+        CaptureDescriptor captures = scope.frame.getCaptures();
+        if (captures != null && captures.slotOf(name) >= 0) {
+            return captures.slotOf(name);
+        }
+        if (index == 0) {
+            return -1;
+        }
+
+        Scope outer = scopes.get(index - 1);
+        IdentifierNode source = new IdentifierNode(null, name);
+        boolean boxed;
+        int slot = outer.frame.slotOf(name);
+        if (slot >= 0) {
+            source.setDepth(0);
+            boxed = outer.declared.contains(name);
+            if (boxed) {
+                outer.frame.box(slot);
+            }
+        } else {
+            slot = capture(index - 1, name);
+            if (slot < 0) {
+                return -1;
+            }
+            source.setDepth(1);
+            boxed = outer.frame.getCaptures().getLayout().isBoxed(slot);
+        }
+        source.setSlot(slot);
+        return scope.frame.captures().capture(name, source, boxed);
+    }
+}
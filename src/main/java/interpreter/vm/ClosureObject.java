@@ -0,0 +1,30 @@
+package interpreter.vm;
+
+import interpreter.compiler.CompiledFunctionObject;
+import interpreter.object.Cell;
+import interpreter.object.ValueObject;
+import interpreter.object.ValueTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * compiled function with the variables captured from the enclosing functions
+ */
+@Data
+@AllArgsConstructor
+public class ClosureObject implements ValueObject {
+
+    private CompiledFunctionObject function;
+
+    private Cell[] free;
+
+    @Override
+    public ValueTypeEnum type() {
+        return ValueTypeEnum.FUNCTION;
+    }
+
+    @Override
+    public String inspect() {
+        return function.inspect();
+    }
+}
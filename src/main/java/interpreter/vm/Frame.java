@@ -0,0 +1,41 @@
+package interpreter.vm;
+
+import interpreter.object.Cell;
+import lombok.Data;
+
+/**
+ * call frame of a closure, the locals live in the stack of the vm, starting from the base pointer
+ */
+@Data
+public class Frame {
+
+    private ClosureObject closure;
+
+    private byte[] instructions;
+
+    /**
+     * position of the next instruction
+     */
+    private int ip;
+
+    /**
+     * position of the first local in the stack
+     */
+    private int basePointer;
+
+    /**
+     * captured locals of the function
+     */
+    private Cell[] cells;
+
+    public Frame(ClosureObject closure, int basePointer) {
+        this.closure = closure;
+        this.instructions = closure.getFunction().getInstructions();
+        this.basePointer = basePointer;
+        int numCells = closure.getFunction().getNumCells();
+        this.cells = numCells == 0 ? null : new Cell[numCells];
+        for (int i = 0; i < numCells; i++) {
+            cells[i] = new Cell();
+        }
+    }
+}
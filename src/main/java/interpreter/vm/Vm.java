@@ -0,0 +1,359 @@
+package interpreter.vm;
+
+import interpreter.builtin.BuiltinFunctionEnum;
+import interpreter.collection.PersistentVector;
+import interpreter.compiler.Bytecode;
+import interpreter.compiler.CompiledFunctionObject;
+import interpreter.compiler.OpcodeEnum;
+import interpreter.eval.Operations;
+import interpreter.object.*;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * stack based virtual machine, run the bytecode generated by compiler.
+ * the calls of monkey functions don't consume the stack of java, every call pushes a frame.
+ */
+public class Vm {
+
+    public static final int GLOBALS_SIZE = 0x10000;
+
+    public static final int MAX_FRAMES = 0x10000;
+
+    private final ValueObject[] globals;
+
+    private final List<String> globalNames;
+
+    private ValueObject[] stack = new ValueObject[1024];
+
+    /**
+     * stack pointer, stack[sp-1] is the top of the stack
+     */
+    private int sp;
+
+    private Frame[] frames = new Frame[64];
+
+    private int framesIndex;
+
+    /**
+     * true if the program was stopped by a return statement out of functions,
+     * the value of the program is the value returned
+     */
+    @Getter
+    private boolean returned;
+
+    /**
+     * @param bytecode
+     * @param globals values of global variables, shared across the runs of a repl session
+     * @param globalNames names of global variables in the order of index
+     */
+    public Vm(Bytecode bytecode, ValueObject[] globals, List<String> globalNames) {
+        this.globals = globals;
+        this.globalNames = globalNames;
+
+        CompiledFunctionObject main = new CompiledFunctionObject(bytecode.getInstructions(), 0, 0, 0, new int[0], "main",
+                bytecode.getConstants());
+        pushFrame(new Frame(new ClosureObject(main, new Cell[0]), 0));
+    }
+
+    /**
+     * run the program until the main function returns
+     * @return value of the program, the value of a return statement at top level,
+     * or the error which stopped the program
+     */
+    public ValueObject run() {
+        Frame frame = frames[framesIndex - 1];
+        byte[] code = frame.getInstructions();
+        ValueObject[] constants = frame.getClosure().getFunction().getConstants();
+        int ip = frame.getIp();
+        int bp = frame.getBasePointer();
+
+        while (true) {
+            OpcodeEnum opcode = OpcodeEnum.of(code[ip++]);
+            switch (opcode) {
+                case CONSTANT:
+                    push(constants[readU16(code, ip)]);
+                    ip += 2;
+                    break;
+                case POP:
+                    sp--;
+                    break;
+                case NULL:
+                    push(NullObject.getNullObject());
+                    break;
+                case TRUE:
+                    push(BooleanObject.getBooleanObject(true));
+                    break;
+                case FALSE:
+                    push(BooleanObject.getBooleanObject(false));
+                    break;
+                case ADD:
+                case SUB:
+                case MUL:
+                case DIV:
+                case LT:
+                case LE:
+                case GT:
+                case GE:
+                case EQ:
+                case NOT_EQ:
+                case AND:
+                case OR: {
+                    ValueObject right = stack[--sp];
+                    ValueObject left = stack[--sp];
+                    ValueObject res = Operations.binary(opcode.getOperator(), left, right);
+                    if (res.type() == ValueTypeEnum.ERROR) {
+                        return res;
+                    }
+                    push(res);
+                    break;
+                }
+                case BANG:
+                case MINUS: {
+                    ValueObject res = Operations.unary(opcode.getOperator(), stack[--sp]);
+                    if (res.type() == ValueTypeEnum.ERROR) {
+                        return res;
+                    }
+                    push(res);
+                    break;
+                }
+                case JUMP:
+                    ip = readU16(code, ip);
+                    break;
+                case JUMP_IF_FALSE:
+                    if (Operations.isTrue(stack[--sp])) {
+                        ip += 2;
+                    } else {
+                        ip = readU16(code, ip);
+                    }
+                    break;
+                case AND_JUMP:
+                case OR_JUMP:
+                    if (Operations.isShortCircuit(opcode.getOperator(), stack[sp - 1])) {
+                        ip = readU16(code, ip);
+                    } else {
+                        ip += 2;
+                    }
+                    break;
+                case GET_GLOBAL: {
+                    int index = readU16(code, ip);
+                    ip += 2;
+                    ValueObject value = globals[index];
+                    if (value == null) {
+                        value = BuiltinFunctionEnum.getBuiltinFunctionOf(globalNames.get(index));
+                    }
+                    if (value == null) {
+                        return new ErrorObject(String.format("identifier not found: %s", globalNames.get(index)));
+                    }
+                    push(value);
+                    break;
+                }
+                case ASSERT_GLOBAL: {
+                    int index = readU16(code, ip);
+                    ip += 2;
+                    if (globals[index] == null) {
+                        return new ErrorObject(String.format("variable %s not found!", globalNames.get(index)));
+                    }
+                    push(globals[index]);
+                    break;
+                }
+                case SET_GLOBAL:
+                    globals[readU16(code, ip)] = stack[--sp];
+                    ip += 2;
+                    break;
+                case GET_LOCAL: {
+                    ValueObject value = stack[bp + readU16(code, ip)];
+                    if (value != null) {
+                        push(value);
+                        ip = readU16(code, ip + 2);
+                    } else {
+                        ip += 4;
+                    }
+                    break;
+                }
+                case SET_LOCAL:
+                    stack[bp + readU16(code, ip)] = stack[--sp];
+                    ip += 2;
+                    break;
+                case GET_CELL: {
+                    ValueObject value = frame.getCells()[readU16(code, ip)].getValue();
+                    if (value != null) {
+                        push(value);
+                        ip = readU16(code, ip + 2);
+                    } else {
+                        ip += 4;
+                    }
+                    break;
+                }
+                case SET_CELL:
+                    frame.getCells()[readU16(code, ip)].setValue(stack[--sp]);
+                    ip += 2;
+                    break;
+                case GET_FREE: {
+                    ValueObject value = frame.getClosure().getFree()[readU16(code, ip)].getValue();
+                    if (value != null) {
+                        push(value);
+                        ip = readU16(code, ip + 2);
+                    } else {
+                        ip += 4;
+                    }
+                    break;
+                }
+                case ARRAY: {
+                    int count = readU16(code, ip);
+                    ip += 2;
+                    PersistentVector<ValueObject> elements = PersistentVector.empty();
+                    for (int i = sp - count; i < sp; i++) {
+                        elements = elements.plus(stack[i]);
+                    }
+                    sp -= count;
+                    push(new ArrayObject(elements));
+                    break;
+                }
+                case MAP: {
+                    int count = readU16(code, ip);
+                    ip += 2;
+                    MapObject map = new MapObject();
+                    for (int i = sp - count; i < sp; i += 2) {
+                        map = map.put(stack[i], stack[i + 1]);
+                    }
+                    sp -= count;
+                    push(map);
+                    break;
+                }
+                case INDEX: {
+                    ValueObject index = stack[--sp];
+                    ValueObject object = stack[--sp];
+                    ValueObject res = Operations.index(object, index);
+                    if (res == null) {
+                        res = NullObject.getNullObject();
+                    } else if (res.type() == ValueTypeEnum.ERROR) {
+                        return res;
+                    }
+                    push(res);
+                    break;
+                }
+                case CALL: {
+                    int argc = code[ip++] & 0xFF;
+                    ValueObject callee = stack[sp - 1 - argc];
+                    if (callee instanceof ClosureObject) {
+                        ClosureObject closure = (ClosureObject) callee;
+                        CompiledFunctionObject function = closure.getFunction();
+                        if (argc < function.getNumParameters()) {
+                            return new ErrorObject(String.format("wrong number of arguments: want=%d, got=%d",
+                                    function.getNumParameters(), argc));
+                        }
+                        if (framesIndex == MAX_FRAMES) {
+                            return new ErrorObject("stack overflow");
+                        }
+
+                        // the extra arguments are ignored
+                        sp -= argc - function.getNumParameters();
+                        frame.setIp(ip);
+                        frame = new Frame(closure, sp - function.getNumParameters());
+                        pushFrame(frame);
+                        code = frame.getInstructions();
+                        constants = function.getConstants();
+                        ip = 0;
+                        bp = frame.getBasePointer();
+
+                        int top = bp + function.getNumLocals();
+                        ensureStack(top);
+                        Arrays.fill(stack, sp, top, null);
+                        sp = top;
+                        int[] parameterCells = function.getParameterCells();
+                        for (int i = 0; i < parameterCells.length; i++) {
+                            if (parameterCells[i] >= 0) {
+                                frame.getCells()[parameterCells[i]].setValue(stack[bp + i]);
+                            }
+                        }
+                    } else if (callee instanceof BuiltinFunctionObject) {
+                        ValueObject res = ((BuiltinFunctionObject) callee).getFunction().invoke(stack, sp - argc, argc);
+                        sp -= argc + 1;
+                        if (res == null) {
+                            res = NullObject.getNullObject();
+                        } else if (res.type() == ValueTypeEnum.ERROR) {
+                            return res;
+                        }
+                        push(res);
+                    } else {
+                        return new ErrorObject(String.format("not a function: %s", callee.type()));
+                    }
+                    break;
+                }
+                case RETURN_VALUE: {
+                    ValueObject res = stack[--sp];
+                    framesIndex--;
+                    if (framesIndex == 0) {
+                        // the last instruction of main ends the program, the others are return statements
+                        if (res.type() == ValueTypeEnum.RETURN) {
+                            res = ((ReturnObject) res).getValue();
+                            returned = true;
+                        }
+                        returned |= ip != code.length;
+                        return res;
+                    }
+
+                    // the function returns the value of the return object it ends with, as the evaluator does
+                    if (res.type() == ValueTypeEnum.RETURN) {
+                        res = ((ReturnObject) res).getValue();
+                    }
+                    sp = bp - 1;
+                    frame = frames[framesIndex - 1];
+                    code = frame.getInstructions();
+                    constants = frame.getClosure().getFunction().getConstants();
+                    ip = frame.getIp();
+                    bp = frame.getBasePointer();
+                    push(res);
+                    break;
+                }
+                case RETURN_OBJECT:
+                    stack[sp - 1] = new ReturnObject(stack[sp - 1]);
+                    break;
+                case CLOSURE: {
+                    CompiledFunctionObject function = (CompiledFunctionObject) constants[readU16(code, ip)];
+                    int numFree = code[ip + 2] & 0xFF;
+                    ip += 3;
+                    Cell[] free = new Cell[numFree];
+                    for (int i = 0; i < numFree; i++) {
+                        boolean isCell = code[ip] == 1;
+                        int index = readU16(code, ip + 1);
+                        ip += 3;
+                        free[i] = isCell ? frame.getCells()[index] : frame.getClosure().getFree()[index];
+                    }
+                    push(new ClosureObject(function, free));
+                    break;
+                }
+                default:
+                    return new ErrorObject(String.format("unknown opcode: %s", opcode));
+            }
+        }
+    }
+
+    private void push(ValueObject value) {
+        if (sp == stack.length) {
+            ensureStack(sp + 1);
+        }
+        stack[sp++] = value;
+    }
+
+    private void ensureStack(int capacity) {
+        if (capacity > stack.length) {
+            stack = Arrays.copyOf(stack, Math.max(capacity, stack.length * 2));
+        }
+    }
+
+    private void pushFrame(Frame frame) {
+        if (framesIndex == frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+        }
+        frames[framesIndex++] = frame;
+    }
+
+    private static int readU16(byte[] code, int position) {
+        return ((code[position] & 0xFF) << 8) | (code[position + 1] & 0xFF);
+    }
+}
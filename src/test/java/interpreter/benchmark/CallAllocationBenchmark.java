@@ -0,0 +1,63 @@
+package interpreter.benchmark;
+
+import interpreter.ast.ProgramNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.lexer.Lexer;
+import interpreter.object.ValueObject;
+import interpreter.parser.Parser;
+import interpreter.resolver.Resolver;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * allocation rate of the calls of monkey functions: run the recursive fib in the evaluator,
+ * report the bytes allocated by the thread per call. the frame of the call and the integers greater than
+ * the cache are allocated, the arguments and the return are not.
+ * usage: java -cp target/monkey-lang.jar:target/test-classes interpreter.benchmark.CallAllocationBenchmark [n] [rounds]
+ */
+public class CallAllocationBenchmark {
+
+    private static final String FIB = "let fib = fn(n) { if (n < 2) { return n; } fib(n - 1) + fib(n - 2) }; fib(%d)";
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 25;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            System.out.println("allocated memory of thread is not supported by the jvm");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long thread = Thread.currentThread().getId();
+
+        // fib(n) makes 2 * fib(n + 1) - 1 calls
+        long calls = 2 * fib(n + 1) - 1;
+        for (int round = 1; round <= rounds; round++) {
+            ProgramNode program = new Parser(new Lexer(String.format(FIB, n))).parseProgram();
+            new Resolver().resolve(program);
+
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            ValueObject res = new Evaluator().eval(program, new Environment());
+            long millis = (System.nanoTime() - start) / 1000000;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+            System.out.println(String.format("round %d: fib(%d) = %s, %d calls, %d ms, %.1f MB allocated, %.1f bytes/call",
+                    round, n, res.inspect(), calls, millis, bytes / 1048576.0, (double) bytes / calls));
+        }
+    }
+
+    private static long fib(int n) {
+        long a = 0;
+        long b = 1;
+        for (int i = 0; i < n; i++) {
+            long c = a + b;
+            a = b;
+            b = c;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,90 @@
+package interpreter.benchmark;
+
+import interpreter.ast.ProgramNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+import interpreter.object.ValueObject;
+import interpreter.parser.Parser;
+import interpreter.parser.StatementQueue;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Repl;
+import interpreter.resolver.Resolver;
+
+/**
+ * startup of a library of many functions of which few are called: parse, resolve and run the library
+ * with the bodies parsed eagerly, and with the bodies parsed on the first call.
+ * then the library runs as a script, whose thread of parser checks each lazy body before its statement runs:
+ * the time to take the statements from the queue, and the time to run the script.
+ * usage: java -cp target/monkey-lang.jar:target/test-classes interpreter.benchmark.LazyParseBenchmark [functions] [rounds]
+ */
+public class LazyParseBenchmark {
+
+    private static final String FUNCTION = "fn rule%d(x) {\n"
+            + "    let limits = [%d, 2 * %d, {\"low\": 1, \"high\": 100}];\n"
+            + "    let i = 0;\n"
+            + "    let s = 0;\n"
+            + "    while (i < x) {\n"
+            + "        if (i < limits[0] and s < limits[2][\"high\"]) { s = s + i * 2; } else { s = s - 1; }\n"
+            + "        i = i + 1;\n"
+            + "    }\n"
+            + "    let check = fn(v) { v > limits[1] or v == 0 };\n"
+            + "    if (check(s)) { return s; }\n"
+            + "    s + len(\"rule%d\")\n"
+            + "}\n";
+
+    public static void main(String[] args) {
+        int functions = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // the library, then the calls of 1% of the functions
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < functions; i++) {
+            source.append(String.format(FUNCTION, i, i, i, i));
+        }
+        source.append("let total = 0;\n");
+        for (int i = 0; i < functions; i += 100) {
+            source.append(String.format("total = total + rule%d(10);\n", i));
+        }
+        String input = source + "total";
+        String script = source + "print(total);";
+
+        System.out.println(String.format("%d functions, %.1f KB of source", functions, input.length() / 1024.0));
+        for (int round = 1; round <= rounds; round++) {
+            for (boolean lazy : new boolean[]{false, true}) {
+                long start = System.nanoTime();
+                Parser parser = new Parser(new Lexer(input), lazy);
+                ProgramNode program = parser.parseProgram();
+                long parsed = System.nanoTime();
+                if (!parser.getErrors().isEmpty()) {
+                    System.out.println(String.join("\n", parser.getErrors()));
+                    return;
+                }
+                new Resolver().resolve(program);
+                ValueObject res = new Evaluator().eval(program, new Environment());
+                long finished = System.nanoTime();
+
+                System.out.println(String.format("round %d %-5s: parse %d ms, resolve and run %d ms, total %d ms, result %s",
+                        round, lazy ? "lazy" : "eager", (parsed - start) / 1000000, (finished - parsed) / 1000000,
+                        (finished - start) / 1000000, res.inspect()));
+            }
+            for (boolean lazy : new boolean[]{false, true}) {
+                long start = System.nanoTime();
+                int statements = 0;
+                try (StatementQueue queue = new StatementQueue(Source.of(script), lazy)) {
+                    while (queue.take() != null) {
+                        statements++;
+                    }
+                }
+                long parsed = System.nanoTime();
+                new Repl(ExecutionModeEnum.EVAL).runScript(Source.of(script), lazy);
+                long finished = System.nanoTime();
+
+                System.out.println(String.format("round %d %-5s: queue of %d statements %d ms, script %d ms",
+                        round, lazy ? "lazy" : "eager", statements, (parsed - start) / 1000000,
+                        (finished - parsed) / 1000000));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package interpreter.benchmark;
+
+import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+import interpreter.lexer.Token;
+import interpreter.lexer.TokenStream;
+import interpreter.lexer.TokenTypeEnum;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * throughput of the lexer: scan a generated script of several megabytes to the end, report MB/s and tokens/s,
+ * once creating the token objects one by one, once scanning into a token stream,
+ * once scanning the script mapped from a temporary file without creating the tokens.
+ * the bytes allocated by the thread are reported if the jvm supports it. the script is ascii, one character is one byte.
+ * usage: java -cp target/monkey-lang.jar:target/test-classes interpreter.benchmark.LexerBenchmark [megabytes] [rounds]
+ */
+public class LexerBenchmark {
+
+    private static final String FUNCTION = "fn rule%d(order, limit) {\n"
+            + "    let items = [%d, \"item %d\", {\"price\": 100, \"count\": 2}];\n"
+            + "    let total = 0;\n"
+            + "    while (total <= limit and len(items) != 0) {\n"
+            + "        if (order[\"vip\"] == true or total >= 1000) { total = total + items[0] * 2; } else { total = total - 1; }\n"
+            + "    }\n"
+            + "    return !(total < limit) / 3;\n"
+            + "}\n\n";
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; source.length() < megabytes * 1048576; i++) {
+            source.append(String.format(FUNCTION, i, i, i));
+        }
+        String input = source.toString();
+        double size = input.length() / 1048576.0;
+        Path file = Files.createTempFile("monkey-lexer", ".mk");
+        file.toFile().deleteOnExit();
+        Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+
+        for (int round = 1; round <= rounds; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            Lexer lexer = new Lexer(input);
+            long tokens = 0;
+            for (Token token = lexer.nextToken(); token.getType() != TokenTypeEnum.EOF; token = lexer.nextToken()) {
+                tokens++;
+            }
+            long nanos = System.nanoTime() - start;
+            bytes = allocatedBytes() - bytes;
+            System.out.println(String.format("round %d tokens: %.1f MB, %d tokens, %d lines, %d ms, %.1f MB/s, %.1f M tokens/s%s",
+                    round, size, tokens, lexer.getLine(), nanos / 1000000, size / (nanos / 1e9), tokens / 1e6 / (nanos / 1e9),
+                    bytes < 0 ? "" : String.format(", %.1f MB allocated", bytes / 1048576.0)));
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            TokenStream stream = TokenStream.of(input);
+            nanos = System.nanoTime() - start;
+            bytes = allocatedBytes() - bytes;
+            System.out.println(String.format("round %d stream: %.1f MB, %d tokens, %d ms, %.1f MB/s, %.1f M tokens/s%s",
+                    round, size, stream.size(), nanos / 1000000, size / (nanos / 1e9), stream.size() / 1e6 / (nanos / 1e9),
+                    bytes < 0 ? "" : String.format(", %.1f MB allocated", bytes / 1048576.0)));
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            lexer = new Lexer(Source.map(file));
+            tokens = 0;
+            while (lexer.scan() != TokenTypeEnum.EOF) {
+                tokens++;
+            }
+            nanos = System.nanoTime() - start;
+            bytes = allocatedBytes() - bytes;
+            System.out.println(String.format("round %d mapped: %.1f MB, %d tokens, %d ms, %.1f MB/s, %.1f M tokens/s%s",
+                    round, size, tokens, nanos / 1000000, size / (nanos / 1e9), tokens / 1e6 / (nanos / 1e9),
+                    bytes < 0 ? "" : String.format(", %.1f MB allocated", bytes / 1048576.0)));
+        }
+    }
+
+    /**
+     * @return bytes allocated by current thread, -1 if the jvm doesn't support it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
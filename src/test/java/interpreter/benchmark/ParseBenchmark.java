@@ -0,0 +1,87 @@
+package interpreter.benchmark;
+
+import interpreter.lexer.Lexer;
+import interpreter.lexer.TokenStream;
+import interpreter.parser.Parser;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * throughput of the parser: parse a generated corpus of many short programs, report statements/s,
+ * once creating a parser per program like the lines of repl, once resetting one parser onto each program,
+ * and once parsing the whole corpus from the tokens scanned in advance, which leaves the lexer out.
+ * usage: java -cp target/monkey-lang.jar:target/test-classes interpreter.benchmark.ParseBenchmark [programs] [rounds]
+ */
+public class ParseBenchmark {
+
+    private static final String[] PROGRAMS = {
+            "let x%d = %d * (y + 2) - z / 4;",
+            "fn f%d(a, b) { if (a < b and b != %d) { return a; } else { b } }",
+            "let m%d = {\"k\": [1, 2, %d], \"v\": fn(x) { x + 1 }};",
+            "while (i < %d) { i = i + 1; s = s + arr[i]; }",
+            "print(len(\"item %d\"), first(rest(items)), !done or count >= %d);",
+    };
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<String> programs = new ArrayList<>(count);
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String program = String.format(PROGRAMS[i % PROGRAMS.length], i, i);
+            programs.add(program);
+            corpus.append(program).append('\n');
+        }
+        TokenStream tokens = TokenStream.of(corpus.toString());
+
+        System.out.println(String.format("%d programs, %.1f MB of source, %d tokens",
+                count, corpus.length() / 1048576.0, tokens.size()));
+        for (int round = 1; round <= rounds; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            int statements = 0;
+            for (String program : programs) {
+                statements += new Parser(new Lexer(program)).parseProgram().getStatements().size();
+            }
+            report(round, "new parser", statements, System.nanoTime() - start, allocatedBytes() - bytes, bytes);
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            statements = 0;
+            Parser parser = null;
+            for (String program : programs) {
+                Lexer lexer = new Lexer(program);
+                parser = parser == null ? new Parser(lexer) : parser.reset(lexer, false);
+                statements += parser.parseProgram().getStatements().size();
+            }
+            report(round, "reset parser", statements, System.nanoTime() - start, allocatedBytes() - bytes, bytes);
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            tokens.rewind();
+            statements = new Parser(tokens).parseProgram().getStatements().size();
+            report(round, "token stream", statements, System.nanoTime() - start, allocatedBytes() - bytes, bytes);
+        }
+    }
+
+    private static void report(int round, String name, int statements, long nanos, long bytes, long before) {
+        System.out.println(String.format("round %d %-12s: %d statements, %d ms, %.2f M statements/s%s",
+                round, name, statements, nanos / 1000000, statements / 1e6 / (nanos / 1e9),
+                before < 0 ? "" : String.format(", %.0f bytes/statement", (double) bytes / statements)));
+    }
+
+    /**
+     * @return bytes allocated by current thread, -1 if the jvm doesn't support it
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
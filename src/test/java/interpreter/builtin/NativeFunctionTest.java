@@ -0,0 +1,51 @@
+package interpreter.builtin;
+
+import interpreter.object.IntegerObject;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * the signature declared by the native is checked before the call, the errors are the builtins' messages
+ */
+public class NativeFunctionTest {
+
+    @Test
+    public void builtinErrors() {
+        assertError("first(1)", "argument to first not supported, got INTEGER");
+        assertError("len(1)", "argument to len not supported, got INTEGER");
+        assertError("push(1, 2)", "argument to push must be ARRAY, got INTEGER");
+        assertError("put(1, 2, 3)", "argument to put must be MAP, got INTEGER");
+        assertError("push([1])", "wrong number of arguments, got=1, want=2");
+        assertError("first([1], 2, 3, 4)", "wrong number of arguments, got=4, want=1");
+    }
+
+    @Test
+    public void builtinValues() {
+        String script = "print(len(\"abc\"), len([1, 2]), len({1: 2}), first([7, 8]), push([1], 2), put({}, 1, 2)[1]);";
+        assertInEveryMode(script, "3\n2\n1\n7\n[1,2]\n2\n");
+    }
+
+    @Test
+    public void callNotImplementedIsError() {
+        NativeFunction twice = new NativeFunction("twice", NativeFunction.VARARGS) {
+            @Override
+            protected ValueObject call1(ValueObject a) {
+                return IntegerObject.multiply((IntegerObject) a, IntegerObject.valueOf(2));
+            }
+        };
+
+        assertEquals("6", twice.invoke1(IntegerObject.valueOf(3)).inspect());
+        assertEquals("ERROR: native function twice doesn't accept 2 arguments",
+                twice.invoke2(IntegerObject.valueOf(3), new StringObject("s")).inspect());
+        assertEquals("ERROR: native function twice doesn't accept 5 arguments",
+                twice.invoke(new ValueObject[5], 0, 5).inspect());
+    }
+
+    private static void assertError(String call, String message) {
+        assertInEveryMode("print(" + call + ");", "ERROR: " + message + "\nexit 1\n");
+    }
+}
@@ -0,0 +1,144 @@
+package interpreter.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PersistentHashMapTest {
+
+    /**
+     * key with a chosen hash code, so the keys can collide or share the bits of any level
+     */
+    private static final class Key {
+
+        private final int id;
+
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return id + "#" + hash;
+        }
+    }
+
+    @Test
+    public void insertAndOverwrite() {
+        PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            map = map.plus("k" + i, i);
+            expected.put("k" + i, i);
+        }
+        for (int i = 0; i < 2000; i += 3) {
+            map = map.plus("k" + i, -i);
+            expected.put("k" + i, -i);
+        }
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.size());
+        assertNull(map.get("missing"));
+        assertFalse(map.containsKey("missing"));
+    }
+
+    @Test
+    public void plusSameValueKeepsMap() {
+        Integer one = 1;
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().plus("a", one);
+        assertSame(map, map.plus("a", one));
+    }
+
+    @Test
+    public void hashCollisions() {
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        // ids 0..99 share one hash, the others share the bits of the first levels with it
+        for (int i = 0; i < 300; i++) {
+            Key key = new Key(i, i < 100 ? 42 : 42 | ((i % 4) << 25));
+            map = map.plus(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected, map);
+
+        for (int i = 0; i < 300; i += 7) {
+            Key key = new Key(i, i < 100 ? 42 : 42 | ((i % 4) << 25));
+            map = map.plus(key, -i);
+            expected.put(key, -i);
+        }
+        assertEquals(expected, map);
+
+        assertNull(map.get(new Key(1000, 42)));
+        assertNull(map.get(new Key(1000, 42 | (1 << 25))));
+    }
+
+    @Test
+    public void collisionNodeSplitByKeyOfOtherHash() {
+        Key a = new Key(1, 5);
+        Key b = new Key(2, 5);
+        Key c = new Key(3, 5 | (1 << 5));
+        PersistentHashMap<Key, String> collided = PersistentHashMap.<Key, String>empty().plus(a, "a").plus(b, "b");
+        PersistentHashMap<Key, String> map = collided.plus(c, "c").plus(b, "b2");
+        assertEquals("a", map.get(a));
+        assertEquals("b2", map.get(b));
+        assertEquals("c", map.get(c));
+        assertEquals(3, map.size());
+        assertEquals("b", collided.get(b));
+        assertNull(collided.get(c));
+    }
+
+    @Test
+    public void oldVersionsStayValid() {
+        List<PersistentHashMap<Key, Integer>> versions = new ArrayList<>();
+        List<Map<Key, Integer>> expected = new ArrayList<>();
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        Map<Key, Integer> copy = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 3000; i++) {
+            int id = random.nextInt(500);
+            // a third of the keys share few hashes, so collision nodes are changed too
+            Key key = new Key(id, id % 3 == 0 ? id % 37 : id * 0x9E3779B9);
+            map = map.plus(key, i);
+            copy.put(key, i);
+            if (i % 100 == 0) {
+                versions.add(map);
+                expected.add(new HashMap<>(copy));
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expected.get(i), versions.get(i));
+            assertEquals(expected.get(i).size(), versions.get(i).size());
+        }
+    }
+
+    @Test
+    public void putOfScript() {
+        String script = "let m = {}; let i = 0;\n"
+                + "while (i < 2000) { m = put(m, i, i * 2); i = i + 1; }\n"
+                + "let old = m; m = put(m, 5, \"five\");\n"
+                + "print(len(m), m[1999], m[5], old[5]);";
+        assertInEveryMode(script, "2000\n3998\nfive\n10\n");
+    }
+}
@@ -0,0 +1,77 @@
+package interpreter.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void appendAcrossTailAndTrieBoundaries() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            vector = vector.plus(i);
+            expected.add(i);
+            // the sizes around the tail, one level and two levels of trie
+            if (i < 70 || (i > 1000 && i < 1100) || (i > 32700 && i < 32850) || i == 39999) {
+                assertEquals(i + 1, vector.size());
+                assertEquals(expected, vector);
+            }
+        }
+    }
+
+    @Test
+    public void oldVersionsStayValid() {
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 2100; i++) {
+            versions.add(vector);
+            vector = vector.plus(i);
+        }
+        for (int size = 0; size < versions.size(); size++) {
+            PersistentVector<Integer> version = versions.get(size);
+            assertEquals(size, version.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals(Integer.valueOf(i), version.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void branchesFromOneVersion() {
+        PersistentVector<String> base = PersistentVector.empty();
+        for (int i = 0; i < 1024; i++) {
+            base = base.plus("e" + i);
+        }
+        PersistentVector<String> left = base.plus("left");
+        PersistentVector<String> right = base.plus("right");
+        assertEquals("left", left.get(1024));
+        assertEquals("right", right.get(1024));
+        assertEquals(1024, base.size());
+    }
+
+    @Test
+    public void of() {
+        List<String> list = Arrays.asList("a", null, "c");
+        PersistentVector<String> vector = PersistentVector.of(list);
+        assertEquals(list, vector);
+        assertSame(vector, PersistentVector.of(vector));
+        assertEquals(0, PersistentVector.of(new ArrayList<String>()).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfRange() {
+        PersistentVector.<Integer>empty().plus(1).get(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getNegative() {
+        PersistentVector.<Integer>empty().plus(1).get(-1);
+    }
+}
@@ -0,0 +1,63 @@
+package interpreter.eval;
+
+import interpreter.ast.BranchNode;
+import interpreter.ast.ProgramNode;
+import interpreter.ast.TreeNodes;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * the right operand of and/or is evaluated only if the left one doesn't decide the value,
+ * the tree-walking engines count the values of the conditions of the branch nodes
+ */
+public class BranchProfileTest {
+
+    @Test
+    public void shortCircuit() {
+        String script = "let boom = fn() { print(\"boom\"); true };\n"
+                + "print(false and boom(), true or boom(), true and boom(), false or boom());";
+        assertInEveryMode(script, "boom\nboom\nfalse\ntrue\ntrue\ntrue\n");
+    }
+
+    @Test
+    public void bothOperandsEvaluatedAreChecked() {
+        assertInEveryMode("let one = fn() { 1 }; print(true and one());",
+                "ERROR: type missmatch: BOOLEAN and INTEGER\nexit 1\n");
+    }
+
+    @Test
+    public void countsOfConditions() {
+        ProgramNode program = new Parser(new Lexer(
+                "let i = 0; while (i < 3) { if (i == 1 or false) { 0 }; let i = i + 1; }; if (true) { 1 }"))
+                .parseProgram();
+        new Resolver().resolve(program);
+        List<BranchNode> branches = new ArrayList<>();
+        TreeNodes.collectBranches(program, branches);
+        assertEquals(4, branches.size());
+        for (BranchNode branch : branches) {
+            assertNull(branch.getProfile());
+        }
+
+        new Evaluator().eval(program, new Environment());
+        // while, if, or, if
+        assertCounts(branches.get(0), 3, 1);
+        assertCounts(branches.get(1), 1, 2);
+        assertCounts(branches.get(2), 1, 2);
+        assertCounts(branches.get(3), 1, 0);
+        assertEquals(0.75, branches.get(0).getProfile().trueRatio(), 0);
+    }
+
+    private static void assertCounts(BranchNode branch, long trueCount, long falseCount) {
+        assertEquals(branch.toString(), trueCount, branch.getProfile().getTrueCount());
+        assertEquals(branch.toString(), falseCount, branch.getProfile().getFalseCount());
+    }
+}
@@ -0,0 +1,84 @@
+package interpreter.eval;
+
+import interpreter.ast.ProgramNode;
+import interpreter.lexer.Lexer;
+import interpreter.object.ValueObject;
+import interpreter.parser.Parser;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Scripts;
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * the tail calls run in the frame of the enclosing call, the other calls report the recursion too deep as error,
+ * the arguments of nested calls share the argument stack of the evaluator
+ */
+public class EvaluatorTest {
+
+    @Test
+    public void deepTailRecursion() {
+        String script = "let count = fn(n, acc) { if (n == 0) { return acc; } count(n - 1, acc + 1) };\n"
+                + "print(count(50000, 0));";
+        assertEquals("50000\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+
+    @Test
+    public void deepReturnedTailCall() {
+        String script = "let even = fn(n) { if (n == 0) { return true; } return odd(n - 1); };\n"
+                + "let odd = fn(n) { if (n == 0) { return false; } return even(n - 1); };\n"
+                + "print(even(50000), odd(50001));";
+        assertEquals("true\ntrue\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+
+    @Test
+    public void deepNonTailRecursionIsError() {
+        String script = "let sum = fn(n) { if (n == 0) { 0 } else { n + sum(n - 1) } };\n"
+                + "print(sum(50000));\nprint(1);";
+        assertEquals("ERROR: stack depth exceeded\nexit 1\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+
+    @Test
+    public void callReturnedInIfUsedAsValueIsNotTailCall() {
+        String script = "let g = fn(x) { x };\n"
+                + "let f = fn() { let y = if (true) { return g(3); }; y };\n"
+                + "let h = fn() { [if (true) { return g(4); }] };\n"
+                + "print(f(), h());";
+        assertInEveryMode(script, "3\n[4]\n");
+    }
+
+    @Test
+    public void tooFewArgumentsIsError() {
+        String script = "let f = fn(a, b) { a };\n"
+                + "print(f(1, 2, 3));\n"
+                + "let g = fn(n) { if (n == 0) { f(1) } else { g(n - 1) } };\n"
+                + "print(g(3));\nprint(2);";
+        assertInEveryMode(script, "1\nERROR: wrong number of arguments: want=2, got=1\nexit 1\n");
+    }
+
+    @Test
+    public void nestedCallsInArguments() {
+        String script = "let f = fn(a, b, c, d, e) { [a, b, c, d, e] };\n"
+                + "let g = fn(x) { x * 10 };\n"
+                + "print(f(g(1), f(1, 2, 3, 4, g(2))[4], g(g(3)), 4, 5));\n"
+                + "let sum = fn(n, a, b, c, d) { if (n == 0) { a + b + c + d } else { n + sum(n - 1, a, b, c, d) } };\n"
+                + "print(sum(100, 1, 2, 3, 4));\n"
+                + "let first = fn(a) { let i = 0; while (true) { if (i == a) { return i * 2; } let i = i + 1; } };\n"
+                + "print(first(4), g(first(3)));";
+        assertInEveryMode(script, "[10,20,300,4,5]\n5060\n8\n60\n");
+    }
+
+    @Test
+    public void errorInArgumentPopsArguments() {
+        Evaluator evaluator = new Evaluator();
+        Environment env = new Environment();
+        assertEquals("ERROR: type missmatch: INTEGER + BOOLEAN",
+                evaluator.eval(program("let f = fn(a, b) { a - b }; f(1, f(2, 3 + true))"), env).inspect());
+        assertEquals("7", evaluator.eval(program("f(f(10, 1), 2)"), env).inspect());
+    }
+
+    private static ProgramNode program(String script) {
+        return new Parser(new Lexer(script)).parseProgram();
+    }
+}
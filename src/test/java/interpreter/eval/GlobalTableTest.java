@@ -0,0 +1,84 @@
+package interpreter.eval;
+
+import interpreter.ast.ProgramNode;
+import interpreter.builtin.BuiltinFunctionEnum;
+import interpreter.lexer.Lexer;
+import interpreter.object.IntegerObject;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import interpreter.parser.Parser;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * a global name keeps its cell, binding it again sets the value of the cell,
+ * the identifiers caching the cell see the new value
+ */
+public class GlobalTableTest {
+
+    @Test
+    public void cellIsStable() {
+        GlobalTable globals = new GlobalTable();
+        GlobalCell cell = globals.cell("x");
+        assertNull(cell.getValue());
+        assertNull(globals.get("x"));
+
+        globals.set("x", IntegerObject.valueOf(1));
+        globals.set("x", IntegerObject.valueOf(2));
+        assertSame(cell, globals.cell("x"));
+        assertSame(globals, cell.getTable());
+        assertEquals("2", cell.getValue().inspect());
+        assertEquals(1, globals.size());
+    }
+
+    @Test
+    public void versionChangesOnNewNameOrReplacedFunction() {
+        GlobalTable globals = new GlobalTable();
+        globals.set("x", IntegerObject.valueOf(1));
+        int version = globals.getVersion();
+        globals.set("x", IntegerObject.valueOf(2));
+        assertEquals(version, globals.getVersion());
+
+        globals.set("f", new StringObject("f"));
+        assertEquals(version + 1, globals.getVersion());
+        version = globals.getVersion();
+
+        ValueObject len = BuiltinFunctionEnum.getBuiltinFunctionOf("len");
+        globals.set("g", len);
+        globals.set("g", len);
+        assertEquals(version + 1, globals.getVersion());
+        globals.set("g", IntegerObject.valueOf(0));
+        assertEquals(version + 2, globals.getVersion());
+    }
+
+    @Test
+    public void identifierEvaluatedInAnotherGlobalEnvironment() {
+        ProgramNode program = new Parser(new Lexer("let f = fn() { x }; f()")).parseProgram();
+        new Resolver().resolve(program);
+        Environment first = new Environment();
+        first.set("x", IntegerObject.valueOf(1));
+        Environment second = new Environment();
+        second.set("x", IntegerObject.valueOf(2));
+
+        Evaluator evaluator = new Evaluator();
+        assertEquals("1", evaluator.eval(program, first).inspect());
+        assertEquals("2", evaluator.eval(program, second).inspect());
+        first.set("x", IntegerObject.valueOf(3));
+        assertEquals("3", evaluator.eval(program, first).inspect());
+    }
+
+    @Test
+    public void rebindingIsSeenByFunctions() {
+        String script = "let x = 1; let f = fn() { x };\n"
+                + "print(f());\n"
+                + "let x = 2;\n"
+                + "x = x + 1;\n"
+                + "print(f(), x);";
+        assertInEveryMode(script, "1\n3\n3\n");
+    }
+}
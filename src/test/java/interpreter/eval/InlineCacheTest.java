@@ -0,0 +1,79 @@
+package interpreter.eval;
+
+import interpreter.object.IntegerObject;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Scripts;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * the callee cached at a call site is dropped when the function bound to its name is replaced
+ */
+public class InlineCacheTest {
+
+    @Test
+    public void entryIsValidWhileVersionIsUnchanged() {
+        GlobalTable globals = new GlobalTable();
+        ValueObject callee = new StringObject("f");
+        globals.set("f", callee);
+
+        InlineCache cache = new InlineCache();
+        assertNull(cache.get(globals));
+        cache.put(globals, callee);
+        assertSame(callee, cache.get(globals));
+
+        globals.set("x", IntegerObject.valueOf(1));
+        assertNull(cache.get(globals));
+        cache.put(globals, callee);
+        globals.set("x", IntegerObject.valueOf(2));
+        assertSame(callee, cache.get(globals));
+    }
+
+    @Test
+    public void stopsCachingAfterMaxEntries() {
+        InlineCache cache = new InlineCache();
+        GlobalTable[] tables = new GlobalTable[InlineCache.MAX_ENTRIES + 1];
+        ValueObject callee = new StringObject("f");
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new GlobalTable();
+            cache.put(tables[i], callee);
+        }
+        for (int i = 0; i < InlineCache.MAX_ENTRIES; i++) {
+            assertSame(callee, cache.get(tables[i]));
+        }
+        assertNull(cache.get(tables[InlineCache.MAX_ENTRIES]));
+    }
+
+    @Test
+    public void rebindingFunctionInvalidatesCallSite() {
+        String script = "let f = fn() { 1 };\n"
+                + "let call = fn() { f() };\n"
+                + "print(call());\n"
+                + "let f = fn() { 2 };\n"
+                + "print(call());";
+        assertEquals("1\n2\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+
+    @Test
+    public void globalShadowingBuiltinInvalidatesCallSite() {
+        String script = "let size = fn() { len([1, 2, 3]) };\n"
+                + "print(size());\n"
+                + "let len = fn(a) { 0 };\n"
+                + "print(size());";
+        assertEquals("3\n0\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+
+    @Test
+    public void updatingOtherGlobalsKeepsCallSite() {
+        String script = "let a = [];\n"
+                + "let i = 0;\n"
+                + "while (i < 3) { let a = push(a, i); let i = i + 1; }\n"
+                + "print(a, len(a));";
+        assertEquals("[0,1,2]\n3\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+    }
+}
@@ -0,0 +1,55 @@
+package interpreter.eval;
+
+import interpreter.ast.ProgramNode;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Scripts;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * the recursion too deep for the stack of java runs on the frames on heap
+ */
+public class StacklessEvaluatorTest {
+
+    private static final String SUM = "let sum = fn(n) { if (n == 0) { 0 } else { n + sum(n - 1) } };\n";
+
+    /**
+     * a tree of 100000 nodes, every node is the right child of the previous one
+     */
+    private static final String TREE = "let chain = fn(n) { if (n == 0) { [] } else { [n, [], chain(n - 1)] } };\n"
+            + "let walk = fn(t) { if (len(t) == 0) { 0 } else { 1 + walk(t[1]) + walk(t[2]) } };\n"
+            + "let tree = chain(100000);\n";
+
+    @Test
+    public void deepRecursion() {
+        assertEquals("ERROR: stack depth exceeded\nexit 1\n",
+                Scripts.run(ExecutionModeEnum.EVAL, SUM + "print(sum(100000));"));
+        assertEquals("5000050000\n", Scripts.run(ExecutionModeEnum.STACKLESS, SUM + "print(sum(100000));"));
+    }
+
+    @Test
+    public void deepTreeWalk() {
+        assertEquals("ERROR: stack depth exceeded\nexit 1\n",
+                Scripts.run(ExecutionModeEnum.EVAL, TREE + "print(walk(tree));"));
+        assertEquals("100000\n", Scripts.run(ExecutionModeEnum.STACKLESS, TREE + "print(walk(tree));"));
+    }
+
+    @Test
+    public void tailRecursion() {
+        String script = "let count = fn(n, acc) { if (n == 0) { return acc; } count(n - 1, acc + 1) };\n"
+                + "print(count(300000, 0));";
+        assertEquals("300000\n", Scripts.run(ExecutionModeEnum.STACKLESS, script));
+    }
+
+    @Test
+    public void depthBeyondMaxFrames() {
+        StacklessEvaluator evaluator = new StacklessEvaluator(1000);
+        ProgramNode program = new Parser(new Lexer(SUM + "sum(2000)")).parseProgram();
+        new Resolver().resolve(program);
+        assertEquals("ERROR: stack depth exceeded", evaluator.eval(program, new Environment()).inspect());
+    }
+}
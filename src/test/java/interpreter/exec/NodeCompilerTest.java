@@ -0,0 +1,141 @@
+package interpreter.exec;
+
+import interpreter.ast.OperatorEnum;
+import interpreter.eval.Environment;
+import interpreter.object.ArrayObject;
+import interpreter.object.BooleanObject;
+import interpreter.object.IntegerObject;
+import interpreter.object.MapObject;
+import interpreter.object.StringObject;
+import interpreter.object.ValueObject;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Scripts;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the nodes rewrite themselves by the types they observe, the values are the same as the generic node's
+ */
+public class NodeCompilerTest {
+
+    /**
+     * operand whose value is set by the test
+     */
+    private static class ValueExecNode extends ExecNode {
+
+        private ValueObject value;
+
+        @Override
+        public ValueObject execute(Environment frame) {
+            return value;
+        }
+    }
+
+    private final ValueExecNode left = new ValueExecNode();
+
+    private final ValueExecNode right = new ValueExecNode();
+
+    @Test
+    public void binarySpecializesToIntegerThenGeneralizes() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{
+                new UninitializedBinaryExecNode(OperatorEnum.PLUS, left, right)});
+
+        assertEquals("3", run(block, IntegerObject.valueOf(1), IntegerObject.valueOf(2)));
+        assertTrue(left.parent instanceof IntegerBinaryExecNode);
+        assertEquals("7", run(block, IntegerObject.valueOf(3), IntegerObject.valueOf(4)));
+        assertTrue(left.parent instanceof IntegerBinaryExecNode);
+
+        assertEquals("ab", run(block, new StringObject("a"), new StringObject("b")));
+        assertTrue(left.parent instanceof GenericBinaryExecNode);
+        assertEquals("5", run(block, IntegerObject.valueOf(2), IntegerObject.valueOf(3)));
+        assertTrue(left.parent instanceof GenericBinaryExecNode);
+    }
+
+    @Test
+    public void binarySpecializesToStringThenGeneralizes() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{
+                new UninitializedBinaryExecNode(OperatorEnum.PLUS, left, right)});
+
+        assertEquals("ab", run(block, new StringObject("a"), new StringObject("b")));
+        assertTrue(left.parent instanceof StringBinaryExecNode);
+        assertEquals("ERROR: type missmatch: STRING + INTEGER",
+                run(block, new StringObject("a"), IntegerObject.valueOf(1)));
+        assertTrue(left.parent instanceof GenericBinaryExecNode);
+    }
+
+    @Test
+    public void indexSpecializesToArrayThenGeneralizes() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{new UninitializedIndexExecNode(left, right)});
+        ArrayObject array = new ArrayObject(Arrays.asList(IntegerObject.valueOf(5), IntegerObject.valueOf(6)));
+
+        assertEquals("6", run(block, array, IntegerObject.valueOf(1)));
+        assertTrue(left.parent instanceof ArrayIndexExecNode);
+
+        MapObject map = new MapObject().put(new StringObject("k"), IntegerObject.valueOf(8));
+        assertEquals("8", run(block, map, new StringObject("k")));
+        assertTrue(left.parent instanceof GenericIndexExecNode);
+        assertEquals("5", run(block, array, IntegerObject.valueOf(0)));
+    }
+
+    @Test
+    public void integerSpecializationOverflows() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{
+                new UninitializedBinaryExecNode(OperatorEnum.ASTERISK, left, right)});
+
+        assertEquals("6", run(block, IntegerObject.valueOf(2), IntegerObject.valueOf(3)));
+        assertEquals("18446744073709551614", run(block, IntegerObject.valueOf(Long.MAX_VALUE), IntegerObject.valueOf(2)));
+        assertTrue(left.parent instanceof IntegerBinaryExecNode);
+    }
+
+    @Test
+    public void comparisonOfBooleansSpecializes() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{
+                new UninitializedBinaryExecNode(OperatorEnum.EQ, left, right)});
+
+        assertEquals("true", run(block, BooleanObject.getBooleanObject(true), BooleanObject.getBooleanObject(true)));
+        assertTrue(left.parent instanceof BooleanBinaryExecNode);
+        assertEquals("false", run(block, IntegerObject.valueOf(1), IntegerObject.valueOf(2)));
+        assertTrue(left.parent instanceof GenericBinaryExecNode);
+    }
+
+    @Test
+    public void arrayIndexOutOfRange() {
+        BlockExecNode block = new BlockExecNode(new ExecNode[]{new UninitializedIndexExecNode(left, right)});
+        ArrayObject array = new ArrayObject(Arrays.asList(IntegerObject.valueOf(5), IntegerObject.valueOf(6)));
+
+        assertEquals("5", run(block, array, IntegerObject.valueOf(0)));
+        assertEquals("NULL", run(block, array, IntegerObject.valueOf(2)));
+        assertEquals("NULL", run(block, array, IntegerObject.valueOf(-1)));
+        assertTrue(left.parent instanceof ArrayIndexExecNode);
+    }
+
+    @Test
+    public void operandTypeChangesInScript() {
+        String script = "let twice = fn(x) { x + x };\n"
+                + "let i = 0; let s = 0;\n"
+                + "while (i < 100) { s = s + twice(i); i = i + 1; }\n"
+                + "let get = fn(c, k) { c[k] };\n"
+                + "print(s, twice(\"ab\"), twice(9223372036854775807), get([1, 2], 1), get({\"a\": 3}, \"a\"));";
+        String expected = "9900\nabab\n18446744073709551614\n2\n3\n";
+        assertEquals(expected, Scripts.run(ExecutionModeEnum.EVAL, script));
+        assertEquals(expected, Scripts.run(ExecutionModeEnum.NODE, script));
+    }
+
+    @Test
+    public void tailRecursion() {
+        String script = "let count = fn(n, acc) { if (n == 0) { return acc; } count(n - 1, acc + 1) };\n"
+                + "print(count(100000, 0));";
+        assertEquals("100000\n", Scripts.run(ExecutionModeEnum.EVAL, script));
+        assertEquals("100000\n", Scripts.run(ExecutionModeEnum.NODE, script));
+    }
+
+    private String run(ExecNode node, ValueObject leftValue, ValueObject rightValue) {
+        left.value = leftValue;
+        right.value = rightValue;
+        return node.execute(new Environment()).inspect();
+    }
+}
@@ -0,0 +1,120 @@
+package interpreter.jit;
+
+import interpreter.ast.BlockStatement;
+import interpreter.ast.ExpressionStatementNode;
+import interpreter.ast.FunctionLiteralNode;
+import interpreter.ast.LetStatementNode;
+import interpreter.ast.ProgramNode;
+import interpreter.ast.WhileExpressionNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+import interpreter.repl.ExecutionModeEnum;
+import interpreter.repl.Scripts;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the scripts run long enough to compile their loops and functions, the results must be the interpreter's
+ */
+public class JitTest {
+
+    @Test
+    public void loopOverflowsAfterCompiled() {
+        // compiled after 10000 iterations, x * 3 overflows long some iterations after 15000
+        String script = "let i = 0; let x = 1;\n"
+                + "while (i < 20000) { if (i >= 15000) { x = x * 3; } else { x = x + 1; } i = i + 1; }\n"
+                + "print(i, x);";
+        String expected = "20000\n" + BigInteger.valueOf(15001).multiply(BigInteger.valueOf(3).pow(5000)) + "\n";
+        assertSameAsEval(script, expected);
+    }
+
+    @Test
+    public void functionOverflowsAfterCompiled() {
+        // compiled after 1000 calls, n * n overflows long from i = 1519
+        String script = "let sq = fn(n) { n * n };\n"
+                + "let i = 0; let last = 0;\n"
+                + "while (i < 2000) { last = sq(i * 2000000); i = i + 1; }\n"
+                + "print(last);";
+        assertSameAsEval(script, BigInteger.valueOf(1999L * 2000000).pow(2) + "\n");
+    }
+
+    @Test
+    public void functionCalledWithOtherTypeAfterCompiled() {
+        String script = "let twice = fn(x) { x + x };\n"
+                + "let i = 0; let s = 0;\n"
+                + "while (i < 1500) { s = s + twice(i); i = i + 1; }\n"
+                + "print(s, twice(\"ab\"), twice(9223372036854775807));";
+        assertSameAsEval(script, "2248500\nabab\n18446744073709551614\n");
+    }
+
+    @Test
+    public void recursiveFunction() {
+        String script = "let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } };\n"
+                + "print(fib(20));";
+        assertSameAsEval(script, "6765\n");
+    }
+
+    @Test
+    public void divisionInLoopAfterCompiled() {
+        String script = "let i = 0; let q = 0; let d = 12000;\n"
+                + "while (i < 11000) { q = q + 100000 / (d - i); i = i + 1; }\n"
+                + "print(i, q);";
+        long q = 0;
+        for (int i = 0; i < 11000; i++) {
+            q += 100000 / (12000 - i);
+        }
+        assertSameAsEval(script, "11000\n" + q + "\n");
+    }
+
+    @Test
+    public void selfCallReboundAfterCompiled() {
+        String script = "let count = fn(n) { if (n == 0) { 0 } else { count(n - 1) + 1 } };\n"
+                + "let i = 0; let s = 0;\n"
+                + "while (i < 1500) { s = s + count(3); i = i + 1; }\n"
+                + "let old = count; let count = fn(n) { 100 };\n"
+                + "print(s, old(3));";
+        assertSameAsEval(script, "4500\n101\n");
+    }
+
+    @Test
+    public void capturedSelfCall() {
+        String script = "let make = fn() { let f = fn(n) { if (n == 0) { 0 } else { f(n - 1) + 1 } }; f };\n"
+                + "let g = make();\n"
+                + "let i = 0; let s = 0;\n"
+                + "while (i < 1500) { s = s + g(i - i + 5); i = i + 1; }\n"
+                + "print(s, g(20));";
+        assertSameAsEval(script, "7500\n20\n");
+    }
+
+    @Test
+    public void profilesKeptOnNodes() {
+        ProgramNode program = new Parser(new Lexer("let sq = fn(n) { n * n };\n"
+                + "let i = 0; let s = 0;\n"
+                + "while (i < 10) { s = s + sq(i); i = i + 1; }\n"
+                + "s")).parseProgram();
+        new Resolver().resolve(program);
+        Evaluator evaluator = new Evaluator();
+        evaluator.setJit(new Jit(3, 3));
+        assertEquals("285", evaluator.eval(program, new Environment()).inspect());
+
+        BlockStatement body = ((FunctionLiteralNode) ((LetStatementNode) program.getStatements().get(0)).getValue()).getBody();
+        assertNotNull(body.getJitProfile().compiled);
+        assertEquals(3, body.getJitProfile().count);
+        WhileExpressionNode loop = (WhileExpressionNode) ((ExpressionStatementNode) program.getStatements().get(3)).getExpression();
+        // the calls in loops are not compiled, the loop keeps running in the interpreter
+        assertTrue(loop.getJitProfile().failed);
+    }
+
+    private static void assertSameAsEval(String script, String expected) {
+        assertEquals(expected, Scripts.run(ExecutionModeEnum.EVAL, script));
+        assertEquals(expected, Scripts.run(ExecutionModeEnum.JIT, script));
+    }
+}
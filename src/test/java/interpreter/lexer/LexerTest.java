@@ -0,0 +1,89 @@
+package interpreter.lexer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * the tokens keep the range of the source they are scanned from
+ */
+public class LexerTest {
+
+    @Test
+    public void tokensOfSource() {
+        String input = "let x1 = fn(a) { a >= 10 };\nif (x1 != \"s t\") { return !true or false; }";
+        List<Token> tokens = tokens(new Lexer(input));
+        assertEquals("LET IDENT ASSIGN FUNCTION LPAREN IDENT RPAREN LBRACE IDENT GE INT RBRACE SEMICOLON "
+                + "IF LPAREN IDENT NOT_EQ STRING RPAREN LBRACE RETURN BANG TRUE OR FALSE SEMICOLON RBRACE", types(tokens));
+        for (Token token : tokens) {
+            if (token.getType() != TokenTypeEnum.STRING) {
+                assertEquals(token.getLiteral(), input.substring(token.getOffset(), token.getOffset() + token.getLength()));
+            }
+        }
+        assertEquals("s t", tokens.get(17).getLiteral());
+        assertEquals(1, tokens.get(12).getLine());
+        assertEquals(2, tokens.get(13).getLine());
+    }
+
+    @Test
+    public void keywords() {
+        for (TokenTypeEnum type : TokenTypeEnum.values()) {
+            if (type.isKeyWord()) {
+                assertEquals(type, TokenTypeEnum.of(type.getLiterial()));
+                assertEquals(TokenTypeEnum.IDENT, TokenTypeEnum.of(type.getLiterial() + "_"));
+                assertEquals(TokenTypeEnum.IDENT, TokenTypeEnum.of("x" + type.getLiterial().substring(1)));
+            }
+        }
+        assertEquals(TokenTypeEnum.IDENT, TokenTypeEnum.of("x"));
+        assertEquals(TokenTypeEnum.IDENT, TokenTypeEnum.of("returns"));
+    }
+
+    @Test
+    public void longWhitespaceAndTrailingWhitespace() {
+        StringBuilder sb = new StringBuilder("1");
+        for (int i = 0; i < 1000000; i++) {
+            sb.append(i % 100 == 0 ? '\n' : ' ');
+        }
+        sb.append("2 \t\n ");
+        List<Token> tokens = tokens(new Lexer(sb.toString()));
+        assertEquals("INT INT", types(tokens));
+        assertEquals(10001, tokens.get(1).getLine());
+    }
+
+    @Test
+    public void unclosedStringEndsAtEndOfInput() {
+        List<Token> tokens = tokens(new Lexer("let s = \"abc"));
+        assertEquals("LET IDENT ASSIGN STRING", types(tokens));
+        assertEquals("abc", tokens.get(3).getLiteral());
+    }
+
+    @Test
+    public void rangeOfSource() {
+        String input = "let f = fn() { x + 1 };";
+        int offset = input.indexOf('{') + 1;
+        List<Token> tokens = tokens(new Lexer(Source.of(input), offset, input.indexOf('}') - offset, 3));
+        assertEquals("IDENT PLUS INT", types(tokens));
+        assertEquals(input.indexOf('x'), tokens.get(0).getOffset());
+        assertEquals(3, tokens.get(0).getLine());
+    }
+
+    private static List<Token> tokens(Lexer lexer) {
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        while ((token = lexer.nextToken()).getType() != TokenTypeEnum.EOF) {
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String types(List<Token> tokens) {
+        StringBuilder res = new StringBuilder();
+        for (Token token : tokens) {
+            res.append(res.length() == 0 ? "" : " ").append(token.getType());
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package interpreter.lexer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * a mapped file and a stream scan to the same tokens as the string, utf-8 is decoded in string literals only
+ */
+public class SourceTest {
+
+    private static final String SCRIPT = "let s = \"héllo, 世界\";\nlet n = len(s);\nprint(n);";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mappedFile() throws IOException {
+        Path path = folder.newFile("script.mk").toPath();
+        Files.write(path, SCRIPT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(tokens(Source.of(SCRIPT)), tokens(Source.map(path)));
+    }
+
+    @Test
+    public void byteOrderMarkSkipped() throws IOException {
+        Path path = folder.newFile("bom.mk").toPath();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write(SCRIPT.getBytes(StandardCharsets.UTF_8));
+        Files.write(path, bytes.toByteArray());
+        assertEquals(tokens(Source.of(SCRIPT)), tokens(Source.map(path)));
+        assertEquals(tokens(Source.of(SCRIPT)), tokens(Source.read(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void streamReadInChunks() {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 3 * Source.BUFFER_SIZE) {
+            sb.append(SCRIPT).append('\n');
+        }
+        String script = sb.toString();
+        assertEquals(tokens(Source.of(script)), tokens(Source.read(trickle(script))));
+    }
+
+    @Test
+    public void multiByteCharOutOfStringIsIllegal() {
+        List<String> tokens = tokens(Source.read(new ByteArrayInputStream("let é = 1;".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(tokens.contains("ILLEGAL"));
+        assertFalse(tokens(Source.of(SCRIPT)).contains("ILLEGAL"));
+    }
+
+    /**
+     * the type, literal and line of each token
+     */
+    private static List<String> tokens(Source source) {
+        Lexer lexer = new Lexer(source);
+        List<String> tokens = new ArrayList<>();
+        Token token;
+        while ((token = lexer.nextToken()).getType() != TokenTypeEnum.EOF) {
+            tokens.add(token.getType().name());
+            tokens.add(token.getLiteral() + "@" + token.getLine());
+        }
+        return tokens;
+    }
+
+    /**
+     * a stream returning fewer bytes than asked, like a pipe
+     */
+    private static InputStream trickle(String script) {
+        return new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package interpreter.object;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the value is a long until it overflows, the printed values are the same as before
+ */
+public class IntegerObjectTest {
+
+    @Test
+    public void smallValuesAreShared() {
+        assertSame(IntegerObject.valueOf(7), IntegerObject.valueOf(7));
+        assertSame(IntegerObject.valueOf(-128), IntegerObject.add(IntegerObject.valueOf(-100), IntegerObject.valueOf(-28)));
+    }
+
+    @Test
+    public void overflowIsPromotedAndDemoted() {
+        IntegerObject max = IntegerObject.valueOf(Long.MAX_VALUE);
+        IntegerObject big = IntegerObject.add(max, IntegerObject.valueOf(1));
+        assertTrue(big.isBig());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE).toString(), big.inspect());
+
+        IntegerObject back = IntegerObject.subtract(big, IntegerObject.valueOf(1));
+        assertFalse(back.isBig());
+        assertEquals(max, back);
+        assertTrue(IntegerObject.negate(IntegerObject.valueOf(Long.MIN_VALUE)).isBig());
+        assertTrue(IntegerObject.divide(IntegerObject.valueOf(Long.MIN_VALUE), IntegerObject.valueOf(-1)).isBig());
+    }
+
+    @Test
+    public void toStringKeepsItsText() {
+        assertEquals("IntegerObject(type=INTEGER, value=1)", IntegerObject.valueOf(1).toString());
+        assertEquals("IntegerObject(type=INTEGER, value=18446744073709551616)",
+                IntegerObject.valueOf(BigInteger.ONE.shiftLeft(64)).toString());
+        assertInEveryMode("print({\"a\": 1});",
+                "{StringObject(value=a)=IntegerObject(type=INTEGER, value=1)}\n");
+    }
+}
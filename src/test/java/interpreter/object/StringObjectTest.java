@@ -0,0 +1,53 @@
+package interpreter.object;
+
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * the concatenation is a rope, its text is the same as the concatenated strings'
+ */
+public class StringObjectTest {
+
+    @Test
+    public void deepRopeFlattens() {
+        StringObject s = new StringObject("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            s = StringObject.concat(s, new StringObject(Integer.toString(i % 10)));
+            expected.append(i % 10);
+        }
+        assertEquals(200000, s.length());
+        assertEquals(expected.toString(), s.getValue());
+    }
+
+    @Test
+    public void ropeEqualsFlatString() {
+        StringObject rope = StringObject.concat(StringObject.concat(new StringObject("ab"), new StringObject("c")),
+                new StringObject("d"));
+        StringObject flat = new StringObject("abcd");
+        assertEquals(flat, rope);
+        assertEquals(flat.hashCode(), rope.hashCode());
+        assertNotEquals(new StringObject("abce"), rope);
+        assertEquals("StringObject(value=abcd)", rope.toString());
+    }
+
+    @Test
+    public void emptyOperandIsNotCopied() {
+        StringObject s = new StringObject("x");
+        assertSame(s, StringObject.concat(s, new StringObject("")));
+        assertSame(s, StringObject.concat(new StringObject(""), s));
+    }
+
+    @Test
+    public void concatenationInLoop() {
+        String script = "let s = \"\"; let i = 0;\n"
+                + "while (i < 20000) { s = s + \"ab\"; i = i + 1; }\n"
+                + "let m = {s: 1};\n"
+                + "print(len(s), m[s]);";
+        assertInEveryMode(script, "40000\n1\n");
+    }
+}
@@ -0,0 +1,18 @@
+package interpreter.optimizer;
+
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+
+public class ConstantFoldingPassTest {
+
+    @Test
+    public void divisionByZeroInDeadBranchIsNotFolded() {
+        assertInEveryMode("if (false) { print(1 / 0); } print(3);", "3\n");
+    }
+
+    @Test
+    public void divisionByZeroInUncalledFunctionIsNotFolded() {
+        assertInEveryMode("let f = fn(x) { 1 / 0 }; print(7);", "7\n");
+    }
+}
@@ -0,0 +1,48 @@
+package interpreter.optimizer;
+
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the inlined program prints the same as the program, in every mode
+ */
+public class InliningPassTest {
+
+    @Test
+    public void smallFunctionIsInlined() {
+        String program = "let add = fn(a, b) { a + b }; add(1, 2)";
+        assertFalse(Programs.optimize(program).contains("add(1, 2)"));
+        assertInEveryMode("let add = fn(a, b) { a + b }; print(add(1, 2), add(\"a\", \"b\"));", "3\nab\n");
+    }
+
+    @Test
+    public void reassignedCalleeIsNotInlined() {
+        String program = "let f = fn(a) { a + 1 }; f = fn(a) { a * 10 }; f(2)";
+        assertTrue(Programs.optimize(program).contains("f(2)"));
+        assertInEveryMode("let f = fn(a) { a + 1 }; let x = f(2); f = fn(a) { a * 10 }; print(x, f(2));",
+                "3\n20\n");
+    }
+
+    @Test
+    public void calleeReboundInLaterStatementIsCalled() {
+        assertInEveryMode("let f = fn(a) { a + 1 }; print(f(2));\nlet f = fn(a) { a * 10 }; print(f(2));",
+                "3\n20\n");
+    }
+
+    @Test
+    public void recursiveCalleeIsNotInlined() {
+        String program = "let fact = fn(n) { if (n < 2) { 1 } else { n * fact(n - 1) } }; fact(5)";
+        assertTrue(Programs.optimize(program).contains("fact(5)"));
+        assertInEveryMode("let fact = fn(n) { if (n < 2) { 1 } else { n * fact(n - 1) } }; print(fact(5));",
+                "120\n");
+    }
+
+    @Test
+    public void errorOfInlinedBodyIsTheCallsError() {
+        assertInEveryMode("let sub = fn(a, b) { a - b }; print(sub(\"x\", 1));",
+                "ERROR: type missmatch: STRING - INTEGER\nexit 1\n");
+    }
+}
@@ -0,0 +1,51 @@
+package interpreter.optimizer;
+
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the program with the invariants moved out of loops prints the same as the program, in every mode
+ */
+public class LoopInvariantPassTest {
+
+    @Test
+    public void invariantOfLoopInFunctionIsMoved() {
+        String program = "let f = fn(n) { let i = 0; let r = []; while (i < 3) { r = push(r, [n, \"s\"]); i = i + 1; } r };";
+        assertTrue(Programs.optimize(program).contains(LoopInvariantPass.PREFIX));
+        assertInEveryMode(program + " print(f(7));", "[[7,s],[7,s],[7,s]]\n");
+    }
+
+    @Test
+    public void callInLoopIsNotMoved() {
+        String program = "let f = fn(n) { let i = 0; while (i < 2) { print(n); let t = time(); i = i + 1; } };";
+        assertFalse(Programs.optimize(program).contains(LoopInvariantPass.PREFIX));
+        assertInEveryMode(program + " f(\"a\");", "a\na\n");
+    }
+
+    @Test
+    public void closureOverLoopVariableIsNotMoved() {
+        String program = "let f = fn(n) { let i = 0; let r = []; while (i < 3) { let j = i; r = push(r, fn() { j + n }); i = i + 1; } r };";
+        assertFalse(Programs.optimize(program).contains(LoopInvariantPass.PREFIX));
+        // the blocks share the scope of the function, every closure reads the last j
+        assertInEveryMode(program + " let r = f(10); print(r[0](), r[1](), r[2]());", "12\n12\n12\n");
+    }
+
+    @Test
+    public void closureOfParametersIsCreatedOnce() {
+        String program = "let f = fn(n) { let i = 0; let r = []; while (i < 2) { r = push(r, fn() { n }); i = i + 1; } r };";
+        assertTrue(Programs.optimize(program).contains(LoopInvariantPass.PREFIX));
+        assertInEveryMode(program + " let r = f(5); print(r[0](), r[1]());", "5\n5\n");
+    }
+
+    @Test
+    public void loopOutOfFunctionsBindsNoGlobal() {
+        String first = "let i = 0; while (i < 2) { let g = fn() { \"a\" }; i = i + 1; }";
+        assertFalse(Programs.optimize(first).contains(LoopInvariantPass.PREFIX));
+        String script = first + "\nlet j = 0; let r = []; while (j < 2) { r = push(r, fn() { \"b\" }); j = j + 1; }\n"
+                + "print(r[0](), r[1]());";
+        assertInEveryMode(script, "b\nb\n");
+    }
+}
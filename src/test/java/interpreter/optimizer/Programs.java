@@ -0,0 +1,20 @@
+package interpreter.optimizer;
+
+import interpreter.ast.ProgramNode;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * parse and optimize the program like a line of repl
+ */
+class Programs {
+
+    static String optimize(String program) {
+        Parser parser = new Parser(new Lexer(program));
+        ProgramNode node = parser.parseProgram();
+        assertEquals(0, parser.getErrors().size());
+        return new Optimizer().optimize(node).toString();
+    }
+}
@@ -0,0 +1,73 @@
+package interpreter.parser;
+
+import interpreter.ast.BlockStatement;
+import interpreter.ast.FunctionLiteralNode;
+import interpreter.ast.LetStatementNode;
+import interpreter.ast.ProgramNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.lexer.Lexer;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the pre-parse mode only brace-matches the bodies of top level functions, a body is parsed on the first call
+ */
+public class LazyParseTest {
+
+    private static final String SCRIPT = "let add = fn(a, b) { let inc = fn(x) { x + 1 }; inc(a) + b };\n"
+            + "let unused = fn() { [1, 2][0] };\n"
+            + "add(1, 2)";
+
+    @Test
+    public void bodyParsedOnFirstCall() {
+        ProgramNode eager = new Parser(new Lexer(SCRIPT)).parseProgram();
+        Parser parser = new Parser(new Lexer(SCRIPT), true);
+        ProgramNode program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty());
+        assertTrue(body(program, 0).isLazy());
+        assertTrue(body(program, 0).getStatements().isEmpty());
+        assertTrue(body(program, 1).isLazy());
+
+        new Resolver().resolve(program);
+        assertEquals("4", new Evaluator().eval(program, new Environment()).inspect());
+        assertFalse(body(program, 0).isLazy());
+        assertEquals(body(eager, 0).getStatements(), body(program, 0).getStatements());
+        assertTrue(body(program, 1).isLazy());
+    }
+
+    @Test
+    public void unbalancedBracketsOfSkippedBodyReportedByParse() {
+        Parser parser = new Parser(new Lexer("let f = fn() { [1, 2); };\nlet g = 1;"), true);
+        parser.parseProgram();
+        assertFalse(parser.getErrors().isEmpty());
+    }
+
+    @Test
+    public void syntaxErrorReportedByEveryCall() {
+        Parser parser = new Parser(new Lexer("let f = fn(a) { let = a; };"), true);
+        ProgramNode program = parser.parseProgram();
+        assertTrue(parser.getErrors().isEmpty());
+
+        BlockStatement body = body(program, 0);
+        String error = "ERROR: syntax error in function body: expected next token to be IDENT, but got ASSIGN instead!";
+        assertEquals(error, Evaluator.materialize(body).inspect());
+        assertEquals(error, Evaluator.materialize(body).inspect());
+        assertTrue(body.isLazy());
+    }
+
+    @Test
+    public void parsedBodyMaterializesToNothing() {
+        ProgramNode program = new Parser(new Lexer(SCRIPT)).parseProgram();
+        assertNull(Evaluator.materialize(body(program, 0)));
+    }
+
+    private static BlockStatement body(ProgramNode program, int statement) {
+        return ((FunctionLiteralNode) ((LetStatementNode) program.getStatements().get(statement)).getValue()).getBody();
+    }
+}
@@ -0,0 +1,216 @@
+package interpreter.parser;
+
+import interpreter.ast.CallExpressionNode;
+import interpreter.ast.ExpressionStatementNode;
+import interpreter.ast.IntegerLiteralNode;
+import interpreter.ast.LetStatementNode;
+import interpreter.ast.ProgramNode;
+import interpreter.ast.StatementNode;
+import interpreter.lexer.Lexer;
+import interpreter.lexer.Source;
+import interpreter.lexer.TokenStream;
+import interpreter.object.IntegerObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the statements parsed one by one by nextStatement must be the statements of parseProgram,
+ * the nodes are compared with their tokens, so the lines and offsets too
+ */
+public class ParserTest {
+
+    private static final String SCRIPT = "let x = 5;\n"
+            + "let add = fn(a, b) {\n"
+            + "    return a + b;\n"
+            + "};\n"
+            + "fn twice(f, v) { f(f(v)) }\n"
+            + "let arr = [1, 2 * 3, \"s\"]; let h = {\"k\": arr[1], 2: true};\n"
+            + "if (x > 1) { x } else { -x }\n"
+            + "let i = 0;\n"
+            + "while (i < 3) { i = i + 1; }\n"
+            + "twice(fn(n) { add(n, 1) }, h[\"k\"])\n"
+            + "123456789012345678901234567890\n"
+            + "let m = macro(a) { quote(unquote(a) + 1) };\n"
+            + "return !true";
+
+    @Test
+    public void sameStatementsAsProgram() {
+        List<StatementNode> expected = new Parser(new Lexer(SCRIPT)).parseProgram().getStatements();
+        assertEquals(12, expected.size());
+
+        Parser parser = new Parser(new Lexer(SCRIPT));
+        assertEquals(expected, statements(parser, new ArrayList<>()));
+        assertTrue(parser.getErrors().isEmpty());
+        assertEquals(expected, statements(new Parser(TokenStream.of(SCRIPT)), new ArrayList<>()));
+        assertEquals(expected, statements(new Parser(new Lexer(stream(SCRIPT))), new ArrayList<>()));
+    }
+
+    @Test
+    public void lineOfStatements() {
+        List<StatementNode> statements = statements(new Parser(new Lexer(stream(SCRIPT))), new ArrayList<>());
+        assertEquals(1, let(statements.get(0)).getToken().getLine());
+        assertEquals(2, let(statements.get(1)).getToken().getLine());
+        assertEquals(6, let(statements.get(3)).getToken().getLine());
+        assertEquals(6, let(statements.get(4)).getToken().getLine());
+        assertEquals(SCRIPT.indexOf("let h"), let(statements.get(4)).getToken().getOffset());
+        assertEquals(8, let(statements.get(6)).getToken().getLine());
+        assertEquals(12, let(statements.get(10)).getToken().getLine());
+    }
+
+    @Test
+    public void errorsAtSameStatement() {
+        String script = "let a = 1;\n"
+                + "let b = fn(x) {\n"
+                + "  x + 1\n"
+                + "};\n"
+                + "let c = (a + ;\n"
+                + "let d = 4;\n";
+        Parser program = new Parser(new Lexer(script));
+        ProgramNode expected = program.parseProgram();
+        assertFalse(program.getErrors().isEmpty());
+
+        Parser parser = new Parser(new Lexer(stream(script)));
+        List<Integer> failed = new ArrayList<>();
+        List<StatementNode> statements = statements(parser, failed);
+        assertEquals(program.getErrors(), parser.getErrors());
+        assertEquals(expected.getStatements(), statements);
+        // the statements before the error come without errors, the statement queue runs them
+        assertEquals(Arrays.asList(2), failed);
+        assertEquals(5, let(statements.get(2)).getToken().getLine());
+        assertEquals(script.indexOf("let c"), let(statements.get(2)).getToken().getOffset());
+    }
+
+    @Test
+    public void errorsOfLazyBodies() {
+        String script = "let a = 1;\n"
+                + "let f = fn(x) {\n"
+                + "  let y = ;\n"
+                + "  y\n"
+                + "};\n"
+                + "let g = fn() { f(a) };\n";
+        Parser program = new Parser(new Lexer(script));
+        program.parseProgram();
+        assertFalse(program.getErrors().isEmpty());
+
+        // the body of f is only brace-matched by nextStatement, its errors are found by checkSkippedBodies
+        Parser parser = new Parser(new Lexer(stream(script)), true);
+        assertEquals("let a = 1;", parser.nextStatement().toString());
+        assertTrue(parser.checkSkippedBodies());
+        assertEquals(2, let(parser.nextStatement()).getToken().getLine());
+        assertTrue(parser.getErrors().isEmpty());
+        assertFalse(parser.checkSkippedBodies());
+        assertEquals(program.getErrors(), parser.getErrors());
+    }
+
+    @Test
+    public void longScriptFromStream() {
+        // a few times the buffer of the stream, the source before each statement is released
+        StringBuilder sb = new StringBuilder();
+        int line = 0;
+        while (sb.length() < 4 * Source.BUFFER_SIZE) {
+            sb.append("let f").append(line).append(" = fn(a) {\n")
+                    .append("  let s = \"line ").append(line).append("\";\n")
+                    .append("  [a, s, {\"k\": a * ").append(line).append("}]\n")
+                    .append("};\n");
+            line += 4;
+        }
+        String script = sb.toString();
+        List<StatementNode> expected = new Parser(new Lexer(script)).parseProgram().getStatements();
+
+        Parser parser = new Parser(new Lexer(stream(script)));
+        List<StatementNode> statements = statements(parser, new ArrayList<>());
+        assertTrue(parser.getErrors().isEmpty());
+        assertEquals(expected, statements);
+        assertEquals(line / 4, statements.size());
+        LetStatementNode last = let(statements.get(statements.size() - 1));
+        assertEquals(line - 3, last.getToken().getLine());
+        assertEquals(script.lastIndexOf("let f"), last.getToken().getOffset());
+    }
+
+    @Test
+    public void integerLiterals() {
+        List<StatementNode> statements = new Parser(new Lexer("7; 9223372036854775807; 9223372036854775808;"))
+                .parseProgram().getStatements();
+        assertEquals(IntegerObject.valueOf(7), integer(statements.get(0)));
+        assertEquals(IntegerObject.valueOf(Long.MAX_VALUE), integer(statements.get(1)));
+        assertFalse(integer(statements.get(1)).isBig());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), integer(statements.get(2)).toBigInteger());
+        assertTrue(integer(statements.get(2)).isBig());
+    }
+
+    /**
+     * parse the statements by nextStatement
+     * @param parser
+     * @param failed the indexes of the statements returned with new errors
+     * @return
+     */
+    @Test
+    public void quoteCallsMarkedWhenParsed() {
+        List<StatementNode> statements = new Parser(new Lexer("quote(1 + 2); unquote(1); f(quote);"))
+                .parseProgram().getStatements();
+        assertTrue(call(statements.get(0)).isQuote());
+        assertFalse(call(statements.get(1)).isQuote());
+        assertFalse(call(statements.get(2)).isQuote());
+    }
+
+    @Test
+    public void resetParserParsesLikeNewParser() {
+        Parser parser = new Parser(new Lexer("let = 1;"));
+        parser.parseProgram();
+        List<String> errors = parser.getErrors();
+        assertEquals(1, errors.size());
+
+        assertEquals(new Parser(new Lexer(SCRIPT)).parseProgram(), parser.reset(new Lexer(SCRIPT), false).parseProgram());
+        assertTrue(parser.getErrors().isEmpty());
+        // the errors of the previous source are kept by whoever got them
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void precedences() {
+        String script = "a = b or c and d == e < f + g * -h(i)[j]";
+        StatementNode statement = new Parser(new Lexer(script)).parseProgram().getStatements().get(0);
+        assertEquals("a = (b or (c and (d == (e < (f + (g * (-h(i)([j]))))))));",
+                ((ExpressionStatementNode) statement).getExpression().toString());
+    }
+
+    private static List<StatementNode> statements(Parser parser, List<Integer> failed) {
+        List<StatementNode> res = new ArrayList<>();
+        int errors = 0;
+        StatementNode statement;
+        while ((statement = parser.nextStatement()) != null) {
+            res.add(statement);
+            if (parser.getErrors().size() > errors) {
+                errors = parser.getErrors().size();
+                failed.add(res.size() - 1);
+            }
+        }
+        return res;
+    }
+
+    private static LetStatementNode let(StatementNode statement) {
+        return (LetStatementNode) statement;
+    }
+
+    private static CallExpressionNode call(StatementNode statement) {
+        return (CallExpressionNode) ((ExpressionStatementNode) statement).getExpression();
+    }
+
+    private static IntegerObject integer(StatementNode statement) {
+        return ((IntegerLiteralNode) ((ExpressionStatementNode) statement).getExpression()).getValue();
+    }
+
+    private static Source stream(String script) {
+        return Source.read(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,27 @@
+package interpreter.repl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReplTest {
+
+    @Test
+    public void scriptHasMoreLiteralsThanConstantPool() {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            script.append("let x = ").append(100000 + i).append(";\n");
+        }
+        script.append("print(x);");
+        assertEquals("169999\n", Scripts.run(ExecutionModeEnum.VM, script.toString()));
+    }
+
+    @Test
+    public void functionReadsConstantsOfItsOwnStatement() {
+        String script = "let mk = fn(a) { let r = fn(b) { a + b + 1000 }; r };\n"
+                + "let h = fn(q) { q * \"x\" };\n"
+                + "let k = fn(z) { \"lit\" };\n"
+                + "print(mk(5)(2), k(1));";
+        assertEquals("1007\nlit\n", Scripts.run(ExecutionModeEnum.VM, script));
+    }
+}
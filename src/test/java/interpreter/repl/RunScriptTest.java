@@ -0,0 +1,65 @@
+package interpreter.repl;
+
+import interpreter.ast.ProgramNode;
+import interpreter.eval.Environment;
+import interpreter.eval.Evaluator;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+import interpreter.resolver.Resolver;
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the statements of script run as soon as they are parsed, in every mode
+ */
+public class RunScriptTest {
+
+    @Test
+    public void statementsRunInOrder() {
+        assertInEveryMode("let x = 2; print(x);\nlet add = fn(a, b) { a + b };\nprint(add(x, 3));", "2\n5\n");
+    }
+
+    @Test
+    public void statementsBeforeSyntaxErrorRun() {
+        assertInEveryMode("print(1); let x = 2; print(x);\nlet y = ;\nprint(3);",
+                "1\n2\nno prefix parse function for ; found\nexit 1\n");
+    }
+
+    @Test
+    public void syntaxErrorInLazyBodyNeverCalled() {
+        String error = "expected next token to be IDENT, but got ASSIGN instead!";
+        // the statement with the body doesn't run
+        assertInEveryMode("print(1);\nlet f = fn(a) { let = 1; };\nprint(2);", "1\n" + error + "\nexit 1\n");
+        assertInEveryMode("print(1, fn() { let = 1; });\nprint(2);", error + "\nexit 1\n");
+    }
+
+    @Test
+    public void macroDefinedBeforeUse() {
+        String macro = "let reverse = macro(a, b) { quote(unquote(b) - unquote(a)); };\n";
+        assertInEveryMode(macro + "let r = reverse(2 + 2, 10 - 5); print(r);", "1\n");
+    }
+
+    @Test
+    public void returnOutOfFunctionsEndsScript() {
+        assertInEveryMode("print(1);\nif (true) { while (true) { return 2; } }\nprint(3);", "1\n");
+        assertInEveryMode("print(1);\nreturn 2;\nprint(3);", "1\n");
+    }
+
+    @Test
+    public void evaluatorReturnsValueOfReturn() {
+        ProgramNode program = new Parser(new Lexer("let x = 1; if (x > 0) { return x + 1; } x")).parseProgram();
+        new Resolver().resolve(program);
+        Evaluator evaluator = new Evaluator();
+        assertEquals("2", evaluator.eval(program, new Environment()).inspect());
+        assertTrue(evaluator.isReturned());
+
+        program = new Parser(new Lexer("let x = 1; x + 2")).parseProgram();
+        new Resolver().resolve(program);
+        assertEquals("3", evaluator.eval(program, new Environment()).inspect());
+        assertFalse(evaluator.isReturned());
+    }
+}
@@ -0,0 +1,43 @@
+package interpreter.repl;
+
+import interpreter.lexer.Source;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * run a script like the command line does, capturing what it prints
+ */
+public class Scripts {
+
+    /**
+     * @param mode
+     * @param script
+     * @return the lines printed by the script, followed by "exit 1" if the script fails
+     */
+    public static String run(ExecutionModeEnum mode, String script) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(out, true));
+        boolean succeeded;
+        try {
+            succeeded = new Repl(mode).runScript(Source.of(script));
+        } finally {
+            System.setOut(stdout);
+        }
+        return out.toString().replace("\r\n", "\n") + (succeeded ? "" : "exit 1\n");
+    }
+
+    /**
+     * run the script in every execution mode, each must print the same lines
+     * @param script
+     * @param expected the lines printed, followed by "exit 1" if the script fails
+     */
+    public static void assertInEveryMode(String script, String expected) {
+        for (ExecutionModeEnum mode : ExecutionModeEnum.values()) {
+            assertEquals(mode.name(), expected, run(mode, script));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package interpreter.resolver;
+
+import interpreter.ast.FunctionLiteralNode;
+import interpreter.ast.IdentifierNode;
+import interpreter.ast.LetStatementNode;
+import interpreter.ast.ProgramNode;
+import interpreter.ast.TreeNode;
+import interpreter.ast.TreeNodes;
+import interpreter.lexer.Lexer;
+import interpreter.parser.Parser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * the variables of functions are read by slot, the values are the same as the lookup by name,
+ * closures capture only the variables of the enclosing functions they reference
+ */
+public class ResolverTest {
+
+    @Test
+    public void slotsOfFunction() {
+        ProgramNode program = new Parser(new Lexer("let f = fn(a, b) { let c = a + b; c + x };")).parseProgram();
+        new Resolver().resolve(program);
+
+        LetStatementNode let = (LetStatementNode) program.getStatements().get(0);
+        FunctionLiteralNode function = (FunctionLiteralNode) let.getValue();
+        List<IdentifierNode> identifiers = new ArrayList<>();
+        collectIdentifiers(function.getBody(), identifiers);
+
+        // c = a + b; c + x
+        assertEquals("c a b c x", names(identifiers));
+        assertSlot(identifiers.get(0), 0, 2);
+        assertSlot(identifiers.get(1), 0, 0);
+        assertSlot(identifiers.get(2), 0, 1);
+        assertSlot(identifiers.get(3), 0, 2);
+        // the global is read by name, out of the frame
+        assertEquals(-1, identifiers.get(4).getSlot());
+        assertEquals(3, function.getFrameDescriptor().size());
+    }
+
+    @Test
+    public void outerVariableReadBeforeShadowed() {
+        assertInEveryMode("let x = 1; let f = fn() { let y = x; let x = 2; y + x }; print(f(), x);", "3\n1\n");
+    }
+
+    @Test
+    public void closures() {
+        String script = "let adder = fn(a) { let f = fn(b) { let h = fn(c) { a + b + c }; h }; f };\n"
+                + "print(adder(1)(2)(3));\n"
+                + "let counter = fn() { let n = 0; let inc = fn() { n = n + 1; n }; inc }; let c = counter(); c();\n"
+                + "print(c());";
+        // the assignment binds the variable in the scope of the function assigning it
+        assertInEveryMode(script, "6\n1\n");
+    }
+
+    @Test
+    public void closuresCaptureOnlyFreeVariables() {
+        ProgramNode program = new Parser(new Lexer(
+                "let outer = fn(a, big) { let n = 0; let mid = fn() { let inner = fn() { a + n }; inner }; let n = 1; mid };"))
+                .parseProgram();
+        new Resolver().resolve(program);
+
+        FunctionLiteralNode outer = (FunctionLiteralNode) ((LetStatementNode) program.getStatements().get(0)).getValue();
+        assertNull(outer.getFrameDescriptor().getCaptures());
+        // n is bound again after mid is created, so its slot is boxed, a is copied
+        FrameDescriptor frame = outer.getFrameDescriptor();
+        assertFalse(frame.isBoxed(frame.slotOf("a")));
+        assertFalse(frame.isBoxed(frame.slotOf("big")));
+        assertTrue(frame.isBoxed(frame.slotOf("n")));
+
+        List<FunctionLiteralNode> functions = new ArrayList<>();
+        collectFunctions(outer.getBody(), functions);
+        assertEquals(2, functions.size());
+        for (FunctionLiteralNode function : functions) {
+            // mid captures the variables of the inner function too, so the inner one copies them from it
+            CaptureDescriptor captures = function.getFrameDescriptor().getCaptures();
+            assertEquals(2, captures.size());
+            assertTrue(captures.slotOf("a") >= 0);
+            assertTrue(captures.slotOf("n") >= 0);
+            assertEquals(-1, captures.slotOf("big"));
+        }
+    }
+
+    @Test
+    public void capturedVariableBoundAgain() {
+        String script = "let make = fn() { let x = 1; let get = fn() { x }; let x = 2; get };\n"
+                + "print(make()());\n"
+                + "let even = fn(n) { let odd = fn(m) { if (m == 0) { false } else { isEven(m - 1) } };\n"
+                + "  let isEven = fn(m) { if (m == 0) { true } else { odd(m - 1) } }; isEven(n) };\n"
+                + "print(even(10), even(7));";
+        assertInEveryMode(script, "2\ntrue\nfalse\n");
+    }
+
+    @Test
+    public void recursionThroughGlobal() {
+        assertInEveryMode("let fib = fn(n) { if (n < 2) { n } else { fib(n - 1) + fib(n - 2) } }; print(fib(15));",
+                "610\n");
+    }
+
+    private static void assertSlot(IdentifierNode node, int depth, int slot) {
+        assertEquals(node.getValue(), depth, node.getDepth());
+        assertEquals(node.getValue(), slot, node.getSlot());
+    }
+
+    private static void collectIdentifiers(TreeNode node, List<IdentifierNode> identifiers) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof IdentifierNode) {
+            identifiers.add((IdentifierNode) node);
+        } else if (node instanceof LetStatementNode) {
+            identifiers.add(((LetStatementNode) node).getName());
+        }
+        for (TreeNode child : TreeNodes.children(node)) {
+            collectIdentifiers(child, identifiers);
+        }
+    }
+
+    private static void collectFunctions(TreeNode node, List<FunctionLiteralNode> functions) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof FunctionLiteralNode) {
+            functions.add((FunctionLiteralNode) node);
+        }
+        for (TreeNode child : TreeNodes.children(node)) {
+            collectFunctions(child, functions);
+        }
+    }
+
+    private static String names(List<IdentifierNode> identifiers) {
+        StringBuilder res = new StringBuilder();
+        for (IdentifierNode identifier : identifiers) {
+            res.append(res.length() == 0 ? "" : " ").append(identifier.getValue());
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package interpreter.vm;
+
+import org.junit.Test;
+
+import static interpreter.repl.Scripts.assertInEveryMode;
+
+/**
+ * the scripts print the same in every mode, the vm follows the evaluator
+ */
+public class VmTest {
+
+    @Test
+    public void returnInIfUsedAsValueDoesNotEndScript() {
+        assertInEveryMode("let y = if (true) { return 3; }; print(9); print(y);", "9\n3\n");
+    }
+
+    @Test
+    public void returnInIfUsedAsValueDoesNotEndFunction() {
+        assertInEveryMode("let f = fn() { let y = if (true) { return 3; }; 9 }; print(f());", "9\n");
+    }
+
+    @Test
+    public void returnInArrayElement() {
+        assertInEveryMode("let a = [1, if (true) { return 3; }]; print(a);", "[1,3]\n");
+    }
+
+    @Test
+    public void returnInWhileUsedAsOperand() {
+        assertInEveryMode("let y = while (true) { if (true) { return 3; } }; print(y + 1);",
+                "ERROR: type missmatch: RETURN + INTEGER\nexit 1\n");
+    }
+
+    @Test
+    public void returnInStatementEndsScript() {
+        assertInEveryMode("print(1); if (true) { while (true) { return 2; } } print(3);", "1\n");
+    }
+
+    @Test
+    public void returnInLoopOfFunction() {
+        String script = "let g = fn(x) { let i = 0; let r = 0 - 1; while (i < 10) { if (i == x) { return i * 2; } i = i + 1; } r };\n"
+                + "print(g(4), g(20));";
+        assertInEveryMode(script, "8\n-1\n");
+    }
+}